@@ -0,0 +1,70 @@
+package com.matt.employees.benchmarks;
+
+import com.matt.employees.events.EmployeeChangedEvent;
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.services.ActiveEmployeeIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures single employee lookups in the {@link ActiveEmployeeIndex} at several index sizes, on their own and while
+ * another thread keeps updating employees, which forces some of the optimistic reads to retry under the read lock.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ActiveEmployeeIndexBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int indexSize;
+
+    private ActiveEmployeeIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.index = new ActiveEmployeeIndex(null, true);
+        for (int i = 0; i < this.indexSize; i++) {
+            this.index.onEmployeeChanged(new EmployeeChangedEvent(employee(i, 0), EmployeeChangedEvent.Type.CREATED));
+        }
+    }
+
+    @Benchmark
+    @Group("read")
+    public Optional<Employee> getEmployee() {
+        return this.index.get(ThreadLocalRandom.current().nextInt(this.indexSize) + 1);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public Optional<Employee> getEmployeeWhileUpdating() {
+        return this.index.get(ThreadLocalRandom.current().nextInt(this.indexSize) + 1);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    public void updateEmployee(UpdateState state) {
+        int i = ThreadLocalRandom.current().nextInt(this.indexSize);
+        this.index.onEmployeeChanged(new EmployeeChangedEvent(employee(i, ++state.version),
+                EmployeeChangedEvent.Type.UPDATED));
+    }
+
+    @State(Scope.Thread)
+    public static class UpdateState {
+        long version;
+    }
+
+    private static Employee employee(int i, long version) {
+        return Employee.restore(i + 1L, SyntheticEmployeeFiles.firstName(i), SyntheticEmployeeFiles.middleInitial(i),
+                SyntheticEmployeeFiles.lastName(i), SyntheticEmployeeFiles.dateOfBirth(i),
+                SyntheticEmployeeFiles.dateOfEmployment(i), EmployeeStatus.ACTIVE, version, Instant.now());
+    }
+}
@@ -0,0 +1,29 @@
+package com.matt.employees.benchmarks;
+
+import com.matt.employees.EmployeesApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the full application for benchmarks that need the Spring context, on a random port and with logging turned
+ * down so it doesn't interfere with the JMH output.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {}
+
+    static ConfigurableApplicationContext start() {
+        return builder().run();
+    }
+
+    /**
+     * @return - a builder for the application with the benchmark defaults applied, for benchmarks that need to add
+     * their own sources or properties
+     */
+    static SpringApplicationBuilder builder() {
+        return new SpringApplicationBuilder(EmployeesApplication.class)
+                .properties("server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN");
+    }
+}
@@ -0,0 +1,93 @@
+package com.matt.employees.benchmarks;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Adds an artificial delay, set by {@code benchmark.db-latency-ms}, to every statement the application executes, to
+ * stand in for a slow or distant database. The delay is added while the statement holds its connection, so it ties up
+ * the connection pool the same way a slow query would.
+ *
+ * A separate delay, set by {@code benchmark.db-commit-latency-ms}, is added to every commit, to stand in for the time a
+ * database takes to make a transaction durable.
+ */
+@Configuration
+class DatabaseLatencyConfig {
+
+    @Bean
+    static BeanPostProcessor databaseLatencyPostProcessor(Environment environment) {
+        long latencyMillis = environment.getProperty("benchmark.db-latency-ms", Long.class, 0L);
+        long commitLatencyMillis = environment.getProperty("benchmark.db-commit-latency-ms", Long.class, 0L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ((latencyMillis > 0 || commitLatencyMillis > 0) && bean instanceof DataSource) {
+                    return proxy(DataSource.class, bean, (target, method, args) -> {
+                        Object result = invoke(target, method, args);
+                        return result instanceof Connection
+                                ? proxy(Connection.class, result, new ConnectionHandler(latencyMillis, commitLatencyMillis))
+                                : result;
+                    });
+                }
+                return bean;
+            }
+        };
+    }
+
+    private interface Handler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+
+    private static class ConnectionHandler implements Handler {
+
+        private final long latencyMillis;
+        private final long commitLatencyMillis;
+
+        ConnectionHandler(long latencyMillis, long commitLatencyMillis) {
+            this.latencyMillis = latencyMillis;
+            this.commitLatencyMillis = commitLatencyMillis;
+        }
+
+        @Override
+        public Object handle(Object target, Method method, Object[] args) throws Throwable {
+            if (this.commitLatencyMillis > 0 && method.getName().equals("commit")) {
+                Thread.sleep(this.commitLatencyMillis);
+            }
+            Object result = invoke(target, method, args);
+            if (this.latencyMillis == 0 || !(result instanceof Statement)) {
+                return result;
+            }
+            Class<?> statementType = method.getReturnType().isInterface() ? method.getReturnType() : Statement.class;
+            return proxy(statementType, result, (statement, statementMethod, statementArgs) -> {
+                if (statementMethod.getName().startsWith("execute")) {
+                    Thread.sleep(this.latencyMillis);
+                }
+                return invoke(statement, statementMethod, statementArgs);
+            });
+        }
+    }
+
+    private static Object proxy(Class<?> type, Object target, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+        return Proxy.newProxyInstance(DatabaseLatencyConfig.class.getClassLoader(), new Class<?>[] {type},
+                invocationHandler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.matt.employees.benchmarks;
+
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.repositories.EmployeeRepository;
+import com.matt.employees.services.EmployeeAnalytics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares answering hires by month from {@link EmployeeAnalytics} with the {@code GROUP BY} query it replaces, at
+ * several table sizes, along with a full rebuild of the counts. A quarter of the rows are inactive.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class EmployeeAnalyticsBenchmark {
+
+    private static final int INSERT_CHUNK_SIZE = 1000;
+
+    @Param({"10000", "100000"})
+    private int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeAnalytics analytics;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        this.context = BenchmarkApplication.start();
+        EmployeeRepository employeeRepository = this.context.getBean(EmployeeRepository.class);
+        employeeRepository.deleteAll();
+
+        List<Employee> chunk = new ArrayList<>(INSERT_CHUNK_SIZE);
+        for (int i = 0; i < this.tableSize; i++) {
+            EmployeeStatus status = i % 4 == 0 ? EmployeeStatus.INACTIVE : EmployeeStatus.ACTIVE;
+            chunk.add(new Employee(SyntheticEmployeeFiles.firstName(i), SyntheticEmployeeFiles.middleInitial(i),
+                    SyntheticEmployeeFiles.lastName(i), SyntheticEmployeeFiles.dateOfBirth(i),
+                    SyntheticEmployeeFiles.dateOfEmployment(i), status));
+            if (chunk.size() == INSERT_CHUNK_SIZE || i == this.tableSize - 1) {
+                employeeRepository.saveAll(chunk);
+                chunk.clear();
+            }
+        }
+
+        this.analytics = this.context.getBean(EmployeeAnalytics.class);
+        this.analytics.rebuild();
+        this.jdbcTemplate = this.context.getBean(JdbcTemplate.class);
+        // otherwise H2 hands back the previous result of the same query while the table is unchanged
+        this.jdbcTemplate.execute("SET OPTIMIZE_REUSE_RESULTS 0");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public Map<String, Long> hiresByMonth() {
+        return this.analytics.hires(EmployeeAnalytics.Period.MONTH, null);
+    }
+
+    @Benchmark
+    public Map<String, Long> hiresByMonthGroupBy() {
+        Map<String, Long> hires = new HashMap<>();
+        this.jdbcTemplate.query("SELECT FORMATDATETIME(date_of_employment, 'yyyy-MM') AS month, COUNT(*) AS hires "
+                + "FROM employee GROUP BY month", resultSet -> {
+            hires.put(resultSet.getString("month"), resultSet.getLong("hires"));
+        });
+        return hires;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public Object rebuild() throws InterruptedException {
+        return this.analytics.rebuild();
+    }
+}
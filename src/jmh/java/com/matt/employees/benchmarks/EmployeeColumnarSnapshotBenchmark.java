@@ -0,0 +1,107 @@
+package com.matt.employees.benchmarks;
+
+import com.matt.employees.events.EmployeeChangedEvent;
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeScanResult;
+import com.matt.employees.models.EmployeeSearch;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.services.EmployeeColumnarSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures scans of the {@link EmployeeColumnarSnapshot} against filtering an in-memory array of employee objects with
+ * a parallel stream, which is the best a row-oriented scan like {@code findByStatus} followed by filtering could do
+ * once the rows had been read. A quarter of the employees are inactive. First names are drawn from 20,000 and last
+ * names from 5,000, so the name dictionaries stay small as they would with real names.
+ *
+ * The date scan asks for active employees born in the 1970s and hired from 2010, which matches around 7% of them; the
+ * name scan adds a last name prefix that narrows that to around 2%.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EmployeeColumnarSnapshotBenchmark {
+
+    private static final EmployeeSearch DATE_SEARCH = new EmployeeSearch(null, null, LocalDate.parse("1970-01-01"),
+            LocalDate.parse("1979-12-31"), LocalDate.parse("2010-01-01"), null);
+    private static final EmployeeSearch NAME_SEARCH = new EmployeeSearch(null, "last1", LocalDate.parse("1970-01-01"),
+            LocalDate.parse("1979-12-31"), LocalDate.parse("2010-01-01"), null);
+
+    @Param({"1000000", "10000000"})
+    private int rows;
+
+    @State(Scope.Benchmark)
+    public static class Columns {
+
+        private EmployeeColumnarSnapshot snapshot;
+
+        @Setup(Level.Trial)
+        public void setup(EmployeeColumnarSnapshotBenchmark benchmark) {
+            this.snapshot = new EmployeeColumnarSnapshot(null, true);
+            for (int i = 0; i < benchmark.rows; i++) {
+                this.snapshot.onEmployeeChanged(new EmployeeChangedEvent(employee(i),
+                        EmployeeChangedEvent.Type.CREATED));
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Rows {
+
+        private Employee[] employees;
+
+        @Setup(Level.Trial)
+        public void setup(EmployeeColumnarSnapshotBenchmark benchmark) {
+            this.employees = new Employee[benchmark.rows];
+            for (int i = 0; i < benchmark.rows; i++) {
+                this.employees[i] = employee(i);
+            }
+        }
+    }
+
+    @Benchmark
+    public EmployeeScanResult scanDates(Columns columns) {
+        return columns.snapshot.scan(EmployeeStatus.ACTIVE, DATE_SEARCH, 100);
+    }
+
+    @Benchmark
+    public EmployeeScanResult scanNamesAndDates(Columns columns) {
+        return columns.snapshot.scan(EmployeeStatus.ACTIVE, NAME_SEARCH, 100);
+    }
+
+    @Benchmark
+    public long filterRowsByDates(Rows rows) {
+        return Arrays.stream(rows.employees).parallel().filter(employee -> matches(employee, DATE_SEARCH)).count();
+    }
+
+    @Benchmark
+    public long filterRowsByNamesAndDates(Rows rows) {
+        return Arrays.stream(rows.employees).parallel().filter(employee -> matches(employee, NAME_SEARCH)).count();
+    }
+
+    private static boolean matches(Employee employee, EmployeeSearch search) {
+        return employee.getStatus() == EmployeeStatus.ACTIVE
+                && (search.getLastNamePrefix() == null || employee.getLastName().toLowerCase(Locale.ROOT)
+                        .startsWith(search.getLastNamePrefix()))
+                && employee.getDateOfBirth() != null
+                && !employee.getDateOfBirth().isBefore(search.getBornFrom())
+                && !employee.getDateOfBirth().isAfter(search.getBornTo())
+                && employee.getDateOfEmployment() != null
+                && !employee.getDateOfEmployment().isBefore(search.getHiredFrom());
+    }
+
+    private static Employee employee(int i) {
+        return Employee.restore(i + 1L, SyntheticEmployeeFiles.firstName(i % 20000),
+                SyntheticEmployeeFiles.middleInitial(i), SyntheticEmployeeFiles.lastName(i),
+                SyntheticEmployeeFiles.dateOfBirth(i), SyntheticEmployeeFiles.dateOfEmployment(i),
+                i % 4 == 0 ? EmployeeStatus.INACTIVE : EmployeeStatus.ACTIVE, 0L, null);
+    }
+}
@@ -0,0 +1,86 @@
+package com.matt.employees.benchmarks;
+
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.repositories.EmployeeRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+/**
+ * Measures requests end to end through the Spring MVC and security filter chain using MockMvc, so everything except
+ * the servlet container's own socket handling is included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EmployeeControllerBenchmark {
+
+    private static final String NEW_EMPLOYEE_JSON = "{\"firstName\":\"Lucille\",\"middleInitial\":\"A\","
+            + "\"lastName\":\"Bluth\",\"dateOfBirth\":\"1940-05-05\",\"dateOfEmployment\":\"2018-02-01\"}";
+
+    @Param({"10000"})
+    private int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.context = BenchmarkApplication.start();
+        this.mockMvc = webAppContextSetup((WebApplicationContext) this.context).apply(springSecurity()).build();
+
+        EmployeeRepository employeeRepository = this.context.getBean(EmployeeRepository.class);
+        employeeRepository.deleteAll();
+        List<Employee> employees = new ArrayList<>(this.tableSize);
+        for (int i = 0; i < this.tableSize; i++) {
+            employees.add(new Employee(SyntheticEmployeeFiles.firstName(i), SyntheticEmployeeFiles.middleInitial(i),
+                    SyntheticEmployeeFiles.lastName(i), SyntheticEmployeeFiles.dateOfBirth(i),
+                    SyntheticEmployeeFiles.dateOfEmployment(i), EmployeeStatus.ACTIVE));
+        }
+        List<Long> ids = new ArrayList<>(this.tableSize);
+        employeeRepository.saveAll(employees).forEach(employee -> ids.add(employee.getId()));
+        this.ids = ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public MvcResult getEmployees() throws Exception {
+        return this.mockMvc.perform(get("/employees")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getEmployee() throws Exception {
+        long id = this.ids[ThreadLocalRandom.current().nextInt(this.ids.length)];
+        return this.mockMvc.perform(get("/employees/" + id)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult addEmployee() throws Exception {
+        return this.mockMvc.perform(post("/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(NEW_EMPLOYEE_JSON))
+                .andReturn();
+    }
+}
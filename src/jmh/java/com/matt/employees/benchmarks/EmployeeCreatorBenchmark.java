@@ -0,0 +1,74 @@
+package com.matt.employees.benchmarks;
+
+import com.matt.employees.strategies.CsvEmployeeCreator;
+import com.matt.employees.strategies.FixedWidthEmployeeCreator;
+import com.matt.employees.strategies.JsonEmployeeCreator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the Jackson streaming JSON creator with the memory mapped CSV and fixed-width creators on the same synthetic
+ * data set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EmployeeCreatorBenchmark {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @Param({"100000"})
+    private int rows;
+
+    private Path directory;
+    private Path jsonFile;
+    private Path csvFile;
+    private Path fixedWidthFile;
+
+    private JsonEmployeeCreator jsonCreator;
+    private CsvEmployeeCreator csvCreator;
+    private FixedWidthEmployeeCreator fixedWidthCreator;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.directory = Files.createTempDirectory("employee-creator-benchmark");
+        this.jsonFile = SyntheticEmployeeFiles.writeJson(this.directory.resolve("employees.json"), this.rows);
+        this.csvFile = SyntheticEmployeeFiles.writeCsv(this.directory.resolve("employees.csv"), this.rows);
+        this.fixedWidthFile = SyntheticEmployeeFiles.writeFixedWidth(this.directory.resolve("employees.dat"), this.rows);
+
+        this.jsonCreator = new JsonEmployeeCreator();
+        this.csvCreator = new CsvEmployeeCreator();
+        this.fixedWidthCreator = new FixedWidthEmployeeCreator();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.jsonFile);
+        Files.deleteIfExists(this.csvFile);
+        Files.deleteIfExists(this.fixedWidthFile);
+        Files.deleteIfExists(this.directory);
+    }
+
+    @Benchmark
+    public long json(Blackhole blackhole) throws IOException {
+        return this.jsonCreator.createEmployees(this.jsonFile.toString(), CHUNK_SIZE, blackhole::consume);
+    }
+
+    @Benchmark
+    public long csv(Blackhole blackhole) throws IOException {
+        return this.csvCreator.createEmployees(this.csvFile.toString(), CHUNK_SIZE, blackhole::consume);
+    }
+
+    @Benchmark
+    public long fixedWidth(Blackhole blackhole) throws IOException {
+        return this.fixedWidthCreator.createEmployees(this.fixedWidthFile.toString(), CHUNK_SIZE, blackhole::consume);
+    }
+}
@@ -0,0 +1,67 @@
+package com.matt.employees.benchmarks;
+
+import com.matt.employees.models.Employee;
+import com.matt.employees.strategies.CsvEmployeeCreator;
+import com.matt.employees.strategies.EmployeeCreatorManager;
+import com.matt.employees.strategies.FixedWidthEmployeeCreator;
+import com.matt.employees.strategies.JsonEmployeeCreator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link EmployeeCreatorManager#createEmployees(String)}, which picks a creator by file extension and collects
+ * every employee in the file into a list, for each supported file type.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class EmployeeCreatorManagerBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int rows;
+
+    @Param({"json", "csv", "dat"})
+    private String fileType;
+
+    private Path directory;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        EmployeeCreatorManager.getInstance().registerCreator("json", new JsonEmployeeCreator());
+        EmployeeCreatorManager.getInstance().registerCreator("csv", new CsvEmployeeCreator());
+        EmployeeCreatorManager.getInstance().registerCreator("dat", new FixedWidthEmployeeCreator());
+
+        this.directory = Files.createTempDirectory("employee-creator-manager-benchmark");
+        Path target = this.directory.resolve("employees." + this.fileType);
+        switch (this.fileType) {
+            case "json":
+                this.file = SyntheticEmployeeFiles.writeJson(target, this.rows);
+                break;
+            case "csv":
+                this.file = SyntheticEmployeeFiles.writeCsv(target, this.rows);
+                break;
+            default:
+                this.file = SyntheticEmployeeFiles.writeFixedWidth(target, this.rows);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.file);
+        Files.deleteIfExists(this.directory);
+    }
+
+    @Benchmark
+    public List<Employee> createEmployees() {
+        return EmployeeCreatorManager.getInstance().createEmployees(this.file.toString());
+    }
+}
@@ -0,0 +1,109 @@
+package com.matt.employees.benchmarks;
+
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.repositories.EmployeeRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test comparing the {@code BLOCKING} and {@code ASYNC} execution modes over real HTTP with artificial database
+ * latency. Tomcat is limited to a small number of threads, and most client threads request employees (which go to the
+ * database every time, as caching is turned off) while the rest hit the info endpoint (which doesn't touch the
+ * database at all).
+ *
+ * In {@code BLOCKING} mode the slow requests hold Tomcat's threads while they wait on the database, so info requests
+ * queue behind them; in {@code ASYNC} mode Tomcat's threads are handed straight back and info requests stay fast.
+ * Employee throughput is bounded by the connection pool in both modes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class EmployeeExecutionLoadBenchmark {
+
+    private static final int EMPLOYEES = 1000;
+
+    @Param({"BLOCKING", "ASYNC"})
+    private String mode;
+
+    @Param({"0", "20"})
+    private int dbLatencyMs;
+
+    private ConfigurableApplicationContext context;
+    private String baseUrl;
+    private long firstId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // Passed as arguments so they take precedence over application.properties
+        this.context = BenchmarkApplication.builder()
+                .sources(DatabaseLatencyConfig.class)
+                .run("--employees.execution.mode=" + this.mode,
+                        "--benchmark.db-latency-ms=" + this.dbLatencyMs,
+                        "--spring.cache.type=none",
+                        "--server.tomcat.max-threads=32",
+                        // Every client thread calls from the same address, and this compares the modes unthrottled.
+                        "--employees.rate-limit.enabled=false");
+        this.baseUrl = "http://localhost:"
+                + ((WebServerApplicationContext) this.context).getWebServer().getPort();
+
+        EmployeeRepository employeeRepository = this.context.getBean(EmployeeRepository.class);
+        employeeRepository.deleteAll();
+        for (int i = 0; i < EMPLOYEES; i++) {
+            Employee employee = employeeRepository.save(new Employee(SyntheticEmployeeFiles.firstName(i),
+                    SyntheticEmployeeFiles.middleInitial(i), SyntheticEmployeeFiles.lastName(i),
+                    SyntheticEmployeeFiles.dateOfBirth(i), SyntheticEmployeeFiles.dateOfEmployment(i),
+                    EmployeeStatus.ACTIVE));
+            if (i == 0) {
+                this.firstId = employee.getId();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(48)
+    public int getEmployee() throws IOException {
+        long id = this.firstId + ThreadLocalRandom.current().nextInt(EMPLOYEES);
+        return get("/employees/" + id);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(16)
+    public int info() throws IOException {
+        return get("/actuator/info");
+    }
+
+    private int get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(this.baseUrl + path).openConnection();
+        int status = connection.getResponseCode();
+        // Read the body fully so the connection can be reused
+        try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            if (body != null) {
+                byte[] buffer = new byte[8192];
+                while (body.read(buffer) != -1) {
+                    // discard
+                }
+            }
+        }
+        return status;
+    }
+}
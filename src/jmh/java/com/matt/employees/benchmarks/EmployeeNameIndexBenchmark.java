@@ -0,0 +1,89 @@
+package com.matt.employees.benchmarks;
+
+import com.matt.employees.events.EmployeeChangedEvent;
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeNameMatch;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.services.EmployeeNameIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the latency of typo tolerant searches in the {@link EmployeeNameIndex}, so the percentiles can be read off
+ * the results. The names are made up of random syllables rather than numbered like the other benchmarks' employees,
+ * which would share long prefixes and make the index's pruning look better than it is with real names. Each search
+ * is a first and last name of an indexed employee with a typo in each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class EmployeeNameIndexBenchmark {
+
+    private static final String[] SYLLABLES = {
+            "an", "ber", "ca", "dro", "el", "fa", "gus", "hen", "ia", "jo", "ka", "li", "mar", "na", "ol", "pe",
+            "ra", "sa", "ton", "u", "vi", "wen", "xa", "yo", "zi", "bel", "cor", "den", "mi", "ro"
+    };
+
+    private static final int QUERIES = 1024;
+
+    @Param({"10000", "1000000"})
+    private int indexSize;
+
+    private EmployeeNameIndex index;
+    private String[] queries;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        this.index = new EmployeeNameIndex(null, true);
+        String[] firstNames = new String[this.indexSize];
+        String[] lastNames = new String[this.indexSize];
+        for (int i = 0; i < this.indexSize; i++) {
+            // Around 28,000 possible first names and 840,000 last names, so both common and rare names turn up.
+            firstNames[i] = name(random, 2 + random.nextInt(2));
+            lastNames[i] = name(random, 2 + random.nextInt(3));
+            Employee employee = Employee.restore(i + 1L, firstNames[i], SyntheticEmployeeFiles.middleInitial(i),
+                    lastNames[i], null, null, EmployeeStatus.ACTIVE, 0L, null);
+            this.index.onEmployeeChanged(new EmployeeChangedEvent(employee, EmployeeChangedEvent.Type.CREATED));
+        }
+
+        this.queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            int employee = random.nextInt(this.indexSize);
+            this.queries[i] = typo(random, firstNames[employee]) + " " + typo(random, lastNames[employee]);
+        }
+    }
+
+    @Benchmark
+    public List<EmployeeNameMatch> search() {
+        return this.index.search(this.queries[ThreadLocalRandom.current().nextInt(QUERIES)], 10);
+    }
+
+    private static String name(Random random, int syllables) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    // Swaps, drops or doubles one character.
+    private static String typo(Random random, String name) {
+        int i = 1 + random.nextInt(name.length() - 1);
+        switch (random.nextInt(3)) {
+            case 0:
+                return name.substring(0, i - 1) + name.charAt(i) + name.charAt(i - 1) + name.substring(i + 1);
+            case 1:
+                return name.substring(0, i) + name.substring(i + 1);
+            default:
+                return name.substring(0, i) + name.charAt(i) + name.substring(i);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.matt.employees.benchmarks;
+
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeField;
+import com.matt.employees.models.EmployeeFilter;
+import com.matt.employees.models.EmployeeSearch;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.models.EmployeeSummary;
+import com.matt.employees.repositories.EmployeeRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.Tuple;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link EmployeeRepository} lookups used by the service against the embedded H2 database at several
+ * table sizes. A quarter of the rows are inactive so the status predicate has something to filter out.
+ *
+ * The search benchmarks fetch a page of 100 summaries for a random last name prefix matching about 1 in 450 rows, and
+ * for a random month of employment dates.
+ *
+ * The page benchmarks fetch a page of 100 employees from a random cursor, once as entities and once as tuples of just
+ * the ID and names, as {@code GET /employees?fields=id,firstName,lastName} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class EmployeeRepositoryBenchmark {
+
+    private static final int INSERT_CHUNK_SIZE = 1000;
+    private static final int SEARCH_LIMIT = 100;
+    private static final int PAGE_LIMIT = 100;
+    private static final Set<EmployeeField> NAME_FIELDS =
+            EnumSet.of(EmployeeField.ID, EmployeeField.FIRST_NAME, EmployeeField.LAST_NAME);
+
+    @Param({"1000", "10000", "100000"})
+    private int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeRepository employeeRepository;
+    private long[] activeIds;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.context = BenchmarkApplication.start();
+        this.employeeRepository = this.context.getBean(EmployeeRepository.class);
+        this.employeeRepository.deleteAll();
+
+        List<Long> ids = new ArrayList<>();
+        List<Employee> chunk = new ArrayList<>(INSERT_CHUNK_SIZE);
+        for (int i = 0; i < this.tableSize; i++) {
+            EmployeeStatus status = i % 4 == 0 ? EmployeeStatus.INACTIVE : EmployeeStatus.ACTIVE;
+            chunk.add(new Employee(SyntheticEmployeeFiles.firstName(i), SyntheticEmployeeFiles.middleInitial(i),
+                    SyntheticEmployeeFiles.lastName(i), SyntheticEmployeeFiles.dateOfBirth(i),
+                    SyntheticEmployeeFiles.dateOfEmployment(i), status));
+            if (chunk.size() == INSERT_CHUNK_SIZE || i == this.tableSize - 1) {
+                for (Employee employee : this.employeeRepository.saveAll(chunk)) {
+                    if (employee.getStatus() == EmployeeStatus.ACTIVE) {
+                        ids.add(employee.getId());
+                    }
+                }
+                chunk.clear();
+            }
+        }
+        this.activeIds = ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public Collection<Employee> findByStatus() {
+        return this.employeeRepository.findByStatus(EmployeeStatus.ACTIVE);
+    }
+
+    @Benchmark
+    public Optional<Employee> findByIdAndStatus() {
+        long id = this.activeIds[ThreadLocalRandom.current().nextInt(this.activeIds.length)];
+        return this.employeeRepository.findByIdAndStatus(id, EmployeeStatus.ACTIVE);
+    }
+
+    @Benchmark
+    public List<EmployeeSummary> searchByLastNamePrefix() {
+        String prefix = "last" + (ThreadLocalRandom.current().nextInt(400) + 100);
+        return this.employeeRepository.search(EmployeeStatus.ACTIVE,
+                new EmployeeSearch(null, prefix, null, null, null, null), null, SEARCH_LIMIT);
+    }
+
+    @Benchmark
+    public List<EmployeeSummary> searchByHireDateRange() {
+        LocalDate hiredFrom = SyntheticEmployeeFiles.dateOfEmployment(ThreadLocalRandom.current().nextInt(6000));
+        return this.employeeRepository.search(EmployeeStatus.ACTIVE,
+                new EmployeeSearch(null, null, null, null, hiredFrom, hiredFrom.plusMonths(1)), null, SEARCH_LIMIT);
+    }
+
+    @Benchmark
+    public List<Employee> findPage() {
+        return this.employeeRepository.findPage(EmployeeStatus.ACTIVE, randomCursor(), PAGE_LIMIT,
+                EmployeeFilter.none());
+    }
+
+    @Benchmark
+    public List<Tuple> findPageFields() {
+        return this.employeeRepository.findPageFields(EmployeeStatus.ACTIVE, randomCursor(), PAGE_LIMIT,
+                EmployeeFilter.none(), NAME_FIELDS);
+    }
+
+    private long randomCursor() {
+        return this.activeIds[ThreadLocalRandom.current().nextInt(this.activeIds.length)];
+    }
+}
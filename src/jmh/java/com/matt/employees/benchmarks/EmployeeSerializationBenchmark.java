@@ -0,0 +1,99 @@
+package com.matt.employees.benchmarks;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.utilities.WireFormat;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Jackson serialization and deserialization of {@link Employee}, including the {@code @JsonFormat} annotated
+ * LocalDate fields, for a single employee and for a page of employees, in each {@link WireFormat}. The mappers are built
+ * the same way Spring builds the ones used by the message converters. The encoded sizes are printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EmployeeSerializationBenchmark {
+
+    @Param({"100"})
+    private int pageSize;
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    private WireFormat format;
+
+    private ObjectWriter employeeWriter;
+    private ObjectReader employeeReader;
+    private ObjectWriter pageWriter;
+    private ObjectReader pageReader;
+
+    private Employee employee;
+    private byte[] employeeJson;
+    private List<Employee> page;
+    private byte[] pageBytes;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = objectMapper(this.format);
+        JavaType pageType = objectMapper.getTypeFactory().constructCollectionType(List.class, Employee.class);
+        this.employeeWriter = objectMapper.writerFor(Employee.class);
+        this.employeeReader = objectMapper.readerFor(Employee.class);
+        this.pageWriter = objectMapper.writerFor(pageType);
+        this.pageReader = objectMapper.readerFor(pageType);
+
+        this.page = new ArrayList<>(this.pageSize);
+        for (int i = 0; i < this.pageSize; i++) {
+            this.page.add(new Employee(SyntheticEmployeeFiles.firstName(i), SyntheticEmployeeFiles.middleInitial(i),
+                    SyntheticEmployeeFiles.lastName(i), SyntheticEmployeeFiles.dateOfBirth(i),
+                    SyntheticEmployeeFiles.dateOfEmployment(i), EmployeeStatus.ACTIVE));
+        }
+        this.employee = this.page.get(0);
+        this.employeeJson = this.employeeWriter.writeValueAsBytes(this.employee);
+        this.pageBytes = this.pageWriter.writeValueAsBytes(this.page);
+        System.out.println(this.format + ": " + this.employeeJson.length + " bytes per employee, "
+                + this.pageBytes.length + " bytes per page of " + this.pageSize);
+    }
+
+    private static ObjectMapper objectMapper(WireFormat format) {
+        switch (format) {
+            case SMILE:
+                return Jackson2ObjectMapperBuilder.smile().build().registerModule(WireFormat.epochDayModule());
+            case CBOR:
+                return Jackson2ObjectMapperBuilder.cbor().build().registerModule(WireFormat.epochDayModule());
+            default:
+                return Jackson2ObjectMapperBuilder.json().build();
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeEmployee() throws IOException {
+        return this.employeeWriter.writeValueAsBytes(this.employee);
+    }
+
+    @Benchmark
+    public Employee deserializeEmployee() throws IOException {
+        return this.employeeReader.readValue(this.employeeJson);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws IOException {
+        return this.pageWriter.writeValueAsBytes(this.page);
+    }
+
+    @Benchmark
+    public List<Employee> deserializePage() throws IOException {
+        return this.pageReader.readValue(this.pageBytes);
+    }
+}
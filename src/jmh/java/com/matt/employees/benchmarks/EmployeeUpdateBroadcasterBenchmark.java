@@ -0,0 +1,72 @@
+package com.matt.employees.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matt.employees.events.EmployeeChangedEvent;
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.services.EmployeeUpdateBroadcaster;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what a change costs the thread that made it when there are many subscribers to
+ * {@link EmployeeUpdateBroadcaster}: serializing the update once and offering it to every subscriber's queue. Each
+ * subscriber either follows every employee, so every change is queued for all of them, or follows a single employee,
+ * so a change is only matched against their filters. Subscribers discard what they're sent, so the delivery threads
+ * keep up and nobody is dropped.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EmployeeUpdateBroadcasterBenchmark {
+
+    @Param({"100", "10000"})
+    private int subscribers;
+
+    @Param({"all", "one"})
+    private String follow;
+
+    private EmployeeUpdateBroadcaster broadcaster;
+    private long version;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        this.broadcaster = new EmployeeUpdateBroadcaster(objectMapper, new SimpleMeterRegistry(), true,
+                this.subscribers, 1000, 2, 3600, 0, 5000);
+        this.broadcaster.start();
+        for (long i = 0; i < this.subscribers; i++) {
+            this.broadcaster.subscribe(new DiscardingEmitter(), null,
+                    this.follow.equals("all") ? null : Collections.singleton(i + 2));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.broadcaster.stop();
+    }
+
+    @Benchmark
+    public void publish() {
+        Employee employee = Employee.restore(1L, "Lucille", "A", "Bluth", LocalDate.parse("1940-05-05"),
+                LocalDate.parse("2018-02-01"), EmployeeStatus.ACTIVE, this.version++, null);
+        this.broadcaster.onEmployeeChanged(new EmployeeChangedEvent(employee, EmployeeChangedEvent.Type.UPDATED));
+    }
+
+    private static final class DiscardingEmitter extends SseEmitter {
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            builder.build();
+        }
+    }
+}
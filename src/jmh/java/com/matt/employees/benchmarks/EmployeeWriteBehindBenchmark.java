@@ -0,0 +1,101 @@
+package com.matt.employees.benchmarks;
+
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.services.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the rate single employee writes are acknowledged at with and without the write-behind buffer, with an
+ * artificial delay on every database commit standing in for the time the database takes to make a transaction durable.
+ *
+ * Each thread creates employees and updates an employee of its own, through {@link EmployeeService} as the controller
+ * would. Without the buffer every write waits for its own commit, so throughput is bounded by the commit delay and the
+ * connection pool; with it writes wait for a force of the local log shared with every other thread writing at the same
+ * time, and commits happen in the background once per batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(32)
+@Fork(1)
+public class EmployeeWriteBehindBenchmark {
+
+    @Param({"false", "true"})
+    private boolean writeBehind;
+
+    @Param({"0", "5"})
+    private int commitLatencyMs;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private Path logDirectory;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.logDirectory = Files.createTempDirectory("write-behind-benchmark");
+        this.context = BenchmarkApplication.builder()
+                .sources(DatabaseLatencyConfig.class)
+                .run("--employees.write-behind.enabled=" + this.writeBehind,
+                        "--employees.write-behind.directory=" + this.logDirectory,
+                        "--benchmark.db-commit-latency-ms=" + this.commitLatencyMs);
+        this.employeeService = this.context.getBean(EmployeeService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.context.close();
+        Files.deleteIfExists(this.logDirectory);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        private Long employeeId;
+
+        @Setup(Level.Trial)
+        public void setup(EmployeeWriteBehindBenchmark benchmark) {
+            this.employeeId = benchmark.create().getId();
+        }
+    }
+
+    @Benchmark
+    public Employee create() {
+        int i = this.counter.getAndIncrement();
+        return this.employeeService.save(new Employee(SyntheticEmployeeFiles.firstName(i),
+                SyntheticEmployeeFiles.middleInitial(i), SyntheticEmployeeFiles.lastName(i),
+                SyntheticEmployeeFiles.dateOfBirth(i), SyntheticEmployeeFiles.dateOfEmployment(i),
+                EmployeeStatus.ACTIVE));
+    }
+
+    @Benchmark
+    public Employee update(ThreadState state) {
+        Employee employee = this.employeeService.getActiveEmployeeForUpdate(state.employeeId).get();
+        employee.setDateOfEmployment(LocalDate.ofEpochDay(this.counter.getAndIncrement() % 20000));
+        return this.employeeService.save(employee);
+    }
+}
@@ -0,0 +1,75 @@
+package com.matt.employees.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.utilities.GzipCompressor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares gzipping a page of employees as JSON with a pooled {@link GzipCompressor}, as the response compression
+ * filter does, against a new {@link GZIPOutputStream} per response. The compressed size is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ResponseCompressionBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private byte[] page;
+    private GzipCompressor.Pool compressors;
+    private ByteArrayOutputStream out;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        List<Employee> employees = new ArrayList<>(this.pageSize);
+        for (int i = 0; i < this.pageSize; i++) {
+            employees.add(new Employee(SyntheticEmployeeFiles.firstName(i), SyntheticEmployeeFiles.middleInitial(i),
+                    SyntheticEmployeeFiles.lastName(i), SyntheticEmployeeFiles.dateOfBirth(i),
+                    SyntheticEmployeeFiles.dateOfEmployment(i), EmployeeStatus.ACTIVE));
+        }
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        this.page = objectMapper.writeValueAsBytes(employees);
+        this.compressors = new GzipCompressor.Pool(6, 8192, 4);
+        this.out = new ByteArrayOutputStream(this.page.length);
+
+        System.out.println(this.pageSize + " employees: " + this.page.length + " bytes, "
+                + pooledCompressor().length + " gzipped");
+    }
+
+    @Benchmark
+    public byte[] pooledCompressor() throws IOException {
+        this.out.reset();
+        GzipCompressor compressor = this.compressors.acquire();
+        try {
+            compressor.start(this.out);
+            compressor.write(this.page, 0, this.page.length);
+            compressor.finish();
+        } finally {
+            compressor.release();
+        }
+        return this.out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] gzipOutputStream() throws IOException {
+        this.out.reset();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(this.out, 8192)) {
+            gzip.write(this.page);
+        }
+        return this.out.toByteArray();
+    }
+}
@@ -0,0 +1,71 @@
+package com.matt.employees.benchmarks;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Writes synthetic employee data files in each of the formats we can load, for use by benchmarks.
+ */
+final class SyntheticEmployeeFiles {
+
+    private SyntheticEmployeeFiles() {}
+
+    static Path writeJson(Path file, int rows) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            writer.println("[");
+            for (int i = 0; i < rows; i++) {
+                writer.print("{\"firstName\":\"" + firstName(i) + "\",\"middleInitial\":\"" + middleInitial(i)
+                        + "\",\"lastName\":\"" + lastName(i) + "\",\"dateOfBirth\":\"" + dateOfBirth(i)
+                        + "\",\"dateOfEmployment\":\"" + dateOfEmployment(i) + "\",\"status\":\"ACTIVE\"}");
+                writer.println(i < rows - 1 ? "," : "");
+            }
+            writer.println("]");
+        }
+        return file;
+    }
+
+    static Path writeCsv(Path file, int rows) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            writer.println("firstName,middleInitial,lastName,dateOfBirth,dateOfEmployment,status");
+            for (int i = 0; i < rows; i++) {
+                writer.println(firstName(i) + "," + middleInitial(i) + "," + lastName(i) + "," + dateOfBirth(i) + ","
+                        + dateOfEmployment(i) + ",ACTIVE");
+            }
+        }
+        return file;
+    }
+
+    static Path writeFixedWidth(Path file, int rows) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            for (int i = 0; i < rows; i++) {
+                writer.println(String.format("%-20s%-1s%-20s%s%s%-8s", firstName(i), middleInitial(i), lastName(i),
+                        dateOfBirth(i), dateOfEmployment(i), "ACTIVE"));
+            }
+        }
+        return file;
+    }
+
+    static String firstName(int i) {
+        return "First" + i;
+    }
+
+    static String middleInitial(int i) {
+        return String.valueOf((char) ('A' + i % 26));
+    }
+
+    static String lastName(int i) {
+        return "Last" + (i % 5000);
+    }
+
+    static LocalDate dateOfBirth(int i) {
+        return LocalDate.of(1950, 1, 1).plusDays(i % 18000);
+    }
+
+    static LocalDate dateOfEmployment(int i) {
+        return LocalDate.of(2000, 1, 1).plusDays(i % 6000);
+    }
+}
@@ -0,0 +1,17 @@
+package com.matt.employees.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enable Spring's caching annotations. The caches themselves are Caffeine caches configured through the
+ * {@code spring.cache.*} application properties, and their hit, miss and eviction counts are published as
+ * {@code cache.*} metrics on the actuator metrics endpoint.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Active employees looked up by ID. Lookups for IDs that don't belong to an active employee are cached too.
+    public static final String ACTIVE_EMPLOYEES_CACHE = "activeEmployees";
+}
@@ -0,0 +1,94 @@
+package com.matt.employees.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Handles controller methods that return a {@link CompletionStage} which has already completed by the time the method
+ * returns, by handling its result straight away as if the method had returned it directly. Spring MVC would otherwise
+ * start asynchronous processing and dispatch the request a second time just to write a result that's already there.
+ *
+ * Stages that haven't completed yet are passed on to Spring MVC's own asynchronous handling.
+ */
+public class CompletedFutureReturnValueHandler implements HandlerMethodReturnValueHandler {
+
+    private final HandlerMethodReturnValueHandler delegate;
+
+    /**
+     * @param delegate - the standard return value handlers, used to handle both completed results and pending stages
+     */
+    public CompletedFutureReturnValueHandler(HandlerMethodReturnValueHandler delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return CompletionStage.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest) throws Exception {
+        if (returnValue != null) {
+            CompletableFuture<?> future = ((CompletionStage<?>) returnValue).toCompletableFuture();
+            if (future.isDone()) {
+                this.delegate.handleReturnValue(result(future), new ResultReturnType(returnType), mavContainer,
+                        webRequest);
+                return;
+            }
+        }
+        this.delegate.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+    }
+
+    private static Object result(CompletableFuture<?> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The return type of a method returning {@code CompletionStage<T>}, presented as if the method returned {@code T}.
+     */
+    private static class ResultReturnType extends MethodParameter {
+
+        private final ResolvableType resultType;
+
+        ResultReturnType(MethodParameter returnType) {
+            super(returnType);
+            this.resultType = ResolvableType.forMethodParameter(returnType).as(CompletionStage.class).getGeneric();
+        }
+
+        ResultReturnType(ResultReturnType original) {
+            super(original);
+            this.resultType = original.resultType;
+        }
+
+        @Override
+        public Class<?> getParameterType() {
+            return this.resultType.resolve(Object.class);
+        }
+
+        @Override
+        public Type getGenericParameterType() {
+            return this.resultType.getType();
+        }
+
+        @Override
+        public ResultReturnType clone() {
+            return new ResultReturnType(this);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.matt.employees.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.servlet.DispatcherType;
+
+/**
+ * Registers the {@link ResponseCompressionFilter}. Filters found in the context are only applied to the initial
+ * dispatch of a request by default, but responses to requests handled asynchronously are written on a later async
+ * dispatch, which the filter has to see to finish them.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class CompressionConfig {
+
+    @Bean
+    public FilterRegistrationBean<ResponseCompressionFilter> responseCompressionFilterRegistration(
+            ResponseCompressionFilter responseCompressionFilter) {
+        FilterRegistrationBean<ResponseCompressionFilter> registration =
+                new FilterRegistrationBean<>(responseCompressionFilter);
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        return registration;
+    }
+}
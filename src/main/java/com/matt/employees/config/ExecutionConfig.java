@@ -0,0 +1,37 @@
+package com.matt.employees.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Controllers return futures so that their work can be moved off the request thread when
+ * {@code employees.execution.mode} is {@code ASYNC}. In {@code BLOCKING} mode those futures are already complete, and
+ * we put a {@link CompletedFutureReturnValueHandler} in front of the standard return value handlers so such requests
+ * are handled without going through asynchronous processing at all.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ExecutionConfig {
+
+    private final RequestMappingHandlerAdapter handlerAdapter;
+
+    public ExecutionConfig(RequestMappingHandlerAdapter handlerAdapter) {
+        this.handlerAdapter = handlerAdapter;
+    }
+
+    @PostConstruct
+    void handleCompletedFuturesSynchronously() {
+        List<HandlerMethodReturnValueHandler> handlers = new ArrayList<>(this.handlerAdapter.getReturnValueHandlers());
+        HandlerMethodReturnValueHandlerComposite standardHandlers = new HandlerMethodReturnValueHandlerComposite()
+                .addHandlers(handlers);
+        handlers.add(0, new CompletedFutureReturnValueHandler(standardHandlers));
+        this.handlerAdapter.setReturnValueHandlers(handlers);
+    }
+}
@@ -0,0 +1,255 @@
+package com.matt.employees.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matt.employees.utilities.AdaptiveConcurrencyLimit;
+import com.matt.employees.utilities.ClientRateLimiter;
+import com.matt.employees.utilities.MapResponseMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the rate at which each client can call the employee endpoints, and how many requests each group of endpoints
+ * runs at once, so that one client can't take the database away from everyone else and an overloaded endpoint turns
+ * requests away quickly instead of slowing down for everyone. Enabled with {@code employees.rate-limit.enabled}.
+ *
+ * Endpoints are grouped by the rules in {@code employees.rate-limit.rules}, each of the form
+ * {@code METHOD /ant/pattern=requests-per-second:burst:max-concurrency}, where the method can be {@code *} and a limit
+ * of 0 is no limit. The first rule that matches a request applies, and requests matching no rule aren't limited.
+ *
+ * <ul>
+ *     <li>Each client gets a token bucket per rule from a {@link ClientRateLimiter}. Clients are told apart by the user
+ *     they authenticated as, or otherwise by their address, and get a 429 with a Retry-After header once their bucket
+ *     is empty.</li>
+ *     <li>Each rule has an {@link AdaptiveConcurrencyLimit} shared by every client, starting at max-concurrency and
+ *     shrinking while the rule's latency climbs. Requests over it get a 503. Asynchronous requests count until they
+ *     complete, so long polls and event streams should have no concurrency limit.</li>
+ * </ul>
+ *
+ * The filter runs after Spring Security so that it knows who the user is. Rejections are counted in
+ * {@code employees.rate-limit.rejected}, tagged with the rule and the reason, and each rule's concurrency limit and the
+ * requests it's running are published as {@code employees.concurrency.limit} and
+ * {@code employees.concurrency.in-flight}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final List<Rule> rules = new ArrayList<>();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(@Value("${employees.rate-limit.enabled}") boolean enabled,
+                           @Value("${employees.rate-limit.rules}") String[] rules,
+                           @Value("${employees.rate-limit.max-clients}") long maxClients,
+                           @Value("${employees.rate-limit.min-concurrency}") int minConcurrency,
+                           @Value("${employees.rate-limit.window-ms}") long windowMillis,
+                           ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.objectMapper = objectMapper;
+        for (String rule : rules) {
+            this.rules.add(Rule.parse(rule.trim(), maxClients, minConcurrency, windowMillis, meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !this.enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Rule rule = match(request);
+        if (rule == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (rule.rateLimiter != null) {
+            long waitNanos = rule.rateLimiter.tryAcquire(clientOf(request));
+            if (waitNanos > 0) {
+                rule.rateLimited.increment();
+                // Rounded up to whole seconds.
+                long retryAfter = TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1;
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, retryAfter, "Too many requests, please slow down");
+                return;
+            }
+        }
+
+        AdaptiveConcurrencyLimit concurrencyLimit = rule.concurrencyLimit;
+        if (concurrencyLimit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!concurrencyLimit.tryAcquire()) {
+            rule.shed.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, "Service is busy, please try again later");
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(concurrencyLimit, start));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                concurrencyLimit.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private Rule match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Rule rule : this.rules) {
+            if ((rule.method == null || rule.method.equals(request.getMethod()))
+                    && this.pathMatcher.match(rule.pattern, path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static String clientOf(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? "user:" + principal.getName() : "address:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        this.objectMapper.writeValue(response.getOutputStream(),
+                MapResponseMessage.createMapResponseFromMessage(message));
+    }
+
+    /**
+     * The limits applied to requests matching a method and path pattern.
+     */
+    private static final class Rule {
+
+        private final String method;
+        private final String pattern;
+        private final ClientRateLimiter rateLimiter;
+        private final AdaptiveConcurrencyLimit concurrencyLimit;
+        private final Counter rateLimited;
+        private final Counter shed;
+
+        private Rule(String method, String pattern, ClientRateLimiter rateLimiter,
+                     AdaptiveConcurrencyLimit concurrencyLimit, MeterRegistry meterRegistry) {
+            this.method = method;
+            this.pattern = pattern;
+            this.rateLimiter = rateLimiter;
+            this.concurrencyLimit = concurrencyLimit;
+
+            String endpoint = (method == null ? "*" : method) + " " + pattern;
+            this.rateLimited = rejectedCounter(meterRegistry, endpoint, "rate");
+            this.shed = rejectedCounter(meterRegistry, endpoint, "concurrency");
+            if (concurrencyLimit != null) {
+                Gauge.builder("employees.concurrency.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                        .description("Requests the endpoints may currently run at once")
+                        .tag("endpoint", endpoint)
+                        .register(meterRegistry);
+                Gauge.builder("employees.concurrency.in-flight", concurrencyLimit,
+                        AdaptiveConcurrencyLimit::getInFlight)
+                        .description("Requests the endpoints are running")
+                        .tag("endpoint", endpoint)
+                        .register(meterRegistry);
+            }
+        }
+
+        private static Counter rejectedCounter(MeterRegistry meterRegistry, String endpoint, String reason) {
+            return Counter.builder("employees.rate-limit.rejected")
+                    .description("Requests turned away by rate or concurrency limits")
+                    .tags("endpoint", endpoint, "reason", reason)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Parses a rule of the form {@code METHOD /ant/pattern=requests-per-second:burst:max-concurrency}.
+         */
+        static Rule parse(String rule, long maxClients, int minConcurrency, long windowMillis,
+                          MeterRegistry meterRegistry) {
+            String[] parts = rule.split("=");
+            String[] request = parts[0].trim().split("\\s+");
+            String[] limits = parts.length == 2 ? parts[1].trim().split(":") : new String[0];
+            if (request.length != 2 || limits.length != 3) {
+                throw new IllegalArgumentException("Rate limit rules should look like "
+                        + "'METHOD /pattern=requests-per-second:burst:max-concurrency', not '" + rule + "'");
+            }
+
+            double requestsPerSecond = Double.parseDouble(limits[0]);
+            int burst = Integer.parseInt(limits[1]);
+            int maxConcurrency = Integer.parseInt(limits[2]);
+            ClientRateLimiter rateLimiter = requestsPerSecond > 0
+                    ? new ClientRateLimiter(requestsPerSecond, burst, maxClients)
+                    : null;
+            AdaptiveConcurrencyLimit concurrencyLimit = maxConcurrency > 0
+                    ? new AdaptiveConcurrencyLimit(Math.min(minConcurrency, maxConcurrency), maxConcurrency,
+                            windowMillis)
+                    : null;
+            return new Rule(request[0].equals("*") ? null : request[0], request[1], rateLimiter, concurrencyLimit,
+                    meterRegistry);
+        }
+    }
+
+    /**
+     * Releases an asynchronous request's place in the concurrency limit once it completes, however it completes.
+     */
+    private static final class ReleasingListener implements AsyncListener {
+
+        private final AdaptiveConcurrencyLimit concurrencyLimit;
+        private final long start;
+
+        ReleasingListener(AdaptiveConcurrencyLimit concurrencyLimit, long start) {
+            this.concurrencyLimit = concurrencyLimit;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            this.concurrencyLimit.release(System.nanoTime() - this.start);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.matt.employees.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactive counterpart of {@link ExecutionConfig}. JPA only offers blocking calls, so the reactive flavour of the API
+ * makes every database call on a dedicated scheduler with one thread per database connection, and the event loop
+ * threads never block. Requests beyond that wait in the scheduler's queue rather than holding a thread each.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExecutionConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jdbcScheduler(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int jdbcThreads) {
+        return Schedulers.newParallel("employee-jdbc", jdbcThreads, true);
+    }
+}
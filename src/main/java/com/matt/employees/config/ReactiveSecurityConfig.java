@@ -0,0 +1,51 @@
+package com.matt.employees.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.MapReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+/**
+ * Reactive counterpart of {@link SecurityConfig}, used when the application runs as a reactive web application. The
+ * same user is required for the same calls, and credentials are required on each request.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    private final String userName = "user";
+    private final String password = "password";
+
+    @Bean
+    public BCryptPasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
+    }
+
+    @Bean
+    public MapReactiveUserDetailsService userDetailsService(BCryptPasswordEncoder passwordEncoder) {
+        return new MapReactiveUserDetailsService(User.withUsername(this.userName)
+                .password(passwordEncoder.encode(this.password))
+                .roles("USER")
+                .build());
+    }
+
+    @Bean
+    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http) {
+        return http.httpBasic().and()
+                .authorizeExchange()
+                .pathMatchers(HttpMethod.DELETE, "/employees/**").hasRole("USER")
+                .anyExchange().permitAll()
+                .and()
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .csrf().disable()
+                .build();
+    }
+}
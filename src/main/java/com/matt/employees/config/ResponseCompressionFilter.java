@@ -0,0 +1,470 @@
+package com.matt.employees.config;
+
+import com.matt.employees.utilities.GzipCompressor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gzips responses for clients that accept it, and records the size of every response as sent, tagged with the
+ * endpoint, in the {@code http.server.response.size} summary.
+ *
+ * The first min-response-size bytes of a response are held back before deciding whether to compress it, so small
+ * responses, which gain little and cost a compressor, go out as they are. Flushing doesn't send them any sooner, since
+ * Spring MVC flushes after writing every body however small. Responses with a Content-Encoding
+ * of their own, such as the pre-gzipped pages of {@code GET /employees}, and responses of types that aren't listed as
+ * compressible are sent as they are, without being held back. Long responses like exports are compressed as they
+ * stream, and their flushes are passed on once the threshold has been reached. Compressors come from a
+ * {@link GzipCompressor.Pool}.
+ *
+ * A strong ETag set by the handler names the body as the handler wrote it, not the gzipped bytes, so it's weakened when
+ * the body is compressed. If-None-Match is compared weakly, so clients can still revalidate with it.
+ *
+ * The compressor writes to the response as it fills, which non-blocking output can't allow, so a response that sets a
+ * {@link WriteListener} before anything is compressed is sent as it is, and the listener is passed on.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    static final String RESPONSE_SIZE_SUMMARY = "http.server.response.size";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final boolean enabled;
+    private final int minResponseSize;
+    private final List<MediaType> mimeTypes;
+    private final GzipCompressor.Pool compressors;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, DistributionSummary> sizeSummaries = new ConcurrentHashMap<>();
+
+    public ResponseCompressionFilter(@Value("${employees.compression.enabled:true}") boolean enabled,
+                                     @Value("${employees.compression.min-response-size:2048}") int minResponseSize,
+                                     @Value("${employees.compression.level:6}") int level,
+                                     @Value("${employees.compression.max-idle-compressors:64}") int maxIdleCompressors,
+                                     @Value("${employees.compression.mime-types:application/json}") String[] mimeTypes,
+                                     MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.minResponseSize = minResponseSize;
+        this.mimeTypes = new ArrayList<>();
+        for (String mimeType : mimeTypes) {
+            this.mimeTypes.add(MediaType.parseMediaType(mimeType.trim()));
+        }
+        this.compressors = new GzipCompressor.Pool(level, BUFFER_SIZE, maxIdleCompressors);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @return - the pool compressors are taken from
+     */
+    public GzipCompressor.Pool getCompressors() {
+        return this.compressors;
+    }
+
+    // Responses to async requests are written on the async dispatch, so the filter has to run again to finish them.
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CompressingResponse compressingResponse = WebUtils.getNativeResponse(response, CompressingResponse.class);
+        if (compressingResponse == null) {
+            boolean gzip = this.enabled && GzipCompressor.isAcceptedBy(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+            compressingResponse = new CompressingResponse(response, gzip);
+        }
+
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, compressingResponse);
+            completed = true;
+        } finally {
+            if (!completed) {
+                compressingResponse.abandon();
+            } else if (!isAsyncStarted(request)) {
+                compressingResponse.finish();
+                recordSize(request, compressingResponse);
+            }
+        }
+    }
+
+    private void recordSize(HttpServletRequest request, CompressingResponse response) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String encoding = response.getHeader(HttpHeaders.CONTENT_ENCODING);
+        String method = request.getMethod();
+        String status = Integer.toString(response.getStatus());
+        String encodingTag = encoding != null ? encoding : "identity";
+
+        String key = uri + ' ' + method + ' ' + status + ' ' + encodingTag;
+        this.sizeSummaries.computeIfAbsent(key, k -> DistributionSummary.builder(RESPONSE_SIZE_SUMMARY)
+                .description("Size of response bodies as sent, after any compression")
+                .baseUnit("bytes")
+                .tags("uri", uri, "method", method, "status", status, "encoding", encodingTag)
+                .publishPercentileHistogram()
+                .register(this.meterRegistry))
+                .record(response.bytesSent);
+    }
+
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        for (MediaType compressible : this.mimeTypes) {
+            if (compressible.includes(mediaType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Holds back the start of the body until it's known whether to compress it, then either gzips everything written
+     * or passes it straight through. Content lengths set before then are held back too, since they don't apply to a
+     * compressed body.
+     */
+    private final class CompressingResponse extends HttpServletResponseWrapper {
+
+        private final boolean gzipAccepted;
+        private byte[] pending;
+        private int pendingCount;
+        private Long contentLength;
+        private Boolean compressing;
+        private GzipCompressor compressor;
+        private CountingStream rawStream;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+        private long bytesSent;
+
+        CompressingResponse(HttpServletResponse response, boolean gzipAccepted) {
+            super(response);
+            this.gzipAccepted = gzipAccepted;
+        }
+
+        @Override
+        public void setContentLength(int length) {
+            setContentLengthLong(length);
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+            if (this.compressing == null) {
+                this.contentLength = length;
+            } else if (!this.compressing) {
+                super.setContentLengthLong(length);
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (this.outputStream == null) {
+                this.outputStream = new CompressingOutputStream();
+            }
+            return this.outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (this.writer == null) {
+                this.writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return this.writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (this.writer != null) {
+                this.writer.flush();
+            }
+            // Committing the response would fix its headers before we know whether to compress it.
+            if (this.compressing != null) {
+                flushBody();
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (this.compressing == null) {
+                this.pendingCount = 0;
+            }
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            if (this.compressing == null) {
+                this.pendingCount = 0;
+                this.contentLength = null;
+            }
+        }
+
+        private void write(byte[] bytes, int offset, int length) throws IOException {
+            if (this.compressing == null) {
+                // There's no need to hold anything back when the response won't be compressed anyway, which also
+                // keeps streams of types that aren't compressed, like server-sent events, from being held back.
+                if (this.gzipAccepted && this.pendingCount + length < minResponseSize
+                        && isCompressible(getContentType())) {
+                    if (this.pending == null) {
+                        this.pending = new byte[minResponseSize];
+                    }
+                    System.arraycopy(bytes, offset, this.pending, this.pendingCount, length);
+                    this.pendingCount += length;
+                    return;
+                }
+                decide(this.gzipAccepted);
+            }
+            if (this.compressing) {
+                this.compressor.write(bytes, offset, length);
+            } else {
+                rawStream().write(bytes, offset, length);
+            }
+        }
+
+        private void flushBody() throws IOException {
+            if (this.compressing) {
+                this.compressor.flush();
+            } else {
+                rawStream().flush();
+            }
+        }
+
+        /**
+         * Decides whether to compress the body, then sends whatever has been held back.
+         *
+         * @param worthCompressing - whether the body is big enough to compress, if it's compressible and accepted
+         */
+        private void decide(boolean worthCompressing) throws IOException {
+            boolean compressible = getHeader(HttpHeaders.CONTENT_ENCODING) == null && isCompressible(getContentType());
+            if (compressible) {
+                HttpServletResponse response = (HttpServletResponse) getResponse();
+                if (!containsVaryAcceptEncoding(response)) {
+                    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                }
+            }
+
+            this.compressing = compressible && worthCompressing;
+            if (this.compressing) {
+                super.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                String etag = getHeader(HttpHeaders.ETAG);
+                if (etag != null && !etag.startsWith("W/")) {
+                    super.setHeader(HttpHeaders.ETAG, "W/" + etag);
+                }
+                this.compressor = compressors.acquire();
+                this.compressor.start(rawStream());
+                if (this.pendingCount > 0) {
+                    this.compressor.write(this.pending, 0, this.pendingCount);
+                }
+            } else {
+                if (this.contentLength != null) {
+                    super.setContentLengthLong(this.contentLength);
+                }
+                if (this.pendingCount > 0) {
+                    rawStream().write(this.pending, 0, this.pendingCount);
+                }
+            }
+            this.pending = null;
+            this.pendingCount = 0;
+        }
+
+        private boolean containsVaryAcceptEncoding(HttpServletResponse response) {
+            for (String vary : response.getHeaders(HttpHeaders.VARY)) {
+                for (String header : vary.split(",")) {
+                    String name = header.trim();
+                    if (name.equals("*") || name.equalsIgnoreCase(HttpHeaders.ACCEPT_ENCODING)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Sends anything still held back and ends the gzip stream, if there is one.
+         */
+        void finish() throws IOException {
+            if (this.writer != null) {
+                this.writer.flush();
+            }
+            if (this.compressing == null) {
+                if (this.pendingCount == 0 && this.outputStream == null) {
+                    // Nothing was written, so there's nothing to compress.
+                    this.compressing = false;
+                    if (this.contentLength != null) {
+                        super.setContentLengthLong(this.contentLength);
+                    }
+                    return;
+                }
+                decide(false);
+            }
+            if (this.compressing) {
+                try {
+                    this.compressor.finish();
+                } finally {
+                    releaseCompressor();
+                }
+            }
+        }
+
+        /**
+         * Gives back the compressor of a response that failed part way through.
+         */
+        void abandon() {
+            releaseCompressor();
+        }
+
+        private void releaseCompressor() {
+            if (this.compressor != null) {
+                this.compressor.release();
+                this.compressor = null;
+            }
+        }
+
+        private ServletOutputStream rawStream() throws IOException {
+            if (this.rawStream == null) {
+                this.rawStream = new CountingStream(super.getOutputStream());
+            }
+            return this.rawStream;
+        }
+
+        /**
+         * Counts the bytes that reach the underlying response.
+         */
+        private final class CountingStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            CountingStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                this.delegate.write(b);
+                bytesSent++;
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                this.delegate.write(bytes, offset, length);
+                bytesSent += length;
+            }
+
+            @Override
+            public void flush() throws IOException {
+                this.delegate.flush();
+            }
+
+            @Override
+            public boolean isReady() {
+                return this.delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                this.delegate.setWriteListener(listener);
+            }
+        }
+
+        private final class CompressingOutputStream extends ServletOutputStream {
+
+            private final byte[] single = new byte[1];
+
+            @Override
+            public void write(int b) throws IOException {
+                this.single[0] = (byte) b;
+                write(this.single, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                CompressingResponse.this.write(bytes, offset, length);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (compressing != null) {
+                    flushBody();
+                }
+            }
+
+            @Override
+            public boolean isReady() {
+                if (compressing == null || compressing) {
+                    return true;
+                }
+                try {
+                    return rawStream().isReady();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                try {
+                    if (compressing == null) {
+                        decide(false);
+                    }
+                    if (compressing) {
+                        throw new IllegalStateException("Response is already being compressed");
+                    }
+                    rawStream().setWriteListener(listener);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.matt.employees.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -15,6 +16,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 @Configuration
 @EnableWebSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
     private final String userName = "user";
@@ -35,7 +37,8 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     }
 
     /**
-     * Configure our application to only require authorization on the delete employee endpoint.
+     * Configure our application to only require authorization on the delete employee endpoint and on the batch endpoint,
+     * since batches can also deactivate employees.
      *
      * We set the session creation policy to stateless so credentials are required on each request to endpoints
      * requiring auth.
@@ -48,6 +51,8 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         http.httpBasic().and()
                 .authorizeRequests()
                 .antMatchers(HttpMethod.DELETE, "/employees/**").hasRole("USER")
+                .antMatchers(HttpMethod.POST, "/employees/batch").hasRole("USER")
+                .antMatchers(HttpMethod.POST, "/employees/analytics/rebuild").hasRole("USER")
                 .and()
                 .sessionManagement()
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
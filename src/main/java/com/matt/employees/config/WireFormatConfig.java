@@ -0,0 +1,40 @@
+package com.matt.employees.config;
+
+import com.matt.employees.utilities.WireFormat;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Spring MVC registers Smile and CBOR message converters alongside the JSON one whenever their Jackson data formats are
+ * on the classpath, so requests and responses in those formats are negotiated like JSON. Here we make both of them
+ * encode dates as epoch days, as described in {@link WireFormat}. The converters are shared with the exception
+ * resolvers, so error responses are encoded the same way.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WireFormatConfig {
+
+    private final RequestMappingHandlerAdapter handlerAdapter;
+
+    public WireFormatConfig(RequestMappingHandlerAdapter handlerAdapter) {
+        this.handlerAdapter = handlerAdapter;
+    }
+
+    @PostConstruct
+    void encodeBinaryDatesAsEpochDays() {
+        for (HttpMessageConverter<?> converter : this.handlerAdapter.getMessageConverters()) {
+            if (converter instanceof MappingJackson2SmileHttpMessageConverter
+                    || converter instanceof MappingJackson2CborHttpMessageConverter) {
+                ((AbstractJackson2HttpMessageConverter) converter).getObjectMapper()
+                        .registerModule(WireFormat.epochDayModule());
+            }
+        }
+    }
+}
@@ -1,63 +1,632 @@
 package com.matt.employees.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeBatchOperation;
+import com.matt.employees.models.EmployeeBatchResult;
+import com.matt.employees.models.EmployeeChange;
+import com.matt.employees.models.EmployeeField;
+import com.matt.employees.models.EmployeeFilter;
+import com.matt.employees.models.EmployeeHeadcount;
+import com.matt.employees.models.EmployeeNameMatch;
+import com.matt.employees.models.EmployeePatch;
+import com.matt.employees.models.EmployeeScanResult;
+import com.matt.employees.models.EmployeeSearch;
 import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.models.EmployeeSummary;
+import com.matt.employees.models.EmployeeUpdate;
+import com.matt.employees.services.EmployeeAnalytics;
+import com.matt.employees.services.EmployeeBatchService;
+import com.matt.employees.services.EmployeeChangeFeed;
+import com.matt.employees.services.EmployeeColumnarSnapshot;
+import com.matt.employees.services.EmployeeExportService;
+import com.matt.employees.services.EmployeeListCache;
+import com.matt.employees.services.EmployeeNameIndex;
+import com.matt.employees.services.EmployeeRequestExecutor;
 import com.matt.employees.services.EmployeeService;
+import com.matt.employees.services.EmployeeUpdateBroadcaster;
+import com.matt.employees.utilities.GzipCompressor;
 import com.matt.employees.utilities.MapResponseMessage;
+import com.matt.employees.utilities.WireFormat;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import io.swagger.annotations.Authorization;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @RestController
-@RequestMapping("/employees")
+@RequestMapping(value = "/employees",
+        produces = {MediaType.APPLICATION_JSON_VALUE, WireFormat.APPLICATION_SMILE_VALUE, WireFormat.APPLICATION_CBOR_VALUE})
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class EmployeeController {
 
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int DEFAULT_MATCH_LIMIT = 10;
+    static final int MAX_MATCH_LIMIT = 100;
+    static final int DEFAULT_BUCKET_YEARS = 5;
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    static final String APPLICATION_MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
     private final EmployeeService employeeService;
+    private final EmployeeExportService employeeExportService;
+    private final EmployeeBatchService employeeBatchService;
+    private final EmployeeListCache employeeListCache;
+    private final EmployeeRequestExecutor requestExecutor;
+    private final EmployeeNameIndex employeeNameIndex;
+    private final EmployeeAnalytics employeeAnalytics;
+    private final EmployeeColumnarSnapshot columnarSnapshot;
+    private final EmployeeChangeFeed changeFeed;
+    private final EmployeeUpdateBroadcaster updateBroadcaster;
+
+    @Value("${employees.batch.max-size}")
+    private int maxBatchSize;
+    @Value("${employees.changes.max-wait-seconds}")
+    private int maxChangeWaitSeconds;
 
     @Autowired
-    EmployeeController(EmployeeService employeeService) {
+    EmployeeController(EmployeeService employeeService, EmployeeExportService employeeExportService,
+                       EmployeeBatchService employeeBatchService, EmployeeListCache employeeListCache,
+                       EmployeeRequestExecutor requestExecutor, EmployeeNameIndex employeeNameIndex,
+                       EmployeeAnalytics employeeAnalytics, EmployeeColumnarSnapshot columnarSnapshot,
+                       EmployeeChangeFeed changeFeed, EmployeeUpdateBroadcaster updateBroadcaster) {
         this.employeeService = employeeService;
+        this.employeeExportService = employeeExportService;
+        this.employeeBatchService = employeeBatchService;
+        this.employeeListCache = employeeListCache;
+        this.requestExecutor = requestExecutor;
+        this.employeeNameIndex = employeeNameIndex;
+        this.employeeAnalytics = employeeAnalytics;
+        this.columnarSnapshot = columnarSnapshot;
+        this.changeFeed = changeFeed;
+        this.updateBroadcaster = updateBroadcaster;
     }
 
     /**
-     * Endpoint to return a serialized list of all active employee records.
+     * Endpoint to return a serialized page of active employee records, ordered by ID unless filtered.
+     *
+     * Pages are addressed with a keyset cursor rather than an offset: the ID of the last employee on the previous page is
+     * passed back as {@code after}, so fetching any page costs the same no matter how deep into the table it is. When
+     * there are more results, the cursor for the next page is returned in the {@code X-Next-Cursor} header along with a
+     * {@code Link} header pointing at the next page.
+     *
+     * Filtered pages are read from the index on the filtered column, so they're ordered by last name, ignoring case,
+     * when filtering on a last name prefix, or otherwise by date of employment, and then by ID. The cursor for a
+     * filtered page must be the ID of an employee.
+     *
+     * Pages are served from {@link EmployeeListCache} already serialized, so they carry a strong ETag and are returned
+     * gzipped to clients that accept it. The gzipped page has an ETag of its own, and either one is accepted in
+     * {@code If-None-Match}. Like every other endpoint, pages are sent as JSON or in the binary format the
+     * {@code Accept} header asks for; see {@link WireFormat}.
+     *
+     * Callers that only need some of each employee's fields can list them in {@code fields}, for example
+     * {@code fields=id,lastName}. Only those columns are read from the database and written to the response. The ID is
+     * always included.
      *
+     * @param after - ID of the last employee on the previous page, omitted for the first page
+     * @param limit - maximum number of employees to return, defaults to {@value #DEFAULT_PAGE_SIZE}
+     * @param lastName - optional last name prefix to filter on, ignoring case
+     * @param hiredFrom - optional earliest date of employment (inclusive)
+     * @param hiredTo - optional latest date of employment (inclusive)
+     * @param fields - optional comma separated list of the fields to return, defaults to every field
+     * @param accept - the media types the client accepts
+     * @param acceptEncoding - the encodings the client accepts
+     * @param ifNoneMatch - the ETags of the copies of the page the client already has
      * @return - {@link ResponseEntity} of {@link Employee} objects
      */
-    @ApiOperation(value = "View a list of all active employees",
+    @ApiOperation(value = "View a page of active employees",
             response = Employee.class,
             responseContainer="List")
-    @RequestMapping(method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getEmployees() {
-        return new ResponseEntity<>(this.employeeService.listActiveEmployees(), HttpStatus.OK);
+    @ApiResponses(value = { @ApiResponse(code = 304, message = "Not Modified"),
+            @ApiResponse(code = 400, message = "Bad Request") })
+    @RequestMapping(method = RequestMethod.GET)
+    public CompletableFuture<ResponseEntity<?>> getEmployees(@RequestParam(required = false) Long after,
+                                                             @RequestParam(required = false) Integer limit,
+                                                             @RequestParam(required = false) String lastName,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hiredFrom,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hiredTo,
+                                                             @RequestParam(required = false) String fields,
+                                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage(
+                    "limit must be between 1 and " + MAX_PAGE_SIZE), HttpStatus.BAD_REQUEST));
+        }
+        Set<EmployeeField> employeeFields;
+        try {
+            employeeFields = EmployeeField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(
+                    MapResponseMessage.createMapResponseFromMessage(e.getMessage()), HttpStatus.BAD_REQUEST));
+        }
+
+        // The page may be built on a worker thread, where the current request isn't available, so take what we need
+        // from it first.
+        EmployeeFilter filter = new EmployeeFilter(lastName, hiredFrom, hiredTo);
+        ServletUriComponentsBuilder requestUri = ServletUriComponentsBuilder.fromCurrentRequest();
+        WireFormat format = WireFormat.fromAccept(accept);
+        boolean gzip = GzipCompressor.isAcceptedBy(acceptEncoding);
+
+        return this.requestExecutor.submit(() -> {
+            EmployeeListCache.Page page;
+            try {
+                page = this.employeeListCache.getPage(after, pageSize, filter, employeeFields, format);
+            } catch (InvalidDataAccessApiUsageException e) {
+                return new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage(
+                        e.getMostSpecificCause().getMessage()), HttpStatus.BAD_REQUEST);
+            }
+            return pageResponse(page, pageSize, requestUri, gzip, ifNoneMatch);
+        });
     }
 
+    /**
+     * Builds the response for a page of employees. Pages are cached with a strong ETag for each encoding, so clients
+     * that already have this page in either encoding get a 304 with no body, carrying the ETag they sent.
+     */
+    private static ResponseEntity<?> pageResponse(EmployeeListCache.Page page, int pageSize,
+                                                  ServletUriComponentsBuilder requestUri, boolean gzip,
+                                                  String ifNoneMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(page.getContentType());
+        headers.setVary(Arrays.asList(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+        if (page.getNextCursor() != null) {
+            setNextPage(headers, page.getNextCursor(), pageSize, requestUri);
+        }
+
+        String matchedEtag = matchingEtag(ifNoneMatch, page.getEtag(), page.getGzipEtag());
+        if (matchedEtag != null) {
+            headers.setETag(matchedEtag);
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        headers.setETag(gzip ? page.getGzipEtag() : page.getEtag());
+
+        // The gzipped copy of the page is built once when the page is cached, so it can be sent as is.
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new ResponseEntity<>(page.getGzip(), headers, HttpStatus.OK);
+        }
+        return new ResponseEntity<>(page.getBody(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * Returns whichever of the supplied ETags is listed in an If-None-Match header, or null if neither is. As the
+     * header requires, tags are compared weakly, so a {@code W/} prefix is ignored.
+     */
+    private static String matchingEtag(String ifNoneMatch, String... etags) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.setIfNoneMatch(ifNoneMatch);
+        for (String tag : requestHeaders.getIfNoneMatch()) {
+            String opaqueTag = tag.startsWith("W/") ? tag.substring(2) : tag;
+            for (String etag : etags) {
+                if (opaqueTag.equals("*") || opaqueTag.equals(etag)) {
+                    return etag;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sets the {@code X-Next-Cursor} header and a {@code Link} header pointing at the next page.
+     */
+    private static void setNextPage(HttpHeaders headers, Long nextCursor, int pageSize,
+                                    ServletUriComponentsBuilder requestUri) {
+        headers.set(NEXT_CURSOR_HEADER, String.valueOf(nextCursor));
+        headers.set(HttpHeaders.LINK, "<" + requestUri
+                .replaceQueryParam("after", nextCursor)
+                .replaceQueryParam("limit", pageSize)
+                .toUriString() + ">; rel=\"next\"");
+    }
+
+    /**
+     * Endpoint to search active employees by name prefix and date ranges. Names are matched case insensitively and
+     * date ranges are inclusive; every criterion is optional and they are combined with AND.
+     *
+     * Each search is answered from the database index of its first criterion, in the order last name, first name, date
+     * of employment and date of birth, and results come back in that index's order. Results are returned as summaries
+     * in keyset pages the same way as the employee list: pass the {@code X-Next-Cursor} header back as {@code after} to
+     * fetch the next page.
+     *
+     * @param firstName - optional first name prefix
+     * @param lastName - optional last name prefix
+     * @param bornFrom - optional earliest date of birth (inclusive)
+     * @param bornTo - optional latest date of birth (inclusive)
+     * @param hiredFrom - optional earliest date of employment (inclusive)
+     * @param hiredTo - optional latest date of employment (inclusive)
+     * @param after - ID of the last employee on the previous page, omitted for the first page
+     * @param limit - maximum number of employees to return, defaults to {@value #DEFAULT_PAGE_SIZE}
+     * @return - {@link ResponseEntity} of {@link EmployeeSummary} objects
+     */
+    @ApiOperation(value = "Search active employees",
+            response = EmployeeSummary.class,
+            responseContainer="List")
+    @ApiResponses(value = { @ApiResponse(code = 400, message = "Bad Request") })
+    @RequestMapping(method = RequestMethod.GET, value = "/search")
+    public CompletableFuture<ResponseEntity<?>> searchEmployees(@RequestParam(required = false) String firstName,
+                                                                @RequestParam(required = false) String lastName,
+                                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornFrom,
+                                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornTo,
+                                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hiredFrom,
+                                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hiredTo,
+                                                                @RequestParam(required = false) Long after,
+                                                                @RequestParam(required = false) Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage(
+                    "limit must be between 1 and " + MAX_PAGE_SIZE), HttpStatus.BAD_REQUEST));
+        }
+
+        EmployeeSearch search = new EmployeeSearch(firstName, lastName, bornFrom, bornTo, hiredFrom, hiredTo);
+        ServletUriComponentsBuilder requestUri = ServletUriComponentsBuilder.fromCurrentRequest();
+
+        return this.requestExecutor.submit(() -> {
+            List<EmployeeSummary> employees;
+            try {
+                // Ask for one extra row so we know whether there's another page without having to count.
+                employees = this.employeeService.searchActiveEmployees(search, after, pageSize + 1);
+            } catch (InvalidDataAccessApiUsageException e) {
+                return new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage(
+                        e.getMostSpecificCause().getMessage()), HttpStatus.BAD_REQUEST);
+            }
+
+            HttpHeaders headers = new HttpHeaders();
+            if (employees.size() > pageSize) {
+                employees = employees.subList(0, pageSize);
+                setNextPage(headers, employees.get(pageSize - 1).getId(), pageSize, requestUri);
+            }
+            return new ResponseEntity<>(employees, headers, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * Endpoint for typo tolerant name searches. Every word of the search is matched against the first names, middle
+     * initials and last names of active employees allowing for a few typos, and the best matches are returned ranked by
+     * score. Searches are answered from {@link EmployeeNameIndex} and never go to the database.
+     *
+     * @param q - one or more words to search for
+     * @param limit - maximum number of matches to return, defaults to {@value #DEFAULT_MATCH_LIMIT}
+     * @return - {@link ResponseEntity} of {@link EmployeeNameMatch} objects, best first
+     */
+    @ApiOperation(value = "Search active employees by name, allowing for typos",
+            response = EmployeeNameMatch.class,
+            responseContainer="List")
+    @ApiResponses(value = { @ApiResponse(code = 400, message = "Bad Request"),
+            @ApiResponse(code = 503, message = "Service Unavailable") })
+    @RequestMapping(method = RequestMethod.GET, value = "/search/names")
+    public ResponseEntity<?> searchEmployeeNames(@RequestParam String q,
+                                                 @RequestParam(required = false) Integer limit) {
+        int matchLimit = limit == null ? DEFAULT_MATCH_LIMIT : limit;
+        if (matchLimit < 1 || matchLimit > MAX_MATCH_LIMIT) {
+            return new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage(
+                    "limit must be between 1 and " + MAX_MATCH_LIMIT), HttpStatus.BAD_REQUEST);
+        }
+        if (!this.employeeNameIndex.isServing()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(MapResponseMessage.createMapResponseFromMessage("Name search is not available"));
+        }
+        return ResponseEntity.ok(this.employeeNameIndex.search(q, matchLimit));
+    }
+
+    /**
+     * Endpoint for ad-hoc scans across every employee, active or not, by status, name prefix, date of birth and date of
+     * employment. Scans are answered from {@link EmployeeColumnarSnapshot} and never go to the database, so they cost
+     * the same whichever criteria are set. The number of matching employees is returned with the first {@code limit}
+     * of them; a limit of 0 just counts.
+     *
+     * @param status - optional status to match, defaults to either
+     * @param firstName - optional first name prefix
+     * @param lastName - optional last name prefix
+     * @param bornFrom - optional earliest date of birth (inclusive)
+     * @param bornTo - optional latest date of birth (inclusive)
+     * @param hiredFrom - optional earliest date of employment (inclusive)
+     * @param hiredTo - optional latest date of employment (inclusive)
+     * @param limit - maximum number of employees to return, defaults to {@value #DEFAULT_PAGE_SIZE}
+     * @return - {@link ResponseEntity} of an {@link EmployeeScanResult}
+     */
+    @ApiOperation(value = "Count and list employees matching a scan of every employee",
+            response = EmployeeScanResult.class)
+    @ApiResponses(value = { @ApiResponse(code = 400, message = "Bad Request"),
+            @ApiResponse(code = 503, message = "Service Unavailable") })
+    @RequestMapping(method = RequestMethod.GET, value = "/scan")
+    public ResponseEntity<?> scanEmployees(@RequestParam(required = false) EmployeeStatus status,
+                                           @RequestParam(required = false) String firstName,
+                                           @RequestParam(required = false) String lastName,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornFrom,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornTo,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hiredFrom,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hiredTo,
+                                           @RequestParam(required = false) Integer limit) {
+        int resultLimit = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (resultLimit < 0 || resultLimit > MAX_PAGE_SIZE) {
+            return new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage(
+                    "limit must be between 0 and " + MAX_PAGE_SIZE), HttpStatus.BAD_REQUEST);
+        }
+        if (!this.columnarSnapshot.isServing()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(MapResponseMessage.createMapResponseFromMessage("Employee scans are not available"));
+        }
+        EmployeeSearch search = new EmployeeSearch(firstName, lastName, bornFrom, bornTo, hiredFrom, hiredTo);
+        return ResponseEntity.ok(this.columnarSnapshot.scan(status, search, resultLimit));
+    }
+
+    /**
+     * Endpoint to return the number of active and inactive employees. Like the other analytics endpoints this is answered
+     * from {@link EmployeeAnalytics} and never goes to the database.
+     *
+     * @return - {@link ResponseEntity} of an {@link EmployeeHeadcount}
+     */
+    @ApiOperation(value = "Count active and inactive employees", response = EmployeeHeadcount.class)
+    @ApiResponses(value = { @ApiResponse(code = 503, message = "Service Unavailable") })
+    @RequestMapping(method = RequestMethod.GET, value = "/analytics/headcount")
+    public ResponseEntity<?> getHeadcount() {
+        if (!this.employeeAnalytics.isServing()) {
+            return analyticsUnavailable();
+        }
+        return ResponseEntity.ok(this.employeeAnalytics.headcount());
+    }
+
+    /**
+     * Endpoint to count employees by the year or month they were hired, such as {@code 2018} or {@code 2018-06}, in
+     * order. Employees without a date of employment are counted under {@code unknown}.
+     *
+     * @param period - {@code year} or {@code month}, defaults to {@code year}
+     * @param status - optional status to count, defaults to every employee
+     * @return - {@link ResponseEntity} of the number of employees hired in each period
+     */
+    @ApiOperation(value = "Count employees by year or month of hire", response = Map.class)
+    @ApiResponses(value = { @ApiResponse(code = 400, message = "Bad Request"),
+            @ApiResponse(code = 503, message = "Service Unavailable") })
+    @RequestMapping(method = RequestMethod.GET, value = "/analytics/hires")
+    public ResponseEntity<?> getHires(@RequestParam(defaultValue = "year") String period,
+                                      @RequestParam(required = false) EmployeeStatus status) {
+        EmployeeAnalytics.Period hirePeriod;
+        try {
+            hirePeriod = EmployeeAnalytics.Period.valueOf(period.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage(
+                    "period must be year or month"), HttpStatus.BAD_REQUEST);
+        }
+        if (!this.employeeAnalytics.isServing()) {
+            return analyticsUnavailable();
+        }
+        return ResponseEntity.ok(this.employeeAnalytics.hires(hirePeriod, status));
+    }
+
+    /**
+     * Endpoint to count active employees by tenure, in buckets of whole years keyed by the shortest tenure in each.
+     *
+     * @param bucketYears - width of each bucket in years, defaults to {@value #DEFAULT_BUCKET_YEARS}
+     * @return - {@link ResponseEntity} of the number of active employees in each bucket
+     */
+    @ApiOperation(value = "Count active employees by years of employment", response = Map.class)
+    @ApiResponses(value = { @ApiResponse(code = 400, message = "Bad Request"),
+            @ApiResponse(code = 503, message = "Service Unavailable") })
+    @RequestMapping(method = RequestMethod.GET, value = "/analytics/tenure")
+    public ResponseEntity<?> getTenure(@RequestParam(required = false) Integer bucketYears) {
+        return yearBuckets(bucketYears, true);
+    }
+
+    /**
+     * Endpoint to count active employees by age, in buckets of whole years keyed by the youngest age in each.
+     *
+     * @param bucketYears - width of each bucket in years, defaults to {@value #DEFAULT_BUCKET_YEARS}
+     * @return - {@link ResponseEntity} of the number of active employees in each bucket
+     */
+    @ApiOperation(value = "Count active employees by age", response = Map.class)
+    @ApiResponses(value = { @ApiResponse(code = 400, message = "Bad Request"),
+            @ApiResponse(code = 503, message = "Service Unavailable") })
+    @RequestMapping(method = RequestMethod.GET, value = "/analytics/age")
+    public ResponseEntity<?> getAge(@RequestParam(required = false) Integer bucketYears) {
+        return yearBuckets(bucketYears, false);
+    }
+
+    private ResponseEntity<?> yearBuckets(Integer bucketYears, boolean tenure) {
+        int years = bucketYears == null ? DEFAULT_BUCKET_YEARS : bucketYears;
+        if (years < 1) {
+            return new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage(
+                    "bucketYears must be at least 1"), HttpStatus.BAD_REQUEST);
+        }
+        if (!this.employeeAnalytics.isServing()) {
+            return analyticsUnavailable();
+        }
+        return ResponseEntity.ok(tenure ? this.employeeAnalytics.tenure(years) : this.employeeAnalytics.age(years));
+    }
+
+    /**
+     * Endpoint to rebuild the analytics counts from the database, for use after employees have been changed outside of
+     * this application.
+     *
+     * @return - {@link ResponseEntity} of the {@link EmployeeHeadcount} once rebuilt
+     * @throws InterruptedException - if interrupted while rebuilding
+     */
+    @ApiOperation(value = "Rebuild employee analytics from the database",
+            authorizations = {@Authorization(value="basicAuth")},
+            response = EmployeeHeadcount.class)
+    @ApiResponses(value = { @ApiResponse(code = 401, message = "Unauthorized"),
+            @ApiResponse(code = 503, message = "Service Unavailable") })
+    @RequestMapping(method = RequestMethod.POST, value = "/analytics/rebuild")
+    public ResponseEntity<?> rebuildAnalytics() throws InterruptedException {
+        try {
+            return ResponseEntity.ok(this.employeeAnalytics.rebuild());
+        } catch (IllegalStateException e) {
+            return analyticsUnavailable();
+        }
+    }
+
+    private static ResponseEntity<?> analyticsUnavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(MapResponseMessage.createMapResponseFromMessage("Employee analytics are not available"));
+    }
+
+    /**
+     * Endpoint to follow changes to employees from {@link EmployeeChangeFeed}. Every change made through this
+     * application is given a sequence number, and the changes after {@code since} are returned in order along with the
+     * sequence number to pass as {@code since} next time in the {@code X-Next-Cursor} header. Called without
+     * {@code since}, no changes are returned and the cursor is the current end of the feed, so a new reader should call
+     * this before listing the employees and then follow the feed from there.
+     *
+     * When there are no changes yet the call can wait up to {@code wait} seconds for one, without holding a request
+     * thread. If the changes after {@code since} are no longer kept, a GONE status is returned and the reader has to
+     * start again.
+     *
+     * @param since - the cursor returned by the previous call
+     * @param limit - maximum number of changes to return, defaults to {@value #DEFAULT_PAGE_SIZE}
+     * @param wait - how many seconds to wait for a change when there are none, defaults to 0
+     * @return - {@link ResponseEntity} of {@link EmployeeChange} objects
+     */
+    @ApiOperation(value = "Follow changes to employees",
+            response = EmployeeChange.class,
+            responseContainer = "List")
+    @ApiResponses(value = { @ApiResponse(code = 400, message = "Bad Request"),
+            @ApiResponse(code = 410, message = "Gone"),
+            @ApiResponse(code = 503, message = "Service Unavailable") })
+    @RequestMapping(method = RequestMethod.GET, value = "/changes")
+    public CompletableFuture<ResponseEntity<?>> getChanges(@RequestParam(required = false) Long since,
+                                                           @RequestParam(required = false) Integer limit,
+                                                           @RequestParam(required = false) Integer wait) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage(
+                    "limit must be between 1 and " + MAX_PAGE_SIZE), HttpStatus.BAD_REQUEST));
+        }
+        int waitSeconds = wait == null ? 0 : wait;
+        if (waitSeconds < 0 || waitSeconds > this.maxChangeWaitSeconds) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage(
+                    "wait must be between 0 and " + this.maxChangeWaitSeconds), HttpStatus.BAD_REQUEST));
+        }
+        if (!this.changeFeed.isServing()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(MapResponseMessage.createMapResponseFromMessage("The change feed is not available")));
+        }
+        if (since == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.ok()
+                    .header(NEXT_CURSOR_HEADER, String.valueOf(this.changeFeed.getCursor()))
+                    .body(Collections.emptyList()));
+        }
+        if (this.changeFeed.isExpired(since)) {
+            return CompletableFuture.completedFuture(changesGone(since));
+        }
+
+        return this.changeFeed.poll(since, pageSize, TimeUnit.SECONDS.toMillis(waitSeconds))
+                .thenApply(changes -> changes.isExpired() ? changesGone(since) : ResponseEntity.ok()
+                        .header(NEXT_CURSOR_HEADER, String.valueOf(changes.getCursor()))
+                        .body(changes.getChanges()));
+    }
+
+    private static ResponseEntity<?> changesGone(long since) {
+        return new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage(
+                "The changes after " + since + " are no longer available"), HttpStatus.GONE);
+    }
+
+    /**
+     * Endpoint to subscribe to updates to employees as server-sent events from {@link EmployeeUpdateBroadcaster}.
+     * Every change made through this application from then on is sent as an {@link EmployeeUpdate}, optionally only
+     * for employees in one status or with one of a set of IDs. Subscribers following active employees are sent
+     * deactivations too.
+     *
+     * Subscribers that can't keep up are only sent the latest update to each employee. If they fall too far behind
+     * they are sent a {@code dropped} event and the stream ends. Either way the stream ends after a while, and clients
+     * should subscribe again, which browsers' EventSource does by itself.
+     *
+     * @param status - optional status of the employees to follow
+     * @param ids - optional comma separated IDs of the employees to follow, at most {@value #MAX_PAGE_SIZE} of them
+     * @return - {@link ResponseEntity} of the event stream
+     */
+    @ApiOperation(value = "Subscribe to updates to employees as server-sent events",
+            response = EmployeeUpdate.class)
+    @ApiResponses(value = { @ApiResponse(code = 400, message = "Bad Request"),
+            @ApiResponse(code = 503, message = "Service Unavailable") })
+    @RequestMapping(method = RequestMethod.GET, value = "/updates", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeToUpdates(@RequestParam(required = false) EmployeeStatus status,
+                                                         @RequestParam(required = false) Set<Long> ids) {
+        if (ids != null && (ids.isEmpty() || ids.size() > MAX_PAGE_SIZE)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(this.updateBroadcaster.subscribe(status, ids));
+        } catch (RejectedExecutionException e) {
+            // The stream's media type leaves no way to send a message.
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        }
+    }
+
+    /**
+     * Endpoint to export every employee record, active or not, as newline-delimited JSON. Rows are streamed straight
+     * from the database to the response so this can be used for full exports of large tables.
+     *
+     * @param response - response the export is written to
+     * @throws IOException - if writing to the response fails
+     */
+    @ApiOperation(value = "Export all employees as newline-delimited JSON")
+    @RequestMapping(method = RequestMethod.GET, value = "/export", produces = APPLICATION_NDJSON_VALUE)
+    public void exportEmployees(HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        this.employeeExportService.exportEmployees(response.getOutputStream());
+    }
 
     /**
      * Endpoint to return a serialized representation of a single {@link Employee} object by ID. If there is no active
      * employee found with supplied ID, return a NOT FOUND message.
      *
+     * The response carries an ETag built from the employee's version along with a Last-Modified date, so clients can
+     * revalidate with If-None-Match or If-Modified-Since and get a 304 with no body when nothing has changed.
+     *
      * @param employeeId - ID of employee to retrieve
      * @return - {@link ResponseEntity} of a serialized {@link Employee} object or of a not found message
      */
     @ApiOperation(value = "View a specific employee", response = Employee.class)
     @ApiResponses(value = { @ApiResponse(code = 400, message = "Bad Request"),
             @ApiResponse(code = 404, message = "Resource not found") })
-    @RequestMapping(method = RequestMethod.GET, value = "/{employeeId}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getEmployee(@PathVariable Long employeeId) {
-        Optional<Employee> employee = this.employeeService.getActiveEmployee(employeeId);
-        if(!employee.isPresent()){
-            return new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage("Resource not found"), HttpStatus.NOT_FOUND);
-        }
-        return new ResponseEntity<>(employee.get(), HttpStatus.OK);
+    @RequestMapping(method = RequestMethod.GET, value = "/{employeeId}")
+    public CompletableFuture<ResponseEntity<?>> getEmployee(@PathVariable Long employeeId) {
+        return this.requestExecutor.submit(() -> {
+            Optional<Employee> employee = this.employeeService.getActiveEmployee(employeeId);
+            if(!employee.isPresent()){
+                return new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage("Resource not found"), HttpStatus.NOT_FOUND);
+            }
+            return withValidators(ResponseEntity.ok(), employee.get()).body(employee.get());
+        });
     }
 
     /**
@@ -69,23 +638,54 @@ public class EmployeeController {
     @ApiOperation(value = "Add an employee")
     @ApiResponses(value = {@ApiResponse(code = 201, message = "Created", response = Employee.class),
             @ApiResponse(code = 400, message = "Bad Request")})
-    @RequestMapping(method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> addEmployee(@RequestBody Employee input) {
-        Employee newEmployee = this.employeeService.save(
-                new Employee(input.getFirstName(),
-                        input.getMiddleInitial(),
-                        input.getLastName(),
-                        input.getDateOfBirth(),
-                        input.getDateOfEmployment(),
-                        EmployeeStatus.ACTIVE)
-        );
-        return new ResponseEntity<>(newEmployee, HttpStatus.CREATED);
+    @RequestMapping(method = RequestMethod.POST)
+    public CompletableFuture<ResponseEntity<?>> addEmployee(@RequestBody Employee input) {
+        return this.requestExecutor.submit(() -> {
+            Employee newEmployee = this.employeeService.save(
+                    new Employee(input.getFirstName(),
+                            input.getMiddleInitial(),
+                            input.getLastName(),
+                            input.getDateOfBirth(),
+                            input.getDateOfEmployment(),
+                            EmployeeStatus.ACTIVE)
+            );
+            return new ResponseEntity<>(newEmployee, HttpStatus.CREATED);
+        });
+    }
+
+    /**
+     * Endpoint to handle creating, updating and deactivating many employee records in one call. Operations are applied
+     * in order in chunked transactions, and a result is returned for every operation.
+     *
+     * @param operations - de-serialized {@link RequestBody} containing the operations to apply
+     * @return - {@link ResponseEntity} containing one {@link EmployeeBatchResult} per operation
+     */
+    @ApiOperation(value = "Create, update and deactivate employees in bulk",
+            notes = "Requires Basic Authentication using a username of 'user' and a password of 'password'",
+            authorizations = {@Authorization(value="basicAuth")},
+            response = EmployeeBatchResult.class,
+            responseContainer = "List")
+    @ApiResponses(value = { @ApiResponse(code = 400, message = "Bad Request"),
+            @ApiResponse(code = 401, message = "Unauthorized")})
+    @RequestMapping(method = RequestMethod.POST, value = "/batch")
+    public CompletableFuture<ResponseEntity<?>> batchEmployees(@RequestBody List<EmployeeBatchOperation> operations) {
+        if (operations.size() > this.maxBatchSize) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage(
+                    "A batch may contain at most " + this.maxBatchSize + " operations"), HttpStatus.BAD_REQUEST));
+        }
+        return this.requestExecutor.submit(() ->
+                new ResponseEntity<>(this.employeeBatchService.apply(operations), HttpStatus.OK));
     }
 
     /**
      * Endpoint to handle updating the specified employee record.
      *
+     * If an If-Match header is sent, the update is only applied when it matches the employee's current ETag, and a
+     * PRECONDITION FAILED message is returned otherwise, including when the employee is changed by someone else while
+     * the update is being applied. An update that wouldn't change anything isn't written.
+     *
      * @param employeeId - ID of employee to update
+     * @param ifMatch - optional ETag the employee must currently have
      * @param input - de-serialized {@link RequestBody} based on the user's request
      * @return - {@link ResponseEntity} containing a serialized representation of the updated employee or of a not found
      * message
@@ -93,25 +693,78 @@ public class EmployeeController {
     @ApiOperation(value = "Update an employee")
     @ApiResponses(value = { @ApiResponse(code = 200, message = "Resource updated successfully", response = Employee.class),
             @ApiResponse(code = 400, message = "Bad Request"),
-            @ApiResponse(code = 404, message = "Resource not found")})
-    @RequestMapping(method = RequestMethod.PUT, value="/{employeeId}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> updateEmployee(@PathVariable Long employeeId, @RequestBody Employee input) {
-        return this.employeeService.getActiveEmployee(employeeId)
+            @ApiResponse(code = 404, message = "Resource not found"),
+            @ApiResponse(code = 412, message = "Precondition failed")})
+    @RequestMapping(method = RequestMethod.PUT, value="/{employeeId}")
+    public CompletableFuture<ResponseEntity<?>> updateEmployee(@PathVariable Long employeeId,
+                                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                               @RequestBody Employee input) {
+        return this.requestExecutor.submit(() -> this.employeeService.getActiveEmployeeForUpdate(employeeId)
                 .map(employee -> {
+                    if (!ifMatchSatisfied(ifMatch, employee)) {
+                        return preconditionFailed();
+                    }
+                    if (hasSameDetails(employee, input)) {
+                        return withValidators(ResponseEntity.ok(), employee).body(employee);
+                    }
                     employee.setFirstName(input.getFirstName());
                     employee.setMiddleInitial(input.getMiddleInitial());
                     employee.setLastName(input.getLastName());
                     employee.setDateOfBirth(input.getDateOfBirth());
                     employee.setDateOfEmployment(input.getDateOfEmployment());
-                    this.employeeService.save(employee);
-                    return new ResponseEntity(employee, HttpStatus.OK);
-                }).orElse(new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage("Resource not found"), HttpStatus.NOT_FOUND));
+                    Employee savedEmployee = this.employeeService.save(employee);
+                    return withValidators(ResponseEntity.ok(), savedEmployee).body(savedEmployee);
+                }).orElse(new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage("Resource not found"), HttpStatus.NOT_FOUND)));
+    }
+
+    /**
+     * Endpoint to handle partially updating the specified employee record with a JSON merge patch. Only the fields
+     * present in the patch are changed, and only those that differ from the stored values are written, using a single
+     * UPDATE statement.
+     *
+     * If-Match is honoured the same way as for a full update.
+     *
+     * @param employeeId - ID of employee to update
+     * @param ifMatch - optional ETag the employee must currently have
+     * @param patch - the merge patch document
+     * @return - {@link ResponseEntity} containing a serialized representation of the updated employee or of an error
+     * message
+     */
+    @ApiOperation(value = "Partially update an employee")
+    @ApiResponses(value = { @ApiResponse(code = 200, message = "Resource updated successfully", response = Employee.class),
+            @ApiResponse(code = 400, message = "Bad Request"),
+            @ApiResponse(code = 404, message = "Resource not found"),
+            @ApiResponse(code = 412, message = "Precondition failed")})
+    @RequestMapping(method = RequestMethod.PATCH, value="/{employeeId}",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_MERGE_PATCH_JSON_VALUE})
+    public CompletableFuture<ResponseEntity<?>> patchEmployee(@PathVariable Long employeeId,
+                                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                              @RequestBody JsonNode patch) {
+        EmployeePatch employeePatch;
+        try {
+            employeePatch = EmployeePatch.fromJson(patch);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage(e.getMessage()), HttpStatus.BAD_REQUEST));
+        }
+
+        return this.requestExecutor.submit(() -> this.employeeService.getActiveEmployeeForUpdate(employeeId)
+                .map(employee -> {
+                    if (!ifMatchSatisfied(ifMatch, employee)) {
+                        return preconditionFailed();
+                    }
+                    Employee patchedEmployee = this.employeeService.patch(employee, employeePatch);
+                    return withValidators(ResponseEntity.ok(), patchedEmployee).body(patchedEmployee);
+                }).orElse(new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage("Resource not found"), HttpStatus.NOT_FOUND)));
     }
 
     /**
      * Endpoint to handle marking an employee as inactive.
      *
+     * If an If-Match header is sent, the employee is only marked inactive when it matches the employee's current ETag.
+     *
      * @param employeeId - ID of employee to mark as inactive
+     * @param ifMatch - optional ETag the employee must currently have
      * @return - {@link ResponseEntity} containing a message saying if the delete call was successful or if the resource
      * was not found
      */
@@ -121,16 +774,86 @@ public class EmployeeController {
     @ApiResponses(value = { @ApiResponse(code = 202, message = "Resource deleted successfully"),
             @ApiResponse(code = 400, message = "Bad Request"),
             @ApiResponse(code = 404, message = "Resource not found"),
-            @ApiResponse(code = 401, message = "Unauthorized")})
-    @RequestMapping(method = RequestMethod.DELETE, value = "/{employeeId}", produces = MediaType.APPLICATION_JSON_VALUE)
-    ResponseEntity<?> deleteEmployee(@PathVariable Long employeeId) {
-        return this.employeeService.getActiveEmployee(employeeId)
+            @ApiResponse(code = 401, message = "Unauthorized"),
+            @ApiResponse(code = 412, message = "Precondition failed")})
+    @RequestMapping(method = RequestMethod.DELETE, value = "/{employeeId}")
+    CompletableFuture<ResponseEntity<?>> deleteEmployee(@PathVariable Long employeeId,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return this.requestExecutor.submit(() -> this.employeeService.getActiveEmployeeForUpdate(employeeId)
                 .map(employee -> {
+                    if (!ifMatchSatisfied(ifMatch, employee)) {
+                        return preconditionFailed();
+                    }
                     // Don't actually delete the employee record, just set it to inactive.
                     employee.setStatus(EmployeeStatus.INACTIVE);
                     this.employeeService.save(employee);
                     return new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage("Resource deleted successfully"), HttpStatus.ACCEPTED);
-                }).orElse(new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage("Resource not found"), HttpStatus.NOT_FOUND));
+                }).orElse(new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage("Resource not found"), HttpStatus.NOT_FOUND)));
+    }
+
+    /**
+     * Writes that lose an optimistic locking race, because the employee was changed between being loaded and being
+     * saved, are reported the same way as a failed If-Match check.
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    ResponseEntity<?> handleOptimisticLockingFailure() {
+        return preconditionFailed();
+    }
+
+    /**
+     * Requests that can't be given a worker thread or a database permit in time are turned away rather than being left
+     * to queue indefinitely.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    ResponseEntity<?> handleRejectedExecution() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(MapResponseMessage.createMapResponseFromMessage("Service is busy, please try again later"));
+    }
+
+    /**
+     * Builds the strong ETag for an employee from its version, which changes on every update.
+     */
+    static String etag(Employee employee) {
+        return "\"" + employee.getVersion() + "\"";
+    }
+
+    /**
+     * Checks an If-Match header against an employee's current ETag using strong comparison, so weak ETags never match.
+     * A missing header always matches.
+     */
+    static boolean ifMatchSatisfied(String ifMatch, Employee employee) {
+        if (ifMatch == null) {
+            return true;
+        }
+        String etag = etag(employee);
+        for (String tag : ifMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
     }
 
+    static ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder builder, Employee employee) {
+        builder.eTag(etag(employee));
+        if (employee.getLastModified() != null) {
+            builder.lastModified(employee.getLastModified().toEpochMilli());
+        }
+        return builder;
+    }
+
+    private static ResponseEntity<?> preconditionFailed() {
+        return new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage("Resource has been modified"),
+                HttpStatus.PRECONDITION_FAILED);
+    }
+
+    static boolean hasSameDetails(Employee employee, Employee input) {
+        return Objects.equals(employee.getFirstName(), input.getFirstName())
+                && Objects.equals(employee.getMiddleInitial(), input.getMiddleInitial())
+                && Objects.equals(employee.getLastName(), input.getLastName())
+                && Objects.equals(employee.getDateOfBirth(), input.getDateOfBirth())
+                && Objects.equals(employee.getDateOfEmployment(), input.getDateOfEmployment());
+    }
 }
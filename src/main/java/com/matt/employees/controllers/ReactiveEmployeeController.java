@@ -0,0 +1,156 @@
+package com.matt.employees.controllers;
+
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.services.ReactiveEmployeeService;
+import com.matt.employees.utilities.MapResponseMessage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive flavour of {@link EmployeeController}, offering the core employee operations on WebFlux. It is used instead
+ * of {@link EmployeeController} when the application runs as a reactive web application, which is what the
+ * {@code reactive} profile does.
+ *
+ * Database work is handed to {@link ReactiveEmployeeService}, which runs it on a scheduler of its own, so the event
+ * loop threads are never blocked and a slow client only costs the memory for its connection. Single employees carry
+ * the same ETags as in {@link EmployeeController}, and updates and deletes honour If-Match the same way.
+ */
+@RestController
+@RequestMapping("/employees")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveEmployeeController {
+
+    private final ReactiveEmployeeService employeeService;
+
+    ReactiveEmployeeController(ReactiveEmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    /**
+     * Endpoint to stream every active employee, ordered by ID. The employees are written as a JSON array, or as
+     * newline-delimited JSON when {@code application/stream+json} is requested. Employees are read from the database
+     * only as fast as the client consumes them.
+     *
+     * @return - {@link Flux} of active {@link Employee} objects
+     */
+    @RequestMapping(method = RequestMethod.GET,
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_STREAM_JSON_VALUE})
+    public Flux<Employee> getEmployees() {
+        return this.employeeService.listActiveEmployees();
+    }
+
+    /**
+     * Endpoint to return a single active employee by ID, or a NOT FOUND message. The response carries an ETag and a
+     * Last-Modified date, so clients can revalidate and get a 304 with no body when nothing has changed.
+     *
+     * @param employeeId - ID of employee to retrieve
+     * @return - {@link ResponseEntity} of a serialized {@link Employee} object or of a not found message
+     */
+    @RequestMapping(method = RequestMethod.GET, value = "/{employeeId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<?>> getEmployee(@PathVariable Long employeeId) {
+        return this.employeeService.getActiveEmployee(employeeId)
+                .<ResponseEntity<?>>map(employee ->
+                        EmployeeController.withValidators(ResponseEntity.ok(), employee).body(employee))
+                .defaultIfEmpty(notFound());
+    }
+
+    /**
+     * Endpoint to handle creating a new employee record.
+     *
+     * @param input - de-serialized {@link RequestBody} based on the user's request
+     * @return - {@link ResponseEntity} containing a serialized representation of the new {@link Employee} object
+     */
+    @RequestMapping(method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<?>> addEmployee(@RequestBody Employee input) {
+        return this.employeeService.save(new Employee(input.getFirstName(),
+                        input.getMiddleInitial(),
+                        input.getLastName(),
+                        input.getDateOfBirth(),
+                        input.getDateOfEmployment(),
+                        EmployeeStatus.ACTIVE))
+                .map(newEmployee -> new ResponseEntity<>(newEmployee, HttpStatus.CREATED));
+    }
+
+    /**
+     * Endpoint to handle updating the specified employee record.
+     *
+     * If an If-Match header is sent, the update is only applied when it matches the employee's current ETag, and a
+     * PRECONDITION FAILED message is returned otherwise, including when the employee is changed by someone else while
+     * the update is being applied. An update that wouldn't change anything isn't written.
+     *
+     * @param employeeId - ID of employee to update
+     * @param ifMatch - optional ETag the employee must currently have
+     * @param input - de-serialized {@link RequestBody} based on the user's request
+     * @return - {@link ResponseEntity} containing a serialized representation of the updated employee or of an error
+     * message
+     */
+    @RequestMapping(method = RequestMethod.PUT, value = "/{employeeId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<?>> updateEmployee(@PathVariable Long employeeId,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                  @RequestBody Employee input) {
+        return this.employeeService.getActiveEmployeeForUpdate(employeeId)
+                .<ResponseEntity<?>>flatMap(employee -> {
+                    if (!EmployeeController.ifMatchSatisfied(ifMatch, employee)) {
+                        return Mono.just(preconditionFailed());
+                    }
+                    if (EmployeeController.hasSameDetails(employee, input)) {
+                        return Mono.just(
+                                EmployeeController.withValidators(ResponseEntity.ok(), employee).body(employee));
+                    }
+                    employee.setFirstName(input.getFirstName());
+                    employee.setMiddleInitial(input.getMiddleInitial());
+                    employee.setLastName(input.getLastName());
+                    employee.setDateOfBirth(input.getDateOfBirth());
+                    employee.setDateOfEmployment(input.getDateOfEmployment());
+                    return this.employeeService.save(employee).map(savedEmployee ->
+                            EmployeeController.withValidators(ResponseEntity.ok(), savedEmployee).body(savedEmployee));
+                })
+                .defaultIfEmpty(notFound())
+                .onErrorResume(ObjectOptimisticLockingFailureException.class, e -> Mono.just(preconditionFailed()));
+    }
+
+    /**
+     * Endpoint to handle marking an employee as inactive.
+     *
+     * If an If-Match header is sent, the employee is only marked inactive when it matches the employee's current ETag.
+     *
+     * @param employeeId - ID of employee to mark as inactive
+     * @param ifMatch - optional ETag the employee must currently have
+     * @return - {@link ResponseEntity} containing a message saying if the delete call was successful or if the resource
+     * was not found
+     */
+    @RequestMapping(method = RequestMethod.DELETE, value = "/{employeeId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<?>> deleteEmployee(@PathVariable Long employeeId,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return this.employeeService.getActiveEmployeeForUpdate(employeeId)
+                .<ResponseEntity<?>>flatMap(employee -> {
+                    if (!EmployeeController.ifMatchSatisfied(ifMatch, employee)) {
+                        return Mono.just(preconditionFailed());
+                    }
+                    // Don't actually delete the employee record, just set it to inactive.
+                    employee.setStatus(EmployeeStatus.INACTIVE);
+                    return this.employeeService.save(employee).map(savedEmployee -> new ResponseEntity<>(
+                            MapResponseMessage.createMapResponseFromMessage("Resource deleted successfully"),
+                            HttpStatus.ACCEPTED));
+                })
+                .defaultIfEmpty(notFound())
+                .onErrorResume(ObjectOptimisticLockingFailureException.class, e -> Mono.just(preconditionFailed()));
+    }
+
+    private static ResponseEntity<?> notFound() {
+        return new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage("Resource not found"), HttpStatus.NOT_FOUND);
+    }
+
+    private static ResponseEntity<?> preconditionFailed() {
+        return new ResponseEntity<>(MapResponseMessage.createMapResponseFromMessage("Resource has been modified"),
+                HttpStatus.PRECONDITION_FAILED);
+    }
+}
@@ -0,0 +1,34 @@
+package com.matt.employees.events;
+
+import com.matt.employees.models.Employee;
+
+/**
+ * Application event published by {@link com.matt.employees.services.EmployeeService} whenever an {@link Employee} is
+ * saved.
+ *
+ * When the save happens inside a transaction, listeners that need to see committed data should use
+ * {@code @TransactionalEventListener(fallbackExecution = true)} so they run once the transaction commits, or straight
+ * away when there is no transaction.
+ */
+public class EmployeeChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DEACTIVATED
+    }
+
+    private final Employee employee;
+    private final Type type;
+
+    public EmployeeChangedEvent(final Employee employee, final Type type) {
+        this.employee = employee;
+        this.type = type;
+    }
+
+    public Employee getEmployee() {
+        return this.employee;
+    }
+
+    public Type getType() {
+        return this.type;
+    }
+}
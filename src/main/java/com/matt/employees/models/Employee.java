@@ -1,20 +1,44 @@
 package com.matt.employees.models;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import org.springframework.data.annotation.ReadOnlyProperty;
 
 import javax.persistence.*;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Locale;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_employee_status_id", columnList = "status, id"),
+        @Index(name = "idx_employee_status_date_of_employment", columnList = "status, dateOfEmployment, id"),
+        @Index(name = "idx_employee_status_first_name_lower", columnList = "status, firstNameLower, id"),
+        @Index(name = "idx_employee_status_last_name_lower", columnList = "status, lastNameLower, id"),
+        @Index(name = "idx_employee_status_date_of_birth", columnList = "status, dateOfBirth, id"),
+        @Index(name = "idx_employee_natural_key", columnList = "lastName, dateOfBirth, firstName")
+})
 @ApiModel
 public class Employee {
 
+    // A pooled sequence lets Hibernate hand out IDs without a round trip per insert, which in turn lets inserts be
+    // sent to the database as JDBC batches. IDs that have already been handed out by the write-behind buffer are kept.
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "employee_seq")
+    @GenericGenerator(name = "employee_seq", strategy = "com.matt.employees.repositories.EmployeeIdGenerator",
+            parameters = {
+                    @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "employee_seq"),
+                    @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+                    @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled")
+            })
     @ReadOnlyProperty
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     @ApiModelProperty(example="1")
     private Long id;
 
@@ -36,6 +60,22 @@ public class Employee {
     @Enumerated(EnumType.STRING)
     private EmployeeStatus status;
 
+    // Incremented on every update so concurrent edits are detected rather than silently overwriting each other, and
+    // used together with lastModified to build the validators for conditional requests.
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    @JsonIgnore
+    private Instant lastModified;
+
+    // Lower case copies of the names, kept up to date on every save, so case insensitive prefix searches can seek an
+    // index rather than applying lower() to every row.
+    @JsonIgnore
+    private String firstNameLower;
+    @JsonIgnore
+    private String lastNameLower;
+
     private Employee() { }
 
     public Employee(final String firstName, final String middleInitial, final String lastName,
@@ -49,10 +89,33 @@ public class Employee {
         this.status = status;
     }
 
+    /**
+     * Rebuilds an employee from a copy of its row held outside of the database, such as an in-memory index. The result
+     * isn't attached to a persistence context, so it should only be read.
+     */
+    public static Employee restore(final Long id, final String firstName, final String middleInitial,
+                                   final String lastName, final LocalDate dateOfBirth, final LocalDate dateOfEmployment,
+                                   final EmployeeStatus status, final Long version, final Instant lastModified) {
+
+        Employee employee = new Employee(firstName, middleInitial, lastName, dateOfBirth, dateOfEmployment, status);
+        employee.id = id;
+        employee.version = version;
+        employee.lastModified = lastModified;
+        return employee;
+    }
+
     public Long getId() {
         return this.id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Instant getLastModified() {
+        return this.lastModified;
+    }
+
     public String getFirstName() {
         return this.firstName;
     }
@@ -100,4 +163,32 @@ public class Employee {
     public void setStatus (EmployeeStatus status) {
         this.status = status;
     }
+
+    /**
+     * Normalizes a name the way the searchable name columns are stored.
+     */
+    public static String normalizeName(String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
+    }
+
+    // An employee created through the write-behind buffer is inserted with the last modified time it was acknowledged
+    // with, so that's kept.
+    @PrePersist
+    void beforeInsert() {
+        if (this.lastModified == null) {
+            this.lastModified = Instant.now();
+        }
+        normalizeNames();
+    }
+
+    @PreUpdate
+    void beforeUpdate() {
+        this.lastModified = Instant.now();
+        normalizeNames();
+    }
+
+    private void normalizeNames() {
+        this.firstNameLower = normalizeName(this.firstName);
+        this.lastNameLower = normalizeName(this.lastName);
+    }
 }
@@ -0,0 +1,42 @@
+package com.matt.employees.models;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+/**
+ * A single operation submitted as part of a batch request. Creates only need an {@link Employee}, deactivations only
+ * need an ID and updates need both.
+ */
+@ApiModel
+public class EmployeeBatchOperation {
+
+    public enum Type {
+        CREATE, UPDATE, DEACTIVATE
+    }
+
+    @ApiModelProperty(example="UPDATE")
+    private Type op;
+    @ApiModelProperty(example="1")
+    private Long id;
+    private Employee employee;
+
+    private EmployeeBatchOperation() { }
+
+    public EmployeeBatchOperation(final Type op, final Long id, final Employee employee) {
+        this.op = op;
+        this.id = id;
+        this.employee = employee;
+    }
+
+    public Type getOp() {
+        return this.op;
+    }
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public Employee getEmployee() {
+        return this.employee;
+    }
+}
@@ -0,0 +1,54 @@
+package com.matt.employees.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+/**
+ * The outcome of a single {@link EmployeeBatchOperation}. Results are returned in the same order as the operations
+ * were submitted, and {@code status} uses the HTTP status code the equivalent single-item call would have returned.
+ */
+@ApiModel
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EmployeeBatchResult {
+
+    @ApiModelProperty(example="0")
+    private final int index;
+    @ApiModelProperty(example="UPDATE")
+    private final EmployeeBatchOperation.Type op;
+    @ApiModelProperty(example="1")
+    private final Long id;
+    @ApiModelProperty(example="200")
+    private final int status;
+    @ApiModelProperty(example="Resource not found")
+    private final String message;
+
+    public EmployeeBatchResult(final int index, final EmployeeBatchOperation.Type op, final Long id, final int status,
+                               final String message) {
+        this.index = index;
+        this.op = op;
+        this.id = id;
+        this.status = status;
+        this.message = message;
+    }
+
+    public int getIndex() {
+        return this.index;
+    }
+
+    public EmployeeBatchOperation.Type getOp() {
+        return this.op;
+    }
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public int getStatus() {
+        return this.status;
+    }
+
+    public String getMessage() {
+        return this.message;
+    }
+}
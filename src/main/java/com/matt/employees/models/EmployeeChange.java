@@ -0,0 +1,45 @@
+package com.matt.employees.models;
+
+import com.matt.employees.events.EmployeeChangedEvent;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+/**
+ * An entry in the employee change feed: the state an {@link Employee} was saved in, and the sequence number the change
+ * was given. Sequence numbers increase with every change, though not every number is used.
+ */
+@ApiModel
+public class EmployeeChange {
+
+    @ApiModelProperty(example="42")
+    private final long sequence;
+    @ApiModelProperty(example="UPDATED")
+    private final EmployeeChangedEvent.Type type;
+    @ApiModelProperty(example="3")
+    private final long version;
+    private final Employee employee;
+
+    public EmployeeChange(final long sequence, final EmployeeChangedEvent.Type type, final long version,
+                          final Employee employee) {
+        this.sequence = sequence;
+        this.type = type;
+        this.version = version;
+        this.employee = employee;
+    }
+
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    public EmployeeChangedEvent.Type getType() {
+        return this.type;
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    public Employee getEmployee() {
+        return this.employee;
+    }
+}
@@ -0,0 +1,68 @@
+package com.matt.employees.models;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The fields of an {@link Employee} that can be asked for in a sparse fieldset. Each field's name is both its JSON
+ * property and its entity attribute, and fields are always written in the order they're declared here, which is the
+ * order of the full {@link Employee} JSON.
+ */
+public enum EmployeeField {
+    ID("id"),
+    FIRST_NAME("firstName"),
+    MIDDLE_INITIAL("middleInitial"),
+    LAST_NAME("lastName"),
+    DATE_OF_BIRTH("dateOfBirth"),
+    DATE_OF_EMPLOYMENT("dateOfEmployment"),
+    STATUS("status");
+
+    private static final Set<EmployeeField> ALL = Collections.unmodifiableSet(EnumSet.allOf(EmployeeField.class));
+
+    private final String fieldName;
+
+    EmployeeField(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    public String getFieldName() {
+        return this.fieldName;
+    }
+
+    /**
+     * @return - every field, which is what a list returns when no fieldset is asked for
+     */
+    public static Set<EmployeeField> all() {
+        return ALL;
+    }
+
+    /**
+     * Parses a comma separated list of field names, such as {@code id,firstName,lastName}. The ID is always included,
+     * since it's needed to page through results.
+     *
+     * @param fields - the field names, or null or blank for every field
+     * @return - the fields asked for
+     * @throws IllegalArgumentException - if any of the names isn't a field
+     */
+    public static Set<EmployeeField> parse(String fields) {
+        if (fields == null || fields.trim().isEmpty()) {
+            return ALL;
+        }
+
+        Set<EmployeeField> parsed = EnumSet.of(ID);
+        for (String name : fields.split(",")) {
+            parsed.add(fromFieldName(name.trim()));
+        }
+        return parsed.size() == ALL.size() ? ALL : Collections.unmodifiableSet(parsed);
+    }
+
+    private static EmployeeField fromFieldName(String name) {
+        for (EmployeeField field : values()) {
+            if (field.fieldName.equals(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field: " + name);
+    }
+}
@@ -0,0 +1,58 @@
+package com.matt.employees.models;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Optional filters that can be applied when listing {@link Employee} records. Any filter left as null is ignored.
+ */
+public class EmployeeFilter {
+
+    private final String lastNamePrefix;
+    private final LocalDate hiredFrom;
+    private final LocalDate hiredTo;
+
+    public EmployeeFilter(final String lastNamePrefix, final LocalDate hiredFrom, final LocalDate hiredTo) {
+        this.lastNamePrefix = lastNamePrefix;
+        this.hiredFrom = hiredFrom;
+        this.hiredTo = hiredTo;
+    }
+
+    /**
+     * @return - a filter that matches every employee
+     */
+    public static EmployeeFilter none() {
+        return new EmployeeFilter(null, null, null);
+    }
+
+    public String getLastNamePrefix() {
+        return this.lastNamePrefix;
+    }
+
+    public LocalDate getHiredFrom() {
+        return this.hiredFrom;
+    }
+
+    public LocalDate getHiredTo() {
+        return this.hiredTo;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        EmployeeFilter that = (EmployeeFilter) o;
+        return Objects.equals(this.lastNamePrefix, that.lastNamePrefix)
+                && Objects.equals(this.hiredFrom, that.hiredFrom)
+                && Objects.equals(this.hiredTo, that.hiredTo);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.lastNamePrefix, this.hiredFrom, this.hiredTo);
+    }
+}
@@ -0,0 +1,34 @@
+package com.matt.employees.models;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+/**
+ * The number of employees with each status.
+ */
+@ApiModel
+public class EmployeeHeadcount {
+
+    @ApiModelProperty(example="950")
+    private final long active;
+    @ApiModelProperty(example="50")
+    private final long inactive;
+
+    public EmployeeHeadcount(final long active, final long inactive) {
+        this.active = active;
+        this.inactive = inactive;
+    }
+
+    public long getActive() {
+        return this.active;
+    }
+
+    public long getInactive() {
+        return this.inactive;
+    }
+
+    @ApiModelProperty(example="1000")
+    public long getTotal() {
+        return this.active + this.inactive;
+    }
+}
@@ -0,0 +1,74 @@
+package com.matt.employees.models;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.Instant;
+
+/**
+ * How far the import of a file from the import directory has got. A checkpoint is saved in the same transaction as
+ * each chunk of the file, so after a crash the import picks up right after the last chunk that was committed. A file is
+ * only imported again once its size or modification time no longer match its checkpoint.
+ */
+@Entity
+public class EmployeeImportCheckpoint {
+
+    @Id
+    private String fileName;
+
+    private long fileSize;
+    private Instant fileModified;
+
+    // Number of records from the start of the file that have been applied, in file order.
+    private long recordsApplied;
+    private boolean completed;
+    private Instant updated;
+
+    private EmployeeImportCheckpoint() { }
+
+    public EmployeeImportCheckpoint(final String fileName, final long fileSize, final Instant fileModified) {
+        this.fileName = fileName;
+        this.fileSize = fileSize;
+        this.fileModified = fileModified;
+    }
+
+    public String getFileName() {
+        return this.fileName;
+    }
+
+    public long getFileSize() {
+        return this.fileSize;
+    }
+
+    public Instant getFileModified() {
+        return this.fileModified;
+    }
+
+    public long getRecordsApplied() {
+        return this.recordsApplied;
+    }
+
+    public boolean isCompleted() {
+        return this.completed;
+    }
+
+    public Instant getUpdated() {
+        return this.updated;
+    }
+
+    /**
+     * @return - true if this checkpoint was made for the file as it is now
+     */
+    public boolean isFor(long fileSize, Instant fileModified) {
+        return this.fileSize == fileSize && fileModified.equals(this.fileModified);
+    }
+
+    public void addRecordsApplied(long records) {
+        this.recordsApplied += records;
+        this.updated = Instant.now();
+    }
+
+    public void complete() {
+        this.completed = true;
+        this.updated = Instant.now();
+    }
+}
@@ -0,0 +1,56 @@
+package com.matt.employees.models;
+
+/**
+ * The outcome of importing a file from the import directory: how many of its records created new employees, changed
+ * existing ones or matched an existing employee exactly and so weren't written at all.
+ */
+public class EmployeeImportResult {
+
+    private final String fileName;
+    private final boolean alreadyImported;
+    private final long resumedAfter;
+    private final long created;
+    private final long updated;
+    private final long unchanged;
+
+    public EmployeeImportResult(final String fileName, final boolean alreadyImported, final long resumedAfter,
+                                final long created, final long updated, final long unchanged) {
+        this.fileName = fileName;
+        this.alreadyImported = alreadyImported;
+        this.resumedAfter = resumedAfter;
+        this.created = created;
+        this.updated = updated;
+        this.unchanged = unchanged;
+    }
+
+    public String getFileName() {
+        return this.fileName;
+    }
+
+    /**
+     * @return - true if the file had already been imported as it is, so it wasn't read again
+     */
+    public boolean isAlreadyImported() {
+        return this.alreadyImported;
+    }
+
+    /**
+     * @return - the number of records at the start of the file that were skipped because an earlier, interrupted
+     * import had already applied them
+     */
+    public long getResumedAfter() {
+        return this.resumedAfter;
+    }
+
+    public long getCreated() {
+        return this.created;
+    }
+
+    public long getUpdated() {
+        return this.updated;
+    }
+
+    public long getUnchanged() {
+        return this.unchanged;
+    }
+}
@@ -0,0 +1,52 @@
+package com.matt.employees.models;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+/**
+ * An active {@link Employee} found by a fuzzy name search, along with how well its names matched the search. Higher
+ * scores are better matches.
+ */
+@ApiModel
+public class EmployeeNameMatch {
+
+    @ApiModelProperty(example="1")
+    private final long id;
+    @ApiModelProperty(example="Bob")
+    private final String firstName;
+    @ApiModelProperty(example="N")
+    private final String middleInitial;
+    @ApiModelProperty(example="Ross")
+    private final String lastName;
+    @ApiModelProperty(example="2.2")
+    private final float score;
+
+    public EmployeeNameMatch(final long id, final String firstName, final String middleInitial, final String lastName,
+                             final float score) {
+        this.id = id;
+        this.firstName = firstName;
+        this.middleInitial = middleInitial;
+        this.lastName = lastName;
+        this.score = score;
+    }
+
+    public long getId() {
+        return this.id;
+    }
+
+    public String getFirstName() {
+        return this.firstName;
+    }
+
+    public String getMiddleInitial() {
+        return this.middleInitial;
+    }
+
+    public String getLastName() {
+        return this.lastName;
+    }
+
+    public float getScore() {
+        return this.score;
+    }
+}
@@ -0,0 +1,153 @@
+package com.matt.employees.models;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A partial update to an {@link Employee}, following JSON merge patch semantics: fields present in the document are set
+ * (an explicit null clears the field) and fields that are left out are not touched.
+ */
+public class EmployeePatch {
+
+    private final Map<String, Object> changes;
+
+    private EmployeePatch(final Map<String, Object> changes) {
+        this.changes = changes;
+    }
+
+    /**
+     * Builds a patch from a JSON object. Only the employee's detail fields can be patched; the ID and status are
+     * managed by the application.
+     *
+     * @param json - the merge patch document
+     * @return - the parsed patch
+     * @throws IllegalArgumentException - if the document isn't an object, names a field that can't be patched or has a
+     * value of the wrong type
+     */
+    public static EmployeePatch fromJson(JsonNode json) {
+        if (json == null || !json.isObject()) {
+            throw new IllegalArgumentException("Patch must be a JSON object");
+        }
+
+        Map<String, Object> changes = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = json.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            switch (field.getKey()) {
+                case "firstName":
+                case "middleInitial":
+                case "lastName":
+                    changes.put(field.getKey(), textValue(field.getKey(), field.getValue()));
+                    break;
+                case "dateOfBirth":
+                case "dateOfEmployment":
+                    changes.put(field.getKey(), dateValue(field.getKey(), field.getValue()));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Field '" + field.getKey() + "' cannot be patched");
+            }
+        }
+        return new EmployeePatch(changes);
+    }
+
+    /**
+     * @return - the changed fields keyed by {@link Employee} attribute name
+     */
+    public Map<String, Object> getChanges() {
+        return Collections.unmodifiableMap(this.changes);
+    }
+
+    /**
+     * Returns a copy of this patch without the fields that already hold the patched value on the given employee.
+     *
+     * @param employee - the employee the patch is about to be applied to
+     * @return - a patch containing only the fields that would actually change
+     */
+    public EmployeePatch changedFrom(Employee employee) {
+        Map<String, Object> changed = new LinkedHashMap<>();
+        this.changes.forEach((field, value) -> {
+            if (!Objects.equals(currentValue(employee, field), value)) {
+                changed.put(field, value);
+            }
+        });
+        return new EmployeePatch(changed);
+    }
+
+    /**
+     * Sets the patched fields on an employee held in memory.
+     *
+     * @param employee - the employee to change
+     */
+    public void applyTo(Employee employee) {
+        this.changes.forEach((field, value) -> {
+            switch (field) {
+                case "firstName":
+                    employee.setFirstName((String) value);
+                    break;
+                case "middleInitial":
+                    employee.setMiddleInitial((String) value);
+                    break;
+                case "lastName":
+                    employee.setLastName((String) value);
+                    break;
+                case "dateOfBirth":
+                    employee.setDateOfBirth((LocalDate) value);
+                    break;
+                case "dateOfEmployment":
+                    employee.setDateOfEmployment((LocalDate) value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Field '" + field + "' cannot be patched");
+            }
+        });
+    }
+
+    public boolean isEmpty() {
+        return this.changes.isEmpty();
+    }
+
+    private static Object currentValue(Employee employee, String field) {
+        switch (field) {
+            case "firstName":
+                return employee.getFirstName();
+            case "middleInitial":
+                return employee.getMiddleInitial();
+            case "lastName":
+                return employee.getLastName();
+            case "dateOfBirth":
+                return employee.getDateOfBirth();
+            case "dateOfEmployment":
+                return employee.getDateOfEmployment();
+            default:
+                throw new IllegalArgumentException("Field '" + field + "' cannot be patched");
+        }
+    }
+
+    private static String textValue(String field, JsonNode value) {
+        if (value.isNull()) {
+            return null;
+        }
+        if (!value.isTextual()) {
+            throw new IllegalArgumentException("Field '" + field + "' must be a string");
+        }
+        return value.textValue();
+    }
+
+    private static LocalDate dateValue(String field, JsonNode value) {
+        if (value.isNull()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(textValue(field, value));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Field '" + field + "' must be a date formatted as yyyy-MM-dd");
+        }
+    }
+}
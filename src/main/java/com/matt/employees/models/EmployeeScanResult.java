@@ -0,0 +1,30 @@
+package com.matt.employees.models;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.List;
+
+/**
+ * The number of employees matching a scan, along with the first few of them.
+ */
+@ApiModel
+public class EmployeeScanResult {
+
+    @ApiModelProperty(example="1234")
+    private final long matched;
+    private final List<EmployeeSummary> employees;
+
+    public EmployeeScanResult(final long matched, final List<EmployeeSummary> employees) {
+        this.matched = matched;
+        this.employees = employees;
+    }
+
+    public long getMatched() {
+        return this.matched;
+    }
+
+    public List<EmployeeSummary> getEmployees() {
+        return this.employees;
+    }
+}
@@ -0,0 +1,55 @@
+package com.matt.employees.models;
+
+import java.time.LocalDate;
+
+/**
+ * Criteria for searching {@link Employee} records. Name prefixes are matched case insensitively and date ranges are
+ * inclusive. Any criterion left as null is ignored.
+ */
+public class EmployeeSearch {
+
+    private final String firstNamePrefix;
+    private final String lastNamePrefix;
+    private final LocalDate bornFrom;
+    private final LocalDate bornTo;
+    private final LocalDate hiredFrom;
+    private final LocalDate hiredTo;
+
+    public EmployeeSearch(final String firstNamePrefix, final String lastNamePrefix, final LocalDate bornFrom,
+                          final LocalDate bornTo, final LocalDate hiredFrom, final LocalDate hiredTo) {
+        this.firstNamePrefix = emptyToNull(firstNamePrefix);
+        this.lastNamePrefix = emptyToNull(lastNamePrefix);
+        this.bornFrom = bornFrom;
+        this.bornTo = bornTo;
+        this.hiredFrom = hiredFrom;
+        this.hiredTo = hiredTo;
+    }
+
+    public String getFirstNamePrefix() {
+        return this.firstNamePrefix;
+    }
+
+    public String getLastNamePrefix() {
+        return this.lastNamePrefix;
+    }
+
+    public LocalDate getBornFrom() {
+        return this.bornFrom;
+    }
+
+    public LocalDate getBornTo() {
+        return this.bornTo;
+    }
+
+    public LocalDate getHiredFrom() {
+        return this.hiredFrom;
+    }
+
+    public LocalDate getHiredTo() {
+        return this.hiredTo;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,65 @@
+package com.matt.employees.models;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.time.LocalDate;
+
+/**
+ * Read only projection of an {@link Employee} returned by searches. It is built straight from the selected columns, so
+ * search results skip entity hydration and never enter the persistence context.
+ */
+@ApiModel
+public class EmployeeSummary {
+
+    @ApiModelProperty(example="1")
+    private final Long id;
+    @ApiModelProperty(example="Bob")
+    private final String firstName;
+    @ApiModelProperty(example="N")
+    private final String middleInitial;
+    @ApiModelProperty(example="Ross")
+    private final String lastName;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    @ApiModelProperty(example="1942-10-29")
+    private final LocalDate dateOfBirth;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    @ApiModelProperty(example="2006-06-06")
+    private final LocalDate dateOfEmployment;
+
+    public EmployeeSummary(final Long id, final String firstName, final String middleInitial, final String lastName,
+                           final LocalDate dateOfBirth, final LocalDate dateOfEmployment) {
+        this.id = id;
+        this.firstName = firstName;
+        this.middleInitial = middleInitial;
+        this.lastName = lastName;
+        this.dateOfBirth = dateOfBirth;
+        this.dateOfEmployment = dateOfEmployment;
+    }
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public String getFirstName() {
+        return this.firstName;
+    }
+
+    public String getMiddleInitial() {
+        return this.middleInitial;
+    }
+
+    public String getLastName() {
+        return this.lastName;
+    }
+
+    public LocalDate getDateOfBirth() {
+        return this.dateOfBirth;
+    }
+
+    public LocalDate getDateOfEmployment() {
+        return this.dateOfEmployment;
+    }
+}
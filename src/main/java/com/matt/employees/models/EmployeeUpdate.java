@@ -0,0 +1,37 @@
+package com.matt.employees.models;
+
+import com.matt.employees.events.EmployeeChangedEvent;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+/**
+ * An update pushed to subscribers of {@code GET /employees/updates}: the state an {@link Employee} was saved in, and
+ * its version, which increases with every save so that clients can tell which of two updates is newer.
+ */
+@ApiModel
+public class EmployeeUpdate {
+
+    @ApiModelProperty(example="UPDATED")
+    private final EmployeeChangedEvent.Type type;
+    @ApiModelProperty(example="3")
+    private final long version;
+    private final Employee employee;
+
+    public EmployeeUpdate(final EmployeeChangedEvent.Type type, final long version, final Employee employee) {
+        this.type = type;
+        this.version = version;
+        this.employee = employee;
+    }
+
+    public EmployeeChangedEvent.Type getType() {
+        return this.type;
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    public Employee getEmployee() {
+        return this.employee;
+    }
+}
@@ -0,0 +1,21 @@
+package com.matt.employees.repositories;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.io.Serializable;
+
+/**
+ * The pooled sequence generator behind employee IDs, except that an employee that already has an ID keeps it. This
+ * lets the write-behind buffer hand out IDs as soon as an employee is created and insert the employee with that ID
+ * later on.
+ */
+public class EmployeeIdGenerator extends SequenceStyleGenerator {
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) throws HibernateException {
+        Serializable id = session.getEntityPersister(null, object).getIdentifier(object, session);
+        return id != null ? id : super.generate(session, object);
+    }
+}
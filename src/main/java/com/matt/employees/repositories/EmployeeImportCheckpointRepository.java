@@ -0,0 +1,7 @@
+package com.matt.employees.repositories;
+
+import com.matt.employees.models.EmployeeImportCheckpoint;
+import org.springframework.data.repository.CrudRepository;
+
+public interface EmployeeImportCheckpointRepository extends CrudRepository<EmployeeImportCheckpoint, String> {
+}
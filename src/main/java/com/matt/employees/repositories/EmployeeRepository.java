@@ -2,13 +2,74 @@ package com.matt.employees.repositories;
 
 import com.matt.employees.models.Employee;
 import com.matt.employees.models.EmployeeStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface EmployeeRepository extends CrudRepository<Employee, Long> {
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public interface EmployeeRepository extends CrudRepository<Employee, Long>, EmployeeRepositoryCustom {
     Optional<Employee> findByIdAndStatus(Long id, EmployeeStatus status);
     Collection<Employee> findByStatus(EmployeeStatus status);
+    List<Employee> findByIdInAndStatus(Collection<Long> ids, EmployeeStatus status);
+
+    /**
+     * Finds the employees, active or not, with any of the last names and any of the dates of birth. Used to look up a
+     * whole chunk of imported records by their natural key in one query; callers match the full key themselves.
+     */
+    List<Employee> findByLastNameInAndDateOfBirthIn(Collection<String> lastNames, Collection<LocalDate> datesOfBirth);
+
+    /**
+     * Looks up the current versions and last modified times of the employees with any of the IDs, without loading the
+     * employees themselves.
+     *
+     * @return - an array of ID, version and last modified time for each employee found
+     */
+    @Query("select e.id, e.version, e.lastModified from Employee e where e.id in :ids")
+    List<Object[]> findVersionsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * @return - a single array holding the lowest and highest employee IDs, both null if there are no employees
+     */
+    @Query("select min(e.id), max(e.id) from Employee e")
+    List<Object[]> findIdRange();
+
+    /**
+     * Reads the columns employee analytics are built from, for a keyset page of the employees in an ID range, active
+     * or not.
+     *
+     * @return - an array of ID, version, status, date of employment and date of birth for each employee, ordered by ID
+     */
+    @Query("select e.id, e.version, e.status, e.dateOfEmployment, e.dateOfBirth from Employee e "
+            + "where e.id > :after and e.id <= :last order by e.id")
+    List<Object[]> findAnalyticsRows(@Param("after") long after, @Param("last") long last, Pageable pageable);
+
+    /**
+     * Reads the columns of a keyset page of employees, active or not, for the columnar snapshot.
+     *
+     * @return - an array of ID, version, status, date of birth, date of employment, first name, middle initial and last
+     * name for each employee, ordered by ID
+     */
+    @Query("select e.id, e.version, e.status, e.dateOfBirth, e.dateOfEmployment, e.firstName, e.middleInitial, "
+            + "e.lastName from Employee e where e.id > :after order by e.id")
+    List<Object[]> findSnapshotRows(@Param("after") long after, Pageable pageable);
+
+    /**
+     * Streams every employee ordered by ID. Must be called inside a transaction, and the returned stream must be closed
+     * to release the underlying cursor.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select e from Employee e order by e.id")
+    Stream<Employee> streamAll();
 }
 
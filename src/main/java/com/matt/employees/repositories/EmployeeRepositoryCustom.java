@@ -0,0 +1,108 @@
+package com.matt.employees.repositories;
+
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeField;
+import com.matt.employees.models.EmployeeFilter;
+import com.matt.employees.models.EmployeePatch;
+import com.matt.employees.models.EmployeeSearch;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.models.EmployeeSummary;
+
+import javax.persistence.Tuple;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Queries that can't be expressed as Spring Data derived query methods. Implemented by {@link EmployeeRepositoryImpl}
+ * and mixed into {@link EmployeeRepository}.
+ */
+public interface EmployeeRepositoryCustom {
+
+    /**
+     * Returns a single page of employees using keyset (seek) pagination. Without filters the page is ordered by ID: the
+     * database seeks the {@code (status, id)} index straight to the first row after the cursor and reads rows in order
+     * until it has {@code limit} of them, so no sort is needed however deep the page is.
+     *
+     * A filtered page is ordered instead by the filtered column and then by ID, which is the order of the
+     * {@code (status, column, id)} index: by last name, ignoring case, when a last name prefix is set, otherwise by
+     * date of employment. Only the rows matching that filter are read, so the cost of a page doesn't depend on how many
+     * employees the filter leaves out. As with a search, {@code after} is then the ID of the last employee on the
+     * previous page, and the page continues from that employee's position in the ordering.
+     *
+     * @param status - status the employees must have
+     * @param after - ID of the last employee on the previous page, or null to start from the beginning
+     * @param limit - maximum number of employees to return
+     * @param filter - optional filters to apply
+     * @return - up to {@code limit} employees
+     * @throws IllegalArgumentException - if the page is filtered and {@code after} isn't the ID of an employee, which
+     * the repository proxy translates to an {@link org.springframework.dao.InvalidDataAccessApiUsageException}
+     */
+    List<Employee> findPage(EmployeeStatus status, Long after, int limit, EmployeeFilter filter);
+
+    /**
+     * Returns the same page as {@link #findPage(EmployeeStatus, Long, int, EmployeeFilter)}, but selects only the
+     * requested columns into tuples instead of loading entities, so nothing is hydrated or added to the persistence
+     * context. Each tuple element is aliased with its {@link EmployeeField#getFieldName() field name}.
+     *
+     * @param status - status the employees must have
+     * @param after - ID of the last employee on the previous page, or null to start from the beginning
+     * @param limit - maximum number of employees to return
+     * @param filter - optional filters to apply
+     * @param fields - the fields to select, which must include {@link EmployeeField#ID}
+     * @return - up to {@code limit} tuples
+     * @throws IllegalArgumentException - if the page is filtered and {@code after} isn't the ID of an employee
+     */
+    List<Tuple> findPageFields(EmployeeStatus status, Long after, int limit, EmployeeFilter filter,
+                               Set<EmployeeField> fields);
+
+    /**
+     * Returns a single page of employees matching the search as {@link EmployeeSummary} projections.
+     *
+     * Results are ordered by the column of the first criterion that is set, in the order last name, first name, date of
+     * employment and date of birth, and then by ID, which is the order of the {@code (status, column, id)} index for
+     * that column. The database can therefore seek to the first match and stop after {@code limit} rows however many
+     * rows match in total. With no criteria set, results are ordered by ID.
+     *
+     * Pages are keyset pages: {@code after} is the ID of the last employee on the previous page, and results continue
+     * from that employee's position in the ordering.
+     *
+     * @param status - status the employees must have
+     * @param search - the search criteria
+     * @param after - ID of the last employee on the previous page, or null to start from the beginning
+     * @param limit - maximum number of employees to return
+     * @return - up to {@code limit} matching employees
+     * @throws IllegalArgumentException - if {@code after} isn't the ID of an employee, which the repository proxy
+     * translates to an {@link org.springframework.dao.InvalidDataAccessApiUsageException}
+     */
+    List<EmployeeSummary> search(EmployeeStatus status, EmployeeSearch search, Long after, int limit);
+
+    /**
+     * Applies a patch to an employee as a single UPDATE statement that only sets the patched columns, bumps the
+     * version and touches the last modified time. The update only matches the row if it still has the expected status
+     * and version, so a concurrent change makes it update nothing rather than being overwritten.
+     *
+     * Bulk updates skip entity callbacks, so the normalized name columns are set here alongside any patched names. The
+     * persistence context is cleared afterwards so that later reads in the same transaction see the new values.
+     *
+     * @param id - ID of the employee to update
+     * @param status - status the employee must have
+     * @param expectedVersion - version the employee must be at
+     * @param patch - the columns to change, must not be empty
+     * @return - the number of rows updated, either 0 or 1
+     */
+    int applyPatch(Long id, EmployeeStatus status, Long expectedVersion, EmployeePatch patch);
+
+    /**
+     * Overwrites employees with the supplied states, including their versions and last modified times, as a single JDBC
+     * batch of UPDATE statements. Each update only matches its row if the row is still at the expected version.
+     *
+     * As with {@link #applyPatch(Long, EmployeeStatus, Long, EmployeePatch)}, entity callbacks are skipped, so the
+     * normalized name columns are set here. The persistence context is flushed first, so employees persisted earlier in
+     * the same transaction can be updated, but isn't refreshed afterwards.
+     *
+     * @param states - the employees as they should be stored
+     * @param expectedVersions - the version each employee must be at, in the same order as {@code states}
+     * @return - the number of rows updated by each statement, either 0 or 1
+     */
+    int[] applyStates(List<Employee> states, List<Long> expectedVersions);
+}
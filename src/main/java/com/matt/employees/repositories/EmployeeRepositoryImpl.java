@@ -0,0 +1,333 @@
+package com.matt.employees.repositories;
+
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeField;
+import com.matt.employees.models.EmployeeFilter;
+import com.matt.employees.models.EmployeePatch;
+import com.matt.employees.models.EmployeeSearch;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.models.EmployeeSummary;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Selection;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Criteria API backed implementation of {@link EmployeeRepositoryCustom}.
+ */
+class EmployeeRepositoryImpl implements EmployeeRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile String applyStatesSql;
+
+    @Override
+    public List<Employee> findPage(EmployeeStatus status, Long after, int limit, EmployeeFilter filter) {
+        CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Employee> query = builder.createQuery(Employee.class);
+        Root<Employee> employee = query.from(Employee.class);
+
+        query.select(employee);
+        keyset(builder, query, employee, pagePredicates(builder, employee, status, filter), orderColumn(filter), after);
+
+        return this.entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<Tuple> findPageFields(EmployeeStatus status, Long after, int limit, EmployeeFilter filter,
+                                      Set<EmployeeField> fields) {
+        CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Employee> employee = query.from(Employee.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (EmployeeField field : fields) {
+            selections.add(employee.get(field.getFieldName()).alias(field.getFieldName()));
+        }
+
+        query.multiselect(selections);
+        keyset(builder, query, employee, pagePredicates(builder, employee, status, filter), orderColumn(filter), after);
+
+        return this.entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<EmployeeSummary> search(EmployeeStatus status, EmployeeSearch search, Long after, int limit) {
+        CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<EmployeeSummary> query = builder.createQuery(EmployeeSummary.class);
+        Root<Employee> employee = query.from(Employee.class);
+
+        query.select(builder.construct(EmployeeSummary.class, employee.get("id"), employee.get("firstName"),
+                employee.get("middleInitial"), employee.get("lastName"), employee.get("dateOfBirth"),
+                employee.get("dateOfEmployment")));
+        keyset(builder, query, employee, searchPredicates(builder, employee, status, search), orderColumn(search),
+                after);
+
+        return this.entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional
+    public int applyPatch(Long id, EmployeeStatus status, Long expectedVersion, EmployeePatch patch) {
+        CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Employee> update = builder.createCriteriaUpdate(Employee.class);
+        Root<Employee> employee = update.from(Employee.class);
+        Path<Long> version = employee.get("version");
+
+        Map<String, Object> changes = patch.getChanges();
+        changes.forEach(update::set);
+        if (changes.containsKey("firstName")) {
+            update.set(employee.<String>get("firstNameLower"), Employee.normalizeName((String) changes.get("firstName")));
+        }
+        if (changes.containsKey("lastName")) {
+            update.set(employee.<String>get("lastNameLower"), Employee.normalizeName((String) changes.get("lastName")));
+        }
+        update.set(version, builder.sum(version, 1L))
+                .set(employee.<Instant>get("lastModified"), Instant.now())
+                .where(builder.equal(employee.get("id"), id),
+                        builder.equal(employee.get("status"), status),
+                        builder.equal(version, expectedVersion));
+
+        int updated = this.entityManager.createQuery(update).executeUpdate();
+        this.entityManager.clear();
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int[] applyStates(List<Employee> states, List<Long> expectedVersions) {
+        if (states.isEmpty()) {
+            return new int[0];
+        }
+        this.entityManager.flush();
+        String sql = applyStatesSql();
+        return this.entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < states.size(); i++) {
+                    Employee state = states.get(i);
+                    statement.setString(1, state.getFirstName());
+                    statement.setString(2, state.getMiddleInitial());
+                    statement.setString(3, state.getLastName());
+                    statement.setObject(4, toSqlDate(state.getDateOfBirth()), Types.DATE);
+                    statement.setObject(5, toSqlDate(state.getDateOfEmployment()), Types.DATE);
+                    statement.setString(6, state.getStatus() == null ? null : state.getStatus().name());
+                    statement.setLong(7, state.getVersion());
+                    statement.setObject(8, state.getLastModified() == null ? null
+                            : Timestamp.from(state.getLastModified()), Types.TIMESTAMP);
+                    statement.setString(9, Employee.normalizeName(state.getFirstName()));
+                    statement.setString(10, Employee.normalizeName(state.getLastName()));
+                    statement.setLong(11, state.getId());
+                    statement.setLong(12, expectedVersions.get(i));
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * Builds the UPDATE used by {@link #applyStates(List, List)}, taking the table and column names from Hibernate's
+     * mapping so they follow whatever naming strategy is in use.
+     */
+    private String applyStatesSql() {
+        String sql = this.applyStatesSql;
+        if (sql == null) {
+            AbstractEntityPersister persister = (AbstractEntityPersister) this.entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class).getMetamodel().entityPersister(Employee.class);
+            StringBuilder builder = new StringBuilder("update ").append(persister.getTableName()).append(" set ");
+            String[] columns = {"firstName", "middleInitial", "lastName", "dateOfBirth", "dateOfEmployment", "status",
+                    "version", "lastModified", "firstNameLower", "lastNameLower"};
+            for (int i = 0; i < columns.length; i++) {
+                builder.append(i == 0 ? "" : ", ").append(persister.getPropertyColumnNames(columns[i])[0]).append(" = ?");
+            }
+            builder.append(" where ").append(persister.getIdentifierColumnNames()[0]).append(" = ? and ")
+                    .append(persister.getPropertyColumnNames("version")[0]).append(" = ?");
+            sql = builder.toString();
+            this.applyStatesSql = sql;
+        }
+        return sql;
+    }
+
+    private static java.sql.Date toSqlDate(LocalDate date) {
+        return date == null ? null : java.sql.Date.valueOf(date);
+    }
+
+    /**
+     * Restricts a keyset query to the given predicates and the rows after the cursor, and orders it by
+     * {@code (status, orderColumn, id)}, or by {@code (status, id)} when there's no order column. Status is fixed by
+     * every query, so ordering by it doesn't change the results, but it lets the database see that rows read from the
+     * matching index are already in order and stop after the limit instead of sorting.
+     */
+    private void keyset(CriteriaBuilder builder, CriteriaQuery<?> query, Root<Employee> employee,
+                        List<Predicate> predicates, String orderColumn, Long after) {
+        Path<Long> id = employee.get("id");
+        if (orderColumn == null) {
+            if (after != null) {
+                predicates.add(builder.greaterThan(id, after));
+            }
+            query.orderBy(builder.asc(employee.get("status")), builder.asc(id));
+        } else {
+            Path<Comparable<Object>> order = employee.get(orderColumn);
+            if (after != null) {
+                predicates.add(afterCursor(builder, orderColumn, order, id, after));
+            }
+            query.orderBy(builder.asc(employee.get("status")), builder.asc(order), builder.asc(id));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+    }
+
+    /**
+     * Builds the predicates for a page of the employee list. Filters that aren't set are left out entirely rather than
+     * being expressed as "param is null or ..." so they don't defeat index usage. The last name is matched against the
+     * normalized column, as in a search, so the prefix is normalized the same way.
+     */
+    static List<Predicate> pagePredicates(CriteriaBuilder builder, Root<Employee> employee, EmployeeStatus status,
+                                          EmployeeFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(builder.equal(employee.get("status"), status));
+
+        if (hasLastNamePrefix(filter)) {
+            predicates.add(builder.like(employee.get("lastNameLower"),
+                    escapeLike(Employee.normalizeName(filter.getLastNamePrefix())) + "%", '\\'));
+        }
+        if (filter.getHiredFrom() != null) {
+            predicates.add(builder.greaterThanOrEqualTo(employee.get("dateOfEmployment"), filter.getHiredFrom()));
+        }
+        if (filter.getHiredTo() != null) {
+            predicates.add(builder.lessThanOrEqualTo(employee.get("dateOfEmployment"), filter.getHiredTo()));
+        }
+        return predicates;
+    }
+
+    /**
+     * Builds the predicates for a search. As with the page queries, criteria that aren't set are left out entirely.
+     * Names are matched against the normalized name columns, so the prefix is normalized the same way.
+     */
+    static List<Predicate> searchPredicates(CriteriaBuilder builder, Root<Employee> employee, EmployeeStatus status,
+                                            EmployeeSearch search) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(builder.equal(employee.get("status"), status));
+
+        if (search.getLastNamePrefix() != null) {
+            predicates.add(builder.like(employee.get("lastNameLower"),
+                    escapeLike(Employee.normalizeName(search.getLastNamePrefix())) + "%", '\\'));
+        }
+        if (search.getFirstNamePrefix() != null) {
+            predicates.add(builder.like(employee.get("firstNameLower"),
+                    escapeLike(Employee.normalizeName(search.getFirstNamePrefix())) + "%", '\\'));
+        }
+        if (search.getHiredFrom() != null) {
+            predicates.add(builder.greaterThanOrEqualTo(employee.get("dateOfEmployment"), search.getHiredFrom()));
+        }
+        if (search.getHiredTo() != null) {
+            predicates.add(builder.lessThanOrEqualTo(employee.get("dateOfEmployment"), search.getHiredTo()));
+        }
+        if (search.getBornFrom() != null) {
+            predicates.add(builder.greaterThanOrEqualTo(employee.get("dateOfBirth"), search.getBornFrom()));
+        }
+        if (search.getBornTo() != null) {
+            predicates.add(builder.lessThanOrEqualTo(employee.get("dateOfBirth"), search.getBornTo()));
+        }
+        return predicates;
+    }
+
+    /**
+     * Picks the column a filtered page is ordered by, so that it can be read in order from the index on that column
+     * rather than by walking every active employee in ID order and checking the filter against each one. Unfiltered
+     * pages are ordered by ID.
+     */
+    static String orderColumn(EmployeeFilter filter) {
+        if (hasLastNamePrefix(filter)) {
+            return "lastNameLower";
+        }
+        if (filter.getHiredFrom() != null || filter.getHiredTo() != null) {
+            return "dateOfEmployment";
+        }
+        return null;
+    }
+
+    private static boolean hasLastNamePrefix(EmployeeFilter filter) {
+        return filter.getLastNamePrefix() != null && !filter.getLastNamePrefix().isEmpty();
+    }
+
+    /**
+     * Picks the column search results are ordered by: the column of the first criterion that's set, so that results
+     * can be read in order from that column's index.
+     */
+    static String orderColumn(EmployeeSearch search) {
+        if (search.getLastNamePrefix() != null) {
+            return "lastNameLower";
+        }
+        if (search.getFirstNamePrefix() != null) {
+            return "firstNameLower";
+        }
+        if (search.getHiredFrom() != null || search.getHiredTo() != null) {
+            return "dateOfEmployment";
+        }
+        if (search.getBornFrom() != null || search.getBornTo() != null) {
+            return "dateOfBirth";
+        }
+        return null;
+    }
+
+    /**
+     * Matches the rows that come after the cursor employee when ordering by {@code (order, id)}. The cursor's current
+     * value for the order column is looked up by ID. The predicate is written as {@code order >= value and (order >
+     * value or id > after)} rather than as just the disjunction, so the database can still seek the index to the
+     * cursor's value.
+     */
+    private Predicate afterCursor(CriteriaBuilder builder, String orderColumn, Path<Comparable<Object>> order,
+                                  Path<Long> id, Long after) {
+        CriteriaQuery<Object> cursorQuery = builder.createQuery();
+        Root<Employee> cursor = cursorQuery.from(Employee.class);
+        cursorQuery.select(cursor.get(orderColumn))
+                .where(builder.equal(cursor.get("id"), after));
+
+        List<Object> cursorValues = this.entityManager.createQuery(cursorQuery).getResultList();
+        if (cursorValues.isEmpty()) {
+            throw new IllegalArgumentException("after must be the ID of an employee");
+        }
+
+        @SuppressWarnings("unchecked")
+        Comparable<Object> value = (Comparable<Object>) cursorValues.get(0);
+        if (value == null) {
+            return builder.greaterThan(id, after);
+        }
+        return builder.and(builder.greaterThanOrEqualTo(order, value),
+                builder.or(builder.greaterThan(order, value), builder.greaterThan(id, after)));
+    }
+
+    /**
+     * Escape LIKE wildcards so user supplied prefixes are matched literally.
+     */
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,71 @@
+package com.matt.employees.repositories;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every call made through {@link EmployeeRepository}, tagged with the repository method, and records how many
+ * rows are returned by the methods that return collections.
+ *
+ * Timers for calls that complete normally are looked up once per method and kept, so timing the common path doesn't
+ * cost a meter registry lookup per query.
+ */
+@Aspect
+@Component
+public class EmployeeRepositoryMetrics {
+
+    static final String QUERY_TIMER = "employees.repository.queries";
+    static final String ROWS_SUMMARY = "employees.repository.rows";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> rowSummaries = new ConcurrentHashMap<>();
+
+    public EmployeeRepositoryMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * *(..)) && target(com.matt.employees.repositories.EmployeeRepository)")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        Timer.Sample sample = Timer.start(this.meterRegistry);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable t) {
+            sample.stop(timer(method, t.getClass().getSimpleName()));
+            throw t;
+        }
+        sample.stop(this.timers.computeIfAbsent(method, name -> timer(name, "None")));
+
+        if (result instanceof Collection) {
+            this.rowSummaries.computeIfAbsent(method, this::rowSummary).record(((Collection<?>) result).size());
+        }
+        return result;
+    }
+
+    private Timer timer(String method, String exception) {
+        return Timer.builder(QUERY_TIMER)
+                .description("Time taken by employee repository calls")
+                .tags("method", method, "exception", exception)
+                .publishPercentileHistogram()
+                .register(this.meterRegistry);
+    }
+
+    private DistributionSummary rowSummary(String method) {
+        return DistributionSummary.builder(ROWS_SUMMARY)
+                .description("Number of rows returned by employee repository calls")
+                .tags("method", method)
+                .publishPercentileHistogram()
+                .register(this.meterRegistry);
+    }
+}
@@ -0,0 +1,45 @@
+package com.matt.employees.repositories;
+
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeFilter;
+import com.matt.employees.models.EmployeeStatus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+
+/**
+ * {@link ReactiveEmployeeRepository} backed by {@link EmployeeRepository}. JPA only offers blocking calls, so each call
+ * runs on the JDBC scheduler from {@link com.matt.employees.config.ReactiveExecutionConfig}, and the event loop threads
+ * never block.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+class JpaReactiveEmployeeRepository implements ReactiveEmployeeRepository {
+
+    private final EmployeeRepository employeeRepository;
+    private final Scheduler scheduler;
+
+    JpaReactiveEmployeeRepository(EmployeeRepository employeeRepository, Scheduler jdbcScheduler) {
+        this.employeeRepository = employeeRepository;
+        this.scheduler = jdbcScheduler;
+    }
+
+    @Override
+    public Flux<Employee> findByStatus(EmployeeStatus status, int pageSize) {
+        // Each page is only fetched once everything from the page before has been requested downstream.
+        return findPage(status, null, pageSize)
+                .expand(page -> page.size() < pageSize
+                        ? Mono.empty()
+                        : findPage(status, page.get(page.size() - 1).getId(), pageSize))
+                .concatMapIterable(page -> page);
+    }
+
+    private Mono<List<Employee>> findPage(EmployeeStatus status, Long after, int pageSize) {
+        return Mono.fromCallable(() -> this.employeeRepository.findPage(status, after, pageSize, EmployeeFilter.none()))
+                .subscribeOn(this.scheduler);
+    }
+}
@@ -0,0 +1,23 @@
+package com.matt.employees.repositories;
+
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeStatus;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking equivalent of {@link EmployeeRepository}, used by the reactive flavour of the API to stream the employee
+ * list. Single employees are read and written through {@link com.matt.employees.services.EmployeeService}, the same as
+ * the servlet flavour of the API.
+ */
+public interface ReactiveEmployeeRepository {
+
+    /**
+     * Streams every employee with the given status, ordered by ID. Employees are fetched a page at a time as the
+     * subscriber asks for them, so a slow subscriber holds back the reads instead of having them buffered for it.
+     *
+     * @param status - status the employees must have
+     * @param pageSize - number of employees to fetch from the database at a time
+     * @return - the matching employees
+     */
+    Flux<Employee> findByStatus(EmployeeStatus status, int pageSize);
+}
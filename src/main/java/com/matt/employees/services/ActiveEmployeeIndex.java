@@ -0,0 +1,235 @@
+package com.matt.employees.services;
+
+import com.matt.employees.events.EmployeeChangedEvent;
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeFilter;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.repositories.EmployeeRepository;
+import com.matt.employees.utilities.LongObjectHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Optional in-memory copy of every active employee, keyed by ID, that single employee lookups can be answered from
+ * without going to the database at all. Enabled with {@code employees.active-index.enabled}.
+ *
+ * Employees are held as compact records in a {@link LongObjectHashMap}, with their names interned and their dates
+ * stored as epoch days. Lookups are optimistic reads of a {@link StampedLock}, so they don't block or write to shared
+ * memory unless they race with a change, in which case they retry under the read lock.
+ *
+ * The index follows every {@link EmployeeChangedEvent} once it has been committed, from the very first save of the
+ * initial data load, and is filled in from the database once the application is ready. Only then does it start
+ * {@link #isServing() serving} lookups, since until then a miss can't be trusted to mean the employee isn't active.
+ * Changes are only applied if they are newer than the version already held, so a change whose event is handled late
+ * can't overwrite a newer one. For the same reason deactivated employees leave a small tombstone behind rather than
+ * being removed.
+ *
+ * Changes made to the database by anything other than this application are never seen by the index, so it should only
+ * be enabled when the application owns the employee table.
+ */
+@Component
+public class ActiveEmployeeIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActiveEmployeeIndex.class);
+
+    private static final int WARM_PAGE_SIZE = 1000;
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final EmployeeRepository employeeRepository;
+    private final boolean enabled;
+
+    private final StampedLock lock = new StampedLock();
+    private final LongObjectHashMap<IndexedEmployee> employees = new LongObjectHashMap<>();
+    private int activeCount;
+
+    private volatile boolean serving;
+
+    public ActiveEmployeeIndex(EmployeeRepository employeeRepository,
+                               @Value("${employees.active-index.enabled}") boolean enabled) {
+        this.employeeRepository = employeeRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return - true once the index holds every active employee and can be used in place of the database
+     */
+    public boolean isServing() {
+        return this.serving;
+    }
+
+    /**
+     * Looks up an active employee in the index. Each call returns a new, detached {@link Employee}.
+     *
+     * @param employeeId - ID of the employee to look up
+     * @return - the active employee, or an empty optional if the index has no active employee with the ID
+     */
+    public Optional<Employee> get(long employeeId) {
+        long stamp = this.lock.tryOptimisticRead();
+        IndexedEmployee employee = this.employees.get(employeeId);
+        if (!this.lock.validate(stamp)) {
+            stamp = this.lock.readLock();
+            try {
+                employee = this.employees.get(employeeId);
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+
+        // Records are immutable, so they can be copied out after the lock has been let go.
+        if (employee == null || !employee.active) {
+            return Optional.empty();
+        }
+        return Optional.of(employee.toEmployee(employeeId));
+    }
+
+    /**
+     * @return - the number of active employees in the index
+     */
+    public int size() {
+        long stamp = this.lock.readLock();
+        try {
+            return this.activeCount;
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (!this.enabled) {
+            return;
+        }
+
+        Employee employee = event.getEmployee();
+        long stamp = this.lock.writeLock();
+        try {
+            apply(employee.getId(), IndexedEmployee.of(employee));
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Fills the index in with every active employee in the database, a keyset page at a time, and then starts serving
+     * lookups from it. Runs once the application is ready, which is after the initial data has been loaded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        if (!this.enabled) {
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        Long after = null;
+        List<Employee> page;
+        do {
+            page = this.employeeRepository.findPage(EmployeeStatus.ACTIVE, after, WARM_PAGE_SIZE,
+                    EmployeeFilter.none());
+
+            // Changes published while we were reading the page are newer than what we read, so the version check
+            // in apply() keeps them.
+            long stamp = this.lock.writeLock();
+            try {
+                for (Employee employee : page) {
+                    apply(employee.getId(), IndexedEmployee.of(employee));
+                }
+            } finally {
+                this.lock.unlockWrite(stamp);
+            }
+
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == WARM_PAGE_SIZE);
+
+        this.serving = true;
+        logger.info("Indexed {} active employees in {} ms", size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    }
+
+    // Must be called while holding the write lock.
+    private void apply(long employeeId, IndexedEmployee employee) {
+        IndexedEmployee current = this.employees.get(employeeId);
+        if (current != null && current.version > employee.version) {
+            return;
+        }
+
+        this.employees.put(employeeId, employee);
+        if (current != null && current.active) {
+            this.activeCount--;
+        }
+        if (employee.active) {
+            this.activeCount++;
+        }
+    }
+
+    private static int toEpochDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    private static LocalDate fromEpochDay(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static String intern(String value) {
+        return value == null ? null : value.intern();
+    }
+
+    /**
+     * The indexed copy of an employee, or a tombstone for an employee that's no longer active.
+     */
+    private static final class IndexedEmployee {
+
+        private final boolean active;
+        private final long version;
+        private final long lastModified;
+        private final String firstName;
+        private final String middleInitial;
+        private final String lastName;
+        private final int dateOfBirth;
+        private final int dateOfEmployment;
+
+        private IndexedEmployee(boolean active, long version, long lastModified, String firstName,
+                                String middleInitial, String lastName, int dateOfBirth, int dateOfEmployment) {
+            this.active = active;
+            this.version = version;
+            this.lastModified = lastModified;
+            this.firstName = firstName;
+            this.middleInitial = middleInitial;
+            this.lastName = lastName;
+            this.dateOfBirth = dateOfBirth;
+            this.dateOfEmployment = dateOfEmployment;
+        }
+
+        static IndexedEmployee of(Employee employee) {
+            long version = employee.getVersion() == null ? 0 : employee.getVersion();
+            if (employee.getStatus() != EmployeeStatus.ACTIVE) {
+                return new IndexedEmployee(false, version, 0, null, null, null, NO_DATE, NO_DATE);
+            }
+            return new IndexedEmployee(true, version,
+                    employee.getLastModified() == null ? 0 : employee.getLastModified().toEpochMilli(),
+                    intern(employee.getFirstName()), intern(employee.getMiddleInitial()),
+                    intern(employee.getLastName()), toEpochDay(employee.getDateOfBirth()),
+                    toEpochDay(employee.getDateOfEmployment()));
+        }
+
+        Employee toEmployee(long id) {
+            return Employee.restore(id, this.firstName, this.middleInitial, this.lastName,
+                    fromEpochDay(this.dateOfBirth), fromEpochDay(this.dateOfEmployment), EmployeeStatus.ACTIVE,
+                    this.version, this.lastModified == 0 ? null : Instant.ofEpochMilli(this.lastModified));
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.matt.employees.services;
+
+import com.matt.employees.events.EmployeeChangedEvent;
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeHeadcount;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.repositories.EmployeeRepository;
+import com.matt.employees.utilities.LongObjectHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headcount, hiring, tenure and age figures for reporting, kept up to date as employees change so that asking for them
+ * doesn't mean reading every employee. Enabled with {@code employees.analytics.enabled}.
+ *
+ * Employees are counted by status, and by status within each month of hire and month of birth. Every committed
+ * {@link EmployeeChangedEvent} moves its employee from the buckets it was counted in to the ones it now belongs in, so
+ * a small record of where each employee was counted is kept alongside the counts. Hires by year or month are read
+ * straight from the counts, and tenure and age are worked out from them in whole months as of today, so every answer
+ * costs time in proportion to the number of distinct months rather than the number of employees.
+ *
+ * The counts are rebuilt from scratch once the application is ready, and whenever {@link #rebuild()} is called, by
+ * scanning the employee table in ID ranges on several threads at once. Events committed during a rebuild are applied
+ * to the new counts as well as the old ones, and as with the {@link ActiveEmployeeIndex}, rows or events older than the
+ * version already counted are ignored, so a rebuild can run alongside writes. Answers come from the old counts until
+ * the rebuild is complete.
+ *
+ * Like the other in-memory views, only changes made through this application are seen between rebuilds.
+ */
+@Component
+public class EmployeeAnalytics {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeAnalytics.class);
+
+    public static final String UNKNOWN = "unknown";
+
+    private static final int NO_MONTH = Integer.MIN_VALUE;
+
+    public enum Period {
+        YEAR, MONTH
+    }
+
+    private final EmployeeRepository employeeRepository;
+    private final boolean enabled;
+    private final int rebuildThreads;
+    private final int rebuildPageSize;
+
+    // Guards both sets of counts.
+    private final Object lock = new Object();
+    private Counts counts = new Counts();
+    private Counts rebuilding;
+
+    private volatile boolean serving;
+
+    public EmployeeAnalytics(EmployeeRepository employeeRepository,
+                             @Value("${employees.analytics.enabled}") boolean enabled,
+                             @Value("${employees.analytics.rebuild-threads}") int rebuildThreads,
+                             @Value("${employees.analytics.rebuild-page-size}") int rebuildPageSize) {
+        this.employeeRepository = employeeRepository;
+        this.enabled = enabled;
+        this.rebuildThreads = rebuildThreads;
+        this.rebuildPageSize = rebuildPageSize;
+    }
+
+    /**
+     * @return - true once the counts have been built from the database
+     */
+    public boolean isServing() {
+        return this.serving;
+    }
+
+    public EmployeeHeadcount headcount() {
+        synchronized (this.lock) {
+            return new EmployeeHeadcount(this.counts.active, this.counts.inactive);
+        }
+    }
+
+    /**
+     * Counts employees by the year or month they were hired, keyed as {@code 2018} or {@code 2018-06} respectively, in
+     * order, with employees without a date of employment counted under {@value #UNKNOWN}.
+     *
+     * @param period - whether to count by year or by month
+     * @param status - the status employees must have to be counted, or null to count every employee
+     * @return - the number of employees hired in each period that has any
+     */
+    public Map<String, Long> hires(Period period, EmployeeStatus status) {
+        TreeMap<Integer, Long> byPeriod = new TreeMap<>();
+        long unknown = 0;
+        synchronized (this.lock) {
+            for (Map.Entry<Integer, long[]> entry : this.counts.hires.entrySet()) {
+                long count = count(entry.getValue(), status);
+                if (count == 0) {
+                    continue;
+                }
+                int month = entry.getKey();
+                if (month == NO_MONTH) {
+                    unknown += count;
+                } else {
+                    byPeriod.merge(period == Period.YEAR ? Math.floorDiv(month, 12) : month, count, Long::sum);
+                }
+            }
+        }
+
+        Map<String, Long> hires = new LinkedHashMap<>();
+        byPeriod.forEach((key, count) -> hires.put(period == Period.YEAR
+                ? String.valueOf(key)
+                : YearMonth.of(Math.floorDiv(key, 12), Math.floorMod(key, 12) + 1).toString(), count));
+        if (unknown > 0) {
+            hires.put(UNKNOWN, unknown);
+        }
+        return hires;
+    }
+
+    /**
+     * Counts active employees by how long they have been employed, in buckets of whole years keyed by the lowest tenure
+     * in the bucket. Tenure is measured in whole months from the month of hire to the current month.
+     *
+     * @param bucketYears - the width of each bucket in years
+     * @return - the number of active employees in each bucket that has any, in order
+     */
+    public Map<String, Long> tenure(int bucketYears) {
+        return activeByYearsSince(bucketYears, true);
+    }
+
+    /**
+     * Counts active employees by age, in buckets of whole years keyed by the lowest age in the bucket. Age is measured
+     * in whole months from the month of birth to the current month.
+     *
+     * @param bucketYears - the width of each bucket in years
+     * @return - the number of active employees in each bucket that has any, in order
+     */
+    public Map<String, Long> age(int bucketYears) {
+        return activeByYearsSince(bucketYears, false);
+    }
+
+    private Map<String, Long> activeByYearsSince(int bucketYears, boolean hired) {
+        int currentMonth = epochMonth(LocalDate.now());
+        TreeMap<Integer, Long> byBucket = new TreeMap<>();
+        long unknown = 0;
+        synchronized (this.lock) {
+            for (Map.Entry<Integer, long[]> entry : (hired ? this.counts.hires : this.counts.births).entrySet()) {
+                long count = entry.getValue()[Counts.ACTIVE];
+                if (count == 0) {
+                    continue;
+                }
+                int month = entry.getKey();
+                if (month == NO_MONTH) {
+                    unknown += count;
+                } else {
+                    int years = Math.floorDiv(currentMonth - month, 12);
+                    byBucket.merge(Math.floorDiv(years, bucketYears) * bucketYears, count, Long::sum);
+                }
+            }
+        }
+
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        byBucket.forEach((bucket, count) -> buckets.put(String.valueOf(bucket), count));
+        if (unknown > 0) {
+            buckets.put(UNKNOWN, unknown);
+        }
+        return buckets;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (!this.enabled) {
+            return;
+        }
+
+        Employee employee = event.getEmployee();
+        Counted counted = new Counted(employee.getVersion() == null ? 0 : employee.getVersion(),
+                employee.getStatus() == EmployeeStatus.ACTIVE, epochMonth(employee.getDateOfEmployment()),
+                epochMonth(employee.getDateOfBirth()));
+        synchronized (this.lock) {
+            this.counts.apply(employee.getId(), counted);
+            if (this.rebuilding != null) {
+                this.rebuilding.apply(employee.getId(), counted);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() throws InterruptedException {
+        if (this.enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds the counts from the database. The ID range is split into one slice per rebuild thread, and each thread
+     * reads its slice a keyset page at a time.
+     *
+     * @return - the headcount once the rebuild is complete
+     * @throws InterruptedException - if interrupted while waiting for the scan to finish
+     * @throws IllegalStateException - if analytics aren't enabled, or a slice couldn't be read
+     */
+    public synchronized EmployeeHeadcount rebuild() throws InterruptedException {
+        if (!this.enabled) {
+            throw new IllegalStateException("Employee analytics are not enabled");
+        }
+
+        long startTime = System.nanoTime();
+        Counts fresh = new Counts();
+        synchronized (this.lock) {
+            this.rebuilding = fresh;
+        }
+
+        try {
+            Object[] range = this.employeeRepository.findIdRange().get(0);
+            if (range[0] != null) {
+                scan(fresh, (Long) range[0], (Long) range[1]);
+            }
+        } finally {
+            synchronized (this.lock) {
+                this.rebuilding = null;
+            }
+        }
+
+        synchronized (this.lock) {
+            this.counts = fresh;
+        }
+        this.serving = true;
+
+        EmployeeHeadcount headcount = headcount();
+        logger.info("Counted {} employees for analytics in {} ms", headcount.getTotal(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        return headcount;
+    }
+
+    private void scan(Counts fresh, long first, long last) throws InterruptedException {
+        int slices = (int) Math.max(1, Math.min(this.rebuildThreads, last - first + 1));
+        long sliceSize = (last - first) / slices + 1;
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(slices, runnable -> {
+            Thread thread = new Thread(runnable, "employee-analytics-rebuild-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<?>> futures = new ArrayList<>(slices);
+            for (int i = 0; i < slices; i++) {
+                long after = first - 1 + i * sliceSize;
+                long sliceLast = Math.min(last, after + sliceSize);
+                futures.add(executor.submit(() -> scanSlice(fresh, after, sliceLast)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unable to rebuild employee analytics", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void scanSlice(Counts fresh, long after, long last) {
+        PageRequest page = PageRequest.of(0, this.rebuildPageSize);
+        List<Object[]> rows;
+        do {
+            rows = this.employeeRepository.findAnalyticsRows(after, last, page);
+            synchronized (this.lock) {
+                for (Object[] row : rows) {
+                    fresh.apply((Long) row[0], new Counted((Long) row[1], row[2] == EmployeeStatus.ACTIVE,
+                            epochMonth((LocalDate) row[3]), epochMonth((LocalDate) row[4])));
+                }
+            }
+            if (!rows.isEmpty()) {
+                after = (Long) rows.get(rows.size() - 1)[0];
+            }
+        } while (rows.size() == this.rebuildPageSize);
+    }
+
+    private static long count(long[] counts, EmployeeStatus status) {
+        if (status == null) {
+            return counts[Counts.ACTIVE] + counts[Counts.INACTIVE];
+        }
+        return counts[status == EmployeeStatus.ACTIVE ? Counts.ACTIVE : Counts.INACTIVE];
+    }
+
+    private static int epochMonth(LocalDate date) {
+        return date == null ? NO_MONTH : date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    /**
+     * One set of counts, along with where each employee was counted. Only used while holding the lock.
+     */
+    private static final class Counts {
+
+        static final int ACTIVE = 0;
+        static final int INACTIVE = 1;
+
+        private final LongObjectHashMap<Counted> employees = new LongObjectHashMap<>();
+        // Counts of active and inactive employees by epoch month
+        private final Map<Integer, long[]> hires = new HashMap<>();
+        private final Map<Integer, long[]> births = new HashMap<>();
+        private long active;
+        private long inactive;
+
+        void apply(long employeeId, Counted counted) {
+            Counted current = this.employees.get(employeeId);
+            if (current != null) {
+                if (current.version >= counted.version) {
+                    return;
+                }
+                add(current, -1);
+            }
+            this.employees.put(employeeId, counted);
+            add(counted, 1);
+        }
+
+        private void add(Counted counted, int delta) {
+            int status = counted.active ? ACTIVE : INACTIVE;
+            if (counted.active) {
+                this.active += delta;
+            } else {
+                this.inactive += delta;
+            }
+            add(this.hires, counted.hireMonth, status, delta);
+            add(this.births, counted.birthMonth, status, delta);
+        }
+
+        private static void add(Map<Integer, long[]> histogram, int month, int status, int delta) {
+            long[] counts = histogram.computeIfAbsent(month, key -> new long[2]);
+            counts[status] += delta;
+            if (counts[ACTIVE] == 0 && counts[INACTIVE] == 0) {
+                histogram.remove(month);
+            }
+        }
+    }
+
+    /**
+     * Where an employee was counted, as of a version.
+     */
+    private static final class Counted {
+
+        private final long version;
+        private final boolean active;
+        private final int hireMonth;
+        private final int birthMonth;
+
+        Counted(long version, boolean active, int hireMonth, int birthMonth) {
+            this.version = version;
+            this.active = active;
+            this.hireMonth = hireMonth;
+            this.birthMonth = birthMonth;
+        }
+    }
+}
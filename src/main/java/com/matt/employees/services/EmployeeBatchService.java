@@ -0,0 +1,192 @@
+package com.matt.employees.services;
+
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeBatchOperation;
+import com.matt.employees.models.EmployeeBatchResult;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.repositories.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service class to handle applying a mixed list of create, update and deactivate operations in bulk.
+ *
+ * Operations are split into chunks and each chunk is applied in its own transaction. Inside a chunk, all of the
+ * employees that are going to be updated or deactivated are loaded with a single query, and once every operation has
+ * been applied the created and changed employees are saved together as one list, so Hibernate can send them to the
+ * database as JDBC batches. Like any list save, that goes straight to the database even when the write-behind buffer is
+ * enabled. If a chunk fails to commit, every operation in that chunk is reported as failed and the remaining chunks are
+ * still applied.
+ */
+@Service
+public class EmployeeBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeBatchService.class);
+
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeService employeeService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public EmployeeBatchService(EmployeeRepository employeeRepository, EmployeeService employeeService,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${employees.batch.chunk-size}") int chunkSize) {
+        this.employeeRepository = employeeRepository;
+        this.employeeService = employeeService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Applies the supplied operations in order, one transaction per chunk.
+     *
+     * @param operations - operations to apply
+     * @return - one result per operation, in the same order as the operations
+     */
+    public List<EmployeeBatchResult> apply(List<EmployeeBatchOperation> operations) {
+        List<EmployeeBatchResult> results = new ArrayList<>(operations.size());
+
+        for (int start = 0; start < operations.size(); start += this.chunkSize) {
+            int end = Math.min(start + this.chunkSize, operations.size());
+            int offset = start;
+            List<EmployeeBatchOperation> chunk = operations.subList(start, end);
+
+            try {
+                results.addAll(this.transactionTemplate.execute(status -> applyChunk(chunk, offset)));
+            } catch (RuntimeException e) {
+                logger.warn("Unable to apply batch operations {} to {}: {}", start, end - 1, e.getMessage());
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.add(new EmployeeBatchResult(offset + i, chunk.get(i).getOp(), chunk.get(i).getId(),
+                            HttpStatus.INTERNAL_SERVER_ERROR.value(), "Batch chunk failed to commit"));
+                }
+            }
+        }
+        return results;
+    }
+
+    private List<EmployeeBatchResult> applyChunk(List<EmployeeBatchOperation> chunk, int offset) {
+        Map<Long, Employee> existing = loadActiveEmployees(chunk);
+        List<EmployeeBatchResult> results = new ArrayList<>(chunk.size());
+        // Employees are saved once however many operations change them. Created employees are kept by the index of
+        // their operation, as they're only given their IDs when they're saved.
+        Set<Employee> changed = new LinkedHashSet<>();
+        Map<Integer, Employee> created = new HashMap<>();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            results.add(applyOperation(chunk.get(i), offset + i, existing, changed, created));
+        }
+
+        if (!changed.isEmpty()) {
+            this.employeeService.save(new ArrayList<>(changed));
+        }
+        for (Map.Entry<Integer, Employee> entry : created.entrySet()) {
+            int index = entry.getKey();
+            results.set(index - offset, new EmployeeBatchResult(index, EmployeeBatchOperation.Type.CREATE,
+                    entry.getValue().getId(), HttpStatus.CREATED.value(), null));
+        }
+        return results;
+    }
+
+    private Map<Long, Employee> loadActiveEmployees(List<EmployeeBatchOperation> chunk) {
+        Set<Long> ids = new HashSet<>();
+        for (EmployeeBatchOperation operation : chunk) {
+            if (operation.getOp() != EmployeeBatchOperation.Type.CREATE && operation.getId() != null) {
+                ids.add(operation.getId());
+            }
+        }
+
+        Map<Long, Employee> employees = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Employee employee : this.employeeRepository.findByIdInAndStatus(ids, EmployeeStatus.ACTIVE)) {
+                employees.put(employee.getId(), employee);
+            }
+        }
+        return employees;
+    }
+
+    /**
+     * Applies an operation to the employees loaded for the chunk, adding any employee it changes to {@code changed}.
+     *
+     * @return - the operation's result, or null for a create, whose result needs the ID it's given when it's saved
+     */
+    private EmployeeBatchResult applyOperation(EmployeeBatchOperation operation, int index, Map<Long, Employee> existing,
+                                               Set<Employee> changed, Map<Integer, Employee> created) {
+        EmployeeBatchOperation.Type op = operation.getOp();
+        Employee input = operation.getEmployee();
+
+        if (op == null) {
+            return badRequest(index, operation, "Operation type is required");
+        }
+
+        switch (op) {
+            case CREATE:
+                if (input == null) {
+                    return badRequest(index, operation, "Employee is required");
+                }
+                Employee newEmployee = new Employee(input.getFirstName(),
+                        input.getMiddleInitial(),
+                        input.getLastName(),
+                        input.getDateOfBirth(),
+                        input.getDateOfEmployment(),
+                        EmployeeStatus.ACTIVE);
+                changed.add(newEmployee);
+                created.put(index, newEmployee);
+                return null;
+
+            case UPDATE:
+                if (operation.getId() == null || input == null) {
+                    return badRequest(index, operation, "ID and employee are required");
+                }
+                Employee employee = existing.get(operation.getId());
+                if (employee == null) {
+                    return notFound(index, operation);
+                }
+                employee.setFirstName(input.getFirstName());
+                employee.setMiddleInitial(input.getMiddleInitial());
+                employee.setLastName(input.getLastName());
+                employee.setDateOfBirth(input.getDateOfBirth());
+                employee.setDateOfEmployment(input.getDateOfEmployment());
+                changed.add(employee);
+                return new EmployeeBatchResult(index, op, employee.getId(), HttpStatus.OK.value(), null);
+
+            case DEACTIVATE:
+                if (operation.getId() == null) {
+                    return badRequest(index, operation, "ID is required");
+                }
+                // Removing the employee from the map means a second deactivation of the same ID in this chunk is a 404,
+                // just like it would be when calling the delete endpoint twice.
+                Employee deactivated = existing.remove(operation.getId());
+                if (deactivated == null) {
+                    return notFound(index, operation);
+                }
+                deactivated.setStatus(EmployeeStatus.INACTIVE);
+                changed.add(deactivated);
+                return new EmployeeBatchResult(index, op, deactivated.getId(), HttpStatus.ACCEPTED.value(), null);
+
+            default:
+                return badRequest(index, operation, "Unsupported operation");
+        }
+    }
+
+    private static EmployeeBatchResult badRequest(int index, EmployeeBatchOperation operation, String message) {
+        return new EmployeeBatchResult(index, operation.getOp(), operation.getId(), HttpStatus.BAD_REQUEST.value(), message);
+    }
+
+    private static EmployeeBatchResult notFound(int index, EmployeeBatchOperation operation) {
+        return new EmployeeBatchResult(index, operation.getOp(), operation.getId(), HttpStatus.NOT_FOUND.value(),
+                "Resource not found");
+    }
+}
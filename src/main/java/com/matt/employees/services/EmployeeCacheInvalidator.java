@@ -0,0 +1,31 @@
+package com.matt.employees.services;
+
+import com.matt.employees.config.CacheConfig;
+import com.matt.employees.events.EmployeeChangedEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Evicts employees from the active employee cache once a change to them has been committed.
+ *
+ * Lookups populate the cache through {@code Cache.get(key, valueLoader)}, which loads each entry inside Caffeine's
+ * per-key compute. Evicting a key waits for any load of that key that's already in progress, so a lookup that read
+ * the old row can't put it back into the cache after we've evicted it. Together with evicting only after commit, this
+ * means a deactivated employee is never served from the cache once the delete call has returned.
+ */
+@Component
+public class EmployeeCacheInvalidator {
+
+    private final Cache activeEmployees;
+
+    public EmployeeCacheInvalidator(CacheManager cacheManager) {
+        this.activeEmployees = cacheManager.getCache(CacheConfig.ACTIVE_EMPLOYEES_CACHE);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        this.activeEmployees.evict(event.getEmployee().getId());
+    }
+}
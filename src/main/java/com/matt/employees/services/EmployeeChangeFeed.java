@@ -0,0 +1,477 @@
+package com.matt.employees.services;
+
+import com.matt.employees.events.EmployeeChangedEvent;
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeChange;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.utilities.GroupCommitLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An ordered feed of every change made to an employee through this application, so that other systems can follow
+ * changes instead of repeatedly listing every employee. Enabled with {@code employees.changes.enabled}.
+ *
+ * Each committed {@link EmployeeChangedEvent} is given the next sequence number and appended to a
+ * {@link GroupCommitLog}, so the feed outlasts a restart and changes committed at the same time share a force to disk.
+ * The most recent changes are also kept in a ring buffer, indexed by sequence number, and readers that have fallen
+ * further behind than that are served from the log, whose oldest segments are deleted as new ones are started.
+ *
+ * Listeners hear about commits in whatever order their threads get to them, which for two quick changes to the same
+ * employee needn't be the order they were committed in. So that the feed never shows an employee going back to an
+ * older state, a change is skipped if a change to the same employee at the same or a later version has already been
+ * numbered. The versions numbered are remembered for the last buffer-size employees changed, which is far more than
+ * can be in flight at once.
+ *
+ * Changes are appended concurrently, so they can reach the log in a slightly different order from their sequence
+ * numbers. Readers are only ever shown changes up to the highest sequence number below which every change has been
+ * appended, so a reader that has seen a change will never later find an earlier one it missed. A change that couldn't
+ * be appended, or that was lost in a crash before it reached the disk, leaves a gap in the sequence numbers.
+ *
+ * A reader that falls behind while its changes are being read back from the log, so that the segments holding them
+ * are deleted part way through, is told its changes have expired rather than given an incomplete page.
+ *
+ * Readers with nothing new to read can wait for the next change. Waiting readers don't hold a thread: they are kept in
+ * a list and completed by whichever thread appends the change they were waiting for, or by a timer.
+ */
+@Component
+public class EmployeeChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeChangeFeed.class);
+
+    private static final byte FORMAT = 1;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long segmentSize;
+    private final int retainedSegments;
+    private final int bufferSize;
+
+    // Guards everything below it.
+    private final Object lock = new Object();
+    private long lastSequence;
+    // Sequence numbers that have been handed out but whose changes haven't been appended yet.
+    private final TreeSet<Long> appending = new TreeSet<>();
+    private long published;
+    private EmployeeChange[] buffer;
+    // The lowest and highest sequence number in each segment of the log.
+    private final TreeMap<Long, long[]> segments = new TreeMap<>();
+    private final List<Waiter> waiters = new ArrayList<>();
+    // The version of the last change numbered for each of the most recently changed employees.
+    private Map<Long, Long> versions;
+
+    private GroupCommitLog log;
+    private ScheduledThreadPoolExecutor timer;
+    private volatile boolean serving;
+
+    public EmployeeChangeFeed(@Value("${employees.changes.enabled}") boolean enabled,
+                              @Value("${employees.changes.directory}") String directory,
+                              @Value("${employees.changes.segment-size}") long segmentSize,
+                              @Value("${employees.changes.retained-segments}") int retainedSegments,
+                              @Value("${employees.changes.buffer-size}") int bufferSize) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSize;
+        this.retainedSegments = retainedSegments;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Opens the log, reading back the changes already in it so that sequence numbers carry on from where they left off.
+     *
+     * @throws IOException - if the log can't be opened
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!this.enabled) {
+            return;
+        }
+
+        this.buffer = new EmployeeChange[this.bufferSize];
+        this.versions = new LinkedHashMap<Long, Long>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > EmployeeChangeFeed.this.bufferSize;
+            }
+        };
+        this.log = GroupCommitLog.open(this.directory, this.segmentSize, (segment, record) -> {
+            EmployeeChange change = decode(record);
+            synchronized (this.lock) {
+                this.lastSequence = Math.max(this.lastSequence, change.getSequence());
+                this.versions.merge(change.getEmployee().getId(), change.getVersion(), Math::max);
+                store(segment, change);
+            }
+        });
+        synchronized (this.lock) {
+            this.published = this.lastSequence;
+        }
+
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "employee-change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+        this.serving = true;
+        logger.info("Opened the employee change feed in {} at sequence {}", this.directory, this.published);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (this.log == null) {
+            return;
+        }
+        this.serving = false;
+        this.timer.shutdownNow();
+        List<Waiter> waiting;
+        synchronized (this.lock) {
+            waiting = new ArrayList<>(this.waiters);
+            this.waiters.clear();
+        }
+        for (Waiter waiter : waiting) {
+            waiter.future.complete(new Changes(Collections.emptyList(), waiter.since));
+        }
+        this.log.close();
+    }
+
+    /**
+     * @return - true once the log has been opened
+     */
+    public boolean isServing() {
+        return this.serving;
+    }
+
+    /**
+     * @return - the sequence number every change up to which can be read, which is where a new reader starts from
+     */
+    public long getCursor() {
+        synchronized (this.lock) {
+            return this.published;
+        }
+    }
+
+    /**
+     * @param since - the sequence number a reader has read up to
+     * @return - true if the changes following that sequence number are no longer kept, or it's ahead of the feed, as
+     * it would be if the log had been deleted since
+     */
+    public boolean isExpired(long since) {
+        synchronized (this.lock) {
+            if (since > this.published) {
+                return true;
+            }
+            long oldest = this.segments.isEmpty() ? this.published + 1 : this.segments.firstEntry().getValue()[0];
+            return since < oldest - 1 && since < this.lastSequence - this.bufferSize;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (!this.serving) {
+            return;
+        }
+
+        Employee employee = event.getEmployee();
+        long version = employee.getVersion() == null ? 0 : employee.getVersion();
+        long sequence;
+        synchronized (this.lock) {
+            Long numbered = this.versions.get(employee.getId());
+            if (numbered != null && numbered >= version) {
+                logger.debug("Skipping change to employee {} at version {}, which is already at version {}",
+                        employee.getId(), version, numbered);
+                return;
+            }
+            this.versions.put(employee.getId(), version);
+            sequence = ++this.lastSequence;
+            this.appending.add(sequence);
+        }
+
+        EmployeeChange change = new EmployeeChange(sequence, event.getType(), version, copy(employee));
+        Long segment = null;
+        try {
+            segment = this.log.append(encode(change));
+        } catch (IOException e) {
+            logger.error("Unable to add change {} to employee {} to the change feed", sequence, employee.getId(), e);
+        }
+
+        List<Waiter> ready = new ArrayList<>();
+        synchronized (this.lock) {
+            this.appending.remove(sequence);
+            if (segment != null) {
+                store(segment, change);
+            }
+            this.published = this.appending.isEmpty() ? this.lastSequence : this.appending.first() - 1;
+            for (Iterator<Waiter> waiting = this.waiters.iterator(); waiting.hasNext(); ) {
+                Waiter waiter = waiting.next();
+                if (waiter.since < this.published) {
+                    ready.add(waiter);
+                    waiting.remove();
+                }
+            }
+        }
+
+        for (Waiter waiter : ready) {
+            try {
+                waiter.future.complete(read(waiter.since, waiter.limit));
+            } catch (RuntimeException e) {
+                waiter.future.completeExceptionally(e);
+            }
+        }
+        if (segment != null) {
+            deleteExpiredSegments(segment);
+        }
+    }
+
+    /**
+     * Reads the changes following a sequence number, waiting for one if there aren't any yet.
+     *
+     * @param since - the sequence number to read from, exclusive
+     * @param limit - the most changes to return
+     * @param waitMillis - how long to wait for a change if there are none to read, or 0 not to wait
+     * @return - a future of the changes, which will be empty if none were made in time
+     */
+    public CompletableFuture<Changes> poll(long since, int limit, long waitMillis) {
+        Changes changes = read(since, limit);
+        if (changes.expired || changes.cursor > since || waitMillis <= 0) {
+            return CompletableFuture.completedFuture(changes);
+        }
+
+        Waiter waiter = new Waiter(since, limit);
+        synchronized (this.lock) {
+            if (this.published > since) {
+                return CompletableFuture.completedFuture(read(since, limit));
+            }
+            this.waiters.add(waiter);
+        }
+        ScheduledFuture<?> timeout = this.timer.schedule(() -> {
+            synchronized (this.lock) {
+                this.waiters.remove(waiter);
+            }
+            waiter.future.complete(new Changes(Collections.emptyList(), since));
+        }, waitMillis, TimeUnit.MILLISECONDS);
+        waiter.future.whenComplete((result, failure) -> timeout.cancel(false));
+        return waiter.future;
+    }
+
+    /**
+     * Reads the changes following a sequence number without waiting.
+     *
+     * @param since - the sequence number to read from, exclusive
+     * @param limit - the most changes to return
+     * @return - up to {@code limit} changes in sequence order, along with the sequence number to read from next, or
+     * expired changes if they had to be read from the log and some of them were deleted before they could be
+     * @throws UncheckedIOException - if the changes had to be read from the log and it couldn't be read
+     */
+    public Changes read(long since, int limit) {
+        long upTo;
+        List<long[]> ranges = new ArrayList<>();
+        synchronized (this.lock) {
+            upTo = Math.min(this.published, since + limit);
+            if (since >= upTo) {
+                return new Changes(Collections.emptyList(), since);
+            }
+            if (since >= this.lastSequence - this.bufferSize) {
+                List<EmployeeChange> changes = new ArrayList<>();
+                for (long sequence = since + 1; sequence <= upTo; sequence++) {
+                    EmployeeChange change = this.buffer[slot(sequence)];
+                    if (change != null && change.getSequence() == sequence) {
+                        changes.add(change);
+                    }
+                }
+                return new Changes(changes, upTo);
+            }
+            for (Map.Entry<Long, long[]> segment : this.segments.entrySet()) {
+                long[] range = segment.getValue();
+                // Changes can be a little out of order, so every segment whose range overlaps is read.
+                if (range[1] > since && range[0] <= upTo) {
+                    ranges.add(new long[]{segment.getKey(), range[0], range[1]});
+                }
+            }
+        }
+
+        // Too far behind for the buffer, so the changes are read back from the log.
+        List<EmployeeChange> changes = new ArrayList<>();
+        try {
+            for (long[] range : ranges) {
+                boolean read = this.log.read(range[0], (segment, record) -> {
+                    EmployeeChange change = decode(record);
+                    if (change.getSequence() > since && change.getSequence() <= upTo) {
+                        changes.add(change);
+                    }
+                });
+                if (!read) {
+                    return Changes.expired(since);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the employee change feed", e);
+        }
+        changes.sort(Comparator.comparingLong(EmployeeChange::getSequence));
+        return new Changes(changes, upTo);
+    }
+
+    // Called holding the lock.
+    private void store(long segment, EmployeeChange change) {
+        long sequence = change.getSequence();
+        EmployeeChange buffered = this.buffer[slot(sequence)];
+        if (buffered == null || buffered.getSequence() < sequence) {
+            this.buffer[slot(sequence)] = change;
+        }
+        long[] range = this.segments.computeIfAbsent(segment, key -> new long[]{sequence, sequence});
+        range[0] = Math.min(range[0], sequence);
+        range[1] = Math.max(range[1], sequence);
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % this.bufferSize);
+    }
+
+    private void deleteExpiredSegments(long currentSegment) {
+        long firstKept = currentSegment - this.retainedSegments + 1;
+        synchronized (this.lock) {
+            if (this.segments.isEmpty() || this.segments.firstKey() >= firstKept) {
+                return;
+            }
+            this.segments.headMap(firstKept).clear();
+        }
+        try {
+            this.log.deleteSegmentsBefore(firstKept);
+        } catch (IOException e) {
+            logger.warn("Unable to delete expired segments of the employee change feed", e);
+        }
+    }
+
+    private static Employee copy(Employee employee) {
+        return Employee.restore(employee.getId(), employee.getFirstName(), employee.getMiddleInitial(),
+                employee.getLastName(), employee.getDateOfBirth(), employee.getDateOfEmployment(), employee.getStatus(),
+                employee.getVersion(), employee.getLastModified());
+    }
+
+    static byte[] encode(EmployeeChange change) throws IOException {
+        Employee employee = change.getEmployee();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(FORMAT);
+        out.writeLong(change.getSequence());
+        out.writeUTF(change.getType().name());
+        out.writeLong(change.getVersion());
+        out.writeLong(employee.getId());
+        EmployeeWriteBehind.writeString(out, employee.getFirstName());
+        EmployeeWriteBehind.writeString(out, employee.getMiddleInitial());
+        EmployeeWriteBehind.writeString(out, employee.getLastName());
+        EmployeeWriteBehind.writeDate(out, employee.getDateOfBirth());
+        EmployeeWriteBehind.writeDate(out, employee.getDateOfEmployment());
+        EmployeeWriteBehind.writeString(out, employee.getStatus() == null ? null : employee.getStatus().name());
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static EmployeeChange decode(ByteBuffer record) throws IOException {
+        byte[] bytes = new byte[record.remaining()];
+        record.get(bytes);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readByte() != FORMAT) {
+            throw new IOException("Unknown employee change record format");
+        }
+        long sequence = in.readLong();
+        EmployeeChangedEvent.Type type = EmployeeChangedEvent.Type.valueOf(in.readUTF());
+        long version = in.readLong();
+        long id = in.readLong();
+        String firstName = EmployeeWriteBehind.readString(in);
+        String middleInitial = EmployeeWriteBehind.readString(in);
+        String lastName = EmployeeWriteBehind.readString(in);
+        LocalDate dateOfBirth = EmployeeWriteBehind.readDate(in);
+        LocalDate dateOfEmployment = EmployeeWriteBehind.readDate(in);
+        String status = EmployeeWriteBehind.readString(in);
+
+        Employee employee = Employee.restore(id, firstName, middleInitial, lastName, dateOfBirth, dateOfEmployment,
+                status == null ? null : EmployeeStatus.valueOf(status), version, null);
+        return new EmployeeChange(sequence, type, version, employee);
+    }
+
+    /**
+     * A page of changes, and the sequence number to read from next. The sequence number can move on even when there are
+     * no changes, past numbers that were never used, and doesn't move on from changes that have expired.
+     */
+    public static final class Changes {
+
+        private final List<EmployeeChange> changes;
+        private final long cursor;
+        private final boolean expired;
+
+        Changes(List<EmployeeChange> changes, long cursor) {
+            this(changes, cursor, false);
+        }
+
+        private Changes(List<EmployeeChange> changes, long cursor, boolean expired) {
+            this.changes = changes;
+            this.cursor = cursor;
+            this.expired = expired;
+        }
+
+        static Changes expired(long since) {
+            return new Changes(Collections.emptyList(), since, true);
+        }
+
+        public List<EmployeeChange> getChanges() {
+            return this.changes;
+        }
+
+        public long getCursor() {
+            return this.cursor;
+        }
+
+        /**
+         * @return - true if the changes were no longer kept by the time they were read
+         */
+        public boolean isExpired() {
+            return this.expired;
+        }
+    }
+
+    /**
+     * A reader waiting for a change after {@code since}.
+     */
+    private static final class Waiter {
+
+        private final long since;
+        private final int limit;
+        private final CompletableFuture<Changes> future = new CompletableFuture<>();
+
+        Waiter(long since, int limit) {
+            this.since = since;
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.matt.employees.services;
+
+import com.matt.employees.events.EmployeeChangedEvent;
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeScanResult;
+import com.matt.employees.models.EmployeeSearch;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.models.EmployeeSummary;
+import com.matt.employees.repositories.EmployeeRepository;
+import com.matt.employees.utilities.LongIntHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Column-oriented copy of every employee, active or not, for ad-hoc scans by status, date of birth, date of employment
+ * and name prefix that would otherwise read every row from the database. Enabled with
+ * {@code employees.columnar.enabled}.
+ *
+ * Each employee is given a row number, and each field is held in its own array indexed by row: dates as epoch days in
+ * {@code int} arrays, the status as a bitset with a bit set for every active row, and names as codes into a dictionary
+ * of the distinct names seen. A scan reads only the arrays of the fields it filters on. It is evaluated 64 rows at a
+ * time, ANDing one word of match bits per filter, with blocks of rows spread over the common fork-join pool. A name
+ * prefix is matched against the dictionary once, up front, so that rows only need their code looked up in the set of
+ * matching codes.
+ *
+ * Like the other in-memory views, the snapshot follows every committed {@link EmployeeChangedEvent}, ignores changes
+ * older than the version it already holds, is filled in from the database once the application is ready, and can't see
+ * changes made to the database by anything else. Scans hold a read lock, so changes wait for a running scan to finish.
+ */
+@Component
+public class EmployeeColumnarSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeColumnarSnapshot.class);
+
+    private static final int WARM_PAGE_SIZE = 10000;
+
+    // Rows are scanned in blocks of this many, which must be a multiple of 64 so that no two blocks share a word.
+    static final int BLOCK_ROWS = 1 << 14;
+
+    private static final int INITIAL_ROWS = 1024;
+
+    // Stands in for a missing date. It falls outside every range a scan can ask for.
+    private static final int NO_DAY = Integer.MIN_VALUE;
+
+    // Stands in for a missing name.
+    private static final int NO_NAME = -1;
+
+    private final EmployeeRepository employeeRepository;
+    private final boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongIntHashMap rowsById = new LongIntHashMap();
+    private final Dictionary firstNames = new Dictionary();
+    private final Dictionary middleInitials = new Dictionary();
+    private final Dictionary lastNames = new Dictionary();
+    private int rowCount;
+    private long[] ids = new long[INITIAL_ROWS];
+    private long[] versions = new long[INITIAL_ROWS];
+    private long[] active = new long[INITIAL_ROWS / 64];
+    private int[] birthDays = new int[INITIAL_ROWS];
+    private int[] hireDays = new int[INITIAL_ROWS];
+    private int[] firstNameCodes = new int[INITIAL_ROWS];
+    private int[] middleInitialCodes = new int[INITIAL_ROWS];
+    private int[] lastNameCodes = new int[INITIAL_ROWS];
+
+    private volatile boolean serving;
+
+    public EmployeeColumnarSnapshot(EmployeeRepository employeeRepository,
+                                    @Value("${employees.columnar.enabled}") boolean enabled) {
+        this.employeeRepository = employeeRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return - true once the snapshot has been filled in from the database
+     */
+    public boolean isServing() {
+        return this.serving;
+    }
+
+    /**
+     * @return - the number of employees in the snapshot
+     */
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.rowCount;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the employees matching every criterion that is set. Name prefixes are matched case insensitively and date
+     * ranges are inclusive, as they are for {@link EmployeeService#searchActiveEmployees}; an employee without a date
+     * never matches a range on it.
+     *
+     * @param status - the status employees must have, or null to match employees with either status
+     * @param search - the other criteria
+     * @param limit - the most matching employees to return
+     * @return - the number of matching employees, and the first {@code limit} of them in the order they were added to
+     * the snapshot, which is ID order for those loaded on start
+     */
+    public EmployeeScanResult scan(EmployeeStatus status, EmployeeSearch search, int limit) {
+        this.lock.readLock().lock();
+        try {
+            Scan scan = new Scan(status, search);
+            int rows = this.rowCount;
+            long[] matches = new long[(rows + 63) >>> 6];
+            int blocks = (rows + BLOCK_ROWS - 1) / BLOCK_ROWS;
+            long matched = IntStream.range(0, blocks)
+                    .parallel()
+                    .mapToLong(block -> scan.evaluate(block * BLOCK_ROWS, Math.min(rows, (block + 1) * BLOCK_ROWS),
+                            matches))
+                    .sum();
+
+            List<EmployeeSummary> employees = new ArrayList<>((int) Math.min(limit, matched));
+            for (int word = 0; word < matches.length && employees.size() < limit; word++) {
+                long bits = matches[word];
+                while (bits != 0 && employees.size() < limit) {
+                    employees.add(summary((word << 6) + Long.numberOfTrailingZeros(bits)));
+                    bits &= bits - 1;
+                }
+            }
+            return new EmployeeScanResult(matched, employees);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (!this.enabled) {
+            return;
+        }
+
+        Employee employee = event.getEmployee();
+        this.lock.writeLock().lock();
+        try {
+            apply(employee.getId(), employee.getVersion() == null ? 0 : employee.getVersion(), employee.getStatus(),
+                    employee.getDateOfBirth(), employee.getDateOfEmployment(), employee.getFirstName(),
+                    employee.getMiddleInitial(), employee.getLastName());
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Fills the snapshot in with every employee in the database, a keyset page at a time, and then starts serving scans
+     * from it. Runs once the application is ready, which is after the initial data has been loaded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        if (!this.enabled) {
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        PageRequest page = PageRequest.of(0, WARM_PAGE_SIZE);
+        long after = Long.MIN_VALUE;
+        List<Object[]> rows;
+        do {
+            rows = this.employeeRepository.findSnapshotRows(after, page);
+
+            this.lock.writeLock().lock();
+            try {
+                for (Object[] row : rows) {
+                    apply((Long) row[0], (Long) row[1], (EmployeeStatus) row[2], (LocalDate) row[3],
+                            (LocalDate) row[4], (String) row[5], (String) row[6], (String) row[7]);
+                }
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+
+            if (!rows.isEmpty()) {
+                after = (Long) rows.get(rows.size() - 1)[0];
+            }
+        } while (rows.size() == WARM_PAGE_SIZE);
+
+        this.serving = true;
+        logger.info("Loaded {} employees into the columnar snapshot in {} ms", size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    }
+
+    // Must be called holding the write lock.
+    private void apply(long id, long version, EmployeeStatus status, LocalDate dateOfBirth,
+                       LocalDate dateOfEmployment, String firstName, String middleInitial, String lastName) {
+        int row = this.rowsById.get(id);
+        if (row == LongIntHashMap.NO_VALUE) {
+            row = this.rowCount;
+            ensureCapacity(row + 1);
+            this.rowsById.put(id, row);
+            this.ids[row] = id;
+            this.rowCount++;
+        } else if (this.versions[row] >= version) {
+            return;
+        }
+
+        this.versions[row] = version;
+        if (status == EmployeeStatus.ACTIVE) {
+            this.active[row >>> 6] |= 1L << row;
+        } else {
+            this.active[row >>> 6] &= ~(1L << row);
+        }
+        this.birthDays[row] = epochDay(dateOfBirth);
+        this.hireDays[row] = epochDay(dateOfEmployment);
+        this.firstNameCodes[row] = this.firstNames.encode(firstName);
+        this.middleInitialCodes[row] = this.middleInitials.encode(middleInitial);
+        this.lastNameCodes[row] = this.lastNames.encode(lastName);
+    }
+
+    private void ensureCapacity(int rows) {
+        if (rows <= this.ids.length) {
+            return;
+        }
+        int capacity = this.ids.length * 2;
+        this.ids = Arrays.copyOf(this.ids, capacity);
+        this.versions = Arrays.copyOf(this.versions, capacity);
+        this.active = Arrays.copyOf(this.active, capacity / 64);
+        this.birthDays = Arrays.copyOf(this.birthDays, capacity);
+        this.hireDays = Arrays.copyOf(this.hireDays, capacity);
+        this.firstNameCodes = Arrays.copyOf(this.firstNameCodes, capacity);
+        this.middleInitialCodes = Arrays.copyOf(this.middleInitialCodes, capacity);
+        this.lastNameCodes = Arrays.copyOf(this.lastNameCodes, capacity);
+    }
+
+    private EmployeeSummary summary(int row) {
+        return new EmployeeSummary(this.ids[row], this.firstNames.decode(this.firstNameCodes[row]),
+                this.middleInitials.decode(this.middleInitialCodes[row]),
+                this.lastNames.decode(this.lastNameCodes[row]), localDate(this.birthDays[row]),
+                localDate(this.hireDays[row]));
+    }
+
+    private static int epochDay(LocalDate date) {
+        return date == null ? NO_DAY : Math.toIntExact(date.toEpochDay());
+    }
+
+    private static LocalDate localDate(int epochDay) {
+        return epochDay == NO_DAY ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * A scan's criteria, turned into what's needed to test rows against them. Created and evaluated while holding the
+     * read lock.
+     */
+    private final class Scan {
+
+        private final EmployeeStatus status;
+        private final boolean bornRange;
+        private final int bornFrom;
+        private final int bornTo;
+        private final boolean hiredRange;
+        private final int hiredFrom;
+        private final int hiredTo;
+        // Null when there's no prefix to match.
+        private final BitSet firstNameMatches;
+        private final BitSet lastNameMatches;
+
+        Scan(EmployeeStatus status, EmployeeSearch search) {
+            this.status = status;
+            this.bornRange = search.getBornFrom() != null || search.getBornTo() != null;
+            this.bornFrom = lowerBound(search.getBornFrom());
+            this.bornTo = upperBound(search.getBornTo());
+            this.hiredRange = search.getHiredFrom() != null || search.getHiredTo() != null;
+            this.hiredFrom = lowerBound(search.getHiredFrom());
+            this.hiredTo = upperBound(search.getHiredTo());
+            this.firstNameMatches = search.getFirstNamePrefix() == null
+                    ? null : firstNames.matchPrefix(search.getFirstNamePrefix());
+            this.lastNameMatches = search.getLastNamePrefix() == null
+                    ? null : lastNames.matchPrefix(search.getLastNamePrefix());
+        }
+
+        /**
+         * Sets the bits of the matching rows from {@code from} up to but not including {@code to}, which must start on
+         * a word boundary.
+         *
+         * @return - the number of matching rows
+         */
+        long evaluate(int from, int to, long[] matches) {
+            long matched = 0;
+            for (int base = from; base < to; base += 64) {
+                int word = base >>> 6;
+                int count = Math.min(64, to - base);
+                long bits = count == 64 ? -1L : (1L << count) - 1;
+
+                if (this.status == EmployeeStatus.ACTIVE) {
+                    bits &= active[word];
+                } else if (this.status == EmployeeStatus.INACTIVE) {
+                    bits &= ~active[word];
+                }
+                if (bits != 0 && this.hiredRange) {
+                    bits &= inRange(hireDays, base, count, this.hiredFrom, this.hiredTo);
+                }
+                if (bits != 0 && this.bornRange) {
+                    bits &= inRange(birthDays, base, count, this.bornFrom, this.bornTo);
+                }
+                if (bits != 0 && this.lastNameMatches != null) {
+                    bits &= inSet(lastNameCodes, base, count, this.lastNameMatches);
+                }
+                if (bits != 0 && this.firstNameMatches != null) {
+                    bits &= inSet(firstNameCodes, base, count, this.firstNameMatches);
+                }
+
+                matches[word] = bits;
+                matched += Long.bitCount(bits);
+            }
+            return matched;
+        }
+
+        private long inRange(int[] days, int base, int count, int from, int to) {
+            long bits = 0;
+            for (int i = 0; i < count; i++) {
+                int day = days[base + i];
+                bits |= (day >= from & day <= to ? 1L : 0L) << i;
+            }
+            return bits;
+        }
+
+        private long inSet(int[] codes, int base, int count, BitSet set) {
+            long bits = 0;
+            for (int i = 0; i < count; i++) {
+                int code = codes[base + i];
+                bits |= (code != NO_NAME && set.get(code) ? 1L : 0L) << i;
+            }
+            return bits;
+        }
+
+        private int lowerBound(LocalDate from) {
+            return from == null ? NO_DAY + 1 : epochDay(from);
+        }
+
+        private int upperBound(LocalDate to) {
+            return to == null ? Integer.MAX_VALUE : epochDay(to);
+        }
+    }
+
+    /**
+     * Distinct values of a name field, each given a code in the order first seen. Codes are never reused or dropped, so
+     * the dictionary only grows. Used while holding the lock.
+     */
+    private static final class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        // Values normalized the way the database's name columns are, for prefix matches.
+        private final List<String> normalizedValues = new ArrayList<>();
+
+        int encode(String value) {
+            if (value == null) {
+                return NO_NAME;
+            }
+            Integer code = this.codes.get(value);
+            if (code == null) {
+                code = this.values.size();
+                this.codes.put(value, code);
+                this.values.add(value);
+                this.normalizedValues.add(Employee.normalizeName(value));
+            }
+            return code;
+        }
+
+        String decode(int code) {
+            return code == NO_NAME ? null : this.values.get(code);
+        }
+
+        BitSet matchPrefix(String prefix) {
+            String normalizedPrefix = Employee.normalizeName(prefix);
+            BitSet matches = new BitSet(this.normalizedValues.size());
+            for (int code = 0; code < this.normalizedValues.size(); code++) {
+                if (this.normalizedValues.get(code).startsWith(normalizedPrefix)) {
+                    matches.set(code);
+                }
+            }
+            return matches;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.matt.employees.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matt.employees.models.Employee;
+import com.matt.employees.repositories.EmployeeRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service class to handle exporting every {@link Employee} record as newline-delimited JSON.
+ *
+ * Rows are streamed from the database through a cursor and written out one at a time through a single
+ * {@link JsonGenerator}, so memory use stays flat no matter how large the table is. Each entity is detached from the
+ * persistence context once it's been written so Hibernate doesn't hold on to it for the rest of the export.
+ */
+@Service
+public class EmployeeExportService {
+
+    // Flush after this many rows so clients see a steady stream of data rather than waiting on large buffers.
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private final EmployeeRepository employeeRepository;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public EmployeeExportService(EmployeeRepository employeeRepository, ObjectMapper objectMapper) {
+        this.employeeRepository = employeeRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes every employee to the supplied stream as one JSON document per line, ordered by ID.
+     *
+     * @param outputStream - stream to write the export to
+     * @return - the number of employees written
+     * @throws IOException - if writing to the stream fails
+     */
+    @Transactional(readOnly = true)
+    public long exportEmployees(OutputStream outputStream) throws IOException {
+        long count = 0;
+        try (Stream<Employee> employees = this.employeeRepository.streamAll();
+             JsonGenerator generator = this.objectMapper.getFactory().createGenerator(outputStream)) {
+            // Documents are separated by newlines alone, not the space Jackson puts between root values by default.
+            generator.setRootValueSeparator(null);
+
+            Iterator<Employee> iterator = employees.iterator();
+            while (iterator.hasNext()) {
+                Employee employee = iterator.next();
+                generator.writeObject(employee);
+                generator.writeRaw('\n');
+                this.entityManager.detach(employee);
+
+                // Flush the first row straight away so the client gets its first byte without waiting on a full buffer.
+                if (++count == 1 || count % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,200 @@
+package com.matt.employees.services;
+
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeImportCheckpoint;
+import com.matt.employees.models.EmployeeImportResult;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.repositories.EmployeeImportCheckpointRepository;
+import com.matt.employees.repositories.EmployeeRepository;
+import com.matt.employees.strategies.EmployeeCreatorManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service class to handle importing employee files as a delta against the employees already in the database.
+ *
+ * Each record is matched to an existing employee, active or not, by its natural key: last name, first name, middle
+ * initial and date of birth. Records with no match create a new employee, records whose date of employment or status
+ * differ update the match, and records that match exactly aren't written at all, so re-importing a file that has
+ * hardly changed costs little more than reading it. The employees for a whole chunk of records are looked up with one
+ * query.
+ *
+ * Records are read in file order, and each chunk is applied in its own transaction together with an
+ * {@link EmployeeImportCheckpoint} recording how many records have been applied. An import that's cut short resumes
+ * after the last committed chunk, and a file that has been imported completely isn't read again until it changes.
+ */
+@Service
+public class EmployeeImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeImportService.class);
+
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeService employeeService;
+    private final EmployeeImportCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public EmployeeImportService(EmployeeRepository employeeRepository, EmployeeService employeeService,
+                                 EmployeeImportCheckpointRepository checkpointRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${employees.import.chunk-size}") int chunkSize) {
+        this.employeeRepository = employeeRepository;
+        this.employeeService = employeeService;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports the employees in the supplied file, picking up from its checkpoint if an earlier import of the same file
+     * was cut short.
+     *
+     * @param file - the file to import. Its extension decides which creator strategy is used to read it.
+     * @return - what the import did
+     * @throws IOException - if the file can't be read or parsed
+     * @throws IllegalArgumentException - if there's no creator strategy for the file's extension
+     */
+    public EmployeeImportResult importFile(Path file) throws IOException {
+        long startTime = System.nanoTime();
+        String fileName = file.getFileName().toString();
+        long fileSize = Files.size(file);
+        Instant fileModified = Files.getLastModifiedTime(file).toInstant();
+
+        EmployeeImportCheckpoint checkpoint = this.checkpointRepository.findById(fileName)
+                .filter(existing -> existing.isFor(fileSize, fileModified))
+                .orElseGet(() -> new EmployeeImportCheckpoint(fileName, fileSize, fileModified));
+        if (checkpoint.isCompleted()) {
+            logger.debug("Skipping {}, which has already been imported", file);
+            return new EmployeeImportResult(fileName, true, checkpoint.getRecordsApplied(), 0, 0, 0);
+        }
+
+        Progress progress = new Progress(checkpoint);
+        EmployeeCreatorManager.getInstance().createEmployeesInOrder(file.toString(), this.chunkSize, chunk -> {
+            List<Employee> records = progress.skipApplied(chunk);
+            if (!records.isEmpty()) {
+                this.transactionTemplate.execute(status -> {
+                    applyChunk(records, progress);
+                    progress.checkpoint.addRecordsApplied(records.size());
+                    progress.checkpoint = this.checkpointRepository.save(progress.checkpoint);
+                    return null;
+                });
+            }
+        });
+        progress.checkpoint.complete();
+        this.checkpointRepository.save(progress.checkpoint);
+
+        logger.info("Imported {} in {} ms: {} created, {} updated, {} unchanged, {} already applied", file,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), progress.created, progress.updated,
+                progress.unchanged, progress.resumedAfter);
+        return new EmployeeImportResult(fileName, false, progress.resumedAfter, progress.created, progress.updated,
+                progress.unchanged);
+    }
+
+    private void applyChunk(List<Employee> records, Progress progress) {
+        Map<List<Object>, Employee> existing = loadExisting(records);
+        // Employees can be changed by more than one record in a chunk, but are only saved once.
+        Set<Employee> changed = new LinkedHashSet<>();
+
+        for (Employee record : records) {
+            List<Object> key = naturalKey(record);
+            EmployeeStatus status = record.getStatus() != null ? record.getStatus() : EmployeeStatus.ACTIVE;
+            Employee employee = existing.get(key);
+
+            if (employee == null) {
+                employee = new Employee(record.getFirstName(), record.getMiddleInitial(), record.getLastName(),
+                        record.getDateOfBirth(), record.getDateOfEmployment(), status);
+                existing.put(key, employee);
+                changed.add(employee);
+                progress.created++;
+            } else if (Objects.equals(employee.getDateOfEmployment(), record.getDateOfEmployment())
+                    && employee.getStatus() == status) {
+                progress.unchanged++;
+            } else {
+                employee.setDateOfEmployment(record.getDateOfEmployment());
+                employee.setStatus(status);
+                changed.add(employee);
+                progress.updated++;
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            this.employeeService.save(new ArrayList<>(changed));
+        }
+    }
+
+    /**
+     * Loads the employees that match any of the records' natural keys. If several employees share a key, the one with
+     * the lowest ID is used.
+     */
+    private Map<List<Object>, Employee> loadExisting(List<Employee> records) {
+        Set<String> lastNames = new HashSet<>();
+        Set<LocalDate> datesOfBirth = new HashSet<>();
+        for (Employee record : records) {
+            lastNames.add(record.getLastName());
+            datesOfBirth.add(record.getDateOfBirth());
+        }
+
+        Map<List<Object>, Employee> employees = new HashMap<>();
+        for (Employee employee : this.employeeRepository.findByLastNameInAndDateOfBirthIn(lastNames, datesOfBirth)) {
+            employees.merge(naturalKey(employee), employee,
+                    (first, second) -> first.getId() < second.getId() ? first : second);
+        }
+        return employees;
+    }
+
+    private static List<Object> naturalKey(Employee employee) {
+        return Arrays.asList(employee.getLastName(), employee.getFirstName(), employee.getMiddleInitial(),
+                employee.getDateOfBirth());
+    }
+
+    /**
+     * The running totals of an import, and its latest checkpoint.
+     */
+    private static final class Progress {
+
+        private EmployeeImportCheckpoint checkpoint;
+        private final long resumedAfter;
+        private long toSkip;
+        private long created;
+        private long updated;
+        private long unchanged;
+
+        Progress(EmployeeImportCheckpoint checkpoint) {
+            this.checkpoint = checkpoint;
+            this.resumedAfter = checkpoint.getRecordsApplied();
+            this.toSkip = checkpoint.getRecordsApplied();
+        }
+
+        /**
+         * Drops the records at the start of the file that were applied before the import was cut short.
+         */
+        List<Employee> skipApplied(List<Employee> chunk) {
+            if (this.toSkip == 0) {
+                return chunk;
+            }
+            int skipped = (int) Math.min(this.toSkip, chunk.size());
+            this.toSkip -= skipped;
+            return chunk.subList(skipped, chunk.size());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.matt.employees.services;
+
+import com.matt.employees.strategies.EmployeeCreatorManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the import directory and hands every employee file that appears or changes in it to the
+ * {@link EmployeeImportService}. Files are picked up by their extension, so only the types that have an
+ * {@link com.matt.employees.strategies.EmployeeCreator} registered are imported.
+ *
+ * A file that's still being copied into the directory produces a stream of modification events, so a file is only
+ * imported once it has gone settle-ms without any. When the watcher starts, every file already in the directory is
+ * handed over too, which picks up files that arrived while the application was down and resumes imports that were cut
+ * short; files that have already been imported are skipped by the import service.
+ *
+ * Watching is disabled unless {@code employees.import.directory} is set.
+ */
+@Component
+public class EmployeeImportWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeImportWatcher.class);
+
+    private final EmployeeImportService employeeImportService;
+    private final String directory;
+    private final long settleNanos;
+    private volatile WatchService watchService;
+
+    public EmployeeImportWatcher(EmployeeImportService employeeImportService,
+                                 @Value("${employees.import.directory:}") String directory,
+                                 @Value("${employees.import.settle-ms:1000}") long settleMillis) {
+        this.employeeImportService = employeeImportService;
+        this.directory = directory;
+        this.settleNanos = TimeUnit.MILLISECONDS.toNanos(settleMillis);
+    }
+
+    /**
+     * Starts watching the import directory, creating it if need be. This waits until the application is ready so the
+     * creator strategies have been registered and the initial data has been loaded.
+     *
+     * @throws IOException - if the directory can't be created or watched
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (this.directory.isEmpty()) {
+            return;
+        }
+
+        Path path = Paths.get(this.directory);
+        Files.createDirectories(path);
+        this.watchService = path.getFileSystem().newWatchService();
+        path.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread thread = new Thread(() -> watch(path), "employee-import-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("Watching {} for employee files", path.toAbsolutePath());
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (this.watchService != null) {
+            this.watchService.close();
+        }
+    }
+
+    private void watch(Path path) {
+        // Files waiting to be imported, with the time of the last event seen for each.
+        Map<Path, Long> pending = new LinkedHashMap<>();
+        try {
+            addAll(path, pending);
+            while (true) {
+                importSettledFiles(pending);
+
+                WatchKey key = pending.isEmpty()
+                        ? this.watchService.take()
+                        : this.watchService.poll(this.settleNanos, TimeUnit.NANOSECONDS);
+                if (key == null) {
+                    continue;
+                }
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Some events were lost, so look at everything; files that haven't changed are skipped anyway.
+                        addAll(path, pending);
+                    } else {
+                        pending.put(path.resolve((Path) event.context()), System.nanoTime());
+                    }
+                }
+                key.reset();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            logger.info("Stopped watching {} for employee files", path.toAbsolutePath());
+        } catch (IOException e) {
+            logger.error("Unable to watch {} for employee files: {}", path.toAbsolutePath(), e.getMessage());
+        }
+    }
+
+    private static void addAll(Path path, Map<Path, Long> pending) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(path)) {
+            for (Path file : files) {
+                pending.putIfAbsent(file, 0L);
+            }
+        }
+    }
+
+    private void importSettledFiles(Map<Path, Long> pending) {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Path, Long>> entries = pending.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Path, Long> entry = entries.next();
+            if (entry.getValue() == 0L || now - entry.getValue() >= this.settleNanos) {
+                entries.remove();
+                importFile(entry.getKey());
+            }
+        }
+    }
+
+    private void importFile(Path file) {
+        if (!Files.isRegularFile(file) || !EmployeeCreatorManager.getInstance().hasCreator(file.toString())) {
+            return;
+        }
+        try {
+            this.employeeImportService.importFile(file);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Unable to import {}: {}", file, e.getMessage());
+        }
+    }
+}
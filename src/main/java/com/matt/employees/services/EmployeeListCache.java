@@ -0,0 +1,273 @@
+package com.matt.employees.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.matt.employees.events.EmployeeChangedEvent;
+import com.matt.employees.models.EmployeeField;
+import com.matt.employees.models.EmployeeFilter;
+import com.matt.employees.utilities.WireFormat;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import javax.persistence.Tuple;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service class that keeps pages of active employees already serialized, along with a gzipped copy and a strong
+ * ETag for each, so that repeated list calls don't re-query and re-serialize the same employees over and over.
+ *
+ * Because unfiltered pages are keyset pages ordered by ID, each one only depends on the employees whose IDs fall
+ * between its cursor and its last employee (or above its cursor for the final page). When an employee changes, only the
+ * pages whose range covers that employee's ID are dropped and rebuilt on their next request; every other page stays
+ * cached. Filtered pages are ordered by the filtered column instead, so any change could move an employee onto or off
+ * them, and they're dropped whenever any employee changes.
+ *
+ * Pages are built from tuples of just the requested fields rather than from entities, and written straight out in the
+ * same shape as {@link com.matt.employees.models.Employee}. Each sparse fieldset and each {@link WireFormat} is cached
+ * as a page of its own.
+ */
+@Service
+public class EmployeeListCache {
+
+    private final EmployeeService employeeService;
+    private final Cache<PageKey, Page> pages;
+
+    // Bumped before every invalidation, so a page that was built while a change was being applied can tell that it
+    // may be stale.
+    private final AtomicLong version = new AtomicLong();
+
+    public EmployeeListCache(EmployeeService employeeService,
+                             @Value("${employees.list-cache.max-bytes}") long maxBytes) {
+        this.employeeService = employeeService;
+        this.pages = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((PageKey key, Page page) -> page.body.length + page.gzip.length)
+                .build();
+    }
+
+    /**
+     * Returns a serialized page of active employees, building and caching it if needed.
+     *
+     * @param after - ID of the last employee on the previous page, or null for the first page
+     * @param limit - maximum number of employees on the page
+     * @param filter - optional filters to apply
+     * @param fields - the fields to include for each employee, which must include {@link EmployeeField#ID}
+     * @param format - the format to serialize the page in
+     * @return - the serialized page
+     */
+    public Page getPage(Long after, int limit, EmployeeFilter filter, Set<EmployeeField> fields, WireFormat format) {
+        PageKey key = new PageKey(after, limit, filter, fields, format);
+        Page page = this.pages.getIfPresent(key);
+        if (page != null) {
+            return page;
+        }
+
+        long versionBeforeBuild = this.version.get();
+        page = buildPage(after, limit, filter, fields, format);
+        this.pages.put(key, page);
+
+        // If anything changed while we were building the page we can't tell whether the page saw the change, so don't
+        // keep it. Any change after this check will find the page in the cache and invalidate it if needed.
+        if (this.version.get() != versionBeforeBuild) {
+            this.pages.invalidate(key);
+        }
+        return page;
+    }
+
+    /**
+     * @return - the number of times the cached pages have been invalidated
+     */
+    public long getVersion() {
+        return this.version.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        long id = event.getEmployee().getId();
+        this.version.incrementAndGet();
+        this.pages.asMap().values().removeIf(page -> page.covers(id));
+    }
+
+    private Page buildPage(Long after, int limit, EmployeeFilter filter, Set<EmployeeField> fields,
+                           WireFormat format) {
+        // Ask for one extra row so we know whether there's another page without having to count.
+        List<Tuple> employees = this.employeeService.listActiveEmployeeFields(after, limit + 1, filter, fields);
+
+        Long nextCursor = null;
+        if (employees.size() > limit) {
+            employees = employees.subList(0, limit);
+            nextCursor = employees.get(limit - 1).get(EmployeeField.ID.getFieldName(), Long.class);
+        }
+
+        // The gzipped copy is a different representation, so it gets a strong ETag of its own.
+        byte[] body = write(employees, fields, format);
+        String digest = DigestUtils.md5DigestAsHex(body);
+        return new Page(body, gzip(body), format.getMediaType(), "\"" + digest + "\"", "\"" + digest + "-gzip\"",
+                after == null ? 0 : after, nextCursor, !EmployeeFilter.none().equals(filter));
+    }
+
+    private static byte[] write(List<Tuple> employees, Set<EmployeeField> fields, WireFormat format) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(employees.size() * fields.size() * 24 + 2);
+        try (JsonGenerator generator = format.createGenerator(outputStream)) {
+            generator.writeStartArray();
+            for (Tuple employee : employees) {
+                generator.writeStartObject();
+                for (EmployeeField field : fields) {
+                    Object value = employee.get(field.getFieldName());
+                    generator.writeFieldName(field.getFieldName());
+                    // Dates and the status are written the way the message converters write them.
+                    if (value == null) {
+                        generator.writeNull();
+                    } else if (value instanceof LocalDate) {
+                        format.writeDate(generator, (LocalDate) value);
+                    } else if (value instanceof Long) {
+                        generator.writeNumber((Long) value);
+                    } else if (value instanceof Enum) {
+                        generator.writeString(((Enum<?>) value).name());
+                    } else {
+                        generator.writeString((String) value);
+                    }
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream)) {
+            gzipStream.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * A serialized page of employees.
+     */
+    public static class Page {
+
+        private final byte[] body;
+        private final byte[] gzip;
+        private final MediaType contentType;
+        private final String etag;
+        private final String gzipEtag;
+        private final long after;
+        private final Long nextCursor;
+        private final boolean filtered;
+
+        Page(byte[] body, byte[] gzip, MediaType contentType, String etag, String gzipEtag, long after,
+             Long nextCursor, boolean filtered) {
+            this.body = body;
+            this.gzip = gzip;
+            this.contentType = contentType;
+            this.etag = etag;
+            this.gzipEtag = gzipEtag;
+            this.after = after;
+            this.nextCursor = nextCursor;
+            this.filtered = filtered;
+        }
+
+        /**
+         * @return - the page serialized as an array of employees
+         */
+        public byte[] getBody() {
+            return this.body;
+        }
+
+        /**
+         * @return - the gzipped body
+         */
+        public byte[] getGzip() {
+            return this.gzip;
+        }
+
+        /**
+         * @return - the media type of the body
+         */
+        public MediaType getContentType() {
+            return this.contentType;
+        }
+
+        /**
+         * @return - a strong ETag for the page, derived from its body
+         */
+        public String getEtag() {
+            return this.etag;
+        }
+
+        /**
+         * @return - a strong ETag for the gzipped body, which differs from {@link #getEtag()} by a suffix
+         */
+        public String getGzipEtag() {
+            return this.gzipEtag;
+        }
+
+        /**
+         * @return - the cursor for the next page, or null if this is the last page
+         */
+        public Long getNextCursor() {
+            return this.nextCursor;
+        }
+
+        /**
+         * @return - true if a change to the employee with the supplied ID could change this page
+         */
+        boolean covers(long id) {
+            return this.filtered || id > this.after && (this.nextCursor == null || id <= this.nextCursor);
+        }
+    }
+
+    private static final class PageKey {
+
+        private final Long after;
+        private final int limit;
+        private final EmployeeFilter filter;
+        private final Set<EmployeeField> fields;
+        private final WireFormat format;
+
+        PageKey(Long after, int limit, EmployeeFilter filter, Set<EmployeeField> fields, WireFormat format) {
+            this.after = after;
+            this.limit = limit;
+            this.filter = filter;
+            this.fields = fields;
+            this.format = format;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PageKey that = (PageKey) o;
+            return this.limit == that.limit && Objects.equals(this.after, that.after)
+                    && Objects.equals(this.filter, that.filter) && Objects.equals(this.fields, that.fields)
+                    && this.format == that.format;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.after, this.limit, this.filter, this.fields, this.format);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.matt.employees.services;
+
+import com.matt.employees.strategies.EmployeeCreatorManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Service class to handle loading large employee data files into the database.
+ *
+ * The registered {@link com.matt.employees.strategies.EmployeeCreator} for the file streams employees in fixed-size
+ * chunks, and each chunk is handed to a bounded pool of writer threads that save it in its own transaction so the
+ * inserts go out as JDBC batches. A semaphore caps the number of chunks that are queued or being written, so when the
+ * writers fall behind the parser blocks until one of them finishes. Peak memory is therefore a handful of chunks no
+ * matter how large the file is.
+ */
+@Service
+public class EmployeeLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeLoader.class);
+
+    private final EmployeeService employeeService;
+    private final int chunkSize;
+    private final int writerThreads;
+    private final int maxPendingChunks;
+
+    public EmployeeLoader(EmployeeService employeeService,
+                          @Value("${initial.data.chunk-size}") int chunkSize,
+                          @Value("${initial.data.writer-threads}") int writerThreads,
+                          @Value("${initial.data.max-pending-chunks}") int maxPendingChunks) {
+        this.employeeService = employeeService;
+        this.chunkSize = chunkSize;
+        this.writerThreads = writerThreads;
+        this.maxPendingChunks = maxPendingChunks;
+    }
+
+    /**
+     * Loads every employee in the supplied file into the database.
+     *
+     * @param path - Path to the file to load. The file's extension decides which creator strategy is used to read it.
+     * @return - The number of employees saved
+     * @throws IOException - If the file can't be read or parsed
+     * @throws IllegalStateException - If saving any chunk fails
+     */
+    public long load(String path) throws IOException {
+        long startTime = System.nanoTime();
+
+        ExecutorService writers = Executors.newFixedThreadPool(this.writerThreads, writerThreadFactory());
+        Semaphore pendingChunks = new Semaphore(this.maxPendingChunks);
+        AtomicLong saved = new AtomicLong();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        try {
+            EmployeeCreatorManager.getInstance().createEmployees(path, this.chunkSize, chunk -> {
+                // Stop reading the file as soon as a writer has failed rather than parsing the rest of it for nothing.
+                throwIfFailed(failure);
+
+                pendingChunks.acquireUninterruptibly();
+                writers.execute(() -> {
+                    try {
+                        this.employeeService.save(chunk);
+                        saved.addAndGet(chunk.size());
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        pendingChunks.release();
+                    }
+                });
+            });
+        } finally {
+            awaitWriters(writers);
+        }
+
+        throwIfFailed(failure);
+
+        logger.info("Loaded {} employees from {} in {} ms", saved.get(), path,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        return saved.get();
+    }
+
+    private static void throwIfFailed(AtomicReference<RuntimeException> failure) {
+        RuntimeException e = failure.get();
+        if (e != null) {
+            throw new IllegalStateException("Unable to save employees: " + e.getMessage(), e);
+        }
+    }
+
+    private static void awaitWriters(ExecutorService writers) {
+        writers.shutdown();
+        try {
+            while (!writers.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.info("Waiting for employee writers to finish");
+            }
+        } catch (InterruptedException e) {
+            writers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory writerThreadFactory() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "employee-loader-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
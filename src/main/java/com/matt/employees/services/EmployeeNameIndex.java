@@ -0,0 +1,519 @@
+package com.matt.employees.services;
+
+import com.matt.employees.events.EmployeeChangedEvent;
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeFilter;
+import com.matt.employees.models.EmployeeNameMatch;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.repositories.EmployeeRepository;
+import com.matt.employees.utilities.LongObjectHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index of active employees' names, used for typo tolerant name searches that never touch the
+ * database.
+ *
+ * Names are split into terms, which are lower cased and stripped of accents. The terms are held in a trie, where each
+ * term's node lists the employees that have the term in each of their name fields. A search finds every term within a
+ * few edits of each word it was given in one walk of the trie, filling in one row of the edit distance table per level
+ * on top of its parent's row. As soon as every entry of a row is out of range, nothing below that node can come back
+ * within range and the whole branch is skipped, which is the same pruning a Levenshtein automaton would get.
+ *
+ * Matching employees are scored by how closely, and in which field, each search word matched, and the best
+ * {@code limit} are returned.
+ *
+ * Like the {@link ActiveEmployeeIndex}, the index follows every committed {@link EmployeeChangedEvent}, is filled in
+ * from the database once the application is ready, and ignores changes older than the version it already has.
+ */
+@Component
+public class EmployeeNameIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeNameIndex.class);
+
+    private static final int WARM_PAGE_SIZE = 1000;
+
+    // Only this many distinct words of a search are used.
+    static final int MAX_SEARCH_TERMS = 8;
+
+    private static final int FIRST_NAME = 0;
+    private static final int MIDDLE_INITIAL = 1;
+    private static final int LAST_NAME = 2;
+
+    // A match on a last name counts for more than one on a first name, which counts for more than one on an initial.
+    private static final float[] FIELD_WEIGHTS = {1.0f, 0.5f, 1.2f};
+
+    // How much a term match counts for, by the number of edits between the search word and the term.
+    private static final float[] EDIT_WEIGHTS = {1.0f, 0.6f, 0.35f};
+
+    private static final Pattern TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final EmployeeRepository employeeRepository;
+    private final boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TrieNode root = new TrieNode();
+    private int termCount;
+    private final LongObjectHashMap<IndexedNames> employees = new LongObjectHashMap<>();
+
+    private volatile boolean serving;
+
+    public EmployeeNameIndex(EmployeeRepository employeeRepository,
+                             @Value("${employees.name-index.enabled}") boolean enabled) {
+        this.employeeRepository = employeeRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return - true once the index holds every active employee and can be searched
+     */
+    public boolean isServing() {
+        return this.serving;
+    }
+
+    /**
+     * Finds the active employees whose names best match the search. Each word of the search is matched against every
+     * name term allowing for a number of typos that depends on its length: none for words of up to two characters, one
+     * for up to five and two for anything longer. Employees are scored by adding up the best match for each word, so
+     * employees matching more of the words rank higher.
+     *
+     * @param search - one or more words to search for
+     * @param limit - maximum number of matches to return
+     * @return - up to {@code limit} matches, best first
+     */
+    public List<EmployeeNameMatch> search(String search, int limit) {
+        List<String> searchTerms = new ArrayList<>(terms(search));
+        if (searchTerms.size() > MAX_SEARCH_TERMS) {
+            searchTerms = searchTerms.subList(0, MAX_SEARCH_TERMS);
+        }
+        if (searchTerms.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        this.lock.readLock().lock();
+        try {
+            // The best score each employee has got for each search term so far.
+            LongObjectHashMap<float[]> scores = new LongObjectHashMap<>();
+            for (int i = 0; i < searchTerms.size(); i++) {
+                int searchTerm = i;
+                int termCount = searchTerms.size();
+                forEachTermWithin(searchTerms.get(i), maxEdits(searchTerms.get(i)), (postingsByField, edits) -> {
+                    for (int field = 0; field < postingsByField.length; field++) {
+                        Postings postings = postingsByField[field];
+                        float score = EDIT_WEIGHTS[edits] * FIELD_WEIGHTS[field];
+                        for (int p = 0; postings != null && p < postings.size; p++) {
+                            float[] employeeScores = scores.get(postings.ids[p]);
+                            if (employeeScores == null) {
+                                employeeScores = new float[termCount];
+                                scores.put(postings.ids[p], employeeScores);
+                            }
+                            employeeScores[searchTerm] = Math.max(employeeScores[searchTerm], score);
+                        }
+                    }
+                });
+            }
+            return topMatches(scores, limit);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return - the number of distinct name terms in the index
+     */
+    public int termCount() {
+        this.lock.readLock().lock();
+        try {
+            return this.termCount;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (!this.enabled) {
+            return;
+        }
+
+        Employee employee = event.getEmployee();
+        this.lock.writeLock().lock();
+        try {
+            apply(employee.getId(), IndexedNames.of(employee));
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Fills the index in with every active employee in the database, a keyset page at a time, and then starts serving
+     * searches from it. Runs once the application is ready, which is after the initial data has been loaded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        if (!this.enabled) {
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        Long after = null;
+        List<Employee> page;
+        do {
+            page = this.employeeRepository.findPage(EmployeeStatus.ACTIVE, after, WARM_PAGE_SIZE,
+                    EmployeeFilter.none());
+
+            this.lock.writeLock().lock();
+            try {
+                for (Employee employee : page) {
+                    apply(employee.getId(), IndexedNames.of(employee));
+                }
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == WARM_PAGE_SIZE);
+
+        this.serving = true;
+        logger.info("Indexed {} employee name terms in {} ms", termCount(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    }
+
+    /**
+     * Splits text into normalized terms: lower case, without accents, and broken up on anything that isn't a letter or
+     * a digit.
+     */
+    static Set<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        String normalized = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String term : TERM_SEPARATOR.split(normalized)) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    static int maxEdits(String term) {
+        if (term.length() <= 2) {
+            return 0;
+        }
+        return term.length() <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Calls the visitor with every term within {@code maxEdits} insertions, deletions or substitutions of the search
+     * term, along with its distance. Must be called while holding the read lock.
+     */
+    private void forEachTermWithin(String searchTerm, int maxEdits, TermVisitor visitor) {
+        // rows[i][j] is the edit distance between the first i characters of the term at the current node and the
+        // first j characters of the search term.
+        int[][] rows = new int[16][searchTerm.length() + 1];
+        for (int j = 0; j <= searchTerm.length(); j++) {
+            rows[0][j] = j;
+        }
+        forEachTermWithin(this.root, 0, rows, searchTerm, maxEdits, visitor);
+    }
+
+    private static void forEachTermWithin(TrieNode node, int depth, int[][] rows, String searchTerm, int maxEdits,
+                                          TermVisitor visitor) {
+        if (node.postings != null) {
+            int edits = rows[depth][searchTerm.length()];
+            if (edits <= maxEdits) {
+                visitor.visit(node.postings, edits);
+            }
+        }
+
+        if (depth + 1 == rows.length) {
+            rows = Arrays.copyOf(rows, rows.length * 2);
+            for (int i = depth + 1; i < rows.length; i++) {
+                rows[i] = new int[searchTerm.length() + 1];
+            }
+        }
+        for (int child = 0; child < node.childCount; child++) {
+            if (nextRow(searchTerm, node.labels[child], rows[depth], rows[depth + 1], maxEdits)) {
+                forEachTermWithin(node.children[child], depth + 1, rows, searchTerm, maxEdits, visitor);
+            }
+        }
+    }
+
+    /**
+     * Fills in the next row of the edit distance table for one more character of a term.
+     *
+     * @return - false if every entry of the row is more than {@code maxEdits}
+     */
+    private static boolean nextRow(String searchTerm, char c, int[] previousRow, int[] row, int maxEdits) {
+        row[0] = previousRow[0] + 1;
+        int min = row[0];
+        for (int j = 1; j < row.length; j++) {
+            int substitution = previousRow[j - 1] + (searchTerm.charAt(j - 1) == c ? 0 : 1);
+            row[j] = Math.min(substitution, Math.min(previousRow[j], row[j - 1]) + 1);
+            min = Math.min(min, row[j]);
+        }
+        return min <= maxEdits;
+    }
+
+    /**
+     * Picks the best scoring employees with a bounded min-heap. Ties are broken by ID so results are stable. Must be
+     * called while holding the read lock.
+     */
+    private List<EmployeeNameMatch> topMatches(LongObjectHashMap<float[]> scores, int limit) {
+        Comparator<ScoredId> worstFirst = Comparator.comparingDouble((ScoredId scored) -> scored.score)
+                .thenComparing(Comparator.comparingLong((ScoredId scored) -> scored.id).reversed());
+        PriorityQueue<ScoredId> best = new PriorityQueue<>(limit + 1, worstFirst);
+
+        scores.forEach((id, employeeScores) -> {
+            float score = 0;
+            for (float termScore : employeeScores) {
+                score += termScore;
+            }
+            ScoredId scored = new ScoredId(id, score);
+            if (best.size() < limit) {
+                best.add(scored);
+            } else if (worstFirst.compare(scored, best.peek()) > 0) {
+                best.poll();
+                best.add(scored);
+            }
+        });
+
+        List<EmployeeNameMatch> matches = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ScoredId scored = best.poll();
+            IndexedNames names = this.employees.get(scored.id);
+            matches.add(new EmployeeNameMatch(scored.id, names.firstName, names.middleInitial, names.lastName,
+                    scored.score));
+        }
+        Collections.reverse(matches);
+        return matches;
+    }
+
+    // Must be called while holding the write lock.
+    private void apply(long employeeId, IndexedNames names) {
+        IndexedNames current = this.employees.get(employeeId);
+        if (current != null && current.version > names.version) {
+            return;
+        }
+
+        if (current != null && current.active) {
+            String[] fields = current.fields();
+            for (int field = 0; field < fields.length; field++) {
+                for (String term : terms(fields[field])) {
+                    removePosting(term, field, employeeId);
+                }
+            }
+        }
+        this.employees.put(employeeId, names);
+        if (names.active) {
+            String[] fields = names.fields();
+            for (int field = 0; field < fields.length; field++) {
+                for (String term : terms(fields[field])) {
+                    addPosting(term, field, employeeId);
+                }
+            }
+        }
+    }
+
+    private void addPosting(String term, int field, long employeeId) {
+        TrieNode node = this.root;
+        for (int i = 0; i < term.length(); i++) {
+            node = node.childFor(term.charAt(i));
+        }
+        if (node.postings == null) {
+            node.postings = new Postings[3];
+            this.termCount++;
+        }
+        if (node.postings[field] == null) {
+            node.postings[field] = new Postings();
+        }
+        node.postings[field].add(employeeId);
+    }
+
+    private void removePosting(String term, int field, long employeeId) {
+        // Remember the path down so nodes left with nothing below them can be cut off on the way back up.
+        TrieNode[] path = new TrieNode[term.length() + 1];
+        path[0] = this.root;
+        for (int i = 0; i < term.length(); i++) {
+            path[i + 1] = path[i].child(term.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+
+        TrieNode node = path[term.length()];
+        if (node.postings == null || node.postings[field] == null || !node.postings[field].remove(employeeId)) {
+            return;
+        }
+        node.postings[field] = null;
+        for (Postings fieldPostings : node.postings) {
+            if (fieldPostings != null) {
+                return;
+            }
+        }
+        node.postings = null;
+        this.termCount--;
+
+        for (int i = term.length(); i > 0 && path[i].postings == null && path[i].childCount == 0; i--) {
+            path[i - 1].removeChild(term.charAt(i - 1));
+        }
+    }
+
+    @FunctionalInterface
+    private interface TermVisitor {
+        void visit(Postings[] postingsByField, int edits);
+    }
+
+    /**
+     * A node of the term trie. Children are kept sorted by their label, and a node that ends a term has the employees
+     * that have the term, by the name field they have it in.
+     */
+    private static final class TrieNode {
+
+        // Most nodes are leaves, so they share empty arrays until they get a child.
+        private static final char[] NO_LABELS = new char[0];
+        private static final TrieNode[] NO_CHILDREN = new TrieNode[0];
+
+        private char[] labels = NO_LABELS;
+        private TrieNode[] children = NO_CHILDREN;
+        private int childCount;
+        private Postings[] postings;
+
+        TrieNode child(char label) {
+            int i = Arrays.binarySearch(this.labels, 0, this.childCount, label);
+            return i < 0 ? null : this.children[i];
+        }
+
+        TrieNode childFor(char label) {
+            int i = Arrays.binarySearch(this.labels, 0, this.childCount, label);
+            if (i >= 0) {
+                return this.children[i];
+            }
+
+            i = -i - 1;
+            if (this.childCount == this.labels.length) {
+                int capacity = Math.max(2, this.childCount * 2);
+                this.labels = Arrays.copyOf(this.labels, capacity);
+                this.children = Arrays.copyOf(this.children, capacity);
+            }
+            System.arraycopy(this.labels, i, this.labels, i + 1, this.childCount - i);
+            System.arraycopy(this.children, i, this.children, i + 1, this.childCount - i);
+            this.labels[i] = label;
+            this.children[i] = new TrieNode();
+            this.childCount++;
+            return this.children[i];
+        }
+
+        void removeChild(char label) {
+            int i = Arrays.binarySearch(this.labels, 0, this.childCount, label);
+            if (i >= 0) {
+                System.arraycopy(this.labels, i + 1, this.labels, i, this.childCount - i - 1);
+                System.arraycopy(this.children, i + 1, this.children, i, this.childCount - i - 1);
+                this.children[--this.childCount] = null;
+            }
+        }
+    }
+
+    /**
+     * An unordered list of employee IDs.
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[2];
+        private int size;
+
+        void add(long id) {
+            if (this.size == this.ids.length) {
+                this.ids = Arrays.copyOf(this.ids, this.size * 2);
+            }
+            this.ids[this.size++] = id;
+        }
+
+        /**
+         * @return - true if the list is now empty
+         */
+        boolean remove(long id) {
+            for (int i = 0; i < this.size; i++) {
+                if (this.ids[i] == id) {
+                    this.ids[i] = this.ids[--this.size];
+                    break;
+                }
+            }
+            return this.size == 0;
+        }
+    }
+
+    /**
+     * The names of an indexed employee, or a tombstone for an employee that's no longer active. The terms are worked out
+     * from the names again when they're needed rather than kept, to save memory.
+     */
+    private static final class IndexedNames {
+
+        private final boolean active;
+        private final long version;
+        private final String firstName;
+        private final String middleInitial;
+        private final String lastName;
+
+        private IndexedNames(boolean active, long version, String firstName, String middleInitial, String lastName) {
+            this.active = active;
+            this.version = version;
+            this.firstName = firstName;
+            this.middleInitial = middleInitial;
+            this.lastName = lastName;
+        }
+
+        String[] fields() {
+            String[] fields = new String[3];
+            fields[FIRST_NAME] = this.firstName;
+            fields[MIDDLE_INITIAL] = this.middleInitial;
+            fields[LAST_NAME] = this.lastName;
+            return fields;
+        }
+
+        static IndexedNames of(Employee employee) {
+            long version = employee.getVersion() == null ? 0 : employee.getVersion();
+            if (employee.getStatus() != EmployeeStatus.ACTIVE) {
+                return new IndexedNames(false, version, null, null, null);
+            }
+            return new IndexedNames(true, version, employee.getFirstName(), employee.getMiddleInitial(),
+                    employee.getLastName());
+        }
+    }
+
+    private static final class ScoredId {
+
+        private final long id;
+        private final float score;
+
+        ScoredId(long id, float score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.matt.employees.services;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the database work behind each employee request, either on the calling request thread or on a bounded pool of
+ * worker threads, depending on {@code employees.execution.mode}:
+ *
+ * <ul>
+ *     <li>{@code BLOCKING} - work runs on the request thread and the returned future is already complete, so requests
+ *     are handled exactly as ordinary synchronous requests.</li>
+ *     <li>{@code ASYNC} - work is queued to the worker pool and the request thread is handed back to the servlet
+ *     container straight away, so a slow database ties up workers rather than every container thread.</li>
+ * </ul>
+ *
+ * In both modes at most as many pieces of work as there are database connections run at once; anything beyond that
+ * waits for a permit instead of queueing inside the connection pool. Work is rejected with a
+ * {@link RejectedExecutionException} when the worker queue is full or a permit can't be had within the permit timeout.
+ */
+@Component
+public class EmployeeRequestExecutor implements DisposableBean {
+
+    public enum Mode { BLOCKING, ASYNC }
+
+    private final Mode mode;
+    private final Semaphore permits;
+    private final int permitCount;
+    private final long permitTimeoutMillis;
+    private final ThreadPoolExecutor workers;
+
+    public EmployeeRequestExecutor(DataSource dataSource, MeterRegistry meterRegistry,
+                                   @Value("${employees.execution.mode}") String mode,
+                                   @Value("${employees.execution.threads}") int threads,
+                                   @Value("${employees.execution.queue-capacity}") int queueCapacity,
+                                   @Value("${employees.execution.db-permits}") int dbPermits,
+                                   @Value("${employees.execution.permit-timeout-ms}") long permitTimeoutMillis) {
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.permitCount = dbPermits > 0 ? dbPermits : connectionPoolSize(dataSource);
+        this.permits = new Semaphore(this.permitCount, true);
+        this.permitTimeoutMillis = permitTimeoutMillis;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "employee-request-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.workers.allowCoreThreadTimeOut(true);
+
+        Gauge.builder("employees.execution.queued", this.workers, workers -> workers.getQueue().size())
+                .description("Employee requests waiting for a worker thread")
+                .register(meterRegistry);
+        Gauge.builder("employees.execution.db.permits.available", this.permits, Semaphore::availablePermits)
+                .description("Database permits not currently held by employee requests")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a piece of request work according to the execution mode.
+     *
+     * @param work - the work to run, which will hold a database permit while it runs
+     * @return - a future completed with the result of the work; already complete in {@code BLOCKING} mode, where any
+     * exception thrown by the work is thrown straight from this method
+     * @throws RejectedExecutionException - if the worker queue is full or, in {@code BLOCKING} mode, no database
+     * permit was available in time
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        if (this.mode == Mode.BLOCKING) {
+            return CompletableFuture.completedFuture(withPermit(work));
+        }
+        return CompletableFuture.supplyAsync(() -> withPermit(work), this.workers);
+    }
+
+    public Mode getMode() {
+        return this.mode;
+    }
+
+    public int getPermitCount() {
+        return this.permitCount;
+    }
+
+    private <T> T withPermit(Supplier<T> work) {
+        try {
+            if (!this.permits.tryAcquire(this.permitTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("Timed out waiting for a database permit");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted waiting for a database permit", e);
+        }
+        try {
+            return work.get();
+        } finally {
+            this.permits.release();
+        }
+    }
+
+    private static int connectionPoolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to determine the connection pool size", e);
+        }
+        throw new IllegalStateException(
+                "employees.execution.db-permits must be set when the data source isn't a Hikari connection pool");
+    }
+
+    @Override
+    public void destroy() {
+        this.workers.shutdown();
+    }
+}
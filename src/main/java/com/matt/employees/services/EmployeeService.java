@@ -1,39 +1,220 @@
 package com.matt.employees.services;
 
+import com.matt.employees.config.CacheConfig;
+import com.matt.employees.events.EmployeeChangedEvent;
 import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeField;
+import com.matt.employees.models.EmployeeFilter;
+import com.matt.employees.models.EmployeePatch;
+import com.matt.employees.models.EmployeeSearch;
 import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.models.EmployeeSummary;
 import com.matt.employees.repositories.EmployeeRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
+import javax.persistence.Tuple;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service class to handle our application level data access. For the most part we only want to interact with
  * active employees, so we create an easy interface for calling code to interact with the {@link EmployeeRepository}.
+ *
+ * Single employee lookups are answered from the {@link ActiveEmployeeIndex} when it is serving, and otherwise cached.
+ * Every save publishes an {@link EmployeeChangedEvent} so the index, the cache and any other derived views can be
+ * brought up to date.
+ *
+ * When the {@link EmployeeWriteBehind} buffer is enabled, single employee saves and patches go to it rather than
+ * straight to the database, and single employee lookups see the writes it hasn't flushed yet. Saves of lists, as made by
+ * the bulk endpoint, the initial data load and imports, are large enough to be efficient on their own and still go straight to the
+ * database, through {@link EmployeeWriteBehind#writeThrough(java.util.Collection, java.util.function.Supplier)} so
+ * they can't overwrite or be overwritten by buffered writes.
  */
 @Service
 public class EmployeeService {
 
     private EmployeeRepository employeeRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private ActiveEmployeeIndex activeEmployeeIndex;
+    private EmployeeWriteBehind writeBehind;
+    private Cache activeEmployees;
 
-    public EmployeeService(EmployeeRepository employeeRepository) {
+    public EmployeeService(EmployeeRepository employeeRepository, ApplicationEventPublisher eventPublisher,
+                           ActiveEmployeeIndex activeEmployeeIndex, EmployeeWriteBehind writeBehind,
+                           CacheManager cacheManager) {
         this.employeeRepository = employeeRepository;
+        this.eventPublisher = eventPublisher;
+        this.activeEmployeeIndex = activeEmployeeIndex;
+        this.writeBehind = writeBehind;
+        this.activeEmployees = cacheManager.getCache(CacheConfig.ACTIVE_EMPLOYEES_CACHE);
     }
 
     public Iterable<Employee> listActiveEmployees() {
         return this.employeeRepository.findByStatus(EmployeeStatus.ACTIVE);
     }
 
+    /**
+     * Returns a single keyset page of active employees as tuples holding only the requested fields, ordered as
+     * described by {@link EmployeeRepository#findPage(EmployeeStatus, Long, int, EmployeeFilter)}.
+     *
+     * @param after - ID of the last employee on the previous page, or null for the first page
+     * @param limit - maximum number of employees to return
+     * @param filter - optional filters to apply
+     * @param fields - the fields to return, which must include {@link EmployeeField#ID}
+     * @return - up to {@code limit} active employees following {@code after}
+     */
+    public List<Tuple> listActiveEmployeeFields(Long after, int limit, EmployeeFilter filter,
+                                                Set<EmployeeField> fields) {
+        return this.employeeRepository.findPageFields(EmployeeStatus.ACTIVE, after, limit, filter, fields);
+    }
+
+    /**
+     * Returns a single keyset page of active employees matching a search, ordered as described by
+     * {@link EmployeeRepository#search(EmployeeStatus, EmployeeSearch, Long, int)}.
+     *
+     * @param search - the search criteria
+     * @param after - ID of the last employee on the previous page, or null for the first page
+     * @param limit - maximum number of employees to return
+     * @return - up to {@code limit} matching active employees
+     * @throws InvalidDataAccessApiUsageException - if {@code after} isn't the ID of an employee
+     */
+    public List<EmployeeSummary> searchActiveEmployees(EmployeeSearch search, Long after, int limit) {
+        return this.employeeRepository.search(EmployeeStatus.ACTIVE, search, after, limit);
+    }
+
+    /**
+     * Looks up an active employee through the active employee index, or the active employee cache while the index isn't
+     * serving. The returned instance may be shared with other callers, so it must not be modified; use
+     * {@link #getActiveEmployeeForUpdate(Long)} to load an employee to change.
+     *
+     * Cache misses are loaded through {@link Cache#get(Object, java.util.concurrent.Callable)}, which only lets one
+     * caller load a given ID at a time.
+     *
+     * @param employeeId - ID of the employee to look up
+     * @return - the active employee, or an empty optional if there is no active employee with the ID
+     */
     public Optional<Employee> getActiveEmployee(Long employeeId) {
+        if (this.writeBehind.isEnabled()) {
+            Optional<Employee> pending = this.writeBehind.getPending(employeeId);
+            if (pending.isPresent()) {
+                return pending.filter(employee -> employee.getStatus() == EmployeeStatus.ACTIVE);
+            }
+        }
+        if (this.activeEmployeeIndex.isServing()) {
+            return this.activeEmployeeIndex.get(employeeId);
+        }
+        return Optional.ofNullable(this.activeEmployees.get(employeeId, () ->
+                this.employeeRepository.findByIdAndStatus(employeeId, EmployeeStatus.ACTIVE).orElse(null)));
+    }
+
+    /**
+     * Loads an active employee straight from the database, bypassing the cache, so that it can be modified and saved.
+     * An employee with writes that haven't been flushed yet is loaded from the write-behind buffer instead.
+     *
+     * @param employeeId - ID of the employee to load
+     * @return - the active employee, or an empty optional if there is no active employee with the ID
+     */
+    public Optional<Employee> getActiveEmployeeForUpdate(Long employeeId) {
+        if (this.writeBehind.isEnabled()) {
+            Optional<Employee> pending = this.writeBehind.getPending(employeeId);
+            if (pending.isPresent()) {
+                return pending.filter(employee -> employee.getStatus() == EmployeeStatus.ACTIVE);
+            }
+        }
         return this.employeeRepository.findByIdAndStatus(employeeId, EmployeeStatus.ACTIVE);
     }
 
+    /**
+     * Saves a single employee, through the write-behind buffer when it's enabled.
+     *
+     * @param employee - the employee to save
+     * @return - the saved employee
+     * @throws ObjectOptimisticLockingFailureException - if the employee was changed since it was loaded
+     */
     public Employee save(Employee employee) {
-        return this.employeeRepository.save(employee);
+        if (this.writeBehind.isEnabled()) {
+            return this.writeBehind.write(employee);
+        }
+        EmployeeChangedEvent.Type type = changeType(employee);
+        Employee savedEmployee = this.employeeRepository.save(employee);
+        this.eventPublisher.publishEvent(new EmployeeChangedEvent(savedEmployee, type));
+        return savedEmployee;
     }
 
+    /**
+     * Saves a list of employees straight to the database, even when the write-behind buffer is enabled.
+     *
+     * @param employees - the employees to save
+     * @return - the saved employees
+     * @throws ObjectOptimisticLockingFailureException - if any of the employees was changed since it was loaded, or has
+     * buffered writes that haven't been flushed yet
+     */
     public Iterable<Employee> save(List<Employee> employees) {
-        return this.employeeRepository.saveAll(employees);
+        if (this.writeBehind.isEnabled()) {
+            return this.writeBehind.writeThrough(employees, () -> saveAll(employees));
+        }
+        return saveAll(employees);
+    }
+
+    private Iterable<Employee> saveAll(List<Employee> employees) {
+        List<EmployeeChangedEvent.Type> types = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            types.add(changeType(employee));
+        }
+
+        Iterable<Employee> savedEmployees = this.employeeRepository.saveAll(employees);
+
+        int i = 0;
+        for (Employee savedEmployee : savedEmployees) {
+            this.eventPublisher.publishEvent(new EmployeeChangedEvent(savedEmployee, types.get(i++)));
+        }
+        return savedEmployees;
+    }
+
+    /**
+     * Applies a partial update to an active employee. Only the fields whose values actually differ from {@code current}
+     * are written, in a single UPDATE guarded by the version {@code current} was loaded at; if nothing differs, nothing
+     * is written and no change is published. With the write-behind buffer enabled, the patched employee is buffered
+     * like any other save instead.
+     *
+     * @param current - the employee as last loaded by the caller
+     * @param patch - the fields to change
+     * @return - the employee after the patch has been applied
+     * @throws ObjectOptimisticLockingFailureException - if the employee was changed or deactivated since it was loaded
+     */
+    public Employee patch(Employee current, EmployeePatch patch) {
+        EmployeePatch changes = patch.changedFrom(current);
+        if (changes.isEmpty()) {
+            return current;
+        }
+
+        if (this.writeBehind.isEnabled()) {
+            changes.applyTo(current);
+            return this.writeBehind.write(current);
+        }
+        if (this.employeeRepository.applyPatch(current.getId(), EmployeeStatus.ACTIVE, current.getVersion(), changes) == 0) {
+            throw new ObjectOptimisticLockingFailureException(Employee.class, current.getId());
+        }
+
+        Employee patchedEmployee = this.employeeRepository.findById(current.getId())
+                .orElseThrow(() -> new ObjectOptimisticLockingFailureException(Employee.class, current.getId()));
+        this.eventPublisher.publishEvent(new EmployeeChangedEvent(patchedEmployee, EmployeeChangedEvent.Type.UPDATED));
+        return patchedEmployee;
+    }
+
+    static EmployeeChangedEvent.Type changeType(Employee employee) {
+        if (employee.getId() == null) {
+            return EmployeeChangedEvent.Type.CREATED;
+        }
+        return employee.getStatus() == EmployeeStatus.INACTIVE
+                ? EmployeeChangedEvent.Type.DEACTIVATED
+                : EmployeeChangedEvent.Type.UPDATED;
     }
 }
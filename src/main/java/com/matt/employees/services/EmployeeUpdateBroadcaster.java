@@ -0,0 +1,508 @@
+package com.matt.employees.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matt.employees.events.EmployeeChangedEvent;
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.models.EmployeeUpdate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes every change made to an employee through this application to the clients subscribed to
+ * {@code GET /employees/updates} as server-sent events, so dashboards can follow changes instead of reloading the list.
+ * Enabled with {@code employees.updates.enabled}.
+ *
+ * Subscribers are held as {@link SseEmitter}s on asynchronous requests, so an idle subscriber costs a connection and a
+ * little memory but no thread. Each committed {@link EmployeeChangedEvent} is serialized once, and the thread that made
+ * the change only offers it to the queue of every subscriber whose filter it matches; it never waits for a subscriber.
+ * Subscribers following a set of IDs are looked up by ID rather than every subscriber being checked. Subscribers are
+ * kept in concurrent sets and their queues are lock-free, so changes made at the same time don't wait for each other
+ * either. A small pool of delivery threads writes the queued updates out, a batch per subscriber at a time.
+ *
+ * A queue holds at most one update per employee: a newer update to an employee that's still queued takes the place of
+ * the older one. Updates to the same employee are offered one at a time, and one older than the last update offered is
+ * skipped, so a subscriber is never sent an employee going back to an older version, even when listeners hear about
+ * changes out of order. A subscriber that falls behind by more than queue-capacity employees is dropped. It's sent a
+ * {@code dropped} event and its response is completed, and it should reload whatever it shows before subscribing again.
+ * Imports and the initial data load commit a chunk of employees at a time, so queue-capacity needs to be well above
+ * their chunk size or every subscriber following all employees is dropped by a large import.
+ *
+ * Sending blocks while a client isn't reading and the connection's buffers are full. A subscriber whose send has taken
+ * longer than send-timeout-ms is dropped, and the delivery pool is given an extra thread until the stuck send fails or
+ * finishes, so a stalled client costs every other subscriber nothing more than that wait. Idle subscribers are sent a
+ * comment every heartbeat-seconds, which is also how connections that have gone away are noticed.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class EmployeeUpdateBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeUpdateBroadcaster.class);
+
+    static final String DROPPED_EVENT = "dropped";
+
+    // Updates sent to a subscriber before the delivery thread moves on to the next one.
+    private static final int DELIVERY_BATCH = 64;
+    // The latest version offered is remembered for this many employees in each of the stripes.
+    private static final int VERSION_STRIPES = 64;
+    private static final int VERSIONS_PER_STRIPE = 1024;
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int maxSubscribers;
+    private final int queueCapacity;
+    private final int deliveryThreads;
+    private final long heartbeatSeconds;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    // Subscribers following every employee, and those following a set of IDs by each ID they follow, so that a change
+    // is only matched against the subscribers that could want it.
+    private final Set<Subscriber> unfiltered = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<Long, Set<Subscriber>> byId = new ConcurrentHashMap<>();
+    // Subscribers a delivery thread is currently sending to.
+    private final Set<Subscriber> sending = ConcurrentHashMap.newKeySet();
+    private final RecentVersions[] versions = new RecentVersions[VERSION_STRIPES];
+
+    private ScheduledThreadPoolExecutor delivery;
+    private ScheduledThreadPoolExecutor timer;
+    private Counter coalesced;
+    private Counter dropped;
+    private Counter stalled;
+
+    public EmployeeUpdateBroadcaster(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                     @Value("${employees.updates.enabled}") boolean enabled,
+                                     @Value("${employees.updates.max-subscribers}") int maxSubscribers,
+                                     @Value("${employees.updates.queue-capacity}") int queueCapacity,
+                                     @Value("${employees.updates.delivery-threads}") int deliveryThreads,
+                                     @Value("${employees.updates.heartbeat-seconds}") long heartbeatSeconds,
+                                     @Value("${employees.updates.timeout-ms}") long timeoutMillis,
+                                     @Value("${employees.updates.send-timeout-ms}") long sendTimeoutMillis) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxSubscribers = maxSubscribers;
+        this.queueCapacity = queueCapacity;
+        this.deliveryThreads = deliveryThreads;
+        this.heartbeatSeconds = heartbeatSeconds;
+        this.timeoutMillis = timeoutMillis;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        for (int i = 0; i < VERSION_STRIPES; i++) {
+            this.versions[i] = new RecentVersions();
+        }
+    }
+
+    /**
+     * Starts the delivery threads, and the timer that sends heartbeats and drops stalled subscribers.
+     */
+    @PostConstruct
+    public void start() {
+        if (!this.enabled) {
+            return;
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.delivery = new ScheduledThreadPoolExecutor(this.deliveryThreads, runnable -> {
+            Thread thread = new Thread(runnable, "employee-updates-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // The timer has its own thread, as the delivery threads may all be stuck sending to stalled subscribers.
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "employee-updates-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.scheduleAtFixedRate(this::heartbeat, this.heartbeatSeconds, this.heartbeatSeconds,
+                TimeUnit.SECONDS);
+        long checkNanos = Math.max(this.sendTimeoutNanos / 2, TimeUnit.MILLISECONDS.toNanos(1));
+        this.timer.scheduleAtFixedRate(this::dropStalledSubscribers, checkNanos, checkNanos, TimeUnit.NANOSECONDS);
+
+        this.meterRegistry.gauge("employees.updates.subscribers", this.subscriberCount);
+        this.coalesced = Counter.builder("employees.updates.coalesced")
+                .description("Updates to an employee that replaced an older one still waiting to be sent")
+                .register(this.meterRegistry);
+        this.dropped = Counter.builder("employees.updates.dropped")
+                .description("Subscribers dropped for falling too far behind")
+                .register(this.meterRegistry);
+        this.stalled = Counter.builder("employees.updates.stalled")
+                .description("Subscribers dropped for not reading what they were sent")
+                .register(this.meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (this.delivery == null) {
+            return;
+        }
+        this.timer.shutdownNow();
+        this.delivery.shutdownNow();
+        for (Subscriber subscriber : this.subscribers) {
+            remove(subscriber);
+            subscriber.emitter.complete();
+        }
+    }
+
+    /**
+     * @return - true if subscriptions are enabled
+     */
+    public boolean isServing() {
+        return this.delivery != null && !this.delivery.isShutdown();
+    }
+
+    /**
+     * @return - the number of subscribers currently connected
+     */
+    public int getSubscriberCount() {
+        return this.subscriberCount.get();
+    }
+
+    /**
+     * Subscribes a new client to updates, with an emitter that times out after {@code employees.updates.timeout-ms}.
+     *
+     * @param status - only send updates to employees in this status, and deactivations, or null for every update
+     * @param ids - only send updates to these employees, or null for every employee
+     * @return - the emitter to return from the request handler
+     * @throws RejectedExecutionException - if there are already max-subscribers subscribers
+     */
+    public SseEmitter subscribe(EmployeeStatus status, Set<Long> ids) {
+        return subscribe(new SseEmitter(this.timeoutMillis), status, ids);
+    }
+
+    /**
+     * Subscribes a client to updates through the given emitter.
+     *
+     * @param emitter - the emitter updates are sent through
+     * @param status - only send updates to employees in this status, and deactivations, or null for every update
+     * @param ids - only send updates to these employees, or null for every employee
+     * @return - the emitter
+     * @throws RejectedExecutionException - if there are already max-subscribers subscribers
+     */
+    public SseEmitter subscribe(SseEmitter emitter, EmployeeStatus status, Set<Long> ids) {
+        if (!isServing()) {
+            throw new RejectedExecutionException("Employee updates are not available");
+        }
+        if (this.subscriberCount.incrementAndGet() > this.maxSubscribers) {
+            this.subscriberCount.decrementAndGet();
+            throw new RejectedExecutionException("Too many subscribers to employee updates");
+        }
+
+        Subscriber subscriber = new Subscriber(emitter, status, ids);
+        this.subscribers.add(subscriber);
+        if (ids == null) {
+            this.unfiltered.add(subscriber);
+        } else {
+            for (Long id : ids) {
+                this.byId.compute(id, (key, following) -> {
+                    Set<Subscriber> set = following == null ? ConcurrentHashMap.newKeySet() : following;
+                    set.add(subscriber);
+                    return set;
+                });
+            }
+        }
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> {
+            remove(subscriber);
+            emitter.complete();
+        });
+        emitter.onError(failure -> remove(subscriber));
+        // A first comment sends the response headers, so the client knows it's subscribed.
+        subscriber.heartbeat = true;
+        schedule(subscriber);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (this.subscriberCount.get() == 0) {
+            return;
+        }
+
+        Employee employee = event.getEmployee();
+        long version = employee.getVersion() == null ? 0 : employee.getVersion();
+        String data;
+        try {
+            data = this.objectMapper.writeValueAsString(new EmployeeUpdate(event.getType(), version, employee));
+        } catch (JsonProcessingException e) {
+            logger.error("Unable to serialize the update to employee {} for subscribers", employee.getId(), e);
+            return;
+        }
+
+        Update update = new Update(employee.getId(), version, employee.getStatus(), event.getType(), data);
+        RecentVersions recent = this.versions[(int) (update.id & (VERSION_STRIPES - 1))];
+        synchronized (recent) {
+            Long latest = recent.get(update.id);
+            if (latest != null && latest >= version) {
+                return;
+            }
+            recent.put(update.id, version);
+            offerAll(this.unfiltered, update);
+            Set<Subscriber> following = this.byId.get(update.id);
+            if (following != null) {
+                offerAll(following, update);
+            }
+        }
+    }
+
+    private void offerAll(Set<Subscriber> subscribers, Update update) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.accepts(update)) {
+                offer(subscriber, update);
+            }
+        }
+    }
+
+    private void offer(Subscriber subscriber, Update update) {
+        while (true) {
+            Update queued = subscriber.pending.putIfAbsent(update.id, update);
+            if (queued == null) {
+                if (subscriber.queued.incrementAndGet() > this.queueCapacity) {
+                    drop(subscriber);
+                    return;
+                }
+                subscriber.order.offer(update.id);
+                break;
+            }
+            // The employee is still queued, so the newer update takes its place.
+            if (subscriber.pending.replace(update.id, queued, update)) {
+                this.coalesced.increment();
+                return;
+            }
+            // The queued update was sent in the meantime, so this one is queued afresh.
+        }
+        schedule(subscriber);
+    }
+
+    private void drop(Subscriber subscriber) {
+        if (remove(subscriber)) {
+            this.dropped.increment();
+            subscriber.dropped = true;
+            schedule(subscriber);
+        }
+    }
+
+    private boolean remove(Subscriber subscriber) {
+        if (!this.subscribers.remove(subscriber)) {
+            return false;
+        }
+        if (subscriber.ids == null) {
+            this.unfiltered.remove(subscriber);
+        } else {
+            for (Long id : subscriber.ids) {
+                this.byId.computeIfPresent(id, (key, following) -> {
+                    following.remove(subscriber);
+                    return following.isEmpty() ? null : following;
+                });
+            }
+        }
+        this.subscriberCount.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * Drops the subscribers whose send has been stuck for longer than send-timeout-ms. Their delivery threads stay
+     * stuck until the send fails or finishes, so the pool is given a thread to make up for each of them meanwhile.
+     */
+    private void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : this.sending) {
+            if (now - subscriber.sendStarted > this.sendTimeoutNanos && subscriber.stalled.compareAndSet(false, true)) {
+                resizeDelivery(1);
+                remove(subscriber);
+                this.stalled.increment();
+            }
+        }
+    }
+
+    private synchronized void resizeDelivery(int threads) {
+        this.delivery.setCorePoolSize(this.delivery.getCorePoolSize() + threads);
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : this.subscribers) {
+            subscriber.heartbeat = true;
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                this.delivery.execute(() -> deliver(subscriber));
+            } catch (RejectedExecutionException e) {
+                // Shutting down, and every subscriber is being completed.
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Sends a batch of the subscriber's queued updates, then schedules it again if there's more to send. Only one
+     * delivery thread works on a subscriber at a time. A subscriber that stalled while being sent to is never
+     * scheduled again, and the thread the pool was given to make up for it is taken away.
+     */
+    private void deliver(Subscriber subscriber) {
+        try {
+            if (subscriber.dropped) {
+                subscriber.pending.clear();
+                subscriber.order.clear();
+                send(subscriber, SseEmitter.event().name(DROPPED_EVENT)
+                        .data("Too many updates were waiting to be sent"));
+                if (!releaseIfStalled(subscriber)) {
+                    subscriber.emitter.complete();
+                }
+                return;
+            }
+            if (subscriber.heartbeat) {
+                subscriber.heartbeat = false;
+                send(subscriber, SseEmitter.event().comment(""));
+            }
+            for (int sent = 0; sent < DELIVERY_BATCH && !subscriber.dropped; sent++) {
+                Long id = subscriber.order.poll();
+                if (id == null) {
+                    break;
+                }
+                Update update = subscriber.pending.remove(id);
+                subscriber.queued.decrementAndGet();
+                if (update != null) {
+                    send(subscriber, SseEmitter.event().data(update.data, MediaType.APPLICATION_JSON_UTF8));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client has gone away, or the response has already been completed.
+            remove(subscriber);
+            releaseIfStalled(subscriber);
+            return;
+        }
+
+        if (releaseIfStalled(subscriber)) {
+            // The client started reading again, but it has been dropped and has to subscribe again.
+            subscriber.emitter.complete();
+            return;
+        }
+        subscriber.scheduled.set(false);
+        if (!subscriber.order.isEmpty() || subscriber.dropped || subscriber.heartbeat) {
+            schedule(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        subscriber.sendStarted = System.nanoTime();
+        this.sending.add(subscriber);
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            this.sending.remove(subscriber);
+        }
+    }
+
+    /**
+     * Takes away the thread the pool was given when the subscriber stalled, once its send has come back.
+     *
+     * @return - true if the subscriber had stalled
+     */
+    private boolean releaseIfStalled(Subscriber subscriber) {
+        if (!subscriber.stalled.get()) {
+            return false;
+        }
+        resizeDelivery(-1);
+        return true;
+    }
+
+    /**
+     * The latest version offered of the most recently changed employees in a stripe, guarded by the stripe itself.
+     */
+    private static final class RecentVersions extends LinkedHashMap<Long, Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        RecentVersions() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > VERSIONS_PER_STRIPE;
+        }
+    }
+
+    /**
+     * An update serialized for sending, along with what subscribers filter on.
+     */
+    private static final class Update {
+
+        private final Long id;
+        private final long version;
+        private final EmployeeStatus status;
+        private final EmployeeChangedEvent.Type type;
+        private final String data;
+
+        Update(Long id, long version, EmployeeStatus status, EmployeeChangedEvent.Type type, String data) {
+            this.id = id;
+            this.version = version;
+            this.status = status;
+            this.type = type;
+            this.data = data;
+        }
+    }
+
+    /**
+     * A connected client and the updates waiting to be sent to it, in the order their employees were first queued.
+     */
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final EmployeeStatus status;
+        private final Set<Long> ids;
+        private final ConcurrentHashMap<Long, Update> pending = new ConcurrentHashMap<>();
+        private final ConcurrentLinkedQueue<Long> order = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean stalled = new AtomicBoolean();
+        private volatile boolean heartbeat;
+        private volatile boolean dropped;
+        private volatile long sendStarted;
+
+        Subscriber(SseEmitter emitter, EmployeeStatus status, Set<Long> ids) {
+            this.emitter = emitter;
+            this.status = status;
+            this.ids = ids;
+        }
+
+        /**
+         * Subscribers are only offered updates to the employees they follow, so this only checks the status.
+         * Deactivations are sent to subscribers following active employees too, since the employee leaves the set
+         * they're following.
+         */
+        boolean accepts(Update update) {
+            return this.status == null || this.status == update.status
+                    || update.type == EmployeeChangedEvent.Type.DEACTIVATED;
+        }
+    }
+}
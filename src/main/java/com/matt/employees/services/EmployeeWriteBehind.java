@@ -0,0 +1,657 @@
+package com.matt.employees.services;
+
+import com.matt.employees.events.EmployeeChangedEvent;
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.repositories.EmployeeRepository;
+import com.matt.employees.utilities.GroupCommitLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Optional write-behind buffer for single employee saves, enabled with {@code employees.write-behind.enabled}.
+ *
+ * Without it, every create, update, patch and deactivation commits its own transaction, so under bursty traffic the
+ * write rate is capped by how many commits the database can make a second. With it, each write is appended to a
+ * {@link GroupCommitLog} on local disk, which forces many concurrent writes to disk at once, and is acknowledged as
+ * soon as it's durable there. The written employee is held in memory until a background flusher writes it to the
+ * database, up to batch-size employees per transaction every flush-interval-ms. Several writes to the same employee
+ * before a flush are merged into one, so a busy employee costs one row update per flush however often it changes.
+ *
+ * Employees are given their IDs and new versions as they're written, so responses carry the same IDs and ETags they
+ * would without the buffer. Single employee lookups see writes that haven't been flushed yet; pages, searches and
+ * {@link EmployeeChangedEvent}s only see them once they have been. Updates are checked against the version being
+ * replaced as they're written, as usual: the buffered version if the employee has writes waiting to be flushed, and
+ * otherwise the version stored in the database, so a write that's acknowledged is never turned away later. Lists of
+ * employees, as saved by imports and the initial data load, still go straight to the database through
+ * {@link #writeThrough(Collection, Supplier)}, which refuses employees with writes waiting to be flushed and holds off
+ * writes to the employees it's saving until their transaction has finished.
+ *
+ * Flushed updates are checked again, and only apply if the row is still at the version the buffered writes started
+ * from, so a row changed behind the buffer's back through the repository isn't overwritten. Such conflicts are logged,
+ * counted and dropped, but can't happen to writes that go through {@link EmployeeService}.
+ *
+ * On startup the log is replayed, so writes that were acknowledged but not yet flushed when the application stopped are
+ * flushed then; replaying writes that had been flushed is harmless, as rows that already hold a write are left alone.
+ * Log segments are deleted once every write in them has been flushed. The log only makes sense alongside a database
+ * that outlives the application, as replayed writes keep the IDs they were given.
+ */
+@Component
+public class EmployeeWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeWriteBehind.class);
+
+    private static final int STRIPES = 64;
+    private static final byte FORMAT = 1;
+
+    private final EmployeeRepository employeeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+    private final String directory;
+    private final long flushIntervalMillis;
+    private final int batchSize;
+    private final int maxPending;
+    private final long maxWaitMillis;
+    private final long segmentSize;
+
+    // Writes waiting to be flushed, keyed by employee ID. Writers and the flusher replace or remove an employee's entry
+    // while holding the lock for its stripe, so the entry and the log always agree on which write came last.
+    private final Map<Long, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    // Employees being saved straight to the database by writeThrough, whose writes are refused until it's done.
+    private final Set<Long> writingThrough = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Object capacity = new Object();
+
+    private GroupCommitLog log;
+    private ScheduledExecutorService flusher;
+    private SessionFactoryImplementor sessionFactory;
+    private IdentifierGenerator idGenerator;
+    private Counter conflicts;
+
+    public EmployeeWriteBehind(EmployeeRepository employeeRepository, ApplicationEventPublisher eventPublisher,
+                               PlatformTransactionManager transactionManager, EntityManagerFactory entityManagerFactory,
+                               MeterRegistry meterRegistry,
+                               @Value("${employees.write-behind.enabled}") boolean enabled,
+                               @Value("${employees.write-behind.directory}") String directory,
+                               @Value("${employees.write-behind.flush-interval-ms}") long flushIntervalMillis,
+                               @Value("${employees.write-behind.batch-size}") int batchSize,
+                               @Value("${employees.write-behind.max-pending}") int maxPending,
+                               @Value("${employees.write-behind.max-wait-ms}") long maxWaitMillis,
+                               @Value("${employees.write-behind.segment-size}") long segmentSize) {
+        this.employeeRepository = employeeRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.maxWaitMillis = maxWaitMillis;
+        this.segmentSize = segmentSize;
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Opens the log, replaying any writes that weren't flushed before the application last stopped, and starts the
+     * flusher.
+     *
+     * @throws IOException - if the log can't be opened
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!this.enabled) {
+            return;
+        }
+        this.sessionFactory = this.entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.idGenerator = this.sessionFactory.getMetamodel().entityPersister(Employee.class).getIdentifierGenerator();
+        this.conflicts = Counter.builder("employees.write-behind.conflicts")
+                .description("Buffered writes dropped because the employee was changed elsewhere before they were "
+                        + "flushed")
+                .register(this.meterRegistry);
+        this.meterRegistry.gauge("employees.write-behind.pending", this.pending, Map::size);
+
+        this.log = GroupCommitLog.open(Paths.get(this.directory), this.segmentSize, (segment, record) -> {
+            PendingWrite write = decode(record, segment);
+            this.pending.merge(write.state.getId(), write, PendingWrite::followedBy);
+        });
+        if (!this.pending.isEmpty()) {
+            logger.info("Replayed {} unflushed employee writes from {}", this.pending.size(),
+                    Paths.get(this.directory).toAbsolutePath());
+        }
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flushQuietly, this.flushIntervalMillis, this.flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the flusher, flushes whatever is still buffered and closes the log, deleting it if everything was flushed.
+     * Anything that can't be flushed is left in the log to be replayed on the next start.
+     *
+     * This runs as soon as the application starts shutting down, while the listeners that flushed writes are published
+     * to are still around.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void stop() throws IOException, InterruptedException {
+        if (this.flusher == null || this.flusher.isShutdown()) {
+            return;
+        }
+        this.flusher.shutdown();
+        this.flusher.awaitTermination(1, TimeUnit.MINUTES);
+        try {
+            while (flush() > 0) {
+                // keep going until everything is flushed or nothing more can be
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Unable to flush {} buffered employee writes, they'll be replayed on the next start: {}",
+                    this.pending.size(), e.getMessage());
+        }
+        this.log.close();
+        if (this.pending.isEmpty()) {
+            this.log.deleteSegmentsBefore(Long.MAX_VALUE);
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * @return - the number of employees with writes that haven't been flushed yet
+     */
+    public int getPendingCount() {
+        return this.pending.size();
+    }
+
+    /**
+     * Looks up an employee with a write that hasn't been flushed yet.
+     *
+     * @param employeeId - ID of the employee to look up
+     * @return - a copy of the employee as last written, active or not, or an empty optional if the employee has no
+     * buffered writes
+     */
+    public Optional<Employee> getPending(Long employeeId) {
+        PendingWrite write = this.pending.get(employeeId);
+        return write == null ? Optional.empty() : Optional.of(copy(write.state));
+    }
+
+    /**
+     * Writes an employee to the log and buffers it to be flushed to the database later. A new employee is given its ID
+     * here; an existing one must be at the version it was loaded at, whether that's in the buffer or, if it has nothing
+     * waiting to be flushed, in the database.
+     *
+     * @param employee - the employee to write, which isn't modified
+     * @return - a copy of the employee as written, with its ID, new version and last modified time
+     * @throws ObjectOptimisticLockingFailureException - if the employee has been written since it was loaded, or is
+     * being saved straight to the database
+     * @throws RejectedExecutionException - if too many employees are still waiting to be flushed after max-wait-ms
+     * @throws UncheckedIOException - if the write can't be made durable
+     */
+    public Employee write(Employee employee) {
+        awaitCapacity();
+
+        boolean created = employee.getId() == null;
+        Long id = created ? allocateId(employee) : employee.getId();
+        Employee state;
+        ReentrantLock lock = stripe(id);
+        lock.lock();
+        try {
+            PendingWrite current = this.pending.get(id);
+            if (current != null ? !current.state.getVersion().equals(employee.getVersion())
+                    : !created && !isStoredVersion(id, employee.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(Employee.class, id);
+            }
+            Long previousVersion = created ? null : employee.getVersion();
+            state = Employee.restore(id, employee.getFirstName(), employee.getMiddleInitial(), employee.getLastName(),
+                    employee.getDateOfBirth(), employee.getDateOfEmployment(), employee.getStatus(),
+                    created ? 0L : previousVersion + 1, Instant.now());
+
+            long segment = this.log.append(encode(state, previousVersion));
+            PendingWrite write = new PendingWrite(state, previousVersion, segment);
+            this.pending.put(id, current == null ? write : current.followedBy(write));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write employee " + id + " to the log", e);
+        } finally {
+            lock.unlock();
+        }
+
+        if (this.pending.size() >= this.batchSize) {
+            requestFlush();
+        }
+        return copy(state);
+    }
+
+    /**
+     * Saves employees straight to the database rather than buffering them, for callers saving many employees at once.
+     * None of the existing employees may have writes waiting to be flushed, as they'd be overwritten by employees
+     * loaded from the database, and writes to them are refused until the transaction the save is part of has finished,
+     * as they'd be checked against versions the save is about to replace.
+     *
+     * @param employees - the employees about to be saved
+     * @param save - saves the employees
+     * @return - whatever the save returns
+     * @throws ObjectOptimisticLockingFailureException - if any of the employees has writes waiting to be flushed, or is
+     * already being saved straight to the database
+     */
+    public <T> T writeThrough(Collection<Employee> employees, Supplier<T> save) {
+        Set<Long> ids = new TreeSet<>();
+        for (Employee employee : employees) {
+            if (employee.getId() != null) {
+                ids.add(employee.getId());
+            }
+        }
+
+        List<Long> held = new ArrayList<>(ids.size());
+        try {
+            for (Long id : ids) {
+                ReentrantLock lock = stripe(id);
+                lock.lock();
+                try {
+                    if (this.pending.containsKey(id) || !this.writingThrough.add(id)) {
+                        throw new ObjectOptimisticLockingFailureException(Employee.class, id);
+                    }
+                    held.add(id);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            T saved = save.get();
+            releaseAfterCompletion(held);
+            return saved;
+        } catch (RuntimeException e) {
+            this.writingThrough.removeAll(held);
+            throw e;
+        }
+    }
+
+    /**
+     * Flushes up to batch-size buffered employees to the database in a single transaction.
+     *
+     * @return - the number of employees flushed, including any dropped as conflicts
+     */
+    public synchronized int flush() {
+        this.flushRequested.set(false);
+        if (this.pending.isEmpty()) {
+            return 0;
+        }
+
+        List<PendingWrite> batch = new ArrayList<>(Math.min(this.batchSize, this.pending.size()));
+        for (PendingWrite write : this.pending.values()) {
+            if (batch.size() == this.batchSize) {
+                break;
+            }
+            batch.add(write);
+        }
+
+        List<PendingWrite> conflicted = this.transactionTemplate.execute(status -> apply(batch));
+        for (PendingWrite write : conflicted) {
+            logger.warn("Dropping buffered write of employee {} at version {}, which was changed elsewhere",
+                    write.state.getId(), write.state.getVersion());
+            this.conflicts.increment();
+        }
+
+        // Writes made to the same employees since the batch was taken stay buffered for the next flush.
+        for (PendingWrite write : batch) {
+            ReentrantLock lock = stripe(write.state.getId());
+            lock.lock();
+            try {
+                this.pending.remove(write.state.getId(), write);
+            } finally {
+                lock.unlock();
+            }
+        }
+        synchronized (this.capacity) {
+            this.capacity.notifyAll();
+        }
+        deleteFlushedSegments();
+        return batch.size();
+    }
+
+    /**
+     * Writes a batch to the database, returning the writes that conflicted with the rows they were meant to replace. A
+     * row is updated if it's at the version the buffered writes started from or any version written since, which is
+     * only possible after a crash part way through a flush. A row that already holds the write, down to its last
+     * modified time, is left as it is.
+     */
+    private List<PendingWrite> apply(List<PendingWrite> batch) {
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            ids.add(write.state.getId());
+        }
+        Map<Long, Object[]> stored = new HashMap<>();
+        for (Object[] row : this.employeeRepository.findVersionsByIdIn(ids)) {
+            stored.put((Long) row[0], row);
+        }
+
+        List<Employee> inserts = new ArrayList<>();
+        List<PendingWrite> updates = new ArrayList<>();
+        List<Long> expectedVersions = new ArrayList<>();
+        List<PendingWrite> applied = new ArrayList<>();
+        List<PendingWrite> conflicted = new ArrayList<>();
+        for (PendingWrite write : batch) {
+            Employee state = write.state;
+            Object[] row = stored.get(state.getId());
+            if (row == null) {
+                if (write.baseVersion != null) {
+                    conflicted.add(write);
+                    continue;
+                }
+                // Inserts start at version 0, so writes made after the create are applied on top as an update.
+                inserts.add(Employee.restore(state.getId(), state.getFirstName(), state.getMiddleInitial(),
+                        state.getLastName(), state.getDateOfBirth(), state.getDateOfEmployment(), state.getStatus(),
+                        null, state.getLastModified()));
+                if (state.getVersion() > 0) {
+                    updates.add(write);
+                    expectedVersions.add(0L);
+                }
+                applied.add(write);
+                continue;
+            }
+
+            long storedVersion = (Long) row[1];
+            if (storedVersion == state.getVersion() && state.getLastModified().equals(row[2])) {
+                applied.add(write);
+            } else if (storedVersion < state.getVersion()
+                    && (write.baseVersion == null || storedVersion >= write.baseVersion)) {
+                updates.add(write);
+                expectedVersions.add(storedVersion);
+                applied.add(write);
+            } else {
+                conflicted.add(write);
+            }
+        }
+
+        this.employeeRepository.saveAll(inserts);
+        List<Employee> states = new ArrayList<>(updates.size());
+        for (PendingWrite write : updates) {
+            states.add(write.state);
+        }
+        int[] counts = this.employeeRepository.applyStates(states, expectedVersions);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                applied.remove(updates.get(i));
+                conflicted.add(updates.get(i));
+            }
+        }
+
+        // Published inside the transaction, so listeners following committed changes see them once it commits.
+        for (PendingWrite write : applied) {
+            this.eventPublisher.publishEvent(new EmployeeChangedEvent(copy(write.state), changeType(write)));
+        }
+        return conflicted;
+    }
+
+    /**
+     * Checks an employee with nothing waiting to be flushed against the database, as its version there is the one a
+     * write replaces. The employee's stripe must be locked, so it can't be buffered or flushed meanwhile.
+     */
+    private boolean isStoredVersion(Long id, Long version) {
+        if (this.writingThrough.contains(id)) {
+            return false;
+        }
+        List<Object[]> rows = this.employeeRepository.findVersionsByIdIn(Collections.singletonList(id));
+        return !rows.isEmpty() && rows.get(0)[1].equals(version);
+    }
+
+    /**
+     * Lets writes to employees saved by {@link #writeThrough(Collection, Supplier)} through again once the
+     * transaction they were saved in has finished, or straight away if they were saved outside of one.
+     */
+    private void releaseAfterCompletion(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            this.writingThrough.removeAll(ids);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                EmployeeWriteBehind.this.writingThrough.removeAll(ids);
+            }
+        });
+    }
+
+    /**
+     * Holds writers back while max-pending employees are waiting to be flushed, so that writes arriving faster than
+     * they can be flushed are slowed to the rate the database can take rather than buffered without limit.
+     */
+    private void awaitCapacity() {
+        if (this.pending.size() < this.maxPending) {
+            return;
+        }
+        requestFlush();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.maxWaitMillis);
+        synchronized (this.capacity) {
+            long remaining;
+            while (this.pending.size() >= this.maxPending && (remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this.capacity, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        if (this.pending.size() >= this.maxPending) {
+            throw new RejectedExecutionException("Too many employee writes are waiting to be flushed");
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            while (flush() == this.batchSize) {
+                // a full batch means there may be more waiting
+            }
+        } catch (RuntimeException e) {
+            logger.error("Unable to flush buffered employee writes: {}", e.getMessage());
+        }
+    }
+
+    private void requestFlush() {
+        if (this.flusher != null && this.flushRequested.compareAndSet(false, true)) {
+            try {
+                this.flusher.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // shutting down, and stop() flushes everything anyway
+            }
+        }
+    }
+
+    /**
+     * Deletes the log segments before the oldest segment still holding a write that hasn't been flushed.
+     */
+    private void deleteFlushedSegments() {
+        long oldest = Long.MAX_VALUE;
+        for (PendingWrite write : this.pending.values()) {
+            oldest = Math.min(oldest, write.segment);
+        }
+        try {
+            this.log.deleteSegmentsBefore(oldest);
+        } catch (IOException e) {
+            logger.warn("Unable to delete flushed log segments: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Hands out an ID from the employee sequence, the same way Hibernate would when the employee is inserted.
+     */
+    private Long allocateId(Employee employee) {
+        StatelessSession session = this.sessionFactory.openStatelessSession();
+        try {
+            return (Long) this.idGenerator.generate((SharedSessionContractImplementor) session, employee);
+        } finally {
+            session.close();
+        }
+    }
+
+    private ReentrantLock stripe(Long id) {
+        return this.stripes[(int) (id & (STRIPES - 1))];
+    }
+
+    private static EmployeeChangedEvent.Type changeType(PendingWrite write) {
+        if (write.baseVersion == null) {
+            return EmployeeChangedEvent.Type.CREATED;
+        }
+        return write.state.getStatus() == EmployeeStatus.INACTIVE
+                ? EmployeeChangedEvent.Type.DEACTIVATED
+                : EmployeeChangedEvent.Type.UPDATED;
+    }
+
+    private static Employee copy(Employee employee) {
+        return Employee.restore(employee.getId(), employee.getFirstName(), employee.getMiddleInitial(),
+                employee.getLastName(), employee.getDateOfBirth(), employee.getDateOfEmployment(), employee.getStatus(),
+                employee.getVersion(), employee.getLastModified());
+    }
+
+    static byte[] encode(Employee state, Long previousVersion) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(FORMAT);
+        out.writeLong(state.getId());
+        out.writeLong(state.getVersion());
+        out.writeBoolean(previousVersion != null);
+        out.writeLong(previousVersion == null ? 0 : previousVersion);
+        writeString(out, state.getFirstName());
+        writeString(out, state.getMiddleInitial());
+        writeString(out, state.getLastName());
+        writeDate(out, state.getDateOfBirth());
+        writeDate(out, state.getDateOfEmployment());
+        writeString(out, state.getStatus() == null ? null : state.getStatus().name());
+        out.writeLong(state.getLastModified().getEpochSecond());
+        out.writeInt(state.getLastModified().getNano());
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static PendingWrite decode(ByteBuffer record, long segment) throws IOException {
+        byte[] bytes = new byte[record.remaining()];
+        record.get(bytes);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readByte() != FORMAT) {
+            throw new IOException("Unknown employee log record format");
+        }
+        long id = in.readLong();
+        long version = in.readLong();
+        boolean hasPreviousVersion = in.readBoolean();
+        long previousVersion = in.readLong();
+        String firstName = readString(in);
+        String middleInitial = readString(in);
+        String lastName = readString(in);
+        LocalDate dateOfBirth = readDate(in);
+        LocalDate dateOfEmployment = readDate(in);
+        String status = readString(in);
+        Instant lastModified = Instant.ofEpochSecond(in.readLong(), in.readInt());
+
+        Employee state = Employee.restore(id, firstName, middleInitial, lastName, dateOfBirth, dateOfEmployment,
+                status == null ? null : EmployeeStatus.valueOf(status), version, lastModified);
+        return new PendingWrite(state, hasPreviousVersion ? previousVersion : null, segment);
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    static void writeDate(DataOutputStream out, LocalDate value) throws IOException {
+        out.writeBoolean(value != null);
+        out.writeLong(value == null ? 0 : value.toEpochDay());
+    }
+
+    static LocalDate readDate(DataInputStream in) throws IOException {
+        boolean present = in.readBoolean();
+        long epochDay = in.readLong();
+        return present ? LocalDate.ofEpochDay(epochDay) : null;
+    }
+
+    /**
+     * The latest state of a buffered employee, along with the version of the row its buffered writes started from,
+     * null if the employee hasn't been inserted yet, and the oldest log segment holding any of those writes.
+     */
+    static final class PendingWrite {
+
+        final Employee state;
+        final Long baseVersion;
+        final long segment;
+
+        PendingWrite(Employee state, Long baseVersion, long segment) {
+            this.state = state;
+            this.baseVersion = baseVersion;
+            this.segment = segment;
+        }
+
+        /**
+         * Merges a later write to the same employee into this one: the later state wins, starting from this write's
+         * base version and segment.
+         */
+        PendingWrite followedBy(PendingWrite later) {
+            return new PendingWrite(later.state, this.baseVersion, Math.min(this.segment, later.segment));
+        }
+    }
+}
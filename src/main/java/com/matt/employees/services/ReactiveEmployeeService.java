@@ -0,0 +1,74 @@
+package com.matt.employees.services;
+
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.repositories.ReactiveEmployeeRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+/**
+ * Reactive counterpart of {@link EmployeeService}, used by the reactive flavour of the API. The employee list is
+ * streamed from the {@link ReactiveEmployeeRepository}. Single employees are read and written through
+ * {@link EmployeeService} on the JDBC scheduler, so they go through the same cache, active employee index, write-behind
+ * buffer and optimistic locking as the servlet flavour of the API.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveEmployeeService {
+
+    // Number of employees fetched from the database at a time when streaming the list of employees.
+    static final int STREAM_PAGE_SIZE = 500;
+
+    private final ReactiveEmployeeRepository employeeRepository;
+    private final EmployeeService employeeService;
+    private final Scheduler scheduler;
+
+    public ReactiveEmployeeService(ReactiveEmployeeRepository employeeRepository, EmployeeService employeeService,
+                                   Scheduler jdbcScheduler) {
+        this.employeeRepository = employeeRepository;
+        this.employeeService = employeeService;
+        this.scheduler = jdbcScheduler;
+    }
+
+    public Flux<Employee> listActiveEmployees() {
+        return this.employeeRepository.findByStatus(EmployeeStatus.ACTIVE, STREAM_PAGE_SIZE);
+    }
+
+    /**
+     * @see EmployeeService#getActiveEmployee(Long)
+     */
+    public Mono<Employee> getActiveEmployee(Long employeeId) {
+        return fromOptional(() -> this.employeeService.getActiveEmployee(employeeId));
+    }
+
+    /**
+     * @see EmployeeService#getActiveEmployeeForUpdate(Long)
+     */
+    public Mono<Employee> getActiveEmployeeForUpdate(Long employeeId) {
+        return fromOptional(() -> this.employeeService.getActiveEmployeeForUpdate(employeeId));
+    }
+
+    /**
+     * Saves a single employee the same way as {@link EmployeeService#save(Employee)}, which publishes the change.
+     *
+     * @param employee - the employee to save
+     * @return - the saved employee, or an {@link ObjectOptimisticLockingFailureException} if the employee was changed
+     * since it was loaded
+     */
+    public Mono<Employee> save(Employee employee) {
+        return Mono.fromCallable(() -> this.employeeService.save(employee))
+                .subscribeOn(this.scheduler);
+    }
+
+    private Mono<Employee> fromOptional(Callable<Optional<Employee>> lookup) {
+        return Mono.fromCallable(() -> lookup.call().orElse(null))
+                .subscribeOn(this.scheduler);
+    }
+}
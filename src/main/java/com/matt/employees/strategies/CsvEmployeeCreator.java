@@ -0,0 +1,62 @@
+package com.matt.employees.strategies;
+
+import com.matt.employees.models.Employee;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link EmployeeCreator} strategy that reads employees from a memory mapped CSV file.
+ *
+ * The file must start with a header line, which is skipped, followed by one employee per line with the columns:
+ * <pre>
+ * firstName,middleInitial,lastName,dateOfBirth,dateOfEmployment,status
+ * </pre>
+ * Dates use the yyyy-MM-dd format and an empty status defaults to ACTIVE. Fields are split on every comma, so quoted
+ * fields aren't supported.
+ */
+public class CsvEmployeeCreator extends MappedFileEmployeeCreator {
+
+    private static final int FIELDS = 6;
+
+    public CsvEmployeeCreator() {
+        super();
+    }
+
+    public CsvEmployeeCreator(int parallelism) {
+        super(parallelism);
+    }
+
+    @Override
+    protected boolean hasHeader() {
+        return true;
+    }
+
+    @Override
+    protected Employee parseRecord(ByteBuffer buffer, int start, int end) {
+        // Record the start of each field plus the position just past the end of the last one.
+        int[] bounds = new int[FIELDS + 1];
+        int field = 0;
+        bounds[0] = start;
+
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == ',') {
+                if (++field == FIELDS) {
+                    throw new IllegalArgumentException("Expected " + FIELDS + " fields");
+                }
+                bounds[field] = i + 1;
+            }
+        }
+        if (field != FIELDS - 1) {
+            throw new IllegalArgumentException("Expected " + FIELDS + " fields");
+        }
+        bounds[FIELDS] = end + 1;
+
+        return new Employee(
+                parseString(buffer, bounds[0], bounds[1] - 1),
+                parseString(buffer, bounds[1], bounds[2] - 1),
+                parseString(buffer, bounds[2], bounds[3] - 1),
+                parseDate(buffer, bounds[3], bounds[4] - 1),
+                parseDate(buffer, bounds[4], bounds[5] - 1),
+                parseStatus(buffer, bounds[5], bounds[6] - 1));
+    }
+}
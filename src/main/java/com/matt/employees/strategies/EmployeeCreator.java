@@ -2,7 +2,9 @@ package com.matt.employees.strategies;
 
 import com.matt.employees.models.Employee;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Interface for defining an EmployeeCreator used by {@link EmployeeCreatorManager}
@@ -10,7 +12,39 @@ import java.util.List;
  * EmployeeCreators are strategies that are used to create employee objects from files. Using a strategy pattern here
  * allows us to register a list of creators with our EmployeeCreatorManager and our code will choose which creation method
  * to use at runtime.
+ *
+ * Creators stream employees to the supplied consumer in fixed-size chunks rather than returning the whole file at once,
+ * so callers only ever have to hold a few chunks in memory regardless of how large the file is.
  */
+@FunctionalInterface
 public interface EmployeeCreator {
-    List<Employee> createEmployees(String path);
+
+    /**
+     * Reads employees from the file at the supplied path and hands them to the consumer in chunks.
+     *
+     * @param path - Path to a file that will be used to create {@link Employee} objects
+     * @param chunkSize - Maximum number of employees to include in each chunk
+     * @param consumer - Called with each chunk of newly created employees. Creators must not reuse a chunk once it has been
+     *                 handed over, since the consumer may process it on another thread. Creators that parse in parallel
+     *                 may call the consumer from several threads at once, so it must be thread safe.
+     * @return - The number of employees read from the file
+     * @throws IOException - If the file can't be read or parsed
+     */
+    long createEmployees(String path, int chunkSize, Consumer<List<Employee>> consumer) throws IOException;
+
+    /**
+     * Like {@link #createEmployees(String, int, Consumer)}, but hands the chunks to the consumer one at a time, on the
+     * calling thread, with the employees in the order they appear in the file. Readers that keep track of how far
+     * through a file they've got need this. Creators that already read their files in order don't need to override it.
+     *
+     * @param path - Path to a file that will be used to create {@link Employee} objects
+     * @param chunkSize - Maximum number of employees to include in each chunk
+     * @param consumer - Called with each chunk of newly created employees, in file order
+     * @return - The number of employees read from the file
+     * @throws IOException - If the file can't be read or parsed
+     */
+    default long createEmployeesInOrder(String path, int chunkSize, Consumer<List<Employee>> consumer)
+            throws IOException {
+        return createEmployees(path, chunkSize, consumer);
+    }
 }
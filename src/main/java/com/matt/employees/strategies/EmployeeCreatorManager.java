@@ -3,7 +3,10 @@ package com.matt.employees.strategies;
 import com.matt.employees.models.Employee;
 import org.apache.commons.io.FilenameUtils;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Singleton class that handles keeping track of registered {@link EmployeeCreator} strategies.
@@ -13,11 +16,13 @@ import java.util.*;
  *
  * Registered EmployeeCreators are stored in an internal map with the file extension as a key.
  * A path to the file is supplied when creating employees via the createEmployees method, and the file's extension is
- * checked against the internal map to find a creator object. If a creator is found, it is called to generate a List of
- * employees. If a creator is not found, an IllegalArgumentException is thrown.
+ * checked against the internal map to find a creator object. If a creator is found, it is called to stream the file's
+ * employees in chunks. If a creator is not found, an IllegalArgumentException is thrown.
  */
 public final class EmployeeCreatorManager {
 
+    private static final int DEFAULT_CHUNK_SIZE = 1000;
+
     private static EmployeeCreatorManager instance = new EmployeeCreatorManager();
 
     private static Map<String, EmployeeCreator> creators = new HashMap<>();
@@ -46,21 +51,72 @@ public final class EmployeeCreatorManager {
 
     /**
      * Accepts a file path and checks the file's extension against our internal map. If an {@link EmployeeCreator} is
-     * associated with the supplied file's extension, we'll use that creator to create a list of {@link Employee} objects.
-     * If no creator is associated with the extension, we'll throw an IllegalArgumentException.
+     * associated with the supplied file's extension, we'll use that creator to stream {@link Employee} objects to the
+     * supplied consumer in chunks. If no creator is associated with the extension, we'll throw an IllegalArgumentException.
+     *
+     * @param path - Path to a file that will be used to create {@link Employee} objects
+     * @param chunkSize - Maximum number of employees handed to the consumer at a time
+     * @param consumer - Called with each chunk of newly created {@link Employee} objects
+     * @return - The number of employees read from the file
+     * @throws IOException - If the file can't be read or parsed
+     * @throws IllegalArgumentException - Will be thrown if we can't find a registered {@link EmployeeCreator} strategy
+     * for the given file path
+     */
+    public long createEmployees(String path, int chunkSize, Consumer<List<Employee>> consumer) throws IOException {
+        return getCreator(path).createEmployees(path, chunkSize, consumer);
+    }
+
+    /**
+     * Like {@link #createEmployees(String, int, Consumer)}, but hands the chunks to the consumer one at a time in the
+     * order the employees appear in the file. See {@link EmployeeCreator#createEmployeesInOrder(String, int, Consumer)}.
+     *
+     * @param path - Path to a file that will be used to create {@link Employee} objects
+     * @param chunkSize - Maximum number of employees handed to the consumer at a time
+     * @param consumer - Called with each chunk of newly created {@link Employee} objects, in file order
+     * @return - The number of employees read from the file
+     * @throws IOException - If the file can't be read or parsed
+     * @throws IllegalArgumentException - Will be thrown if we can't find a registered {@link EmployeeCreator} strategy
+     * for the given file path
+     */
+    public long createEmployeesInOrder(String path, int chunkSize, Consumer<List<Employee>> consumer)
+            throws IOException {
+        return getCreator(path).createEmployeesInOrder(path, chunkSize, consumer);
+    }
+
+    /**
+     * Checks whether an {@link EmployeeCreator} is registered for the supplied file's extension.
+     *
+     * @param path - Path to a file
+     * @return - true if employees can be created from the file
+     */
+    public boolean hasCreator(String path) {
+        return creators.containsKey(FilenameUtils.getExtension(path).toLowerCase());
+    }
+
+    /**
+     * Convenience method that reads every {@link Employee} from the supplied file into a single list. This should only be
+     * used for small files; use {@link #createEmployees(String, int, Consumer)} to process large files in chunks.
      *
      * @param path - Path to a file that will be used to create {@link Employee} objects
      * @return - A list of newly created {@link Employee} objects
+     * @throws UncheckedIOException - If the file can't be read or parsed
      * @throws IllegalArgumentException - Will be thrown if we can't find a registered {@link EmployeeCreator} strategy
      * for the given file path
      */
     public List<Employee> createEmployees(String path) throws IllegalArgumentException {
-        String extension = FilenameUtils.getExtension(path).toLowerCase();
+        List<Employee> employees = Collections.synchronizedList(new ArrayList<>());
+        try {
+            getCreator(path).createEmployees(path, DEFAULT_CHUNK_SIZE, employees::addAll);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create employees from " + path, e);
+        }
+        return employees;
+    }
 
-        EmployeeCreator creator = creators.get(extension);
+    private EmployeeCreator getCreator(String path) throws IllegalArgumentException {
+        String extension = FilenameUtils.getExtension(path).toLowerCase();
 
-        return Optional.ofNullable(creator)
-                .map(foundCreator -> foundCreator.createEmployees(path))
+        return Optional.ofNullable(creators.get(extension))
                 .orElseThrow(IllegalArgumentException::new);
     }
 }
@@ -0,0 +1,63 @@
+package com.matt.employees.strategies;
+
+import com.matt.employees.models.Employee;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link EmployeeCreator} strategy that reads employees from a memory mapped fixed-width file.
+ *
+ * Each line holds one employee, with the columns at fixed byte offsets and padded with trailing spaces:
+ * <pre>
+ * firstName         20 bytes
+ * middleInitial      1 byte
+ * lastName          20 bytes
+ * dateOfBirth       10 bytes (yyyy-MM-dd)
+ * dateOfEmployment  10 bytes (yyyy-MM-dd)
+ * status             8 bytes (may be truncated or left empty, which defaults to ACTIVE)
+ * </pre>
+ */
+public class FixedWidthEmployeeCreator extends MappedFileEmployeeCreator {
+
+    static final int FIRST_NAME_WIDTH = 20;
+    static final int MIDDLE_INITIAL_WIDTH = 1;
+    static final int LAST_NAME_WIDTH = 20;
+    static final int DATE_WIDTH = 10;
+    static final int STATUS_WIDTH = 8;
+
+    private static final int MIDDLE_INITIAL_OFFSET = FIRST_NAME_WIDTH;
+    private static final int LAST_NAME_OFFSET = MIDDLE_INITIAL_OFFSET + MIDDLE_INITIAL_WIDTH;
+    private static final int DATE_OF_BIRTH_OFFSET = LAST_NAME_OFFSET + LAST_NAME_WIDTH;
+    private static final int DATE_OF_EMPLOYMENT_OFFSET = DATE_OF_BIRTH_OFFSET + DATE_WIDTH;
+    private static final int STATUS_OFFSET = DATE_OF_EMPLOYMENT_OFFSET + DATE_WIDTH;
+    private static final int RECORD_WIDTH = STATUS_OFFSET + STATUS_WIDTH;
+
+    public FixedWidthEmployeeCreator() {
+        super();
+    }
+
+    public FixedWidthEmployeeCreator(int parallelism) {
+        super(parallelism);
+    }
+
+    @Override
+    protected boolean hasHeader() {
+        return false;
+    }
+
+    @Override
+    protected Employee parseRecord(ByteBuffer buffer, int start, int end) {
+        if (end - start < STATUS_OFFSET || end - start > RECORD_WIDTH) {
+            throw new IllegalArgumentException("Expected a record between " + STATUS_OFFSET + " and " + RECORD_WIDTH
+                    + " bytes long");
+        }
+
+        return new Employee(
+                parseString(buffer, start, start + MIDDLE_INITIAL_OFFSET),
+                parseString(buffer, start + MIDDLE_INITIAL_OFFSET, start + LAST_NAME_OFFSET),
+                parseString(buffer, start + LAST_NAME_OFFSET, start + DATE_OF_BIRTH_OFFSET),
+                parseDate(buffer, start + DATE_OF_BIRTH_OFFSET, start + DATE_OF_EMPLOYMENT_OFFSET),
+                parseDate(buffer, start + DATE_OF_EMPLOYMENT_OFFSET, start + STATUS_OFFSET),
+                parseStatus(buffer, start + STATUS_OFFSET, end));
+    }
+}
@@ -0,0 +1,64 @@
+package com.matt.employees.strategies;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.matt.employees.models.Employee;
+import com.matt.employees.utilities.FileResources;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * {@link EmployeeCreator} strategy that reads employees from a file containing a JSON array of employee objects.
+ *
+ * The file is read with Jackson's token-level {@link JsonParser}, and only one employee object at a time is bound to an
+ * {@link Employee}, so memory use is bounded by the chunk size rather than by the size of the file.
+ */
+public class JsonEmployeeCreator implements EmployeeCreator {
+
+    private final ObjectMapper mapper;
+    private final ObjectReader employeeReader;
+
+    public JsonEmployeeCreator() {
+        this.mapper = new ObjectMapper();
+
+        // Register the JavaTimeModule to help handle processing dates into LocalDates
+        this.mapper.registerModule(new JavaTimeModule());
+
+        this.employeeReader = this.mapper.readerFor(Employee.class);
+    }
+
+    @Override
+    public long createEmployees(String path, int chunkSize, Consumer<List<Employee>> consumer) throws IOException {
+        try (InputStream inputStream = FileResources.open(path);
+             JsonParser parser = this.mapper.getFactory().createParser(inputStream)) {
+
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of employees in " + path);
+            }
+
+            long count = 0;
+            List<Employee> chunk = new ArrayList<>(chunkSize);
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                chunk.add(this.employeeReader.readValue(parser));
+                count++;
+
+                if (chunk.size() == chunkSize) {
+                    consumer.accept(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                consumer.accept(chunk);
+            }
+            return count;
+        }
+    }
+}
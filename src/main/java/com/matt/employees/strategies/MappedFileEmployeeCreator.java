@@ -0,0 +1,336 @@
+package com.matt.employees.strategies;
+
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.utilities.FileResources;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Base class for {@link EmployeeCreator} strategies that read newline-delimited text files through memory mapping.
+ *
+ * The file is split into segments that end on line boundaries, and each segment is mapped with a
+ * {@link MappedByteBuffer} and parsed on a fork-join pool in parallel. Records are parsed straight out of the mapped
+ * bytes by subclasses; the only objects created per record are the field values of the {@link Employee} itself. Since
+ * segments are parsed in parallel, chunks are handed to the consumer from several threads at once and in no particular
+ * order.
+ */
+public abstract class MappedFileEmployeeCreator implements EmployeeCreator {
+
+    // Segments smaller than this aren't worth handing to another thread.
+    private static final long MIN_SEGMENT_SIZE = 1 << 20;
+    // A single mapping can't exceed Integer.MAX_VALUE bytes, so larger files are always split at least this finely.
+    private static final long MAX_SEGMENT_SIZE = 1 << 30;
+
+    private static final EmployeeStatus[] STATUSES = EmployeeStatus.values();
+
+    // Middle initials are almost always a single ASCII character, so we share one String per character.
+    private static final String[] SINGLE_CHARACTERS = new String[128];
+
+    static {
+        for (int i = 0; i < SINGLE_CHARACTERS.length; i++) {
+            SINGLE_CHARACTERS[i] = String.valueOf((char) i);
+        }
+    }
+
+    private final ForkJoinPool pool;
+
+    protected MappedFileEmployeeCreator(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    protected MappedFileEmployeeCreator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @return - true if the first line of the file is a header that should be skipped
+     */
+    protected abstract boolean hasHeader();
+
+    /**
+     * Parses a single record from the supplied buffer.
+     *
+     * @param buffer - buffer holding the record
+     * @param start - index of the first byte of the record
+     * @param end - index just past the last byte of the record, excluding any line terminator
+     * @return - the parsed {@link Employee}
+     * @throws IllegalArgumentException - if the record is malformed
+     */
+    protected abstract Employee parseRecord(ByteBuffer buffer, int start, int end);
+
+    @Override
+    public long createEmployees(String path, int chunkSize, Consumer<List<Employee>> consumer) throws IOException {
+        Path file = FileResources.resolve(path);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long dataStart = hasHeader() ? nextLineStart(channel, 0) : 0;
+            List<long[]> segments = split(channel, dataStart);
+
+            LongAdder count = new LongAdder();
+            List<SegmentTask> tasks = new ArrayList<>(segments.size());
+            for (long[] segment : segments) {
+                tasks.add(new SegmentTask(channel, segment[0], segment[1], chunkSize, consumer, count));
+            }
+
+            this.pool.submit(() -> ForkJoinTask.invokeAll(tasks)).get();
+            return count.sum();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading " + path, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw new IOException("Unable to read " + path + ": " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Parses the segments one after another on the calling thread rather than in parallel, so the chunks come out in
+     * file order.
+     */
+    @Override
+    public long createEmployeesInOrder(String path, int chunkSize, Consumer<List<Employee>> consumer)
+            throws IOException {
+        Path file = FileResources.resolve(path);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long dataStart = hasHeader() ? nextLineStart(channel, 0) : 0;
+
+            LongAdder count = new LongAdder();
+            for (long[] segment : split(channel, dataStart)) {
+                new SegmentTask(channel, segment[0], segment[1], chunkSize, consumer, count).compute();
+            }
+            return count.sum();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Splits the file into segments that each start at the beginning of a line and end just after a newline (or at the
+     * end of the file).
+     */
+    private List<long[]> split(FileChannel channel, long dataStart) throws IOException {
+        long size = channel.size();
+        long dataSize = size - dataStart;
+        int parallelism = this.pool.getParallelism();
+
+        long segmentSize = Math.max(MIN_SEGMENT_SIZE, dataSize / (parallelism * 4L) + 1);
+        segmentSize = Math.min(segmentSize, MAX_SEGMENT_SIZE);
+
+        List<long[]> segments = new ArrayList<>();
+        long start = dataStart;
+        while (start < size) {
+            long end = start + segmentSize >= size ? size : nextLineStart(channel, start + segmentSize);
+            segments.add(new long[] { start, end });
+            start = end;
+        }
+        return segments;
+    }
+
+    /**
+     * Finds the position just after the next newline at or after the supplied position, or the end of the file.
+     */
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long size = channel.size();
+
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Parses one segment of the file and hands its records to the consumer in chunks.
+     */
+    private final class SegmentTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final int chunkSize;
+        private final Consumer<List<Employee>> consumer;
+        private final LongAdder count;
+
+        SegmentTask(FileChannel channel, long start, long end, int chunkSize, Consumer<List<Employee>> consumer,
+                    LongAdder count) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.chunkSize = chunkSize;
+            this.consumer = consumer;
+            this.count = count;
+        }
+
+        @Override
+        protected void compute() {
+            MappedByteBuffer buffer;
+            try {
+                buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, this.start, this.end - this.start);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            List<Employee> chunk = new ArrayList<>(this.chunkSize);
+            int limit = buffer.limit();
+            int lineStart = 0;
+
+            for (int i = 0; i <= limit; i++) {
+                if (i < limit && buffer.get(i) != '\n') {
+                    continue;
+                }
+
+                int lineEnd = i;
+                if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                    lineEnd--;
+                }
+                if (lineEnd > lineStart) {
+                    try {
+                        chunk.add(parseRecord(buffer, lineStart, lineEnd));
+                    } catch (IllegalArgumentException | DateTimeException e) {
+                        throw new UncheckedIOException(new IOException(
+                                "Malformed record at byte " + (this.start + lineStart) + ": " + e.getMessage(), e));
+                    }
+
+                    if (chunk.size() == this.chunkSize) {
+                        this.count.add(chunk.size());
+                        this.consumer.accept(chunk);
+                        chunk = new ArrayList<>(this.chunkSize);
+                    }
+                }
+                lineStart = i + 1;
+            }
+
+            if (!chunk.isEmpty()) {
+                this.count.add(chunk.size());
+                this.consumer.accept(chunk);
+            }
+        }
+    }
+
+    /**
+     * Decodes a text field, ignoring any leading or trailing spaces. Empty fields are returned as null.
+     */
+    protected static String parseString(ByteBuffer buffer, int start, int end) {
+        while (start < end && buffer.get(start) == ' ') {
+            start++;
+        }
+        while (end > start && buffer.get(end - 1) == ' ') {
+            end--;
+        }
+
+        int length = end - start;
+        if (length == 0) {
+            return null;
+        }
+        if (length == 1 && buffer.get(start) >= 0) {
+            return SINGLE_CHARACTERS[buffer.get(start)];
+        }
+
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses a date in yyyy-MM-dd format. This avoids the overhead of a DateTimeFormatter, which is noticeable when
+     * parsing millions of dates.
+     */
+    protected static LocalDate parseDate(ByteBuffer buffer, int start, int end) {
+        while (start < end && buffer.get(start) == ' ') {
+            start++;
+        }
+        while (end > start && buffer.get(end - 1) == ' ') {
+            end--;
+        }
+        if (end - start != 10 || buffer.get(start + 4) != '-' || buffer.get(start + 7) != '-') {
+            throw new IllegalArgumentException("Expected a date in yyyy-MM-dd format");
+        }
+
+        int year = parseDigits(buffer, start, start + 4);
+        int month = parseDigits(buffer, start + 5, start + 7);
+        int day = parseDigits(buffer, start + 8, start + 10);
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * Parses an employee status, defaulting to ACTIVE when the field is empty.
+     */
+    protected static EmployeeStatus parseStatus(ByteBuffer buffer, int start, int end) {
+        while (start < end && buffer.get(start) == ' ') {
+            start++;
+        }
+        while (end > start && buffer.get(end - 1) == ' ') {
+            end--;
+        }
+        if (start == end) {
+            return EmployeeStatus.ACTIVE;
+        }
+
+        for (EmployeeStatus status : STATUSES) {
+            if (matches(buffer, start, end, status.name())) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown employee status");
+    }
+
+    private static boolean matches(ByteBuffer buffer, int start, int end, String value) {
+        if (end - start != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (buffer.get(start + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int parseDigits(ByteBuffer buffer, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Expected a date in yyyy-MM-dd format");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
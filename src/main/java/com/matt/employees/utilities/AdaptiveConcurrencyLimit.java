@@ -0,0 +1,146 @@
+package com.matt.employees.utilities;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A limit on how many requests run at once that adapts to their latency, shrinking as latency climbs above what's
+ * normal and growing back once it falls, so that an overloaded endpoint turns away the excess quickly rather than
+ * letting every request queue and slow down.
+ *
+ * Latencies are collected in windows of at least {@code windowMillis} and {@value #MIN_WINDOW_SAMPLES} requests. At
+ * the end of each window the window's average latency is compared with a long-term average of previous windows, and
+ * the limit is moved towards {@code limit * gradient + sqrt(limit)}, where the gradient is the ratio of the long-term
+ * average to the window's, allowing for some tolerance and kept between 0.5 and 1. The square root term lets the limit
+ * grow while latency is steady. The long-term average follows latency down quickly but up slowly, so an overload has
+ * to last a few hundred windows before its latency is taken as normal. Windows in which less than half the limit was
+ * used say nothing about whether the limit is right, so they leave it as it is.
+ *
+ * Acquiring and releasing only touch atomic counters and adders. The thread that finds a window has ended claims it
+ * with a compare-and-set and works out the new limit, while other threads carry on into the next window.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    // How far above the long-term average latency may rise before the limit shrinks.
+    private static final double TOLERANCE = 1.5;
+    private static final double MIN_GRADIENT = 0.5;
+    // Weight of each window in the long-term average, which follows latency down quickly but up slowly.
+    private static final double LONG_TERM_FALL = 0.1;
+    private static final double LONG_TERM_RISE = 0.005;
+    // How far the limit moves towards its new value each window.
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    private final AtomicLong windowStart;
+    private final LongAdder windowLatency = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final AtomicInteger windowMaxInFlight = new AtomicInteger();
+    // Only read and written by the thread that has claimed the end of a window.
+    private double longTermLatency;
+
+    /**
+     * @param minLimit - the limit never shrinks below this
+     * @param maxLimit - the limit starts here and never grows above it
+     * @param windowMillis - the shortest window latencies are averaged over
+     */
+    public AdaptiveConcurrencyLimit(int minLimit, int maxLimit, long windowMillis) {
+        this(minLimit, maxLimit, windowMillis, System::nanoTime);
+    }
+
+    public AdaptiveConcurrencyLimit(int minLimit, int maxLimit, long windowMillis, LongSupplier nanoClock) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Concurrency limits need 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.nanoClock = nanoClock;
+        this.limit = maxLimit;
+        this.windowStart = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * @return - true if the request can run, in which case {@link #release(long)} must be called once it has
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int running = this.inFlight.get();
+            if (running >= (int) this.limit) {
+                return false;
+            }
+            if (this.inFlight.compareAndSet(running, running + 1)) {
+                this.windowMaxInFlight.accumulateAndGet(running + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Records that a request has finished.
+     *
+     * @param latencyNanos - how long the request took
+     */
+    public void release(long latencyNanos) {
+        this.inFlight.decrementAndGet();
+        this.windowLatency.add(latencyNanos);
+        this.windowSamples.increment();
+
+        long now = this.nanoClock.getAsLong();
+        long start = this.windowStart.get();
+        if (now - start >= this.windowNanos && this.windowSamples.sum() >= MIN_WINDOW_SAMPLES
+                && this.windowStart.compareAndSet(start, now)) {
+            adjust();
+        }
+    }
+
+    private void adjust() {
+        long samples = this.windowSamples.sumThenReset();
+        long latency = this.windowLatency.sumThenReset();
+        int maxInFlight = this.windowMaxInFlight.getAndSet(this.inFlight.get());
+        if (samples == 0) {
+            return;
+        }
+
+        double sample = (double) latency / samples;
+        if (this.longTermLatency == 0) {
+            this.longTermLatency = sample;
+        } else {
+            double weight = sample < this.longTermLatency ? LONG_TERM_FALL : LONG_TERM_RISE;
+            this.longTermLatency = this.longTermLatency * (1 - weight) + sample * weight;
+        }
+
+        double current = this.limit;
+        if (maxInFlight < current / 2) {
+            return;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1, TOLERANCE * this.longTermLatency / sample));
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, next));
+    }
+
+    /**
+     * @return - how many requests may currently run at once
+     */
+    public int getLimit() {
+        return (int) this.limit;
+    }
+
+    /**
+     * @return - how many requests are running
+     */
+    public int getInFlight() {
+        return this.inFlight.get();
+    }
+}
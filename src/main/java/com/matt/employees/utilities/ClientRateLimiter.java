@@ -0,0 +1,79 @@
+package com.matt.employees.utilities;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket per client, allowing each client a steady rate of requests with bursts of up to a given size.
+ *
+ * Each bucket is kept as the single time at which the client's bucket will next be full again, in the manner of the
+ * generic cell rate algorithm: a request is allowed if that time is no more than a burst's worth of requests away, and
+ * moves it on by one request's worth. That makes a bucket a single {@link AtomicLong} updated with compare-and-set, so
+ * requests from the same client never wait on a lock, and there's no need for a thread to refill buckets. Buckets are
+ * kept in a Caffeine cache, which is striped internally so that lookups of different clients don't contend, and which
+ * forgets clients once their bucket would have refilled, or when there are more than max-clients of them.
+ */
+public class ClientRateLimiter {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final LongSupplier nanoClock;
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * @param requestsPerSecond - the rate each client's bucket refills at
+     * @param burst - the most requests a client can make at once with a full bucket
+     * @param maxClients - the most clients to keep buckets for
+     */
+    public ClientRateLimiter(double requestsPerSecond, int burst, long maxClients) {
+        this(requestsPerSecond, burst, maxClients, System::nanoTime);
+    }
+
+    public ClientRateLimiter(double requestsPerSecond, int burst, long maxClients, LongSupplier nanoClock) {
+        if (requestsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limits need a positive rate and a burst of at least 1");
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        this.toleranceNanos = this.intervalNanos * (burst - 1);
+        this.nanoClock = nanoClock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                // Once it has refilled, a bucket is the same as a new one.
+                .expireAfterAccess(this.toleranceNanos + this.intervalNanos, TimeUnit.NANOSECONDS)
+                .ticker(nanoClock::getAsLong)
+                .build();
+    }
+
+    /**
+     * Takes a token from a client's bucket if there is one.
+     *
+     * @param client - the client making the request
+     * @return - 0 if the request is allowed, otherwise how many nanoseconds until it would be
+     */
+    public long tryAcquire(String client) {
+        AtomicLong full = this.buckets.get(client, key -> new AtomicLong(Long.MIN_VALUE));
+        long now = this.nanoClock.getAsLong();
+        while (true) {
+            long fullAt = full.get();
+            long start = fullAt == Long.MIN_VALUE || fullAt - now < 0 ? now : fullAt;
+            long wait = start - now - this.toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (full.compareAndSet(fullAt, start + this.intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return - the number of clients buckets are being kept for
+     */
+    public long getClientCount() {
+        return this.buckets.estimatedSize();
+    }
+}
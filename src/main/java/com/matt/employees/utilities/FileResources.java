@@ -0,0 +1,48 @@
+package com.matt.employees.utilities;
+
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Utility class for opening data files that may either live on the classpath, like our bundled initial data, or on the
+ * file system, like the much larger files supplied at deploy time.
+ */
+public class FileResources {
+
+    /**
+     * Opens the supplied path, preferring a file on the file system and falling back to the classpath.
+     *
+     * @param path - file system or classpath location of the file
+     * @return - an open stream for the file that the caller is responsible for closing
+     * @throws IOException - if the file can't be found or opened
+     */
+    public static InputStream open(String path) throws IOException {
+        Path file = Paths.get(path);
+        if (Files.isRegularFile(file)) {
+            return Files.newInputStream(file);
+        }
+        return new ClassPathResource(path).getInputStream();
+    }
+
+    /**
+     * Resolves the supplied path to a file on the file system, falling back to the classpath. This is for callers that
+     * need random access to the file, such as memory mapping, so classpath resources packaged inside a jar can't be
+     * resolved.
+     *
+     * @param path - file system or classpath location of the file
+     * @return - the file's location on the file system
+     * @throws IOException - if the file can't be found on the file system
+     */
+    public static Path resolve(String path) throws IOException {
+        Path file = Paths.get(path);
+        if (Files.isRegularFile(file)) {
+            return file;
+        }
+        return new ClassPathResource(path).getFile().toPath();
+    }
+}
@@ -0,0 +1,332 @@
+package com.matt.employees.utilities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of records, held in a directory of numbered segment files, where every append is durable by the
+ * time it returns.
+ *
+ * Making a record durable means forcing the file to disk, which costs far more than writing it. Appends that arrive
+ * while a force is in progress therefore don't force the file themselves: they write their record and wait, and the
+ * next thread to find no force in progress forces the file once for every record written so far. Under load one force
+ * covers many appends, so the number of forces per second stays roughly constant however many threads are appending.
+ *
+ * Each record is framed as its length, a CRC32 of its contents and the contents. When the log is opened, the records
+ * in every existing segment are handed back in order, stopping at the first record in a segment that is incomplete or
+ * doesn't match its checksum, as the last record written before a crash may be. New records always go into a new
+ * segment. Once a segment grows past the segment size, appends move on to the next one, and segments that are no
+ * longer needed can be deleted with {@link #deleteSegmentsBefore(long)}.
+ */
+public final class GroupCommitLog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitLog.class);
+
+    private static final String SUFFIX = ".log";
+    private static final int HEADER_SIZE = 8;
+
+    /**
+     * Receives the records found in the log when it's opened or a segment is read.
+     */
+    @FunctionalInterface
+    public interface RecordConsumer {
+        void accept(long segment, ByteBuffer record) throws IOException;
+    }
+
+    private final Path directory;
+    private final long segmentSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition forced = this.lock.newCondition();
+    private FileChannel channel;
+    private long segment;
+    private long segmentBytes;
+    private long written;
+    private long durable;
+    private boolean forcing;
+    private long forceCount;
+
+    private GroupCommitLog(Path directory, long segmentSize, long segment) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.segment = segment;
+        this.channel = openSegment(segment);
+    }
+
+    /**
+     * Opens the log in the supplied directory, creating the directory if need be, and replays the records already in
+     * it.
+     *
+     * @param directory - the directory holding the segment files
+     * @param segmentSize - the size in bytes a segment can grow to before appends move on to the next one
+     * @param replay - receives every intact record already in the log, in the order they were appended, along with the
+     * number of the segment holding it. The buffer is only valid for the duration of the call.
+     * @return - the opened log
+     * @throws IOException - if the directory or the segments can't be read, or the new segment can't be created
+     */
+    public static GroupCommitLog open(Path directory, long segmentSize, RecordConsumer replay) throws IOException {
+        Files.createDirectories(directory);
+        List<Long> segments = listSegments(directory);
+        for (long segment : segments) {
+            replaySegment(directory.resolve(segmentName(segment)), segment, replay, true);
+        }
+        long next = segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1;
+        return new GroupCommitLog(directory, segmentSize, next);
+    }
+
+    /**
+     * Appends a record to the log, returning once it and every record appended before it are on disk.
+     *
+     * @param record - the record to append
+     * @return - the number of the segment the record was written to
+     * @throws IOException - if the record can't be written or forced to disk
+     */
+    public long append(byte[] record) throws IOException {
+        ByteBuffer buffer = frame(record);
+        int size = buffer.remaining();
+
+        this.lock.lock();
+        try {
+            ensureOpen();
+            while (this.segmentBytes > 0 && this.segmentBytes + size > this.segmentSize) {
+                if (this.forcing) {
+                    this.forced.awaitUninterruptibly();
+                } else {
+                    roll();
+                }
+            }
+
+            long appendedSegment = this.segment;
+            while (buffer.hasRemaining()) {
+                this.channel.write(buffer);
+            }
+            this.segmentBytes += size;
+            this.written += size;
+            long end = this.written;
+
+            while (this.durable < end) {
+                if (this.forcing) {
+                    this.forced.awaitUninterruptibly();
+                } else {
+                    force();
+                }
+            }
+            return appendedSegment;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the intact records in one segment, in the order they were appended. The segment may be the one currently
+     * being appended to, in which case a record that is still being written is left out.
+     *
+     * @param segment - the number of the segment to read
+     * @param consumer - receives each record along with the segment number. The buffer is only valid for the duration
+     * of the call.
+     * @return - false if there is no such segment, as when it has been deleted
+     * @throws IOException - if the segment can't be read
+     */
+    public boolean read(long segment, RecordConsumer consumer) throws IOException {
+        try {
+            replaySegment(this.directory.resolve(segmentName(segment)), segment, consumer, false);
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Deletes the segments before the supplied one. The segment currently being appended to is only deleted once the log
+     * has been closed.
+     *
+     * @param segment - the first segment to keep
+     * @throws IOException - if a segment can't be deleted
+     */
+    public void deleteSegmentsBefore(long segment) throws IOException {
+        long current;
+        this.lock.lock();
+        try {
+            current = this.channel == null ? Long.MAX_VALUE : this.segment;
+        } finally {
+            this.lock.unlock();
+        }
+        for (long existing : listSegments(this.directory)) {
+            if (existing < segment && existing < current) {
+                Files.deleteIfExists(this.directory.resolve(segmentName(existing)));
+            }
+        }
+    }
+
+    /**
+     * @return - the number of the segment records are currently appended to
+     */
+    public long getCurrentSegment() {
+        this.lock.lock();
+        try {
+            return this.segment;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @return - the number of times the log has been forced to disk, which under concurrent appends is lower than the
+     * number of records appended
+     */
+    public long getForceCount() {
+        this.lock.lock();
+        try {
+            return this.forceCount;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.lock.lock();
+        try {
+            while (this.forcing) {
+                this.forced.awaitUninterruptibly();
+            }
+            if (this.channel != null) {
+                this.channel.force(false);
+                this.channel.close();
+                this.channel = null;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Forces everything written so far to disk. Called with the lock held, which is released while the force is in
+     * progress so other threads can carry on writing; they wait for the next force.
+     */
+    private void force() throws IOException {
+        long target = this.written;
+        FileChannel forcing = this.channel;
+        this.forcing = true;
+        this.lock.unlock();
+        boolean succeeded = false;
+        try {
+            forcing.force(false);
+            succeeded = true;
+        } finally {
+            this.lock.lock();
+            this.forcing = false;
+            if (succeeded) {
+                this.durable = Math.max(this.durable, target);
+                this.forceCount++;
+            }
+            this.forced.signalAll();
+        }
+    }
+
+    /**
+     * Closes the current segment and starts the next one. Called with the lock held and no force in progress.
+     */
+    private void roll() throws IOException {
+        this.channel.force(false);
+        this.forceCount++;
+        this.durable = this.written;
+        this.channel.close();
+        this.segment++;
+        this.segmentBytes = 0;
+        this.channel = openSegment(this.segment);
+        this.forced.signalAll();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.channel == null) {
+            throw new IOException("Log in " + this.directory + " is closed");
+        }
+    }
+
+    private FileChannel openSegment(long segment) throws IOException {
+        return FileChannel.open(this.directory.resolve(segmentName(segment)), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE);
+    }
+
+    private static ByteBuffer frame(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, record.length);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + record.length);
+        buffer.putInt(record.length).putInt((int) crc.getValue()).put(record);
+        buffer.flip();
+        return buffer;
+    }
+
+    // A torn record is only worth a warning when opening the log; a read can find the end of an append in progress.
+    private static void replaySegment(Path file, long segment, RecordConsumer replay, boolean opening)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32 crc = new CRC32();
+            while (buffer.remaining() >= HEADER_SIZE) {
+                int position = buffer.position();
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    if (opening) {
+                        logger.warn("Ignoring the incomplete record at {} in {}", position, file);
+                    }
+                    return;
+                }
+                ByteBuffer record = buffer.slice();
+                record.limit(length);
+                crc.reset();
+                crc.update(record.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    if (opening) {
+                        logger.warn("Ignoring the rest of {} from the corrupt record at {}", file, position);
+                    }
+                    return;
+                }
+                replay.accept(segment, record);
+                buffer.position(buffer.position() + length);
+            }
+            if (buffer.hasRemaining() && opening) {
+                logger.warn("Ignoring the incomplete record at {} in {}", buffer.position(), file);
+            }
+        }
+    }
+
+    private static List<Long> listSegments(Path directory) throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.add(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static String segmentName(long segment) {
+        return String.format("%020d%s", segment, SUFFIX);
+    }
+}
@@ -0,0 +1,163 @@
+package com.matt.employees.utilities;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a gzip stream with a {@link Deflater} and output buffer that are reused from a {@link Pool}, rather than each
+ * response allocating its own as {@link java.util.zip.GZIPOutputStream} does. A deflater holds a few hundred kilobytes
+ * of native memory that is only given back when it is ended or finalized, so creating one per response is expensive
+ * under load.
+ *
+ * A compressor is used for one stream at a time: {@link #start(OutputStream)} it, write to it, {@link #finish()} it and
+ * then {@link #release()} it back to its pool.
+ */
+public final class GzipCompressor {
+
+    private static final byte[] HEADER = {
+            0x1f, (byte) 0x8b,  // magic number
+            Deflater.DEFLATED,  // compression method
+            0,                  // flags
+            0, 0, 0, 0,         // modification time
+            0,                  // extra flags
+            (byte) 0xff         // operating system: unknown
+    };
+
+    private final Pool pool;
+    private final Deflater deflater;
+    private final byte[] buffer;
+    private final CRC32 crc = new CRC32();
+    private OutputStream out;
+
+    private GzipCompressor(Pool pool, int level, int bufferSize) {
+        this.pool = pool;
+        this.deflater = new Deflater(level, true);
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Writes the gzip header and starts compressing to the stream.
+     */
+    public void start(OutputStream out) throws IOException {
+        this.out = out;
+        out.write(HEADER);
+    }
+
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return;
+        }
+        this.crc.update(bytes, offset, length);
+        this.deflater.setInput(bytes, offset, length);
+        while (!this.deflater.needsInput()) {
+            drain(Deflater.NO_FLUSH);
+        }
+    }
+
+    /**
+     * Writes out everything compressed so far, so a reader can decompress all of the input written up to now.
+     */
+    public void flush() throws IOException {
+        drain(Deflater.SYNC_FLUSH);
+        this.out.flush();
+    }
+
+    /**
+     * Compresses whatever input is left and writes the gzip trailer. Doesn't close the stream.
+     */
+    public void finish() throws IOException {
+        this.deflater.finish();
+        while (!this.deflater.finished()) {
+            drain(Deflater.NO_FLUSH);
+        }
+        writeIntLE((int) this.crc.getValue());
+        writeIntLE((int) this.deflater.getBytesRead());
+    }
+
+    /**
+     * Resets the compressor and hands it back to its pool. It mustn't be used again after this.
+     */
+    public void release() {
+        this.out = null;
+        this.crc.reset();
+        this.deflater.reset();
+        this.pool.release(this);
+    }
+
+    /**
+     * Checks whether an Accept-Encoding header allows a gzipped response, ignoring any encodings with a q value of 0.
+     */
+    public static boolean isAcceptedBy(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String encoding : acceptEncoding.split(",")) {
+            String[] parts = encoding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private void drain(int flush) throws IOException {
+        int length;
+        do {
+            length = this.deflater.deflate(this.buffer, 0, this.buffer.length, flush);
+            if (length > 0) {
+                this.out.write(this.buffer, 0, length);
+            }
+        } while (length == this.buffer.length);
+    }
+
+    private void writeIntLE(int value) throws IOException {
+        this.out.write(value & 0xff);
+        this.out.write((value >> 8) & 0xff);
+        this.out.write((value >> 16) & 0xff);
+        this.out.write((value >> 24) & 0xff);
+    }
+
+    /**
+     * A bounded pool of idle compressors that all use the same compression level. When the pool is empty a new
+     * compressor is created, and when it's full a released compressor is ended instead of being kept.
+     */
+    public static final class Pool {
+
+        private final int level;
+        private final int bufferSize;
+        private final BlockingQueue<GzipCompressor> idle;
+
+        /**
+         * @param level - deflate compression level, from 1 (fastest) to 9 (smallest)
+         * @param bufferSize - size of each compressor's output buffer
+         * @param maxIdle - most idle compressors to keep
+         */
+        public Pool(int level, int bufferSize, int maxIdle) {
+            this.level = level;
+            this.bufferSize = bufferSize;
+            this.idle = new ArrayBlockingQueue<>(maxIdle);
+        }
+
+        public GzipCompressor acquire() {
+            GzipCompressor compressor = this.idle.poll();
+            return compressor != null ? compressor : new GzipCompressor(this, this.level, this.bufferSize);
+        }
+
+        /**
+         * @return - the number of idle compressors in the pool
+         */
+        public int idleCount() {
+            return this.idle.size();
+        }
+
+        private void release(GzipCompressor compressor) {
+            if (!this.idle.offer(compressor)) {
+                compressor.deflater.end();
+            }
+        }
+    }
+}
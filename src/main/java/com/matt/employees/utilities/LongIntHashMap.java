@@ -0,0 +1,112 @@
+package com.matt.employees.utilities;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from primitive longs to non-negative primitive ints, for when boxing every value the way
+ * {@link LongObjectHashMap} would costs more than the entries themselves. Uses the same layout of parallel arrays with
+ * open addressing and linear probing, with a value of -1 marking an empty slot. Entries can't be removed.
+ *
+ * The map isn't thread safe.
+ */
+public class LongIntHashMap {
+
+    public static final int NO_VALUE = -1;
+
+    private static final int MIN_CAPACITY = 16;
+
+    // The table is grown once it is more than half full, which keeps linear probe sequences short.
+    private static final int MAX_LOAD_PERCENT = 50;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    public LongIntHashMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * @return - the value mapped to the key, or {@link #NO_VALUE} if there is none
+     */
+    public int get(long key) {
+        int mask = this.keys.length - 1;
+        int slot = hash(key) & mask;
+        while (this.values[slot] != NO_VALUE) {
+            if (this.keys[slot] == key) {
+                return this.values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Maps the key to the value, replacing any value already mapped to it.
+     *
+     * @return - the value previously mapped to the key, or {@link #NO_VALUE} if there was none
+     * @throws IllegalArgumentException - if the value is negative
+     */
+    public int put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Values must not be negative: " + value);
+        }
+
+        int mask = this.keys.length - 1;
+        int slot = hash(key) & mask;
+        while (this.values[slot] != NO_VALUE) {
+            if (this.keys[slot] == key) {
+                int previous = this.values[slot];
+                this.values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        this.keys[slot] = key;
+        this.values[slot] = value;
+        if (++this.size * 100L > this.keys.length * (long) MAX_LOAD_PERCENT) {
+            resize(this.keys.length * 2);
+        }
+        return NO_VALUE;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public void clear() {
+        allocate(MIN_CAPACITY);
+        this.size = 0;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = this.keys;
+        int[] oldValues = this.values;
+
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != NO_VALUE) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (this.values[slot] != NO_VALUE) {
+                    slot = (slot + 1) & mask;
+                }
+                this.keys[slot] = oldKeys[i];
+                this.values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        Arrays.fill(this.values, NO_VALUE);
+    }
+
+    private static int hash(long key) {
+        // Fibonacci hashing spreads sequential IDs across the whole table.
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
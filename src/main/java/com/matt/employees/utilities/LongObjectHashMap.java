@@ -0,0 +1,215 @@
+package com.matt.employees.utilities;
+
+import java.util.Objects;
+
+/**
+ * Hash map keyed by primitive longs, so lookups don't box their key and entries don't carry a boxed key or a separate
+ * entry object. Keys and values live in two parallel arrays using open addressing with linear probing, and removals
+ * shift later entries back into the gap rather than leaving tombstones behind, so lookups never get slower as entries
+ * come and go.
+ *
+ * The map isn't thread safe. It is however safe to call {@link #get(long)} while another thread is changing the map:
+ * the lookup may return a wrong answer, but it will never throw or loop forever. That makes it suitable for optimistic
+ * reads with a {@link java.util.concurrent.locks.StampedLock}, where a lookup that raced with a write is thrown away and
+ * retried under the read lock.
+ *
+ * @param <V> - type of the mapped values, which may not be null
+ */
+public class LongObjectHashMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    // The table is grown once it is more than half full, which keeps linear probe sequences short.
+    private static final int MAX_LOAD_PERCENT = 50;
+
+    private Table table;
+    private int size;
+
+    public LongObjectHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize - number of entries the map should be able to hold before it has to grow
+     */
+    public LongObjectHashMap(int expectedSize) {
+        this.table = new Table(capacityFor(expectedSize));
+    }
+
+    /**
+     * @return - the value mapped to the key, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        // Read the table once so a concurrent resize can't leave us with arrays from two different tables.
+        Table table = this.table;
+        long[] keys = table.keys;
+        Object[] values = table.values;
+        int mask = keys.length - 1;
+
+        int slot = hash(key) & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            Object value = values[slot];
+            if (value == null) {
+                return null;
+            }
+            if (keys[slot] == key) {
+                return (V) value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Maps the key to the value, replacing any value already mapped to it.
+     *
+     * @return - the value previously mapped to the key, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        Objects.requireNonNull(value, "value");
+
+        long[] keys = this.table.keys;
+        Object[] values = this.table.values;
+        int mask = keys.length - 1;
+
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++this.size * 100 > keys.length * MAX_LOAD_PERCENT) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the key's mapping, if there is one.
+     *
+     * @return - the value that was mapped to the key, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        long[] keys = this.table.keys;
+        Object[] values = this.table.values;
+        int mask = keys.length - 1;
+
+        int slot = hash(key) & mask;
+        while (values[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (values[slot] == null) {
+            return null;
+        }
+        V removed = (V) values[slot];
+
+        // Walk the rest of the probe run and move back any entry that would no longer be found with a gap in front of
+        // it, which is any entry whose ideal slot isn't between the gap and where the entry currently sits.
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (values[next] != null) {
+            int ideal = hash(keys[next]) & mask;
+            if (((next - ideal) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[gap] = null;
+        keys[gap] = 0;
+
+        this.size--;
+        return removed;
+    }
+
+    /**
+     * Calls the consumer with every entry in the map, in no particular order. The map must not be changed while this is
+     * running.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> consumer) {
+        long[] keys = this.table.keys;
+        Object[] values = this.table.values;
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                consumer.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public void clear() {
+        this.table = new Table(MIN_CAPACITY);
+        this.size = 0;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = this.table.keys;
+        Object[] oldValues = this.table.values;
+
+        Table resized = new Table(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (resized.values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                resized.keys[slot] = oldKeys[i];
+                resized.values[slot] = oldValues[i];
+            }
+        }
+        // Only publish the new table once it's filled in.
+        this.table = resized;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = Math.max((long) expectedSize * 100 / MAX_LOAD_PERCENT + 1, MIN_CAPACITY);
+        if (needed > 1 << 30) {
+            throw new IllegalArgumentException("Expected size is too large: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    private static int hash(long key) {
+        // Fibonacci hashing spreads sequential IDs across the whole table.
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Receives the entries of a map from {@link #forEach(EntryConsumer)}.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    private static final class Table {
+
+        private final long[] keys;
+        private final Object[] values;
+
+        Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.matt.employees.utilities;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The formats employees can be sent and received in. Besides JSON, the API speaks the Jackson Smile and CBOR binary
+ * formats, chosen with the {@code Accept} and {@code Content-Type} headers. These encode the same objects as JSON does,
+ * except that dates are sent as a count of days since 1970-01-01 rather than as {@code yyyy-MM-dd} strings.
+ */
+public enum WireFormat {
+    JSON(MediaType.APPLICATION_JSON_UTF8, new JsonFactory()),
+    SMILE(MediaType.valueOf(WireFormat.APPLICATION_SMILE_VALUE), new SmileFactory()),
+    CBOR(MediaType.valueOf(WireFormat.APPLICATION_CBOR_VALUE), new CBORFactory());
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final String APPLICATION_CBOR_VALUE = "application/cbor";
+
+    private final MediaType mediaType;
+    private final JsonFactory factory;
+
+    WireFormat(MediaType mediaType, JsonFactory factory) {
+        this.mediaType = mediaType;
+        this.factory = factory;
+    }
+
+    public MediaType getMediaType() {
+        return this.mediaType;
+    }
+
+    public JsonGenerator createGenerator(OutputStream outputStream) throws IOException {
+        return this.factory.createGenerator(outputStream);
+    }
+
+    /**
+     * Writes a date the way this format encodes dates.
+     */
+    public void writeDate(JsonGenerator generator, LocalDate date) throws IOException {
+        if (this == JSON) {
+            generator.writeString(date.toString());
+        } else {
+            generator.writeNumber(date.toEpochDay());
+        }
+    }
+
+    /**
+     * Picks the format to answer a request in from its {@code Accept} header, preferring the types the client ranks
+     * highest. Anything that doesn't ask for a binary format gets JSON.
+     *
+     * @param accept - the request's Accept header, may be null
+     * @return - the format to respond in
+     */
+    public static WireFormat fromAccept(String accept) {
+        if (accept == null || accept.isEmpty()) {
+            return JSON;
+        }
+
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            for (WireFormat format : values()) {
+                if (mediaType.includes(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+
+    /**
+     * @return - a Jackson module that makes a binary format's mapper encode dates as epoch days, overriding any
+     * {@code @JsonFormat} pattern. Dates in {@code yyyy-MM-dd} form are still accepted when reading.
+     */
+    public static Module epochDayModule() {
+        SimpleModule module = new SimpleModule("EpochDayModule");
+        module.addSerializer(LocalDate.class, new JsonSerializer<LocalDate>() {
+            @Override
+            public void serialize(LocalDate date, JsonGenerator generator, SerializerProvider provider)
+                    throws IOException {
+                generator.writeNumber(date.toEpochDay());
+            }
+        });
+        module.addDeserializer(LocalDate.class, new JsonDeserializer<LocalDate>() {
+            @Override
+            public LocalDate deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                if (parser.hasToken(JsonToken.VALUE_NUMBER_INT)) {
+                    return LocalDate.ofEpochDay(parser.getLongValue());
+                }
+                if (parser.hasToken(JsonToken.VALUE_STRING)) {
+                    return LocalDate.parse(parser.getText().trim());
+                }
+                return (LocalDate) context.handleUnexpectedToken(LocalDate.class, parser);
+            }
+        });
+        return module;
+    }
+}
@@ -0,0 +1,82 @@
+package com.matt.employees;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeePatch;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.repositories.EmployeeRepository;
+import com.matt.employees.services.ActiveEmployeeIndex;
+import com.matt.employees.services.EmployeeService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs with {@code employees.active-index.enabled} and confirms that the index is filled in at startup and follows
+ * every change saved through the {@link EmployeeService}.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = EmployeesApplication.class, properties = "employees.active-index.enabled=true")
+public class ActiveEmployeeIndexTests {
+
+    @Autowired
+    private ActiveEmployeeIndex activeEmployeeIndex;
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Test
+    public void indexHoldsActiveEmployees() {
+        assertTrue(this.activeEmployeeIndex.isServing());
+
+        for (Employee employee : this.employeeRepository.findByStatus(EmployeeStatus.ACTIVE)) {
+            Employee indexed = this.activeEmployeeIndex.get(employee.getId()).get();
+            assertEquals(employee.getId(), indexed.getId());
+            assertEquals(employee.getLastName(), indexed.getLastName());
+            assertEquals(employee.getDateOfEmployment(), indexed.getDateOfEmployment());
+            assertEquals(employee.getVersion(), indexed.getVersion());
+        }
+    }
+
+    @Test
+    public void indexFollowsChanges() {
+        Employee employee = this.employeeService.save(new Employee("Index", null, "Employee",
+                LocalDate.parse("1980-02-29"), null, EmployeeStatus.ACTIVE));
+
+        Employee indexed = this.employeeService.getActiveEmployee(employee.getId()).get();
+        assertEquals("Index", indexed.getFirstName());
+        assertNull(indexed.getMiddleInitial());
+        assertEquals(LocalDate.parse("1980-02-29"), indexed.getDateOfBirth());
+        assertNull(indexed.getDateOfEmployment());
+        assertEquals(employee.getLastModified().toEpochMilli(), indexed.getLastModified().toEpochMilli());
+
+        Employee toUpdate = this.employeeService.getActiveEmployeeForUpdate(employee.getId()).get();
+        toUpdate.setLastName("Updated");
+        this.employeeService.save(toUpdate);
+        indexed = this.employeeService.getActiveEmployee(employee.getId()).get();
+        assertEquals("Updated", indexed.getLastName());
+        assertEquals(Long.valueOf(1), indexed.getVersion());
+
+        this.employeeService.patch(indexed, EmployeePatch.fromJson(JsonNodeFactory.instance.objectNode()
+                .put("middleInitial", "P")));
+        assertEquals("P", this.employeeService.getActiveEmployee(employee.getId()).get().getMiddleInitial());
+
+        Employee toDeactivate = this.employeeService.getActiveEmployeeForUpdate(employee.getId()).get();
+        toDeactivate.setStatus(EmployeeStatus.INACTIVE);
+        this.employeeService.save(toDeactivate);
+        assertEquals(Optional.empty(), this.employeeService.getActiveEmployee(employee.getId()));
+    }
+
+    @Test
+    public void missingEmployeeNotFound() {
+        assertEquals(Optional.empty(), this.activeEmployeeIndex.get(Long.MAX_VALUE));
+    }
+}
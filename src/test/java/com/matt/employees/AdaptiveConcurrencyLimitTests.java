@@ -0,0 +1,87 @@
+package com.matt.employees;
+
+import com.matt.employees.utilities.AdaptiveConcurrencyLimit;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveConcurrencyLimitTests {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void rejectsRequestsOverTheLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 3, 100, () -> 0);
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(3, limit.getInFlight());
+
+        limit.release(MILLIS);
+        assertTrue(limit.tryAcquire());
+    }
+
+    /**
+     * Runs windows of requests that use the whole limit, and checks that the limit shrinks once latency climbs to ten
+     * times what it was, stays near the minimum while latency is a hundred times higher, and grows back once latency
+     * returns to normal.
+     */
+    @Test
+    public void shrinksWhileLatencyClimbsAndRecovers() {
+        AtomicLong now = new AtomicLong();
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(5, 100, 100, now::get);
+
+        for (int window = 0; window < 20; window++) {
+            runWindow(limit, now, 10 * MILLIS);
+        }
+        assertEquals(100, limit.getLimit());
+
+        for (int window = 0; window < 15; window++) {
+            runWindow(limit, now, 100 * MILLIS);
+        }
+        int overloaded = limit.getLimit();
+        assertTrue("Limit was " + overloaded, overloaded < 50);
+
+        for (int window = 0; window < 100; window++) {
+            runWindow(limit, now, 1000 * MILLIS);
+        }
+        assertTrue("Limit was " + limit.getLimit(), limit.getLimit() <= 10);
+
+        for (int window = 0; window < 100; window++) {
+            runWindow(limit, now, 10 * MILLIS);
+        }
+        assertEquals(100, limit.getLimit());
+    }
+
+    /**
+     * Windows that don't come close to the limit don't move it, however slow they are.
+     */
+    @Test
+    public void leavesTheLimitAloneWhenItIsNotUsed() {
+        AtomicLong now = new AtomicLong();
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(5, 100, 100, now::get);
+        for (int window = 0; window < 20; window++) {
+            for (int i = 0; i < 20; i++) {
+                assertTrue(limit.tryAcquire());
+                now.addAndGet(10 * MILLIS);
+                limit.release((window < 10 ? 1 : 1000) * MILLIS);
+            }
+        }
+        assertEquals(100, limit.getLimit());
+    }
+
+    private static void runWindow(AdaptiveConcurrencyLimit limit, AtomicLong now, long latency) {
+        int running = 0;
+        while (limit.tryAcquire()) {
+            running++;
+        }
+        now.addAndGet(100 * MILLIS);
+        for (int i = 0; i < running; i++) {
+            limit.release(latency);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.matt.employees;
+
+import com.matt.employees.utilities.ClientRateLimiter;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class ClientRateLimiterTests {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void allowsABurstThenTheSteadyRate() {
+        AtomicLong now = new AtomicLong(123 * MILLIS);
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 3, 100, now::get);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        // a token comes back every 100 ms
+        assertEquals(100 * MILLIS, limiter.tryAcquire("a"));
+        // other clients have buckets of their own
+        assertEquals(0, limiter.tryAcquire("b"));
+
+        now.addAndGet(40 * MILLIS);
+        assertEquals(60 * MILLIS, limiter.tryAcquire("a"));
+        now.addAndGet(60 * MILLIS);
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(100 * MILLIS, limiter.tryAcquire("a"));
+
+        // the bucket doesn't fill beyond the burst, however long the client waits
+        now.addAndGet(10000 * MILLIS);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("a"));
+        }
+        assertTrue(limiter.tryAcquire("a") > 0);
+    }
+
+    /**
+     * Many threads take from the same bucket at the same instant, and between them only get the burst.
+     */
+    @Test
+    public void concurrentRequestsGetNoMoreThanTheBurst() throws Exception {
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 50, 100, () -> 1000 * MILLIS);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> allowed = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                allowed.add(executor.submit(() -> {
+                    start.await();
+                    int count = 0;
+                    for (int i = 0; i < 1000; i++) {
+                        if (limiter.tryAcquire("a") == 0) {
+                            count++;
+                        }
+                    }
+                    return count;
+                }));
+            }
+            start.countDown();
+            int total = 0;
+            for (Future<Integer> count : allowed) {
+                total += count.get();
+            }
+            assertEquals(50, total);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyBuckets() {
+        new ClientRateLimiter(10, 0, 100);
+    }
+}
@@ -0,0 +1,116 @@
+package com.matt.employees;
+
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeHeadcount;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.services.EmployeeAnalytics;
+import com.matt.employees.services.EmployeeService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests to ensure that {@link EmployeeAnalytics} gives the same answers as grouping the employee table in SQL, both
+ * straight after a rebuild and after employees have been created, changed and deleted through {@link EmployeeService}.
+ * The rebuild is run with a small page size on several threads so that the ID range is split and paged.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = EmployeesApplication.class, properties = {
+        "employees.analytics.rebuild-threads=3",
+        "employees.analytics.rebuild-page-size=7"
+})
+public class EmployeeAnalyticsTests {
+
+    private static final String HIRE_MONTH = "FORMATDATETIME(date_of_employment, 'yyyy-MM')";
+    private static final String HIRE_YEAR = "FORMATDATETIME(date_of_employment, 'yyyy')";
+
+    @Autowired
+    private EmployeeAnalytics analytics;
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setup() throws InterruptedException {
+        for (int i = 0; i < 40; i++) {
+            this.employeeService.save(new Employee("Ana" + i, "L", "Lytics",
+                    i % 9 == 0 ? null : LocalDate.parse("1960-03-15").plusMonths(i * 17),
+                    i % 11 == 0 ? null : LocalDate.parse("1995-07-01").plusMonths(i * 7),
+                    i % 4 == 0 ? EmployeeStatus.INACTIVE : EmployeeStatus.ACTIVE));
+        }
+        this.analytics.rebuild();
+        assertTrue(this.analytics.isServing());
+    }
+
+    @Test
+    public void rebuildMatchesTheDatabase() {
+        assertMatchesTheDatabase();
+    }
+
+    @Test
+    public void followsCreatesUpdatesAndDeletes() {
+        Employee created = this.employeeService.save(new Employee("Tenure", "T", "Track",
+                LocalDate.parse("1970-01-31"), LocalDate.parse("2001-02-03"), EmployeeStatus.ACTIVE));
+        assertMatchesTheDatabase();
+
+        Employee employee = this.employeeService.getActiveEmployeeForUpdate(created.getId()).get();
+        employee.setDateOfEmployment(LocalDate.parse("1999-12-31"));
+        employee.setDateOfBirth(null);
+        this.employeeService.save(employee);
+        assertMatchesTheDatabase();
+
+        // deleting an employee only flips its status, so it moves from active to inactive in the same hire month
+        EmployeeHeadcount before = this.analytics.headcount();
+        employee = this.employeeService.getActiveEmployeeForUpdate(created.getId()).get();
+        employee.setStatus(EmployeeStatus.INACTIVE);
+        this.employeeService.save(employee);
+        assertEquals(before.getActive() - 1, this.analytics.headcount().getActive());
+        assertEquals(before.getInactive() + 1, this.analytics.headcount().getInactive());
+        assertMatchesTheDatabase();
+    }
+
+    private void assertMatchesTheDatabase() {
+        Map<String, Long> byStatus = groupBy("status", "1 = 1");
+        EmployeeHeadcount headcount = this.analytics.headcount();
+        assertEquals(byStatus.getOrDefault("ACTIVE", 0L).longValue(), headcount.getActive());
+        assertEquals(byStatus.getOrDefault("INACTIVE", 0L).longValue(), headcount.getInactive());
+
+        assertEquals(groupBy(HIRE_YEAR, "1 = 1"), this.analytics.hires(EmployeeAnalytics.Period.YEAR, null));
+        assertEquals(groupBy(HIRE_MONTH, "1 = 1"), this.analytics.hires(EmployeeAnalytics.Period.MONTH, null));
+        assertEquals(groupBy(HIRE_MONTH, "status = 'INACTIVE'"),
+                this.analytics.hires(EmployeeAnalytics.Period.MONTH, EmployeeStatus.INACTIVE));
+
+        for (int bucketYears : new int[]{1, 5}) {
+            assertEquals(groupBy(yearsSince("date_of_employment", bucketYears), "status = 'ACTIVE'"),
+                    this.analytics.tenure(bucketYears));
+            assertEquals(groupBy(yearsSince("date_of_birth", bucketYears), "status = 'ACTIVE'"),
+                    this.analytics.age(bucketYears));
+        }
+    }
+
+    private Map<String, Long> groupBy(String expression, String condition) {
+        Map<String, Long> counts = new HashMap<>();
+        this.jdbcTemplate.query("SELECT " + expression + " AS k, COUNT(*) AS n FROM employee WHERE " + condition
+                + " GROUP BY k", resultSet -> {
+            String key = resultSet.getString("k");
+            counts.put(key == null ? EmployeeAnalytics.UNKNOWN : key, resultSet.getLong("n"));
+        });
+        return counts;
+    }
+
+    private static String yearsSince(String column, int bucketYears) {
+        return "CAST(FLOOR(DATEDIFF('MONTH', " + column + ", CURRENT_DATE) / (12.0 * " + bucketYears + ")) * "
+                + bucketYears + " AS INT)";
+    }
+}
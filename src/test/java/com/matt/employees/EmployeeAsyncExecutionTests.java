@@ -0,0 +1,126 @@
+package com.matt.employees;
+
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.repositories.EmployeeRepository;
+import com.matt.employees.services.EmployeeRequestExecutor;
+import com.matt.employees.services.EmployeeService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+/**
+ * Runs the employee endpoints with {@code employees.execution.mode} set to {@code ASYNC} and confirms that requests
+ * are handed off to the worker pool and still produce the same responses once dispatched.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = EmployeesApplication.class, properties = "employees.execution.mode=ASYNC")
+public class EmployeeAsyncExecutionTests {
+
+    private static final String endpoint = "/employees/";
+
+    private MockMvc mockMvc;
+    private Employee employee;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private EmployeeRequestExecutor requestExecutor;
+
+    @Before
+    public void setup() {
+        this.mockMvc = webAppContextSetup(this.webApplicationContext).apply(springSecurity()).build();
+
+        this.employeeRepository.deleteAll();
+        this.employee = this.employeeService.save(new Employee("First", "O", "User",
+                LocalDate.parse("1985-01-02"), LocalDate.parse("2018-06-03"), EmployeeStatus.ACTIVE));
+    }
+
+    /**
+     * Confirm that the executor is in async mode and that its database permits match the connection pool size.
+     */
+    @Test
+    public void executorMatchesConnectionPool() {
+        assertEquals(EmployeeRequestExecutor.Mode.ASYNC, this.requestExecutor.getMode());
+        assertEquals(10, this.requestExecutor.getPermitCount());
+    }
+
+    /**
+     * Confirm that reads are handled asynchronously, including not found responses and conditional requests.
+     * @throws Exception
+     */
+    @Test
+    public void getEmployeesAsync() throws Exception {
+        performAsync(get(endpoint))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().string("X-Next-Cursor", nullValue()));
+
+        String etag = performAsync(get(endpoint + this.employee.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName", is("First")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        performAsync(get(endpoint + this.employee.getId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        performAsync(get(endpoint + (this.employee.getId() + 1000)))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Confirm that writes are handled asynchronously, including writes that need authorization and writes rejected by
+     * a stale If-Match header.
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    public void writeEmployeesAsync() throws Exception {
+        performAsync(post(endpoint)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"Second\",\"middleInitial\":\"O\",\"lastName\":\"User\","
+                        + "\"dateOfBirth\":\"1985-01-02\",\"dateOfEmployment\":\"2018-06-03\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.firstName", is("Second")));
+
+        performAsync(patch(endpoint + this.employee.getId())
+                .header("If-Match", "\"-1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"lastName\":\"Stale\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        performAsync(delete(endpoint + this.employee.getId()))
+                .andExpect(status().isAccepted());
+        assertEquals(EmployeeStatus.INACTIVE,
+                this.employeeRepository.findById(this.employee.getId()).get().getStatus());
+    }
+
+    private ResultActions performAsync(RequestBuilder request) throws Exception {
+        MvcResult result = this.mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return this.mockMvc.perform(asyncDispatch(result));
+    }
+}
@@ -0,0 +1,224 @@
+package com.matt.employees;
+
+import com.matt.employees.events.EmployeeChangedEvent;
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeChange;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.services.EmployeeChangeFeed;
+import com.matt.employees.services.EmployeeService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+/**
+ * Tests to ensure that changes saved through {@link EmployeeService} can be followed through
+ * {@code GET /employees/changes}, that waiting readers are woken by the next change, and that readers that have fallen
+ * behind the in-memory buffer are served from the log until its segments expire. Changes heard after a later change to
+ * the same employee are skipped.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = EmployeesApplication.class, properties = {
+        "employees.changes.enabled=true",
+        "employees.changes.directory=target/change-feed-tests"
+})
+public class EmployeeChangeFeedTests {
+
+    private static final String endpoint = "/employees/changes";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private EmployeeChangeFeed changeFeed;
+
+    private MockMvc mockMvc;
+    private final List<EmployeeChangeFeed> feeds = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        this.mockMvc = webAppContextSetup(this.webApplicationContext).apply(springSecurity()).build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (EmployeeChangeFeed feed : this.feeds) {
+            feed.stop();
+        }
+    }
+
+    @Test
+    public void followsSavesThroughTheEndpoint() throws Exception {
+        String cursor = this.mockMvc.perform(get(endpoint))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        Employee created = this.employeeService.save(newEmployee("Chance"));
+        Employee employee = this.employeeService.getActiveEmployeeForUpdate(created.getId()).get();
+        employee.setStatus(EmployeeStatus.INACTIVE);
+        this.employeeService.save(employee);
+
+        // changes that are already there are returned without waiting
+        this.mockMvc.perform(get(endpoint).param("since", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].sequence", is((int) Long.parseLong(cursor) + 1)))
+                .andExpect(jsonPath("$[0].type", is("CREATED")))
+                .andExpect(jsonPath("$[0].employee.id", is(created.getId().intValue())))
+                .andExpect(jsonPath("$[0].employee.firstName", is("Chance")))
+                .andExpect(jsonPath("$[1].type", is("DEACTIVATED")))
+                .andExpect(jsonPath("$[1].version", is(1)))
+                .andExpect(header().string("X-Next-Cursor", String.valueOf(Long.parseLong(cursor) + 2)));
+
+        this.mockMvc.perform(get(endpoint).param("since", String.valueOf(this.changeFeed.getCursor() + 5)))
+                .andExpect(status().isGone());
+        this.mockMvc.perform(get(endpoint).param("since", cursor).param("wait", "3600"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void waitingReadersAreWokenByTheNextChange() throws Exception {
+        long cursor = this.changeFeed.getCursor();
+        CompletableFuture<EmployeeChangeFeed.Changes> waiting = this.changeFeed.poll(cursor, 10, 10000);
+        assertFalse(waiting.isDone());
+
+        this.employeeService.save(newEmployee("Waiting"));
+        EmployeeChangeFeed.Changes changes = waiting.get();
+        assertEquals(1, changes.getChanges().size());
+        assertEquals("Waiting", changes.getChanges().get(0).getEmployee().getFirstName());
+        assertEquals(cursor + 1, changes.getCursor());
+
+        // with nothing to read, a reader gets an empty page once it has waited long enough
+        EmployeeChangeFeed.Changes timedOut = this.changeFeed.poll(changes.getCursor(), 10, 50).get();
+        assertTrue(timedOut.getChanges().isEmpty());
+        assertEquals(changes.getCursor(), timedOut.getCursor());
+    }
+
+    @Test
+    public void readsFromTheLogOnceBehindTheBufferUntilSegmentsExpire() throws Exception {
+        // a buffer of 4 changes, and segments of 2 changes of which 3 are kept, holding changes 15 to 20
+        EmployeeChangeFeed feed = newFeed(4);
+        for (long id = 1; id <= 20; id++) {
+            change(feed, id);
+        }
+        assertEquals(20, feed.getCursor());
+
+        EmployeeChangeFeed.Changes fromBuffer = feed.read(17, 10);
+        assertEquals(3, fromBuffer.getChanges().size());
+        assertEquals(20, fromBuffer.getCursor());
+
+        assertTrue(feed.isExpired(0));
+        assertFalse(feed.isExpired(15));
+        EmployeeChangeFeed.Changes fromLog = feed.read(15, 3);
+        assertEquals(sequences(16, 18), sequences(fromLog));
+        assertEquals(18, fromLog.getCursor());
+        assertEquals(Long.valueOf(16), fromLog.getChanges().get(0).getEmployee().getId());
+        assertEquals(EmployeeStatus.ACTIVE, fromLog.getChanges().get(0).getEmployee().getStatus());
+        assertEquals(LocalDate.parse("2018-01-01"), fromLog.getChanges().get(0).getEmployee().getDateOfEmployment());
+        // a cursor ahead of the feed is as good as expired
+        assertFalse(feed.isExpired(20));
+        assertTrue(feed.isExpired(21));
+    }
+
+    @Test
+    public void changesHeardOutOfOrderAreSkipped() throws Exception {
+        EmployeeChangeFeed feed = newFeed(100);
+        change(feed, 1, 0);
+        // version 2 was committed after version 1, but its listener got there first
+        change(feed, 1, 2);
+        change(feed, 1, 1);
+        change(feed, 1, 2);
+        change(feed, 2, 0);
+
+        EmployeeChangeFeed.Changes changes = feed.read(0, 10);
+        assertEquals(3, changes.getCursor());
+        assertEquals(Arrays.asList(0L, 2L, 0L),
+                changes.getChanges().stream().map(EmployeeChange::getVersion).collect(Collectors.toList()));
+
+        // versions are remembered across a restart too
+        feed.stop();
+        this.feeds.remove(feed);
+        EmployeeChangeFeed restarted = newFeed(100);
+        change(restarted, 1, 1);
+        assertEquals(3, restarted.getCursor());
+    }
+
+    @Test
+    public void sequenceNumbersCarryOnAfterARestart() throws Exception {
+        EmployeeChangeFeed feed = newFeed(100);
+        for (long id = 1; id <= 5; id++) {
+            change(feed, id);
+        }
+        feed.stop();
+        this.feeds.remove(feed);
+
+        EmployeeChangeFeed restarted = newFeed(100);
+        assertEquals(5, restarted.getCursor());
+        assertEquals(sequences(3, 5), sequences(restarted.read(2, 10)));
+        change(restarted, 6);
+        assertEquals(6, restarted.read(5, 10).getChanges().get(0).getSequence());
+    }
+
+    private EmployeeChangeFeed newFeed(int bufferSize) throws Exception {
+        // each change takes around 90 bytes in the log, so two fit in a segment
+        EmployeeChangeFeed feed = new EmployeeChangeFeed(true, this.folder.getRoot().getPath(), 200, 3, bufferSize);
+        feed.start();
+        this.feeds.add(feed);
+        return feed;
+    }
+
+    private static void change(EmployeeChangeFeed feed, long id) {
+        change(feed, id, 0);
+    }
+
+    private static void change(EmployeeChangeFeed feed, long id, long version) {
+        Employee employee = Employee.restore(id, "Feed", "F", "Reader", LocalDate.parse("1980-01-01"),
+                LocalDate.parse("2018-01-01"), EmployeeStatus.ACTIVE, version, null);
+        feed.onEmployeeChanged(new EmployeeChangedEvent(employee, version == 0
+                ? EmployeeChangedEvent.Type.CREATED
+                : EmployeeChangedEvent.Type.UPDATED));
+    }
+
+    private static List<Long> sequences(long from, long to) {
+        List<Long> sequences = new ArrayList<>();
+        for (long sequence = from; sequence <= to; sequence++) {
+            sequences.add(sequence);
+        }
+        return sequences;
+    }
+
+    private static List<Long> sequences(EmployeeChangeFeed.Changes changes) {
+        return changes.getChanges().stream().map(EmployeeChange::getSequence).collect(Collectors.toList());
+    }
+
+    private static Employee newEmployee(String firstName) {
+        return new Employee(firstName, "C", "Feed", LocalDate.parse("1980-01-01"), LocalDate.parse("2018-01-01"),
+                EmployeeStatus.ACTIVE);
+    }
+}
@@ -0,0 +1,150 @@
+package com.matt.employees;
+
+import com.matt.employees.events.EmployeeChangedEvent;
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeScanResult;
+import com.matt.employees.models.EmployeeSearch;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.models.EmployeeSummary;
+import com.matt.employees.repositories.EmployeeRepository;
+import com.matt.employees.services.EmployeeColumnarSnapshot;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EmployeeColumnarSnapshotTests {
+
+    private static final String[] FIRST_NAMES = {"Ann", "Anna", "Bob", "Bobby", "Carl", "Cora", "Dee", null};
+    private static final String[] LAST_NAMES = {"Smith", "Smyth", "Stone", "Jones", "Jonson", "Núñez", "O'Hara"};
+
+    /**
+     * Scans a snapshot spread over several blocks, after a random mix of creates, updates and stale updates, and checks
+     * every result against filtering the employees one by one.
+     */
+    @Test
+    public void matchesFilteringEveryEmployee() {
+        Random random = new Random(7);
+        EmployeeColumnarSnapshot snapshot = new EmployeeColumnarSnapshot(null, true);
+        Map<Long, Employee> employees = new LinkedHashMap<>();
+        for (long id = 1; id <= 40000; id++) {
+            Employee employee = randomEmployee(random, id, 0);
+            employees.put(id, employee);
+            change(snapshot, employee);
+        }
+        for (int i = 0; i < 5000; i++) {
+            long id = 1 + random.nextInt(40000);
+            Employee employee = randomEmployee(random, id, employees.get(id).getVersion() + 1);
+            employees.put(id, employee);
+            change(snapshot, employee);
+            // an older version arriving late is ignored
+            change(snapshot, randomEmployee(random, id, employee.getVersion() - 1));
+        }
+        assertEquals(40000, snapshot.size());
+
+        List<EmployeeSearch> searches = new ArrayList<>();
+        searches.add(new EmployeeSearch(null, null, null, null, null, null));
+        searches.add(new EmployeeSearch("an", "sm", null, null, null, null));
+        searches.add(new EmployeeSearch(null, "NÚ", null, null, null, null));
+        searches.add(new EmployeeSearch("x", null, null, null, null, null));
+        searches.add(new EmployeeSearch(null, null, null, LocalDate.parse("1970-01-01"), null, null));
+        searches.add(new EmployeeSearch(null, "jon", LocalDate.parse("1965-01-01"), LocalDate.parse("1980-12-31"),
+                LocalDate.parse("2005-06-01"), LocalDate.parse("2010-06-01")));
+        searches.add(new EmployeeSearch("Bob", null, null, null, LocalDate.parse("2012-01-01"), null));
+
+        for (EmployeeSearch search : searches) {
+            for (EmployeeStatus status : new EmployeeStatus[]{null, EmployeeStatus.ACTIVE, EmployeeStatus.INACTIVE}) {
+                List<Employee> expected = employees.values().stream()
+                        .filter(employee -> matches(employee, status, search))
+                        .collect(Collectors.toList());
+                EmployeeScanResult result = snapshot.scan(status, search, 25);
+                assertEquals(expected.size(), result.getMatched());
+                assertEquals(ids(expected.subList(0, Math.min(25, expected.size()))), result.getEmployees().stream()
+                        .map(EmployeeSummary::getId).collect(Collectors.toList()));
+            }
+        }
+
+        EmployeeSummary summary = snapshot.scan(null, searches.get(0), 1).getEmployees().get(0);
+        Employee first = employees.get(1L);
+        assertEquals(first.getFirstName(), summary.getFirstName());
+        assertEquals(first.getMiddleInitial(), summary.getMiddleInitial());
+        assertEquals(first.getLastName(), summary.getLastName());
+        assertEquals(first.getDateOfBirth(), summary.getDateOfBirth());
+        assertEquals(first.getDateOfEmployment(), summary.getDateOfEmployment());
+        assertEquals(0, snapshot.scan(null, searches.get(0), 0).getEmployees().size());
+    }
+
+    @Test
+    public void warmsFromTheDatabaseInPages() {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 25000; id++) {
+            rows.add(new Object[]{id, 0L, id % 5 == 0 ? EmployeeStatus.INACTIVE : EmployeeStatus.ACTIVE,
+                    LocalDate.parse("1980-01-01"), LocalDate.parse("2018-01-01"), "Page", "P", "Row" + id});
+        }
+        EmployeeRepository repository = mock(EmployeeRepository.class);
+        when(repository.findSnapshotRows(anyLong(), any())).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            int from = (int) Math.max(0, after);
+            return rows.subList(Math.min(from, rows.size()), Math.min(from + 10000, rows.size()));
+        });
+
+        EmployeeColumnarSnapshot snapshot = new EmployeeColumnarSnapshot(repository, true);
+        assertFalse(snapshot.isServing());
+        snapshot.warm();
+        assertTrue(snapshot.isServing());
+        assertEquals(25000, snapshot.size());
+        assertEquals(5000, snapshot.scan(EmployeeStatus.INACTIVE, new EmployeeSearch(null, null, null, null, null,
+                null), 10).getMatched());
+        assertEquals(Collections.singletonList(24999L), snapshot.scan(null, new EmployeeSearch(null, "row24999", null,
+                null, null, null), 10).getEmployees().stream().map(EmployeeSummary::getId).collect(Collectors.toList()));
+    }
+
+    private static void change(EmployeeColumnarSnapshot snapshot, Employee employee) {
+        snapshot.onEmployeeChanged(new EmployeeChangedEvent(employee, EmployeeChangedEvent.Type.UPDATED));
+    }
+
+    private static Employee randomEmployee(Random random, long id, long version) {
+        return Employee.restore(id, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)], random.nextBoolean() ? "M" : null,
+                LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                random.nextInt(10) == 0 ? null : LocalDate.parse("1950-01-01").plusDays(random.nextInt(20000)),
+                random.nextInt(10) == 0 ? null : LocalDate.parse("1990-01-01").plusDays(random.nextInt(12000)),
+                random.nextInt(4) == 0 ? EmployeeStatus.INACTIVE : EmployeeStatus.ACTIVE, version, null);
+    }
+
+    private static boolean matches(Employee employee, EmployeeStatus status, EmployeeSearch search) {
+        return (status == null || employee.getStatus() == status)
+                && startsWith(employee.getFirstName(), search.getFirstNamePrefix())
+                && startsWith(employee.getLastName(), search.getLastNamePrefix())
+                && inRange(employee.getDateOfBirth(), search.getBornFrom(), search.getBornTo())
+                && inRange(employee.getDateOfEmployment(), search.getHiredFrom(), search.getHiredTo());
+    }
+
+    private static boolean startsWith(String name, String prefix) {
+        return prefix == null
+                || name != null && name.toLowerCase(Locale.ROOT).startsWith(prefix.toLowerCase(Locale.ROOT));
+    }
+
+    private static boolean inRange(LocalDate date, LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return true;
+        }
+        return date != null && (from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to));
+    }
+
+    private static List<Long> ids(List<Employee> employees) {
+        return employees.stream().map(Employee::getId).collect(Collectors.toList());
+    }
+}
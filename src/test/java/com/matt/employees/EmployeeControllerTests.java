@@ -1,14 +1,25 @@
 package com.matt.employees;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.matt.employees.config.ResponseCompressionFilter;
 import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeBatchOperation;
 import com.matt.employees.models.EmployeeStatus;
 import com.matt.employees.repositories.EmployeeRepository;
 import com.matt.employees.services.EmployeeService;
+import com.matt.employees.utilities.WireFormat;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcMetricsFilter;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
@@ -18,12 +29,17 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
@@ -34,7 +50,7 @@ import static org.springframework.test.web.servlet.setup.MockMvcBuilders.*;
 
 
 @RunWith(SpringRunner.class)
-@SpringBootTest(classes = EmployeesApplication.class)
+@SpringBootTest(classes = EmployeesApplication.class, properties = "employees.name-index.enabled=true")
 @WebAppConfiguration
 @ContextConfiguration
 public class EmployeeControllerTests {
@@ -61,6 +77,10 @@ public class EmployeeControllerTests {
 
     @Autowired
     private WebApplicationContext webApplicationContext;
+    @Autowired
+    private FilterRegistrationBean<WebMvcMetricsFilter> webMvcMetricsFilter;
+    @Autowired
+    private ResponseCompressionFilter responseCompressionFilter;
 
     @Autowired
     void setConverters(HttpMessageConverter<?>[] converters) {
@@ -118,6 +138,369 @@ public class EmployeeControllerTests {
                 .andExpect(jsonPath("$[1].status", is(this.employeeTwo.getStatus().toString())));
     }
 
+    /**
+     * Ensure that the employee list can be paged through with a keyset cursor and that the next cursor is only returned
+     * while there are more results.
+     * @throws Exception
+     */
+    @Test
+    public void getEmployeesPaged() throws Exception {
+        String nextCursor = mockMvc.perform(get(this.endpoint).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(this.employeeOne.getId().intValue())))
+                .andExpect(header().string("X-Next-Cursor", this.employeeOne.getId().toString()))
+                .andExpect(header().string("Link", containsString("after=" + this.employeeOne.getId())))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        mockMvc.perform(get(this.endpoint).param("limit", "1").param("after", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(this.employeeTwo.getId().intValue())))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    /**
+     * Ensure that the employee list can be filtered by last name prefix and date of employment.
+     * @throws Exception
+     */
+    @Test
+    public void getEmployeesFiltered() throws Exception {
+        this.employeeService.save(new Employee("Fourth", "O", "Other",
+                LocalDate.parse("1985-01-02"), LocalDate.parse("2010-01-01"), EmployeeStatus.ACTIVE));
+
+        mockMvc.perform(get(this.endpoint).param("lastName", "Us"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        mockMvc.perform(get(this.endpoint).param("hiredTo", "2011-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].firstName", is("Fourth")));
+
+        mockMvc.perform(get(this.endpoint).param("hiredFrom", "2018-06-03").param("lastName", "User"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    /**
+     * Ensure that filtered pages are ordered by the filtered column, ignoring case for last names, can be paged through
+     * with a keyset cursor, and are rebuilt when an employee on another page changes.
+     * @throws Exception
+     */
+    @Test
+    public void getEmployeesFilteredPaged() throws Exception {
+        Employee usa = this.employeeService.save(new Employee("Fourth", "O", "Usa",
+                LocalDate.parse("1985-01-02"), LocalDate.parse("2010-01-01"), EmployeeStatus.ACTIVE));
+
+        mockMvc.perform(get(this.endpoint).param("hiredFrom", "2000-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].id", is(usa.getId().intValue())));
+
+        String nextCursor = mockMvc.perform(get(this.endpoint).param("lastName", "us").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(usa.getId().intValue())))
+                .andExpect(jsonPath("$[1].id", is(this.employeeOne.getId().intValue())))
+                .andExpect(header().string("X-Next-Cursor", this.employeeOne.getId().toString()))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        mockMvc.perform(get(this.endpoint).param("lastName", "us").param("limit", "2").param("after", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(this.employeeTwo.getId().intValue())))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        // The second employee's ID is outside the first page's ID range, but renaming it moves it onto that page.
+        mockMvc.perform(patch(this.endpoint + this.employeeTwo.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"lastName\": \"Usb\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(this.endpoint).param("lastName", "us").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(usa.getId().intValue())))
+                .andExpect(jsonPath("$[1].id", is(this.employeeTwo.getId().intValue())));
+
+        mockMvc.perform(get(this.endpoint).param("lastName", "us").param("after", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Ensure that employees can be searched case insensitively by name prefix and by date ranges, and that only active
+     * employees are returned.
+     * @throws Exception
+     */
+    @Test
+    public void searchEmployees() throws Exception {
+        this.employeeService.save(new Employee("Fourth", "O", "Other",
+                LocalDate.parse("1990-03-04"), LocalDate.parse("2010-01-01"), EmployeeStatus.ACTIVE));
+
+        mockMvc.perform(get(this.endpoint + "search").param("lastName", "uS"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(this.employeeOne.getId().intValue())))
+                .andExpect(jsonPath("$[0].firstName", is("First")))
+                .andExpect(jsonPath("$[0].dateOfBirth", is("1985-01-02")))
+                .andExpect(jsonPath("$[0].status").doesNotExist());
+
+        mockMvc.perform(get(this.endpoint + "search").param("firstName", "SEC"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(this.employeeTwo.getId().intValue())));
+
+        mockMvc.perform(get(this.endpoint + "search").param("bornFrom", "1990-01-01").param("hiredTo", "2010-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].firstName", is("Fourth")));
+
+        mockMvc.perform(get(this.endpoint + "search").param("firstName", "inactive"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    /**
+     * Ensure that search results are ordered by the searched column and can be paged through with a keyset cursor, and
+     * that renaming an employee through a patch keeps its normalized name in step.
+     * @throws Exception
+     */
+    @Test
+    public void searchEmployeesPaged() throws Exception {
+        mockMvc.perform(patch(this.endpoint + this.employeeOne.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\": \"Third\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(this.endpoint + "search").param("firstName", "t"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].firstName", is("Third")));
+
+        String nextCursor = mockMvc.perform(get(this.endpoint + "search").param("lastName", "user").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(this.employeeOne.getId().intValue())))
+                .andExpect(header().string("X-Next-Cursor", this.employeeOne.getId().toString()))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        mockMvc.perform(get(this.endpoint + "search").param("lastName", "user").param("limit", "1")
+                .param("after", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(this.employeeTwo.getId().intValue())))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        mockMvc.perform(get(this.endpoint + "search").param("after", "-1"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(this.endpoint + "search").param("lastName", "user").param("after", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Ensure that employees can be found by name despite typos, and that the match limit is checked.
+     * @throws Exception
+     */
+    @Test
+    public void searchEmployeeNames() throws Exception {
+        Employee employee = this.employeeService.save(new Employee("Bartholomew", "Q", "Quixotically",
+                LocalDate.parse("1970-05-06"), LocalDate.parse("2001-02-03"), EmployeeStatus.ACTIVE));
+
+        mockMvc.perform(get(this.endpoint + "search/names").param("q", "bartholomue quixoticaly"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(employee.getId().intValue())))
+                .andExpect(jsonPath("$[0].firstName", is("Bartholomew")))
+                .andExpect(jsonPath("$[0].middleInitial", is("Q")))
+                .andExpect(jsonPath("$[0].lastName", is("Quixotically")))
+                .andExpect(jsonPath("$[0].score").isNumber());
+
+        mockMvc.perform(get(this.endpoint + "search/names").param("q", "quixotically").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get(this.endpoint + "search/names").param("q", "quixotically").param("limit", "101"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Ensure that a sparse fieldset only returns the requested fields, always including the ID, and that unknown fields
+     * are rejected.
+     * @throws Exception
+     */
+    @Test
+    public void getEmployeesSparseFields() throws Exception {
+        mockMvc.perform(get(this.endpoint).param("fields", "lastName, dateOfBirth").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(this.employeeOne.getId().intValue())))
+                .andExpect(jsonPath("$[0].lastName", is(this.employeeOne.getLastName())))
+                .andExpect(jsonPath("$[0].dateOfBirth", is(this.employeeOne.getDateOfBirth().toString())))
+                .andExpect(jsonPath("$[0].firstName").doesNotExist())
+                .andExpect(jsonPath("$[0].status").doesNotExist())
+                .andExpect(header().string("X-Next-Cursor", this.employeeOne.getId().toString()));
+
+        mockMvc.perform(get(this.endpoint).param("fields", "id,salary"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.response", is("Unknown field: salary")));
+    }
+
+    /**
+     * Ensure that an out of range page size is rejected.
+     * @throws Exception
+     */
+    @Test
+    public void getEmployeesInvalidLimit() throws Exception {
+        mockMvc.perform(get(this.endpoint).param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Ensure that list pages carry a strong ETag, that a matching If-None-Match gets a 304 and that the ETag changes once
+     * an employee on the page changes.
+     * @throws Exception
+     */
+    @Test
+    public void getEmployeesNotModified() throws Exception {
+        String etag = mockMvc.perform(get(this.endpoint))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("\"")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get(this.endpoint).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+
+        this.employeeTwo.setLastName("Changed");
+        this.employeeService.save(this.employeeTwo);
+
+        mockMvc.perform(get(this.endpoint).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$[1].lastName", is("Changed")));
+    }
+
+    /**
+     * Ensure that clients accepting gzip get the precompressed copy of a list page.
+     * @throws Exception
+     */
+    @Test
+    public void getEmployeesGzip() throws Exception {
+        byte[] body = mockMvc.perform(get(this.endpoint).header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            String json = StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+            assertThat(json, containsString("\"firstName\":\"First\""));
+        }
+    }
+
+    /**
+     * Ensure that the gzipped copy of a list page has a strong ETag of its own, and that either ETag is accepted when
+     * revalidating.
+     * @throws Exception
+     */
+    @Test
+    public void getEmployeesGzipNotModified() throws Exception {
+        String etag = mockMvc.perform(get(this.endpoint))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        String gzipEtag = mockMvc.perform(get(this.endpoint).header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertEquals(etag.substring(0, etag.length() - 1) + "-gzip\"", gzipEtag);
+
+        mockMvc.perform(get(this.endpoint).header("Accept-Encoding", "gzip").header("If-None-Match", gzipEtag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", gzipEtag))
+                .andExpect(content().bytes(new byte[0]));
+
+        mockMvc.perform(get(this.endpoint).header("Accept-Encoding", "gzip").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+
+        mockMvc.perform(get(this.endpoint).header("If-None-Match", "\"other\", W/" + gzipEtag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", gzipEtag));
+    }
+
+    /**
+     * Ensure that the export endpoint streams every employee, including inactive ones, as one JSON document per line.
+     * @throws Exception
+     */
+    @Test
+    public void exportEmployees() throws Exception {
+        String export = mockMvc.perform(get(this.endpoint + "export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        // each line is exactly the employee's JSON document, with nothing between documents but the newline
+        String[] lines = export.split("\n", -1);
+        assertEquals(4, lines.length);
+        assertEquals(json(this.employeeRepository.findById(this.employeeOne.getId()).get()), lines[0]);
+        assertEquals(json(this.employeeRepository.findById(this.employeeTwo.getId()).get()), lines[1]);
+        assertEquals(json(this.employeeRepository.findById(this.inactiveEmployee.getId()).get()), lines[2]);
+        assertEquals("", lines[3]);
+    }
+
+    /**
+     * Ensure that large responses are gzipped for clients that accept it, that small responses and the precompressed
+     * list pages are sent as they are, and that response sizes are published per endpoint.
+     * @throws Exception
+     */
+    @Test
+    public void compressResponses() throws Exception {
+        for (int i = 0; i < 30; i++) {
+            this.employeeService.save(new Employee("Compressed", "C", "User" + i,
+                    LocalDate.parse("1985-01-02"), LocalDate.parse("2018-06-03"), EmployeeStatus.ACTIVE));
+        }
+        MockMvc compressingMockMvc = webAppContextSetup(webApplicationContext)
+                .addFilters(this.responseCompressionFilter).build();
+
+        // the export is streamed, so it's compressed as it's written
+        byte[] export = compressingMockMvc.perform(get(this.endpoint + "export").header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", containsString("Accept-Encoding")))
+                .andExpect(header().doesNotExist("Content-Length"))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(export))) {
+            String ndjson = StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+            assertEquals(33, ndjson.split("\n").length);
+        }
+
+        // clients that don't accept gzip get the export as it is
+        compressingMockMvc.perform(get(this.endpoint + "export"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string(containsString("\"lastName\":\"User29\"")));
+
+        // a single employee is under the minimum size
+        compressingMockMvc.perform(get(this.endpoint + this.employeeOne.getId()).header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$.firstName", is("First")));
+
+        // the list page is already gzipped, so it mustn't be compressed twice
+        byte[] page = compressingMockMvc.perform(get(this.endpoint).header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(page))) {
+            String json = StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+            assertThat(json, startsWith("["));
+            assertThat(json, containsString("\"lastName\":\"User29\""));
+        }
+
+        assertThat(this.responseCompressionFilter.getCompressors().idleCount(), greaterThan(0));
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_response_size_bytes_count{")))
+                .andExpect(content().string(containsString("encoding=\"gzip\"")))
+                .andExpect(content().string(containsString("uri=\"/employees/export\"")));
+    }
+
     /**
      * Ensure that we can retrieve a single employee by ID and confirm that the data is what we expect.
      * @throws Exception
@@ -147,6 +530,66 @@ public class EmployeeControllerTests {
                 .andExpect(status().isNotFound());
     }
 
+    /**
+     * Confirm that a cached employee is no longer returned once it has been deleted, and that an updated employee is
+     * returned with its changes rather than from a stale cache entry.
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(username = username, roles = "USER")
+    public void getSingleEmployeeCacheInvalidation() throws Exception {
+        // populate the cache
+        mockMvc.perform(get(this.endpoint + this.employeeTwo.getId()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(this.endpoint + this.employeeOne.getId()))
+                .andExpect(status().isOk());
+
+        String employeeJson = json(new Employee("Renamed", "O", "User",
+                LocalDate.parse("1985-01-02"), LocalDate.parse("2018-06-03"), EmployeeStatus.ACTIVE));
+        this.mockMvc.perform(put(this.endpoint + this.employeeTwo.getId())
+                .contentType(this.contentType)
+                .content(employeeJson))
+                .andExpect(status().isOk());
+        this.mockMvc.perform(delete(this.endpoint + this.employeeOne.getId()))
+                .andExpect(status().isAccepted());
+
+        mockMvc.perform(get(this.endpoint + this.employeeTwo.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName", is("Renamed")));
+        mockMvc.perform(get(this.endpoint + this.employeeOne.getId()))
+                .andExpect(status().isNotFound());
+
+        // confirm the cache statistics are published
+        mockMvc.perform(get("/actuator/metrics/cache.gets").param("tag", "cache:activeEmployees"))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Confirm that request timings, repository query timings and row counts, JVM metrics and connection pool metrics
+     * are all published on the Prometheus scrape endpoint.
+     * @throws Exception
+     */
+    @Test
+    public void prometheusMetrics() throws Exception {
+        // MockMvc doesn't apply servlet filters from the context by default, so add the one that times requests
+        MockMvc timedMockMvc = webAppContextSetup(webApplicationContext).addFilters(this.webMvcMetricsFilter.getFilter())
+                .build();
+        timedMockMvc.perform(get(this.endpoint + this.employeeOne.getId()))
+                .andExpect(status().isOk());
+        this.employeeService.listActiveEmployees();
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+                .andExpect(content().string(containsString("uri=\"/employees/{employeeId}\"")))
+                .andExpect(content().string(containsString("employees_repository_queries_seconds_count{")))
+                .andExpect(content().string(containsString("method=\"findByIdAndStatus\"")))
+                .andExpect(content().string(containsString("employees_repository_rows_count{")))
+                .andExpect(content().string(containsString("method=\"findByStatus\"")))
+                .andExpect(content().string(containsString("jvm_gc_")))
+                .andExpect(content().string(containsString("hikaricp_connections")));
+    }
+
     /**
      * Confirm that we can add a new employee.
      * @throws Exception
@@ -193,6 +636,121 @@ public class EmployeeControllerTests {
                 .andExpect(jsonPath("$.status", is(this.employeeOne.getStatus().toString())));;
     }
 
+    /**
+     * Confirm that a single employee is returned with an ETag and Last-Modified date, and that revalidating with either
+     * returns NOT MODIFIED until the employee changes.
+     * @throws Exception
+     */
+    @Test
+    public void getEmployeeNotModified() throws Exception {
+        String employeeUrl = this.endpoint + this.employeeOne.getId();
+        MvcResult result = this.mockMvc.perform(get(employeeUrl))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn();
+        String etag = result.getResponse().getHeader("ETag");
+        String lastModified = result.getResponse().getHeader("Last-Modified");
+
+        this.mockMvc.perform(get(employeeUrl).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        this.mockMvc.perform(get(employeeUrl).header("If-Modified-Since", lastModified))
+                .andExpect(status().isNotModified());
+
+        this.mockMvc.perform(patch(employeeUrl)
+                .contentType(this.contentType)
+                .content("{\"middleInitial\":\"Q\"}"))
+                .andExpect(status().isOk());
+
+        this.mockMvc.perform(get(employeeUrl).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.middleInitial", is("Q")));
+    }
+
+    /**
+     * Confirm that an update is only applied when its If-Match header matches the employee's current ETag, and that an
+     * update that changes nothing doesn't change the ETag.
+     * @throws Exception
+     */
+    @Test
+    public void updateEmployeeIfMatch() throws Exception {
+        String employeeUrl = this.endpoint + this.employeeOne.getId();
+        String etag = this.mockMvc.perform(get(employeeUrl))
+                .andReturn().getResponse().getHeader("ETag");
+
+        String unchangedJson = json(new Employee(
+                this.employeeOne.getFirstName(), this.employeeOne.getMiddleInitial(), this.employeeOne.getLastName(),
+                this.employeeOne.getDateOfBirth(), this.employeeOne.getDateOfEmployment(), this.employeeOne.getStatus()));
+        this.mockMvc.perform(put(employeeUrl)
+                .header("If-Match", etag)
+                .contentType(this.contentType)
+                .content(unchangedJson))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag));
+
+        String changedJson = json(new Employee(
+                this.employeeOne.getFirstName(), "N", this.employeeOne.getLastName(),
+                this.employeeOne.getDateOfBirth(), this.employeeOne.getDateOfEmployment(), this.employeeOne.getStatus()));
+        String newEtag = this.mockMvc.perform(put(employeeUrl)
+                .header("If-Match", etag)
+                .contentType(this.contentType)
+                .content(changedJson))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // the old ETag is now stale
+        this.mockMvc.perform(put(employeeUrl)
+                .header("If-Match", etag)
+                .contentType(this.contentType)
+                .content(unchangedJson))
+                .andExpect(status().isPreconditionFailed());
+        this.mockMvc.perform(get(employeeUrl))
+                .andExpect(header().string("ETag", newEtag))
+                .andExpect(jsonPath("$.middleInitial", is("N")));
+    }
+
+    /**
+     * Confirm that a patch only changes the supplied fields, that fields which can't be patched are rejected and that
+     * a stale If-Match header is rejected.
+     * @throws Exception
+     */
+    @Test
+    public void patchEmployee() throws Exception {
+        String employeeUrl = this.endpoint + this.employeeOne.getId();
+        String etag = this.mockMvc.perform(get(employeeUrl))
+                .andReturn().getResponse().getHeader("ETag");
+
+        this.mockMvc.perform(patch(employeeUrl)
+                .header("If-Match", etag)
+                .contentType("application/merge-patch+json")
+                .content("{\"lastName\":\"Patched\",\"dateOfBirth\":\"1980-02-03\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName", is(this.employeeOne.getFirstName())))
+                .andExpect(jsonPath("$.lastName", is("Patched")))
+                .andExpect(jsonPath("$.dateOfBirth", is("1980-02-03")));
+
+        Employee patched = this.employeeRepository.findById(this.employeeOne.getId()).get();
+        assertEquals("Patched", patched.getLastName());
+        assertEquals(this.employeeOne.getMiddleInitial(), patched.getMiddleInitial());
+
+        this.mockMvc.perform(patch(employeeUrl)
+                .header("If-Match", etag)
+                .contentType(this.contentType)
+                .content("{\"lastName\":\"Stale\"}"))
+                .andExpect(status().isPreconditionFailed());
+        this.mockMvc.perform(patch(employeeUrl)
+                .contentType(this.contentType)
+                .content("{\"status\":\"INACTIVE\"}"))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(patch(this.endpoint + this.inactiveEmployee.getId())
+                .contentType(this.contentType)
+                .content("{\"lastName\":\"Patched\"}"))
+                .andExpect(status().isNotFound());
+    }
+
     /**
      * Confirm that trying to delete an employee without being authorized isn't allowed.
      * @throws Exception
@@ -225,6 +783,196 @@ public class EmployeeControllerTests {
         assertEquals(this.employeeRepository.findById(employeeId).get().getStatus(), EmployeeStatus.INACTIVE);
     }
 
+    /**
+     * Confirm that a delete with a stale If-Match header is rejected and leaves the employee active.
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(username = username, roles = "USER")
+    public void deleteEmployeeIfMatch() throws Exception {
+        Long employeeId = this.employeeOne.getId();
+
+        this.mockMvc.perform(delete(this.endpoint + employeeId).header("If-Match", "\"-1\""))
+                .andExpect(status().isPreconditionFailed());
+        assertEquals(this.employeeRepository.findById(employeeId).get().getStatus(), EmployeeStatus.ACTIVE);
+
+        this.mockMvc.perform(delete(this.endpoint + employeeId).header("If-Match", "*"))
+                .andExpect(status().isAccepted());
+    }
+
+    /**
+     * Confirm that analytics are rebuilt on request, reflect the employees set up for each test, and follow deletes.
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(username = username, roles = "USER")
+    public void analytics() throws Exception {
+        this.mockMvc.perform(post(this.endpoint + "analytics/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.active", is(2)))
+                .andExpect(jsonPath("$.inactive", is(1)))
+                .andExpect(jsonPath("$.total", is(3)));
+
+        this.mockMvc.perform(delete(this.endpoint + this.employeeOne.getId()))
+                .andExpect(status().isAccepted());
+
+        this.mockMvc.perform(get(this.endpoint + "analytics/headcount"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.active", is(1)))
+                .andExpect(jsonPath("$.inactive", is(2)));
+        this.mockMvc.perform(get(this.endpoint + "analytics/hires").param("period", "month"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.2018-06", is(3)));
+        this.mockMvc.perform(get(this.endpoint + "analytics/hires").param("status", "ACTIVE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.2018", is(1)));
+        this.mockMvc.perform(get(this.endpoint + "analytics/hires").param("period", "week"))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(get(this.endpoint + "analytics/age").param("bucketYears", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Confirm that scans are turned away while the columnar snapshot is disabled, as it is by default.
+     * @throws Exception
+     */
+    @Test
+    public void scanWithoutSnapshot() throws Exception {
+        this.mockMvc.perform(get(this.endpoint + "scan").param("status", "ACTIVE"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+        this.mockMvc.perform(get(this.endpoint + "scan").param("limit", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Confirm that the change feed is turned away while it is disabled, as it is by default.
+     * @throws Exception
+     */
+    @Test
+    public void changesWithoutFeed() throws Exception {
+        this.mockMvc.perform(get(this.endpoint + "changes").param("since", "0"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    /**
+     * Confirm that rebuilding analytics requires authentication.
+     * @throws Exception
+     */
+    @Test
+    public void analyticsRebuildRequiresAuthentication() throws Exception {
+        this.mockMvc.perform(post(this.endpoint + "analytics/rebuild"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    /**
+     * Confirm that a batch of mixed operations is applied and that a result is returned for each operation in order.
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(username = username, roles = "USER")
+    public void batchEmployees() throws Exception {
+        Employee newEmployee = new Employee("Batch", "B", "User",
+                LocalDate.parse("1990-01-02"), LocalDate.parse("2018-06-03"), EmployeeStatus.ACTIVE);
+        Employee updatedEmployee = new Employee("Updated", "U", "User",
+                LocalDate.parse("1985-01-02"), LocalDate.parse("2018-06-03"), EmployeeStatus.ACTIVE);
+
+        String operationsJson = json(Arrays.asList(
+                new EmployeeBatchOperation(EmployeeBatchOperation.Type.CREATE, null, newEmployee),
+                new EmployeeBatchOperation(EmployeeBatchOperation.Type.UPDATE, this.employeeOne.getId(), updatedEmployee),
+                new EmployeeBatchOperation(EmployeeBatchOperation.Type.DEACTIVATE, this.employeeTwo.getId(), null),
+                new EmployeeBatchOperation(EmployeeBatchOperation.Type.DEACTIVATE, this.inactiveEmployee.getId(), null)));
+
+        this.mockMvc.perform(post(this.endpoint + "batch")
+                .contentType(this.contentType)
+                .content(operationsJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(4)))
+                .andExpect(jsonPath("$[0].status", is(201)))
+                .andExpect(jsonPath("$[0].id", notNullValue()))
+                .andExpect(jsonPath("$[1].status", is(200)))
+                .andExpect(jsonPath("$[2].status", is(202)))
+                .andExpect(jsonPath("$[3].status", is(404)));
+
+        // confirm the changes were made
+        assertEquals("Updated", this.employeeRepository.findById(this.employeeOne.getId()).get().getFirstName());
+        assertEquals(EmployeeStatus.INACTIVE, this.employeeRepository.findById(this.employeeTwo.getId()).get().getStatus());
+        this.mockMvc.perform(get(this.endpoint))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].firstName", is("Batch")));
+    }
+
+    /**
+     * Confirm that employees can be sent and received as Smile and CBOR, including list pages and batches, and that
+     * dates are encoded as epoch days.
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(username = username, roles = "USER")
+    public void binaryWireFormats() throws Exception {
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+        ObjectMapper smile = new ObjectMapper(new SmileFactory());
+        long bornOn = LocalDate.parse("1975-04-03").toEpochDay();
+
+        ObjectNode newEmployee = cbor.createObjectNode()
+                .put("firstName", "Binary")
+                .put("lastName", "User")
+                .put("dateOfBirth", bornOn)
+                .put("dateOfEmployment", "2018-06-03");
+        MvcResult created = this.mockMvc.perform(post(this.endpoint)
+                .contentType(WireFormat.APPLICATION_CBOR_VALUE)
+                .accept(WireFormat.APPLICATION_CBOR_VALUE)
+                .content(cbor.writeValueAsBytes(newEmployee)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(WireFormat.APPLICATION_CBOR_VALUE))
+                .andReturn();
+        JsonNode createdEmployee = cbor.readTree(created.getResponse().getContentAsByteArray());
+        assertEquals(bornOn, createdEmployee.get("dateOfBirth").asLong());
+        assertEquals(LocalDate.parse("2018-06-03").toEpochDay(), createdEmployee.get("dateOfEmployment").asLong());
+
+        MvcResult fetched = this.mockMvc.perform(get(this.endpoint + createdEmployee.get("id").asLong())
+                .accept(WireFormat.APPLICATION_SMILE_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(WireFormat.APPLICATION_SMILE_VALUE))
+                .andReturn();
+        JsonNode fetchedEmployee = smile.readTree(fetched.getResponse().getContentAsByteArray());
+        assertEquals("Binary", fetchedEmployee.get("firstName").asText());
+        assertTrue(fetchedEmployee.get("dateOfBirth").isIntegralNumber());
+        assertEquals("ACTIVE", fetchedEmployee.get("status").asText());
+
+        MvcResult page = this.mockMvc.perform(get(this.endpoint).param("fields", "dateOfBirth").param("limit", "1")
+                .header("Accept", "application/json;q=0.5, " + WireFormat.APPLICATION_SMILE_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(WireFormat.APPLICATION_SMILE_VALUE))
+                .andReturn();
+        JsonNode pageEmployees = smile.readTree(page.getResponse().getContentAsByteArray());
+        assertEquals(1, pageEmployees.size());
+        assertEquals(this.employeeOne.getId().longValue(), pageEmployees.get(0).get("id").asLong());
+        assertEquals(this.employeeOne.getDateOfBirth().toEpochDay(), pageEmployees.get(0).get("dateOfBirth").asLong());
+
+        ArrayNode operations = smile.createArrayNode();
+        operations.addObject().put("op", "DEACTIVATE").put("id", this.employeeTwo.getId());
+        MvcResult batch = this.mockMvc.perform(post(this.endpoint + "batch")
+                .contentType(WireFormat.APPLICATION_SMILE_VALUE)
+                .accept(WireFormat.APPLICATION_SMILE_VALUE)
+                .content(smile.writeValueAsBytes(operations)))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(202, smile.readTree(batch.getResponse().getContentAsByteArray()).get(0).get("status").asInt());
+    }
+
+    /**
+     * Confirm that batch calls require authorization since they can deactivate employees.
+     * @throws Exception
+     */
+    @Test
+    public void batchEmployeesWithoutAuth() throws Exception {
+        this.mockMvc.perform(post(this.endpoint + "batch")
+                .contentType(this.contentType)
+                .content("[]"))
+                .andExpect(status().isUnauthorized());
+    }
+
     /**
      *  Convert a POJO to a json representation.
      *
@@ -7,6 +7,7 @@ import org.junit.Test;
 
 import org.mockito.Mockito;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -18,10 +19,11 @@ public class EmployeeCreatorManagerTests {
 
     @Before
     public void setup() {
-        EmployeeCreatorManager.getInstance().registerCreator("json", path -> {
+        EmployeeCreatorManager.getInstance().registerCreator("json", (path, chunkSize, consumer) -> {
             List<Employee> employeeList = new ArrayList<>();
             employeeList.add(Mockito.mock(Employee.class));
-            return employeeList;
+            consumer.accept(employeeList);
+            return employeeList.size();
         });
     }
 
@@ -36,6 +38,18 @@ public class EmployeeCreatorManagerTests {
         assertThat(employees.get(0), instanceOf(Employee.class));
     }
 
+    /**
+     * Ensure that the streaming createEmployees passes chunks from the registered creator to the consumer and reports
+     * how many employees were read.
+     */
+    @Test
+    public void testValidFileTypeStreaming() throws IOException {
+        List<List<Employee>> chunks = new ArrayList<>();
+        long count = EmployeeCreatorManager.getInstance().createEmployees("foo.JSON", 10, chunks::add);
+        assertEquals(count, 1);
+        assertEquals(chunks.size(), 1);
+    }
+
     /**
      * Ensure that the factory's createEmployees throws an IllegalArgumentException for an XML file since we only
      * registered a creator for JSON files.
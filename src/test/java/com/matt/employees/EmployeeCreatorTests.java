@@ -0,0 +1,177 @@
+package com.matt.employees;
+
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.strategies.CsvEmployeeCreator;
+import com.matt.employees.strategies.FixedWidthEmployeeCreator;
+import com.matt.employees.strategies.JsonEmployeeCreator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests to ensure our built in {@link com.matt.employees.strategies.EmployeeCreator} strategies read every employee
+ * from their files and hand them over in chunks of the requested size.
+ */
+public class EmployeeCreatorTests {
+
+    private static final String JSON_PATH = "initial/employees.json";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testJsonCreatorChunks() throws IOException {
+        List<List<Employee>> chunks = new ArrayList<>();
+
+        long count = new JsonEmployeeCreator().createEmployees(JSON_PATH, 2, chunks::add);
+
+        assertEquals(3, count);
+        assertEquals(2, chunks.size());
+        assertEquals(2, chunks.get(0).size());
+        assertEquals(1, chunks.get(1).size());
+    }
+
+    @Test
+    public void testJsonCreatorFields() throws IOException {
+        List<Employee> employees = new ArrayList<>();
+
+        new JsonEmployeeCreator().createEmployees(JSON_PATH, 10, employees::addAll);
+
+        Employee employee = employees.get(0);
+        // IDs in data files are ignored so the database can assign its own.
+        assertNull(employee.getId());
+        assertEquals("George", employee.getFirstName());
+        assertEquals("O", employee.getMiddleInitial());
+        assertEquals("Bluth", employee.getLastName());
+        assertEquals(LocalDate.parse("1965-02-02"), employee.getDateOfBirth());
+        assertEquals(LocalDate.parse("2018-01-01"), employee.getDateOfEmployment());
+        assertEquals(EmployeeStatus.ACTIVE, employee.getStatus());
+    }
+
+    @Test
+    public void testCsvCreatorFields() throws IOException {
+        File file = write("employees.csv", "firstName,middleInitial,lastName,dateOfBirth,dateOfEmployment,status\r\n"
+                + "George,O,Bluth,1965-02-02,2018-01-01,ACTIVE\r\n"
+                + "Lindsay,,Fünke,1970-03-04,2018-02-03,\r\n"
+                + "Oscar,R,Bluth,1960-05-06,2018-03-04,INACTIVE");
+        List<Employee> employees = new ArrayList<>();
+
+        long count = new CsvEmployeeCreator(2).createEmployees(file.getPath(), 10, employees::addAll);
+
+        assertEquals(3, count);
+        Employee employee = employees.get(1);
+        assertEquals("Lindsay", employee.getFirstName());
+        assertNull(employee.getMiddleInitial());
+        assertEquals("Fünke", employee.getLastName());
+        assertEquals(LocalDate.parse("1970-03-04"), employee.getDateOfBirth());
+        assertEquals(LocalDate.parse("2018-02-03"), employee.getDateOfEmployment());
+        assertEquals(EmployeeStatus.ACTIVE, employee.getStatus());
+        assertEquals(EmployeeStatus.INACTIVE, employees.get(2).getStatus());
+    }
+
+    @Test(expected = IOException.class)
+    public void testCsvCreatorMalformedDate() throws IOException {
+        File file = write("employees.csv", "firstName,middleInitial,lastName,dateOfBirth,dateOfEmployment,status\n"
+                + "George,O,Bluth,02/02/1965,2018-01-01,ACTIVE\n");
+
+        new CsvEmployeeCreator(2).createEmployees(file.getPath(), 10, chunk -> {});
+    }
+
+    /**
+     * Ensure that files large enough to be split into several segments are parsed in parallel without losing or
+     * duplicating any records at the segment boundaries.
+     */
+    @Test
+    public void testCsvCreatorParallelSegments() throws IOException {
+        int rows = 50000;
+        File file = folder.newFile("large.csv");
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            writer.println("firstName,middleInitial,lastName,dateOfBirth,dateOfEmployment,status");
+            for (int i = 0; i < rows; i++) {
+                writer.println("First" + i + ",M,Last" + i + ",1980-01-01,2018-01-01,ACTIVE");
+            }
+        }
+        List<Employee> employees = Collections.synchronizedList(new ArrayList<>());
+
+        long count = new CsvEmployeeCreator(4).createEmployees(file.getPath(), 1000, employees::addAll);
+
+        Set<String> names = new HashSet<>();
+        employees.forEach(employee -> names.add(employee.getFirstName()));
+        assertEquals(rows, count);
+        assertEquals(rows, names.size());
+    }
+
+    /**
+     * Ensure that reading in order hands over a file's segments one at a time, on the calling thread, in file order.
+     */
+    @Test
+    public void testCsvCreatorInOrder() throws IOException {
+        int rows = 50000;
+        File file = folder.newFile("large.csv");
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            writer.println("firstName,middleInitial,lastName,dateOfBirth,dateOfEmployment,status");
+            for (int i = 0; i < rows; i++) {
+                writer.println("First" + i + ",M,Last" + i + ",1980-01-01,2018-01-01,ACTIVE");
+            }
+        }
+        Thread caller = Thread.currentThread();
+        List<Employee> employees = new ArrayList<>();
+
+        long count = new CsvEmployeeCreator(4).createEmployeesInOrder(file.getPath(), 1000, chunk -> {
+            assertSame(caller, Thread.currentThread());
+            employees.addAll(chunk);
+        });
+
+        assertEquals(rows, count);
+        assertEquals(rows, employees.size());
+        for (int i = 0; i < rows; i++) {
+            assertEquals("First" + i, employees.get(i).getFirstName());
+        }
+    }
+
+    @Test
+    public void testFixedWidthCreatorFields() throws IOException {
+        File file = write("employees.dat",
+                "George              OBluth               1965-02-02" + "2018-01-01ACTIVE  \n"
+                + "Oscar               RBluth               1960-05-06" + "2018-03-04INACTIVE\n"
+                + "Buster               Bluth               1972-02-02" + "2018-01-15\n");
+        List<Employee> employees = new ArrayList<>();
+
+        long count = new FixedWidthEmployeeCreator(2).createEmployees(file.getPath(), 10, employees::addAll);
+
+        assertEquals(3, count);
+        Employee employee = employees.get(0);
+        assertEquals("George", employee.getFirstName());
+        assertEquals("O", employee.getMiddleInitial());
+        assertEquals("Bluth", employee.getLastName());
+        assertEquals(LocalDate.parse("1965-02-02"), employee.getDateOfBirth());
+        assertEquals(LocalDate.parse("2018-01-01"), employee.getDateOfEmployment());
+        assertEquals(EmployeeStatus.ACTIVE, employee.getStatus());
+        assertEquals(EmployeeStatus.INACTIVE, employees.get(1).getStatus());
+        assertNull(employees.get(2).getMiddleInitial());
+        assertEquals(EmployeeStatus.ACTIVE, employees.get(2).getStatus());
+    }
+
+    private File write(String name, String contents) throws IOException {
+        File file = folder.newFile(name);
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
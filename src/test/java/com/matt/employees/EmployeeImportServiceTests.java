@@ -0,0 +1,178 @@
+package com.matt.employees;
+
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeImportCheckpoint;
+import com.matt.employees.models.EmployeeImportResult;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.repositories.EmployeeImportCheckpointRepository;
+import com.matt.employees.repositories.EmployeeRepository;
+import com.matt.employees.services.EmployeeImportService;
+import com.matt.employees.services.EmployeeImportWatcher;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests to ensure the {@link EmployeeImportService} only writes the records that are new or have changed, skips files
+ * it has already imported and resumes an interrupted import from its checkpoint, and that the
+ * {@link EmployeeImportWatcher} imports files dropped into its directory.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = EmployeesApplication.class)
+public class EmployeeImportServiceTests {
+
+    private static final String LAST_NAME = "Importson";
+    private static final String HEADER = "firstName,middleInitial,lastName,dateOfBirth,dateOfEmployment,status\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Autowired
+    private EmployeeImportService employeeImportService;
+    @Autowired
+    private EmployeeImportCheckpointRepository checkpointRepository;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Before
+    public void setup() {
+        this.checkpointRepository.deleteAll();
+        this.employeeRepository.deleteAll(importedEmployees().values());
+    }
+
+    @Test
+    public void importWritesOnlyChanges() throws IOException {
+        File file = write("employees.csv", HEADER
+                + "Anne,A,Importson,1980-01-01,2018-01-01,ACTIVE\n"
+                + "Bob,B,Importson,1981-02-02,2018-02-02,ACTIVE\n"
+                + "Cal,,Importson,1982-03-03,2018-03-03,ACTIVE\n");
+
+        EmployeeImportResult result = this.employeeImportService.importFile(file.toPath());
+        assertEquals(3, result.getCreated());
+        Map<String, Employee> imported = importedEmployees();
+        assertEquals(3, imported.size());
+
+        // the same records again, with Bob deactivated and Cal's date of employment corrected
+        write("employees.csv", HEADER
+                + "Anne,A,Importson,1980-01-01,2018-01-01,ACTIVE\n"
+                + "Bob,B,Importson,1981-02-02,2018-02-02,INACTIVE\n"
+                + "Cal,,Importson,1982-03-03,2018-04-04,ACTIVE\n"
+                + "Dee,D,Importson,1983-04-04,2018-05-05,\n");
+        result = this.employeeImportService.importFile(file.toPath());
+
+        assertFalse(result.isAlreadyImported());
+        assertEquals(1, result.getCreated());
+        assertEquals(2, result.getUpdated());
+        assertEquals(1, result.getUnchanged());
+
+        Map<String, Employee> reimported = importedEmployees();
+        assertEquals(4, reimported.size());
+        // unchanged records aren't written, so their version stays the same
+        assertEquals(imported.get("Anne").getVersion(), reimported.get("Anne").getVersion());
+        assertEquals(imported.get("Bob").getId(), reimported.get("Bob").getId());
+        assertEquals(EmployeeStatus.INACTIVE, reimported.get("Bob").getStatus());
+        assertEquals(LocalDate.parse("2018-04-04"), reimported.get("Cal").getDateOfEmployment());
+        assertEquals(EmployeeStatus.ACTIVE, reimported.get("Dee").getStatus());
+    }
+
+    @Test
+    public void importSkipsFilesAlreadyImported() throws IOException {
+        File file = write("employees.csv", HEADER + "Anne,A,Importson,1980-01-01,2018-01-01,ACTIVE\n");
+        this.employeeImportService.importFile(file.toPath());
+
+        EmployeeImportResult result = this.employeeImportService.importFile(file.toPath());
+        assertTrue(result.isAlreadyImported());
+
+        // touching the file is enough to have it read again, but nothing in it has changed
+        Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(file.lastModified() + 1000));
+        result = this.employeeImportService.importFile(file.toPath());
+        assertFalse(result.isAlreadyImported());
+        assertEquals(0, result.getCreated() + result.getUpdated());
+        assertEquals(1, result.getUnchanged());
+    }
+
+    @Test
+    public void importResumesFromCheckpoint() throws IOException {
+        File file = write("employees.json", "["
+                + "{\"firstName\":\"Anne\",\"lastName\":\"Importson\",\"dateOfBirth\":\"1980-01-01\"},"
+                + "{\"firstName\":\"Bob\",\"lastName\":\"Importson\",\"dateOfBirth\":\"1981-02-02\"},"
+                + "{\"firstName\":\"Cal\",\"lastName\":\"Importson\",\"dateOfBirth\":\"1982-03-03\"}]");
+        // an earlier import applied the first two records and then stopped
+        EmployeeImportCheckpoint checkpoint = new EmployeeImportCheckpoint(file.getName(), file.length(),
+                Files.getLastModifiedTime(file.toPath()).toInstant());
+        checkpoint.addRecordsApplied(2);
+        this.checkpointRepository.save(checkpoint);
+
+        EmployeeImportResult result = this.employeeImportService.importFile(file.toPath());
+
+        assertEquals(2, result.getResumedAfter());
+        assertEquals(1, result.getCreated());
+        assertEquals(Collections.singleton("Cal"), importedEmployees().keySet());
+        checkpoint = this.checkpointRepository.findById(file.getName()).get();
+        assertTrue(checkpoint.isCompleted());
+        assertEquals(3, checkpoint.getRecordsApplied());
+    }
+
+    @Test
+    public void watcherImportsNewFiles() throws Exception {
+        EmployeeImportWatcher watcher = new EmployeeImportWatcher(this.employeeImportService,
+                this.folder.getRoot().getPath(), 100);
+        watcher.start();
+        try {
+            write("employees.csv", HEADER + "Anne,A,Importson,1980-01-01,2018-01-01,ACTIVE\n");
+            // files without a creator are left alone
+            write("notes.txt", "Anne,A,Importson,1980-01-01,2018-01-01,ACTIVE\n");
+
+            long deadline = System.currentTimeMillis() + 10000;
+            while (!this.checkpointRepository.findById("employees.csv").map(EmployeeImportCheckpoint::isCompleted)
+                    .orElse(false) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(Collections.singleton("Anne"), importedEmployees().keySet());
+            assertFalse(this.checkpointRepository.existsById("notes.txt"));
+        } finally {
+            watcher.stop();
+        }
+    }
+
+    private File write(String name, String contents) throws IOException {
+        Path path = this.folder.getRoot().toPath().resolve(name);
+        Files.write(path, contents.getBytes(StandardCharsets.UTF_8));
+        return path.toFile();
+    }
+
+    private Map<String, Employee> importedEmployees() {
+        Map<String, Employee> employees = new HashMap<>();
+        List<Employee> found = this.employeeRepository.findByLastNameInAndDateOfBirthIn(
+                Collections.singleton(LAST_NAME), datesOfBirth());
+        for (Employee employee : found) {
+            employees.put(employee.getFirstName(), employee);
+        }
+        return employees;
+    }
+
+    private static List<LocalDate> datesOfBirth() {
+        return Arrays.asList(LocalDate.parse("1980-01-01"), LocalDate.parse("1981-02-02"),
+                LocalDate.parse("1982-03-03"), LocalDate.parse("1983-04-04"));
+    }
+}
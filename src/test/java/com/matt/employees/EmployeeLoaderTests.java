@@ -0,0 +1,71 @@
+package com.matt.employees;
+
+import com.matt.employees.models.Employee;
+import com.matt.employees.services.EmployeeLoader;
+import com.matt.employees.services.EmployeeService;
+import com.matt.employees.strategies.EmployeeCreatorManager;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests to ensure the {@link EmployeeLoader} saves every chunk produced by a creator and never has more chunks in flight
+ * than it's configured to allow. The {@link EmployeeService} is mocked so these tests don't need a database.
+ */
+public class EmployeeLoaderTests {
+
+    private static final int CHUNKS = 50;
+    private static final int MAX_PENDING_CHUNKS = 2;
+
+    private EmployeeService employeeService;
+    private EmployeeLoader employeeLoader;
+
+    @Before
+    public void setup() {
+        this.employeeService = mock(EmployeeService.class);
+        this.employeeLoader = new EmployeeLoader(this.employeeService, 10, 2, MAX_PENDING_CHUNKS);
+
+        EmployeeCreatorManager.getInstance().registerCreator("chunks", (path, chunkSize, consumer) -> {
+            for (int i = 0; i < CHUNKS; i++) {
+                List<Employee> chunk = new ArrayList<>(Collections.nCopies(chunkSize, mock(Employee.class)));
+                consumer.accept(chunk);
+            }
+            return (long) CHUNKS * chunkSize;
+        });
+    }
+
+    @Test
+    public void testLoadSavesEveryChunk() throws IOException {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(this.employeeService.save(anyList())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(1);
+            inFlight.decrementAndGet();
+            return invocation.getArgument(0);
+        });
+
+        long saved = this.employeeLoader.load("foo.chunks");
+
+        assertEquals(CHUNKS * 10, saved);
+        verify(this.employeeService, times(CHUNKS)).save(anyList());
+        assertTrue(maxInFlight.get() <= MAX_PENDING_CHUNKS);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testLoadFailsWhenSaveFails() throws IOException {
+        when(this.employeeService.save(anyList())).thenThrow(new RuntimeException("database unavailable"));
+
+        this.employeeLoader.load("foo.chunks");
+    }
+}
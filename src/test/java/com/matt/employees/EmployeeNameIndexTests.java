@@ -0,0 +1,83 @@
+package com.matt.employees;
+
+import com.matt.employees.events.EmployeeChangedEvent;
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeNameMatch;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.services.EmployeeNameIndex;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EmployeeNameIndexTests {
+
+    private EmployeeNameIndex index;
+
+    @Before
+    public void setup() {
+        this.index = new EmployeeNameIndex(null, true);
+        change(1, "Katherine", "A", "Johnson", EmployeeStatus.ACTIVE, 0);
+        change(2, "Catherine", "B", "Jonson", EmployeeStatus.ACTIVE, 0);
+        change(3, "John", "K", "Smith", EmployeeStatus.ACTIVE, 0);
+        change(4, "José", null, "Núñez-García", EmployeeStatus.ACTIVE, 0);
+    }
+
+    @Test
+    public void matchesTyposRankedByScore() {
+        List<EmployeeNameMatch> matches = this.index.search("Kathrine Johnsen", 10);
+        assertEquals(2, matches.size());
+        assertEquals(1, matches.get(0).getId());
+        assertEquals("Katherine", matches.get(0).getFirstName());
+        assertEquals("Johnson", matches.get(0).getLastName());
+        assertEquals(2, matches.get(1).getId());
+        assertTrue(matches.get(0).getScore() > matches.get(1).getScore());
+
+        // An exact match counts for more than a typo, and a last name match for more than a first name match.
+        change(5, "Johnson", null, "Wu", EmployeeStatus.ACTIVE, 0);
+        matches = this.index.search("johnson", 10);
+        assertEquals(3, matches.size());
+        assertEquals(1, matches.get(0).getId());
+        assertEquals(5, matches.get(1).getId());
+        assertEquals(2, matches.get(2).getId());
+        assertEquals(1, this.index.search("johnson", 1).get(0).getId());
+
+        assertTrue(this.index.search("xyzzy", 10).isEmpty());
+        assertTrue(this.index.search(" - ", 10).isEmpty());
+    }
+
+    @Test
+    public void matchesWithoutAccents() {
+        List<EmployeeNameMatch> matches = this.index.search("jose nunez", 10);
+        assertEquals(1, matches.size());
+        assertEquals(4, matches.get(0).getId());
+        assertEquals("Núñez-García", matches.get(0).getLastName());
+
+        assertEquals(4, this.index.search("GARCIA", 10).get(0).getId());
+    }
+
+    @Test
+    public void followsChanges() {
+        change(3, "John", "K", "Smyth", EmployeeStatus.ACTIVE, 1);
+        assertEquals("Smyth", this.index.search("smith", 10).get(0).getLastName());
+        assertTrue(this.index.search("smith", 10).stream().allMatch(match -> match.getId() == 3));
+
+        // A change older than the one already indexed is ignored.
+        change(3, "John", "K", "Smith", EmployeeStatus.ACTIVE, 0);
+        assertEquals("Smyth", this.index.search("smyth", 10).get(0).getLastName());
+
+        int termCount = this.index.termCount();
+        change(3, "John", "K", "Smyth", EmployeeStatus.INACTIVE, 2);
+        assertTrue(this.index.search("smyth", 10).isEmpty());
+        assertEquals(termCount - 3, this.index.termCount());
+    }
+
+    private void change(long id, String firstName, String middleInitial, String lastName, EmployeeStatus status,
+                        long version) {
+        Employee employee = Employee.restore(id, firstName, middleInitial, lastName, null, null, status, version,
+                null);
+        this.index.onEmployeeChanged(new EmployeeChangedEvent(employee, EmployeeChangedEvent.Type.UPDATED));
+    }
+}
@@ -1,11 +1,18 @@
 package com.matt.employees;
 
+import com.matt.employees.config.CacheConfig;
+import com.matt.employees.events.EmployeeChangedEvent;
 import com.matt.employees.models.Employee;
 import com.matt.employees.models.EmployeeStatus;
 import com.matt.employees.repositories.EmployeeRepository;
+import com.matt.employees.services.ActiveEmployeeIndex;
 import com.matt.employees.services.EmployeeService;
+import com.matt.employees.services.EmployeeWriteBehind;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -22,6 +29,8 @@ import static org.mockito.Mockito.*;
 public class EmployeeServiceTests {
     private EmployeeService employeeService;
     private EmployeeRepository employeeRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private ActiveEmployeeIndex activeEmployeeIndex;
 
     private Employee activeEmployee;
     private List<Employee> employees;
@@ -29,8 +38,12 @@ public class EmployeeServiceTests {
     @Before
     public void setup() {
         this.employeeRepository = mock(EmployeeRepository.class);
-        this.employeeService = new EmployeeService(employeeRepository);
+        this.eventPublisher = mock(ApplicationEventPublisher.class);
+        this.activeEmployeeIndex = mock(ActiveEmployeeIndex.class);
+        this.employeeService = new EmployeeService(employeeRepository, eventPublisher, activeEmployeeIndex,
+                mock(EmployeeWriteBehind.class), new ConcurrentMapCacheManager(CacheConfig.ACTIVE_EMPLOYEES_CACHE));
         this.activeEmployee = mock(Employee.class);
+        when(this.activeEmployee.getId()).thenReturn(1L);
         this.employees = new ArrayList<>();
         this.employees.add(this.activeEmployee);
     }
@@ -60,6 +73,31 @@ public class EmployeeServiceTests {
         assertEquals(returnedEmployee.get(), this.activeEmployee);
     }
 
+    @Test
+    public void testGetActiveEmployeeCached() {
+        when(this.employeeRepository.findByIdAndStatus(this.activeEmployee.getId(), EmployeeStatus.ACTIVE))
+                .thenReturn(Optional.of(this.activeEmployee));
+
+        this.employeeService.getActiveEmployee(this.activeEmployee.getId());
+        Optional<Employee> returnedEmployee = this.employeeService.getActiveEmployee(this.activeEmployee.getId());
+
+        // Confirm that the second lookup was answered from the cache
+        verify(this.employeeRepository, times(1)).findByIdAndStatus(this.activeEmployee.getId(), EmployeeStatus.ACTIVE);
+        assertEquals(returnedEmployee.get(), this.activeEmployee);
+    }
+
+    @Test
+    public void testGetActiveEmployeeFromIndex() {
+        when(this.activeEmployeeIndex.isServing()).thenReturn(true);
+        when(this.activeEmployeeIndex.get(this.activeEmployee.getId())).thenReturn(Optional.of(this.activeEmployee));
+
+        Optional<Employee> returnedEmployee = this.employeeService.getActiveEmployee(this.activeEmployee.getId());
+
+        // Confirm that the database isn't touched while the index is serving
+        verifyZeroInteractions(this.employeeRepository);
+        assertEquals(returnedEmployee.get(), this.activeEmployee);
+    }
+
     @Test
     public void testSaveSingleEmployee() {
         when(this.employeeRepository.save(this.activeEmployee)).thenReturn(this.activeEmployee);
@@ -72,6 +110,21 @@ public class EmployeeServiceTests {
         assertEquals(savedEmployee, this.activeEmployee);
     }
 
+    @Test
+    public void testSavePublishesChange() {
+        when(this.activeEmployee.getId()).thenReturn(1L);
+        when(this.activeEmployee.getStatus()).thenReturn(EmployeeStatus.INACTIVE);
+        when(this.employeeRepository.save(this.activeEmployee)).thenReturn(this.activeEmployee);
+
+        this.employeeService.save(this.activeEmployee);
+
+        // Confirm that listeners are told the employee was deactivated
+        ArgumentCaptor<EmployeeChangedEvent> event = ArgumentCaptor.forClass(EmployeeChangedEvent.class);
+        verify(this.eventPublisher).publishEvent(event.capture());
+        assertEquals(event.getValue().getEmployee(), this.activeEmployee);
+        assertEquals(event.getValue().getType(), EmployeeChangedEvent.Type.DEACTIVATED);
+    }
+
     @Test
     public void testSaveMultipleEmployees() {
         when(this.employeeRepository.saveAll(this.employees)).thenReturn(this.employees);
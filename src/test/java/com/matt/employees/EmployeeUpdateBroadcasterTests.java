@@ -0,0 +1,328 @@
+package com.matt.employees;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matt.employees.events.EmployeeChangedEvent;
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.services.EmployeeService;
+import com.matt.employees.services.EmployeeUpdateBroadcaster;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+/**
+ * Tests to ensure that changes saved through {@link EmployeeService} are pushed to subscribers of
+ * {@code GET /employees/updates}, that subscribers only get the updates they asked for, that subscribers that can't
+ * keep up have their updates coalesced and are eventually dropped without holding up the writers, and that subscribers
+ * that stop reading are dropped without holding up anyone else.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = EmployeesApplication.class)
+public class EmployeeUpdateBroadcasterTests {
+
+    private static final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+    @Autowired
+    private EmployeeService employeeService;
+
+    private MockMvc mockMvc;
+    private final List<EmployeeUpdateBroadcaster> broadcasters = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        this.mockMvc = webAppContextSetup(this.webApplicationContext).apply(springSecurity()).build();
+    }
+
+    @After
+    public void tearDown() {
+        for (EmployeeUpdateBroadcaster broadcaster : this.broadcasters) {
+            broadcaster.stop();
+        }
+    }
+
+    @Test
+    public void pushesSavesToSubscribersThroughTheEndpoint() throws Exception {
+        MvcResult subscription = this.mockMvc.perform(get("/employees/updates").param("status", "ACTIVE"))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("Content-Type", "text/event-stream;charset=UTF-8"))
+                .andReturn();
+
+        Employee created = this.employeeService.save(new Employee("Pushed", "P", "Update",
+                LocalDate.parse("1980-01-01"), LocalDate.parse("2018-01-01"), EmployeeStatus.ACTIVE));
+        this.employeeService.save(new Employee("Hidden", "H", "Update", LocalDate.parse("1980-01-01"),
+                LocalDate.parse("2018-01-01"), EmployeeStatus.INACTIVE));
+        Employee employee = this.employeeService.getActiveEmployeeForUpdate(created.getId()).get();
+        employee.setStatus(EmployeeStatus.INACTIVE);
+        this.employeeService.save(employee);
+
+        awaitTrue(() -> updates(contentOf(subscription)).size() >= 2);
+        List<JsonNode> updates = updates(contentOf(subscription));
+        assertEquals(2, updates.size());
+        assertEquals("CREATED", updates.get(0).get("type").asText());
+        assertEquals("Pushed", updates.get(0).get("employee").get("firstName").asText());
+        assertEquals("2018-01-01", updates.get(0).get("employee").get("dateOfEmployment").asText());
+        assertEquals("DEACTIVATED", updates.get(1).get("type").asText());
+        assertEquals(created.getId().longValue(), updates.get(1).get("employee").get("id").asLong());
+        assertEquals(1, updates.get(1).get("version").asLong());
+
+        this.mockMvc.perform(get("/employees/updates").param("ids", ""))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void sendsSubscribersOnlyTheUpdatesTheyAskedFor() throws Exception {
+        EmployeeUpdateBroadcaster broadcaster = newBroadcaster(3, 100);
+        RecordingEmitter active = subscribe(broadcaster, EmployeeStatus.ACTIVE, null);
+        RecordingEmitter inactive = subscribe(broadcaster, EmployeeStatus.INACTIVE, null);
+        RecordingEmitter second = subscribe(broadcaster, null, Collections.singleton(2L));
+        try {
+            subscribe(broadcaster, null, null);
+            fail("Expected the subscriber limit to be enforced");
+        } catch (RejectedExecutionException e) {
+            assertEquals(3, broadcaster.getSubscriberCount());
+        }
+
+        change(broadcaster, 1, 0, EmployeeStatus.ACTIVE, EmployeeChangedEvent.Type.CREATED);
+        change(broadcaster, 2, 0, EmployeeStatus.INACTIVE, EmployeeChangedEvent.Type.CREATED);
+        change(broadcaster, 3, 4, EmployeeStatus.INACTIVE, EmployeeChangedEvent.Type.DEACTIVATED);
+
+        awaitTrue(() -> active.updateIds().size() == 2 && inactive.updateIds().size() == 2
+                && second.updateIds().size() == 1);
+        assertEquals(Arrays.asList(1L, 3L), active.updateIds());
+        assertEquals(Arrays.asList(2L, 3L), inactive.updateIds());
+        assertEquals(Collections.singletonList(2L), second.updateIds());
+    }
+
+    @Test
+    public void coalescesUpdatesForSubscribersThatFallBehind() throws Exception {
+        EmployeeUpdateBroadcaster broadcaster = newBroadcaster(10, 3);
+        RecordingEmitter slow = subscribe(broadcaster, null, null, new CountDownLatch(1));
+        slow.awaitFirstSend();
+
+        // the delivery thread is stuck sending to the subscriber, but changes carry on being made
+        change(broadcaster, 1, 0, EmployeeStatus.ACTIVE, EmployeeChangedEvent.Type.CREATED);
+        change(broadcaster, 1, 1, EmployeeStatus.ACTIVE, EmployeeChangedEvent.Type.UPDATED);
+        change(broadcaster, 2, 0, EmployeeStatus.ACTIVE, EmployeeChangedEvent.Type.CREATED);
+        change(broadcaster, 1, 2, EmployeeStatus.INACTIVE, EmployeeChangedEvent.Type.DEACTIVATED);
+        change(broadcaster, 3, 0, EmployeeStatus.ACTIVE, EmployeeChangedEvent.Type.CREATED);
+        // an older update arriving late doesn't replace a newer one
+        change(broadcaster, 1, 1, EmployeeStatus.ACTIVE, EmployeeChangedEvent.Type.UPDATED);
+        slow.release();
+
+        awaitTrue(() -> slow.updates().size() == 3);
+        List<JsonNode> updates = slow.updates();
+        assertEquals(Arrays.asList(1L, 2L, 3L), slow.updateIds());
+        assertEquals("DEACTIVATED", updates.get(0).get("type").asText());
+        assertEquals(2, updates.get(0).get("version").asLong());
+        assertEquals(1, broadcaster.getSubscriberCount());
+        assertFalse(slow.completed);
+
+        // nor does one arriving after the newer one was sent
+        change(broadcaster, 1, 1, EmployeeStatus.ACTIVE, EmployeeChangedEvent.Type.UPDATED);
+        change(broadcaster, 4, 0, EmployeeStatus.ACTIVE, EmployeeChangedEvent.Type.CREATED);
+        awaitTrue(() -> slow.updates().size() == 4);
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L), slow.updateIds());
+    }
+
+    @Test
+    public void dropsSubscribersThatFallTooFarBehind() throws Exception {
+        EmployeeUpdateBroadcaster broadcaster = newBroadcaster(10, 3);
+        RecordingEmitter slow = subscribe(broadcaster, null, null, new CountDownLatch(1));
+        RecordingEmitter fast = subscribe(broadcaster, null, null);
+        slow.awaitFirstSend();
+
+        // other subscribers aren't held up, as the delivery pool has a thread to spare. Each change is waited for, as a
+        // burst of more employees than the queue holds would drop a subscriber that keeps up too.
+        for (long id = 1; id <= 4; id++) {
+            change(broadcaster, id, 0, EmployeeStatus.ACTIVE, EmployeeChangedEvent.Type.CREATED);
+            int expected = (int) id;
+            awaitTrue(() -> fast.updateIds().size() == expected);
+        }
+        assertEquals(1, broadcaster.getSubscriberCount());
+        slow.release();
+
+        awaitTrue(() -> slow.completed);
+        assertTrue(slow.updates().isEmpty());
+        assertTrue(slow.events.stream().anyMatch(event -> event.startsWith("event:dropped")));
+        assertFalse(fast.completed);
+    }
+
+    @Test
+    public void dropsSubscribersThatStopReadingWithoutHoldingUpOthers() throws Exception {
+        // a single delivery thread, which the stalled subscriber keeps stuck
+        EmployeeUpdateBroadcaster broadcaster = newBroadcaster(10, 100, 1, 100);
+        RecordingEmitter stalled = subscribe(broadcaster, null, null, new CountDownLatch(1));
+        stalled.awaitFirstSend();
+        RecordingEmitter reading = subscribe(broadcaster, null, null);
+
+        change(broadcaster, 1, 0, EmployeeStatus.ACTIVE, EmployeeChangedEvent.Type.CREATED);
+        awaitTrue(() -> reading.updateIds().size() == 1);
+        assertEquals(1, broadcaster.getSubscriberCount());
+
+        // once its send comes back it's ended, and has to subscribe again
+        stalled.release();
+        awaitTrue(() -> stalled.completed);
+        change(broadcaster, 2, 0, EmployeeStatus.ACTIVE, EmployeeChangedEvent.Type.CREATED);
+        awaitTrue(() -> reading.updateIds().size() == 2);
+        assertFalse(stalled.updateIds().contains(2L));
+    }
+
+    private EmployeeUpdateBroadcaster newBroadcaster(int maxSubscribers, int queueCapacity) {
+        return newBroadcaster(maxSubscribers, queueCapacity, 2, 60000);
+    }
+
+    private EmployeeUpdateBroadcaster newBroadcaster(int maxSubscribers, int queueCapacity, int deliveryThreads,
+                                                     long sendTimeoutMillis) {
+        EmployeeUpdateBroadcaster broadcaster = new EmployeeUpdateBroadcaster(objectMapper, new SimpleMeterRegistry(),
+                true, maxSubscribers, queueCapacity, deliveryThreads, 3600, 60000, sendTimeoutMillis);
+        broadcaster.start();
+        this.broadcasters.add(broadcaster);
+        return broadcaster;
+    }
+
+    private static RecordingEmitter subscribe(EmployeeUpdateBroadcaster broadcaster, EmployeeStatus status,
+                                              Set<Long> ids) {
+        return subscribe(broadcaster, status, ids, null);
+    }
+
+    private static RecordingEmitter subscribe(EmployeeUpdateBroadcaster broadcaster, EmployeeStatus status,
+                                              Set<Long> ids, CountDownLatch gate) {
+        RecordingEmitter emitter = new RecordingEmitter(gate);
+        broadcaster.subscribe(emitter, status, ids);
+        return emitter;
+    }
+
+    private static void change(EmployeeUpdateBroadcaster broadcaster, long id, long version, EmployeeStatus status,
+                               EmployeeChangedEvent.Type type) {
+        Employee employee = Employee.restore(id, "Broadcast", "B", "Listener", LocalDate.parse("1980-01-01"),
+                LocalDate.parse("2018-01-01"), status, version, null);
+        broadcaster.onEmployeeChanged(new EmployeeChangedEvent(employee, type));
+    }
+
+    private static String contentOf(MvcResult result) {
+        try {
+            return result.getResponse().getContentAsString();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<JsonNode> updates(String stream) {
+        List<String> events = new ArrayList<>(Arrays.asList(stream.split("\n\n")));
+        return parseUpdates(events);
+    }
+
+    private static List<JsonNode> parseUpdates(List<String> events) {
+        List<JsonNode> updates = new ArrayList<>();
+        for (String event : events) {
+            if (event.startsWith("data:")) {
+                try {
+                    updates.add(objectMapper.readTree(event.substring("data:".length()).trim()));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return updates;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue("Timed out waiting for updates", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Records the events sent through it instead of writing them to a response. With a gate, the first send waits for
+     * the gate to open, like a client that has stopped reading.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final CountDownLatch gate;
+        private final CountDownLatch firstSend = new CountDownLatch(1);
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private volatile boolean completed;
+
+        RecordingEmitter(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            StringBuilder event = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                event.append(data.getData());
+            }
+            this.firstSend.countDown();
+            if (this.gate != null) {
+                try {
+                    this.gate.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            this.events.add(event.toString());
+        }
+
+        @Override
+        public synchronized void complete() {
+            this.completed = true;
+            super.complete();
+        }
+
+        void awaitFirstSend() throws InterruptedException {
+            assertTrue(this.firstSend.await(10, TimeUnit.SECONDS));
+        }
+
+        void release() {
+            this.gate.countDown();
+        }
+
+        List<JsonNode> updates() {
+            return parseUpdates(this.events);
+        }
+
+        List<Long> updateIds() {
+            List<Long> ids = new ArrayList<>();
+            for (JsonNode update : updates()) {
+                ids.add(update.get("employee").get("id").asLong());
+            }
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.matt.employees;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeBatchOperation;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.repositories.EmployeeRepository;
+import com.matt.employees.services.EmployeeService;
+import com.matt.employees.services.EmployeeWriteBehind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+/**
+ * Tests to ensure that with the {@link EmployeeWriteBehind} buffer enabled, saves are readable straight away and reach
+ * the database once flushed, that stale writes are rejected whether or not they've been flushed, that list saves don't
+ * overwrite buffered writes, that the bulk endpoint's updates and deactivations reach the database, and that writes
+ * left in the log are replayed.
+ * Scheduled flushes are pushed far enough apart that only the tests flush.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = EmployeesApplication.class, properties = {
+        "employees.write-behind.enabled=true",
+        "employees.write-behind.directory=target/write-behind-tests",
+        "employees.write-behind.flush-interval-ms=3600000"
+})
+public class EmployeeWriteBehindTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private EmployeeWriteBehind writeBehind;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<EmployeeWriteBehind> replayed = new ArrayList<>();
+
+    @After
+    public void tearDown() throws Exception {
+        this.writeBehind.flush();
+        for (EmployeeWriteBehind writeBehind : this.replayed) {
+            writeBehind.stop();
+        }
+    }
+
+    @Test
+    public void writesAreReadableBeforeTheyAreFlushed() {
+        Employee created = this.employeeService.save(newEmployee("Wendy"));
+        assertNotNull(created.getId());
+        assertEquals(Long.valueOf(0), created.getVersion());
+        assertFalse(this.employeeRepository.findById(created.getId()).isPresent());
+        assertEquals("Wendy", this.employeeService.getActiveEmployee(created.getId()).get().getFirstName());
+
+        // two more writes before the flush are merged into the create
+        Employee employee = this.employeeService.getActiveEmployeeForUpdate(created.getId()).get();
+        employee.setFirstName("Wanda");
+        this.employeeService.save(employee);
+        employee = this.employeeService.getActiveEmployeeForUpdate(created.getId()).get();
+        employee.setDateOfEmployment(LocalDate.parse("2018-06-01"));
+        Employee updated = this.employeeService.save(employee);
+        assertEquals(Long.valueOf(2), updated.getVersion());
+        assertEquals(1, this.writeBehind.getPendingCount());
+
+        assertEquals(1, this.writeBehind.flush());
+        assertEquals(0, this.writeBehind.getPendingCount());
+        Employee stored = this.employeeRepository.findById(created.getId()).get();
+        assertEquals("Wanda", stored.getFirstName());
+        assertEquals(LocalDate.parse("2018-06-01"), stored.getDateOfEmployment());
+        assertEquals(updated.getVersion(), stored.getVersion());
+        assertEquals(updated.getLastModified(), stored.getLastModified());
+        assertEquals("Wanda", this.employeeService.getActiveEmployee(created.getId()).get().getFirstName());
+    }
+
+    @Test
+    public void deactivatedEmployeesAreHiddenBeforeTheyAreFlushed() {
+        Employee created = this.employeeService.save(newEmployee("Walter"));
+        this.writeBehind.flush();
+
+        Employee employee = this.employeeService.getActiveEmployeeForUpdate(created.getId()).get();
+        employee.setStatus(EmployeeStatus.INACTIVE);
+        this.employeeService.save(employee);
+        assertFalse(this.employeeService.getActiveEmployee(created.getId()).isPresent());
+        assertFalse(this.employeeService.getActiveEmployeeForUpdate(created.getId()).isPresent());
+
+        this.writeBehind.flush();
+        assertEquals(EmployeeStatus.INACTIVE, this.employeeRepository.findById(created.getId()).get().getStatus());
+    }
+
+    @Test(expected = ObjectOptimisticLockingFailureException.class)
+    public void staleWritesAreRejected() {
+        Employee created = this.employeeService.save(newEmployee("Wilma"));
+        Employee first = this.employeeService.getActiveEmployeeForUpdate(created.getId()).get();
+        Employee second = this.employeeService.getActiveEmployeeForUpdate(created.getId()).get();
+
+        first.setFirstName("Wilhelmina");
+        this.employeeService.save(first);
+        second.setFirstName("Willa");
+        this.employeeService.save(second);
+    }
+
+    @Test
+    public void writesLoadedBeforeAFlushAreRejectedOnceItsDone() {
+        Employee created = this.employeeService.save(newEmployee("Wade"));
+        this.writeBehind.flush();
+
+        Employee stale = this.employeeService.getActiveEmployeeForUpdate(created.getId()).get();
+        Employee employee = this.employeeService.getActiveEmployeeForUpdate(created.getId()).get();
+        employee.setFirstName("Ward");
+        this.employeeService.save(employee);
+        this.writeBehind.flush();
+
+        // nothing is buffered for the employee any more, so the stale write is checked against the database
+        stale.setFirstName("Wayne");
+        try {
+            this.employeeService.save(stale);
+            fail("Expected the stale write to be rejected");
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // expected
+        }
+        assertEquals(0, this.writeBehind.getPendingCount());
+        assertEquals("Ward", this.employeeRepository.findById(created.getId()).get().getFirstName());
+    }
+
+    @Test
+    public void listSavesDoNotOverwriteBufferedWrites() {
+        Employee created = this.employeeService.save(newEmployee("Wallace"));
+        this.writeBehind.flush();
+
+        Employee employee = this.employeeService.getActiveEmployeeForUpdate(created.getId()).get();
+        employee.setFirstName("Warren");
+        this.employeeService.save(employee);
+
+        // as an import would, from the database
+        Employee imported = this.employeeRepository.findById(created.getId()).get();
+        imported.setDateOfEmployment(LocalDate.parse("2019-01-01"));
+        try {
+            this.employeeService.save(Collections.singletonList(imported));
+            fail("Expected the list save to be refused");
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // expected
+        }
+
+        this.writeBehind.flush();
+        Employee stored = this.employeeRepository.findById(created.getId()).get();
+        assertEquals("Warren", stored.getFirstName());
+        assertEquals(LocalDate.parse("2018-01-01"), stored.getDateOfEmployment());
+
+        // once it's flushed the list save goes through, and writes loaded before it are rejected
+        Employee stale = this.employeeService.getActiveEmployeeForUpdate(created.getId()).get();
+        stored.setDateOfEmployment(LocalDate.parse("2019-01-01"));
+        this.employeeService.save(Collections.singletonList(stored));
+        stale.setFirstName("Wilbur");
+        try {
+            this.employeeService.save(stale);
+            fail("Expected the stale write to be rejected");
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // expected
+        }
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    public void batchOperationsGoStraightToTheDatabase() throws Exception {
+        Employee updated = this.employeeService.save(newEmployee("Wren"));
+        Employee deactivated = this.employeeService.save(newEmployee("Wyatt"));
+        this.writeBehind.flush();
+        Employee stale = this.employeeService.getActiveEmployeeForUpdate(updated.getId()).get();
+
+        Employee update = newEmployee("Wynn");
+        String operations = this.objectMapper.writeValueAsString(Arrays.asList(
+                new EmployeeBatchOperation(EmployeeBatchOperation.Type.UPDATE, updated.getId(), update),
+                new EmployeeBatchOperation(EmployeeBatchOperation.Type.DEACTIVATE, deactivated.getId(), null),
+                new EmployeeBatchOperation(EmployeeBatchOperation.Type.CREATE, null, newEmployee("Wolf"))));
+        MockMvc mockMvc = webAppContextSetup(this.webApplicationContext).apply(springSecurity()).build();
+        mockMvc.perform(post("/employees/batch").contentType(MediaType.APPLICATION_JSON_UTF8).content(operations))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is(200)))
+                .andExpect(jsonPath("$[1].status", is(202)))
+                .andExpect(jsonPath("$[2].status", is(201)))
+                .andExpect(jsonPath("$[2].id", notNullValue()));
+
+        assertEquals(0, this.writeBehind.getPendingCount());
+        assertEquals("Wynn", this.employeeRepository.findById(updated.getId()).get().getFirstName());
+        assertEquals(EmployeeStatus.INACTIVE, this.employeeRepository.findById(deactivated.getId()).get().getStatus());
+        // and writes loaded before the batch are checked against what it saved
+        stale.setFirstName("Wendell");
+        try {
+            this.employeeService.save(stale);
+            fail("Expected the stale write to be rejected");
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void unflushedWritesAreReplayedOnStart() throws Exception {
+        EmployeeWriteBehind crashed = newWriteBehind();
+        Employee created = crashed.write(newEmployee("Winston"));
+        Employee employee = crashed.getPending(created.getId()).get();
+        employee.setMiddleInitial("Q");
+        Employee updated = crashed.write(employee);
+        assertFalse(this.employeeRepository.findById(created.getId()).isPresent());
+
+        // the first instance is never stopped, as if the application had died, and its log is opened by a second
+        EmployeeWriteBehind restarted = newWriteBehind();
+        assertEquals(updated.getVersion(), restarted.getPending(created.getId()).get().getVersion());
+        restarted.flush();
+
+        Employee stored = this.employeeRepository.findById(created.getId()).get();
+        assertEquals("Q", stored.getMiddleInitial());
+        assertEquals(updated.getVersion(), stored.getVersion());
+
+        // flushing the same writes again leaves the row alone
+        crashed.flush();
+        assertEquals(updated.getVersion(), this.employeeRepository.findById(created.getId()).get().getVersion());
+    }
+
+    private EmployeeWriteBehind newWriteBehind() throws Exception {
+        EmployeeWriteBehind writeBehind = new EmployeeWriteBehind(this.employeeRepository, this.eventPublisher,
+                this.transactionManager, this.entityManagerFactory, new SimpleMeterRegistry(), true,
+                this.folder.getRoot().getPath(), 3600000, 1000, 1000, 1000, 1 << 20);
+        writeBehind.start();
+        this.replayed.add(writeBehind);
+        return writeBehind;
+    }
+
+    private static Employee newEmployee(String firstName) {
+        return new Employee(firstName, "W", "Behind", LocalDate.parse("1980-01-01"), LocalDate.parse("2018-01-01"),
+                EmployeeStatus.ACTIVE);
+    }
+}
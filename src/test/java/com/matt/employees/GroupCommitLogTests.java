@@ -0,0 +1,142 @@
+package com.matt.employees;
+
+import com.matt.employees.utilities.GroupCommitLog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class GroupCommitLogTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replaysRecordsInOrder() throws IOException {
+        Path directory = this.folder.getRoot().toPath();
+        try (GroupCommitLog log = GroupCommitLog.open(directory, 1024, (segment, record) -> fail())) {
+            for (int i = 0; i < 100; i++) {
+                log.append(("record " + i).getBytes(StandardCharsets.UTF_8));
+            }
+            // 100 records of around 20 bytes don't fit in one segment
+            assertTrue(log.getCurrentSegment() > 1);
+        }
+
+        List<String> replayed = new ArrayList<>();
+        GroupCommitLog.open(directory, 1024, (segment, record) -> replayed.add(text(record))).close();
+        assertEquals(100, replayed.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("record " + i, replayed.get(i));
+        }
+    }
+
+    /**
+     * A crash part way through an append leaves an incomplete record at the end of the segment, which is skipped.
+     */
+    @Test
+    public void ignoresIncompleteRecords() throws IOException {
+        Path directory = this.folder.getRoot().toPath();
+        try (GroupCommitLog log = GroupCommitLog.open(directory, 1024, (segment, record) -> fail())) {
+            log.append("first".getBytes(StandardCharsets.UTF_8));
+            log.append("second".getBytes(StandardCharsets.UTF_8));
+        }
+        Path segment = segments(directory).get(0);
+        long size = Files.size(segment);
+        Files.write(segment, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        List<String> replayed = new ArrayList<>();
+        GroupCommitLog.open(directory, 1024, (number, record) -> replayed.add(text(record))).close();
+        assertEquals(2, replayed.size());
+
+        // a record whose contents don't match its checksum ends the segment too
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), size - 1);
+        }
+        replayed.clear();
+        GroupCommitLog.open(directory, 1024, (number, record) -> replayed.add(text(record))).close();
+        assertEquals(1, replayed.size());
+        assertEquals("first", replayed.get(0));
+    }
+
+    @Test
+    public void concurrentAppendsShareForces() throws Exception {
+        int threads = 16;
+        int appendsPerThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (GroupCommitLog log = GroupCommitLog.open(this.folder.getRoot().toPath(), 1 << 20,
+                (segment, record) -> fail())) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < appendsPerThread; i++) {
+                        log.append(new byte[100]);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            assertTrue(log.getForceCount() > 0);
+            assertTrue("Expected fewer forces than appends", log.getForceCount() < threads * appendsPerThread);
+        } finally {
+            executor.shutdown();
+        }
+
+        int[] replayed = new int[1];
+        GroupCommitLog.open(this.folder.getRoot().toPath(), 1 << 20, (segment, record) -> replayed[0]++).close();
+        assertEquals(threads * appendsPerThread, replayed[0]);
+    }
+
+    @Test
+    public void deletesSegmentsBefore() throws IOException {
+        Path directory = this.folder.getRoot().toPath();
+        GroupCommitLog log = GroupCommitLog.open(directory, 64, (segment, record) -> fail());
+        long first = log.append(new byte[40]);
+        log.append(new byte[40]);
+        long last = log.append(new byte[40]);
+        assertEquals(first + 2, last);
+
+        log.deleteSegmentsBefore(last);
+        assertEquals(1, segments(directory).size());
+        // the current segment is kept while the log is open
+        log.deleteSegmentsBefore(Long.MAX_VALUE);
+        assertEquals(1, segments(directory).size());
+
+        log.close();
+        log.deleteSegmentsBefore(Long.MAX_VALUE);
+        assertEquals(0, segments(directory).size());
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static String text(ByteBuffer record) {
+        byte[] bytes = new byte[record.remaining()];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,53 @@
+package com.matt.employees;
+
+import com.matt.employees.utilities.LongIntHashMap;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongIntHashMapTests {
+
+    @Test
+    public void putAndGet() {
+        LongIntHashMap map = new LongIntHashMap();
+        assertEquals(LongIntHashMap.NO_VALUE, map.put(1, 10));
+        assertEquals(LongIntHashMap.NO_VALUE, map.put(0, 0));
+        assertEquals(LongIntHashMap.NO_VALUE, map.put(-1, 20));
+        assertEquals(10, map.put(1, 11));
+
+        assertEquals(3, map.size());
+        assertEquals(11, map.get(1));
+        assertEquals(0, map.get(0));
+        assertEquals(20, map.get(-1));
+        assertEquals(LongIntHashMap.NO_VALUE, map.get(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeValues() {
+        new LongIntHashMap().put(1, -1);
+    }
+
+    /**
+     * Puts enough random keys to grow the table several times and checks every key against a {@link HashMap}.
+     */
+    @Test
+    public void matchesHashMap() {
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 100000; i++) {
+            long key = random.nextInt(50000) - 25000L;
+            int value = random.nextInt(Integer.MAX_VALUE);
+            Integer previous = expected.put(key, value);
+            assertEquals(previous == null ? LongIntHashMap.NO_VALUE : previous, map.put(key, value));
+        }
+        assertEquals(expected.size(), map.size());
+        for (long key = -25000; key < 25000; key++) {
+            assertEquals(expected.getOrDefault(key, LongIntHashMap.NO_VALUE).intValue(), map.get(key));
+        }
+    }
+}
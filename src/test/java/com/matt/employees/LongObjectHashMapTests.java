@@ -0,0 +1,57 @@
+package com.matt.employees;
+
+import com.matt.employees.utilities.LongObjectHashMap;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongObjectHashMapTests {
+
+    @Test
+    public void putGetRemove() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        assertNull(map.put(1, "one"));
+        assertNull(map.put(0, "zero"));
+        assertNull(map.put(-1, "minus one"));
+        assertEquals("one", map.put(1, "uno"));
+
+        assertEquals(3, map.size());
+        assertEquals("uno", map.get(1));
+        assertEquals("zero", map.get(0));
+        assertEquals("minus one", map.get(-1));
+        assertNull(map.get(2));
+
+        assertEquals("zero", map.remove(0));
+        assertNull(map.remove(0));
+        assertNull(map.get(0));
+        assertEquals(2, map.size());
+    }
+
+    /**
+     * Runs a long random mix of operations over a small key range, so that probe runs collide, wrap around the end of
+     * the table and are shifted back by removals, and checks every result against a {@link HashMap}.
+     */
+    @Test
+    public void matchesHashMap() {
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(2_000) * 1024L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (long key = 0; key < 2_000 * 1024L; key += 1024) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.matt.employees;
+
+import com.matt.employees.config.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+/**
+ * Tests to ensure that {@link RateLimitFilter} limits each client to its own rate on each group of endpoints, and
+ * sheds requests over a group's concurrency limit, counting asynchronous requests until they complete.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = EmployeesApplication.class, properties = {
+        "employees.rate-limit.rules=GET /employees/updates=0:0:1,GET /employees/**=0.01:2:0",
+        "employees.rate-limit.min-concurrency=1"
+})
+public class RateLimitFilterTests {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private MockMvc mockMvc;
+
+    @Before
+    public void setup() {
+        this.mockMvc = webAppContextSetup(this.webApplicationContext).addFilters(this.rateLimitFilter).build();
+    }
+
+    @Test
+    public void limitsEachClientToItsOwnRate() throws Exception {
+        double rejected = rejected("rate");
+        this.mockMvc.perform(get("/employees").with(address("10.0.0.1"))).andExpect(status().isOk());
+        this.mockMvc.perform(get("/employees/search").param("lastName", "a").with(address("10.0.0.1")))
+                .andExpect(status().isOk());
+        // a token is added every 100 seconds, so however slowly the test runs the bucket is still empty
+        String retryAfter = this.mockMvc.perform(get("/employees").with(address("10.0.0.1")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.response", is("Too many requests, please slow down")))
+                .andReturn().getResponse().getHeader("Retry-After");
+        assertTrue(Long.parseLong(retryAfter) > 0 && Long.parseLong(retryAfter) <= 100);
+        assertEquals(rejected + 1, rejected("rate"), 0);
+
+        // another address, or a user calling from the same one, has a bucket of its own
+        this.mockMvc.perform(get("/employees").with(address("10.0.0.2"))).andExpect(status().isOk());
+        this.mockMvc.perform(get("/employees").with(address("10.0.0.1")).principal(() -> "user"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void shedsRequestsOverTheConcurrencyLimit() throws Exception {
+        // an open event stream holds the only place until it completes
+        this.mockMvc.perform(get("/employees/updates")).andExpect(request().asyncStarted());
+        this.mockMvc.perform(get("/employees/updates"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+        assertEquals(1, rejected("concurrency"), 0);
+    }
+
+    private double rejected(String reason) {
+        return this.meterRegistry.get("employees.rate-limit.rejected").tag("reason", reason).counters().stream()
+                .mapToDouble(counter -> counter.count()).sum();
+    }
+
+    private static RequestPostProcessor address(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+}
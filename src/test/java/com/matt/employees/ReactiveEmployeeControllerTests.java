@@ -0,0 +1,215 @@
+package com.matt.employees;
+
+import com.matt.employees.models.Employee;
+import com.matt.employees.models.EmployeeStatus;
+import com.matt.employees.repositories.EmployeeRepository;
+import com.matt.employees.services.EmployeeService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunctions;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * Runs the reactive flavour of the employee API, selected with the {@code reactive} profile, on a real Netty server.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = EmployeesApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+public class ReactiveEmployeeControllerTests {
+
+    private static final String endpoint = "/employees/";
+
+    private Employee employeeOne;
+    private Employee employeeTwo;
+
+    @Autowired
+    private WebTestClient webTestClient;
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Before
+    public void setup() {
+        this.employeeRepository.deleteAll();
+
+        this.employeeOne = this.employeeService.save(new Employee("First", "O", "User",
+                LocalDate.parse("1985-01-02"), LocalDate.parse("2018-06-03"), EmployeeStatus.ACTIVE));
+        this.employeeTwo = this.employeeService.save(new Employee("Second", "O", "User",
+                LocalDate.parse("1985-01-02"), LocalDate.parse("2018-06-03"), EmployeeStatus.ACTIVE));
+        this.employeeService.save(new Employee("Inactive", "O", "User",
+                LocalDate.parse("1985-01-02"), LocalDate.parse("2018-06-03"), EmployeeStatus.INACTIVE));
+    }
+
+    /**
+     * Confirm that only active employees are listed, in ID order.
+     */
+    @Test
+    public void getEmployees() {
+        this.webTestClient.get().uri(endpoint)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].firstName").isEqualTo("First")
+                .jsonPath("$[1].firstName").isEqualTo("Second");
+    }
+
+    /**
+     * Confirm that a list spanning several database pages is streamed in full, one employee at a time, when the
+     * client asks for a stream.
+     */
+    @Test
+    public void streamEmployees() {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            employees.add(new Employee("Streamed" + i, "O", "User",
+                    LocalDate.parse("1985-01-02"), LocalDate.parse("2018-06-03"), EmployeeStatus.ACTIVE));
+        }
+        this.employeeService.save(employees);
+
+        Flux<Employee> stream = this.webTestClient.get().uri(endpoint)
+                .accept(MediaType.APPLICATION_STREAM_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Employee.class)
+                .getResponseBody();
+
+        StepVerifier.create(stream, 10)
+                .expectNextMatches(employee -> employee.getFirstName().equals("First"))
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextCount(1201)
+                .verifyComplete();
+    }
+
+    /**
+     * Confirm that a single employee can be retrieved, and that inactive employees are not found.
+     */
+    @Test
+    public void getEmployee() {
+        this.webTestClient.get().uri(endpoint + this.employeeOne.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("First");
+
+        this.webTestClient.get().uri(endpoint + (this.employeeTwo.getId() + 1000))
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.response").isEqualTo("Resource not found");
+    }
+
+    /**
+     * Confirm that employees can be created and updated.
+     */
+    @Test
+    public void addAndUpdateEmployee() {
+        String employeeJson = "{\"firstName\":\"New\",\"middleInitial\":\"N\",\"lastName\":\"User\","
+                + "\"dateOfBirth\":\"1985-01-02\",\"dateOfEmployment\":\"2018-06-03\"}";
+        Map<?, ?> created = this.webTestClient.post().uri(endpoint)
+                .contentType(MediaType.APPLICATION_JSON)
+                .syncBody(employeeJson)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Map.class)
+                .returnResult().getResponseBody();
+        assertEquals("ACTIVE", created.get("status"));
+        Long createdId = ((Number) created.get("id")).longValue();
+
+        this.webTestClient.put().uri(endpoint + createdId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .syncBody(employeeJson.replace("\"New\"", "\"Renamed\""))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("Renamed");
+
+        assertThat(this.employeeRepository.findById(createdId).get().getFirstName(), is("Renamed"));
+    }
+
+    /**
+     * Confirm that single employees carry ETags, and that updates and deletes are only applied when If-Match matches
+     * the employee's current ETag, as in the servlet flavour of the API.
+     */
+    @Test
+    public void updateAndDeleteHonourIfMatch() {
+        String etag = this.webTestClient.get().uri(endpoint + this.employeeOne.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"" + this.employeeOne.getVersion() + "\"")
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        String employeeJson = "{\"firstName\":\"Renamed\",\"middleInitial\":\"O\",\"lastName\":\"User\","
+                + "\"dateOfBirth\":\"1985-01-02\",\"dateOfEmployment\":\"2018-06-03\"}";
+        String updatedEtag = this.webTestClient.put().uri(endpoint + this.employeeOne.getId())
+                .header("If-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .syncBody(employeeJson)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+        assertNotEquals(etag, updatedEtag);
+
+        // the ETag the client started from is now stale
+        this.webTestClient.put().uri(endpoint + this.employeeOne.getId())
+                .header("If-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .syncBody(employeeJson.replace("\"Renamed\"", "\"Stale\""))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        WebTestClient authorized = this.webTestClient.mutate()
+                .filter(ExchangeFilterFunctions.basicAuthentication("user", "password"))
+                .build();
+        authorized.delete().uri(endpoint + this.employeeOne.getId())
+                .header("If-Match", etag)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(this.employeeRepository.findById(this.employeeOne.getId()).get().getFirstName(), is("Renamed"));
+
+        authorized.delete().uri(endpoint + this.employeeOne.getId())
+                .header("If-Match", updatedEtag)
+                .exchange()
+                .expectStatus().isAccepted();
+        assertEquals(EmployeeStatus.INACTIVE,
+                this.employeeRepository.findById(this.employeeOne.getId()).get().getStatus());
+    }
+
+    /**
+     * Confirm that deleting requires authorization and only marks the employee as inactive.
+     */
+    @Test
+    public void deleteEmployee() {
+        this.webTestClient.delete().uri(endpoint + this.employeeOne.getId())
+                .exchange()
+                .expectStatus().isUnauthorized();
+
+        this.webTestClient.mutate()
+                .filter(ExchangeFilterFunctions.basicAuthentication("user", "password"))
+                .build()
+                .delete().uri(endpoint + this.employeeOne.getId())
+                .exchange()
+                .expectStatus().isAccepted();
+
+        assertEquals(EmployeeStatus.INACTIVE,
+                this.employeeRepository.findById(this.employeeOne.getId()).get().getStatus());
+    }
+}
@@ -0,0 +1,163 @@
+package com.matt.employees;
+
+import com.matt.employees.config.ResponseCompressionFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests to ensure that {@link ResponseCompressionFilter} only holds back responses it might compress, passes
+ * non-blocking writes on to responses it sends as they are, and weakens the ETags of responses it compresses.
+ */
+public class ResponseCompressionFilterTests {
+
+    private final ResponseCompressionFilter filter = new ResponseCompressionFilter(true, 2048, 6, 4,
+            new String[] {"application/json"}, new SimpleMeterRegistry());
+
+    @Test
+    public void onlyHoldsBackResponsesItMightCompress() throws Exception {
+        MockHttpServletResponse events = new MockHttpServletResponse();
+        this.filter.doFilter(gzipRequest(), events, (request, response) -> {
+            response.setContentType("text/event-stream");
+            response.getOutputStream().write(bytes("data:1\n\n"));
+            response.getOutputStream().flush();
+            // an event stream isn't compressed, so each event goes out as soon as it's written
+            assertEquals("data:1\n\n", events.getContentAsString());
+        });
+        assertNull(events.getHeader("Content-Encoding"));
+
+        MockHttpServletResponse json = new MockHttpServletResponse();
+        this.filter.doFilter(gzipRequest(), json, (request, response) -> {
+            response.setContentType("application/json");
+            response.getOutputStream().write(bytes("{}"));
+            response.getOutputStream().flush();
+            assertEquals(0, json.getContentAsByteArray().length);
+        });
+        assertEquals("{}", json.getContentAsString());
+    }
+
+    @Test
+    public void passesWriteListenersOnToResponsesSentAsTheyAre() throws Exception {
+        RecordingResponse recording = new RecordingResponse(new MockHttpServletResponse());
+        WriteListener listener = new NoOpWriteListener();
+        this.filter.doFilter(gzipRequest(), recording, (request, response) -> {
+            response.setContentType("application/json");
+            response.getOutputStream().write(bytes("{\"held\":"));
+            response.getOutputStream().setWriteListener(listener);
+            assertTrue(response.getOutputStream().isReady());
+            response.getOutputStream().write(bytes("true}"));
+        });
+        assertSame(listener, recording.stream.listener);
+        assertEquals("{\"held\":true}", new String(recording.stream.content.toByteArray(), StandardCharsets.UTF_8));
+        assertNull(recording.getHeader("Content-Encoding"));
+    }
+
+    @Test
+    public void refusesWriteListenersOnceCompressing() throws Exception {
+        MockHttpServletResponse compressed = new MockHttpServletResponse();
+        this.filter.doFilter(gzipRequest(), compressed, (request, response) -> {
+            response.setContentType("application/json");
+            byte[] body = new byte[4096];
+            Arrays.fill(body, (byte) ' ');
+            response.getOutputStream().write(body);
+            try {
+                response.getOutputStream().setWriteListener(new NoOpWriteListener());
+                fail("Expected the write listener to be refused");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+        });
+        assertEquals("gzip", compressed.getHeader("Content-Encoding"));
+    }
+
+    @Test
+    public void weakensStrongETagsOfCompressedResponses() throws Exception {
+        MockHttpServletResponse compressed = new MockHttpServletResponse();
+        this.filter.doFilter(gzipRequest(), compressed, (request, response) -> {
+            response.setContentType("application/json");
+            ((HttpServletResponse) response).setHeader("ETag", "\"abc\"");
+            response.getOutputStream().write(new byte[4096]);
+        });
+        assertEquals("gzip", compressed.getHeader("Content-Encoding"));
+        assertEquals("W/\"abc\"", compressed.getHeader("ETag"));
+
+        MockHttpServletResponse small = new MockHttpServletResponse();
+        this.filter.doFilter(gzipRequest(), small, (request, response) -> {
+            response.setContentType("application/json");
+            ((HttpServletResponse) response).setHeader("ETag", "\"abc\"");
+            response.getOutputStream().write(bytes("{}"));
+        });
+        assertNull(small.getHeader("Content-Encoding"));
+        assertEquals("\"abc\"", small.getHeader("ETag"));
+    }
+
+    private static MockHttpServletRequest gzipRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/employees");
+        request.addHeader("Accept-Encoding", "gzip");
+        return request;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class NoOpWriteListener implements WriteListener {
+
+        @Override
+        public void onWritePossible() {
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+    }
+
+    /**
+     * A response whose output stream supports non-blocking writes, unlike {@link MockHttpServletResponse}'s.
+     */
+    private static final class RecordingResponse extends HttpServletResponseWrapper {
+
+        private final RecordingStream stream = new RecordingStream();
+
+        RecordingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return this.stream;
+        }
+    }
+
+    private static final class RecordingStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        private WriteListener listener;
+
+        @Override
+        public void write(int b) {
+            this.content.write(b);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            this.listener = listener;
+        }
+    }
+}